@@ -0,0 +1,219 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import benchmarks.Workload;
+import benchmarks.Workloads;
+
+/**
+ * Operaciones de {@code DetectionLogBenchmarks} sobre {@link DetectionLog}:
+ * escribir detecciones sintéticas repartidas en 90 días de 16 cámaras,
+ * appends con cada política, abrir el registro y consultarlo.
+ */
+public class DetectionLogWorkloads implements Workloads.Factory {
+    private static final String[] CLASSES = {"persona", "coche", "bicicleta", "perro", "moto", "camion", "bus", "gato"};
+    private static final int CAMERAS = 16;
+    private static final long DAYS = 90;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final long START = 1_767_225_600_000L; // 2026-01-01 UTC
+    private static final long QUERY_DAY = START + 45 * DAY_MILLIS;
+
+    /** Registros ya generados en esta JVM, por número de detecciones y directorio. */
+    private final Map<String, Path> datasets = new HashMap<>();
+
+    /**
+     * Parámetros de {@code "append"}: política. Del resto: detecciones y
+     * directorio del registro (vacío para uno temporal que se borra al salir;
+     * si no, se genera sólo si no existe).
+     */
+    @Override
+    public synchronized Workload create(String name, String... params) throws IOException {
+        switch (name) {
+            case "append":
+                return append(DetectionLog.SyncPolicy.valueOf(params[0]));
+            case "write":
+                return write(Long.parseLong(params[0]));
+            case "open":
+                return open(dataset(Long.parseLong(params[0]), params[1]));
+            case "personsHour":
+                return query(dataset(Long.parseLong(params[0]), params[1]),
+                        QUERY_DAY + 2 * HOUR_MILLIS, QUERY_DAY + 3 * HOUR_MILLIS, "Cámara 3", "persona");
+            case "cameraDay":
+                return query(dataset(Long.parseLong(params[0]), params[1]),
+                        QUERY_DAY, QUERY_DAY + DAY_MILLIS, "Cámara 3", null);
+            case "dogsWeek":
+                return query(dataset(Long.parseLong(params[0]), params[1]),
+                        QUERY_DAY, QUERY_DAY + 7 * DAY_MILLIS, null, "perro");
+            case "personsScan":
+                return query(dataset(Long.parseLong(params[0]), params[1]),
+                        Long.MIN_VALUE, Long.MAX_VALUE, "Cámara 3", "persona");
+            default:
+                throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+    }
+
+    /** Un frame con dos detecciones por llamada; cada hilo escribe como una cámara distinta. */
+    private static Workload append(DetectionLog.SyncPolicy policy) throws IOException {
+        Path dir = Files.createTempDirectory("registro");
+        DetectionLog log = new DetectionLog(dir, policy, 50);
+        List<Detection> frame = List.of(new Detection("persona", 0.9f, 10, 10, 50, 100),
+                new Detection("coche", 0.8f, 300, 200, 200, 120));
+        AtomicInteger cameras = new AtomicInteger();
+        ThreadLocal<String> camera = ThreadLocal.withInitial(() -> "Cámara " + cameras.incrementAndGet());
+        ThreadLocal<long[]> frameIndex = ThreadLocal.withInitial(() -> new long[1]);
+        return new Workload() {
+            @Override
+            public Object run() throws IOException {
+                long[] index = frameIndex.get();
+                log.append(System.currentTimeMillis(), camera.get(), index[0]++, frame);
+                return index;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    log.close();
+                } finally {
+                    delete(dir);
+                }
+            }
+        };
+    }
+
+    /** Escribe el registro completo en un directorio nuevo y devuelve su tamaño en bytes. */
+    private static Workload write(long records) {
+        List<Path> written = new ArrayList<>();
+        return new Workload() {
+            @Override
+            public Object run() throws IOException {
+                Path dir = Files.createTempDirectory("registro");
+                written.add(dir);
+                generate(dir, records);
+                return size(dir);
+            }
+
+            @Override
+            public void reset() {
+                try {
+                    close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                for (Path dir : written) {
+                    delete(dir);
+                }
+                written.clear();
+            }
+        };
+    }
+
+    private static Workload open(Path dir) {
+        return () -> {
+            try (DetectionLog log = DetectionLog.openReadOnly(dir)) {
+                return log.size();
+            }
+        };
+    }
+
+    /** Devuelve resultados, bloques leídos y bloques totales. */
+    private static Workload query(Path dir, long from, long to, String source, String label) throws IOException {
+        DetectionLog log = DetectionLog.openReadOnly(dir);
+        long[] sum = new long[1];
+        return new Workload() {
+            @Override
+            public Object run() throws IOException {
+                DetectionLog.QueryStats stats = log.query(from, to, source, label, e -> sum[0] += e.getFrameIndex());
+                return new long[] {stats.getMatches(), stats.getBlocksRead(), stats.getBlocksTotal()};
+            }
+
+            @Override
+            public void close() throws IOException {
+                log.close();
+            }
+        };
+    }
+
+    private Path dataset(long records, String directory) throws IOException {
+        String key = records + "@" + directory;
+        Path dir = datasets.get(key);
+        if (dir != null) {
+            return dir;
+        }
+        if (directory.isEmpty()) {
+            Path temporary = Files.createTempDirectory("registro");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    delete(temporary);
+                } catch (IOException e) {
+                    // Es un temporal
+                }
+            }));
+            dir = temporary;
+            generate(dir, records);
+        } else {
+            dir = Paths.get(directory);
+            if (!Files.isDirectory(dir) || isEmpty(dir)) {
+                generate(dir, records);
+            }
+        }
+        datasets.put(key, dir);
+        return dir;
+    }
+
+    private static void generate(Path dir, long records) throws IOException {
+        Random random = new Random(1);
+        long step = DAYS * DAY_MILLIS / records;
+        List<Detection> frame = new ArrayList<>();
+        long written = 0;
+        try (DetectionLog log = new DetectionLog(dir, DetectionLog.SyncPolicy.GROUP_COMMIT, 200)) {
+            long time = START;
+            long frameIndex = 0;
+            while (written < records) {
+                frame.clear();
+                int n = 1 + random.nextInt(3);
+                for (int i = 0; i < n; i++) {
+                    frame.add(new Detection(CLASSES[random.nextInt(CLASSES.length)], 0.5f + random.nextFloat() / 2,
+                            random.nextInt(1200), random.nextInt(700), 20 + random.nextInt(200), 20 + random.nextInt(300)));
+                }
+                log.append(time, "Cámara " + (1 + random.nextInt(CAMERAS)), frameIndex++, frame);
+                written += n;
+                time += step * n;
+            }
+        }
+    }
+
+    private static boolean isEmpty(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.findAny().isEmpty();
+        }
+    }
+
+    private static long size(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import benchmarks.Workload;
+import benchmarks.Workloads;
+
+/**
+ * Operaciones de {@code ExportBenchmarks}: exportar en streaming con
+ * {@link DetectionExporter} frente a guardar todas las filas en un
+ * {@link FrameResultStore}, y contar detecciones por clase leyendo la columna
+ * de clases del {@code .dcol.gz} o parseando el {@code .csv.gz}.
+ *
+ * <p>Las detecciones son sintéticas (1 a 3 por frame, 8 clases, 4 cámaras)
+ * para medir sólo la exportación.</p>
+ */
+public class ExportWorkloads implements Workloads.Factory {
+    private static final String[] CLASSES = {"persona", "coche", "bicicleta", "perro", "moto", "camion", "bus", "gato"};
+    /** Formato que no escribe archivo: todas las filas en memoria, como la vista antes. */
+    private static final String IN_MEMORY = "memoria";
+
+    /** Exportaciones para contar por clase ya escritas en esta JVM, por frames. */
+    private final Map<Long, Path> exports = new HashMap<>();
+
+    /**
+     * Parámetros de {@code "export"}: extensión ({@code "csv.gz"}...) o
+     * {@code "memoria"}, y frames. De {@code "countColumnar"} y
+     * {@code "countCsv"}: frames.
+     */
+    @Override
+    public synchronized Workload create(String name, String... params) throws IOException {
+        switch (name) {
+            case "export":
+                return export(params[0], Long.parseLong(params[1]));
+            case "countColumnar": {
+                Path file = exports(Long.parseLong(params[0])).resolve("d.dcol.gz");
+                return () -> countColumnar(file);
+            }
+            case "countCsv": {
+                Path file = exports(Long.parseLong(params[0])).resolve("d.csv.gz");
+                return () -> countCsv(file);
+            }
+            default:
+                throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+    }
+
+    /**
+     * Devuelve el tamaño del archivo (-1 en memoria) y la memoria retenida al
+     * 25, 50 y 100 % de la exportación. Medir la memoria fuerza GCs que no se
+     * descuentan del tiempo.
+     */
+    private static Workload export(String format, long frames) throws IOException {
+        Path dir = Files.createTempDirectory("exportar");
+        Path path = dir.resolve("d." + format);
+        return new Workload() {
+            @Override
+            public Object run() throws IOException {
+                long[] result = new long[4];
+                if (format.equals(IN_MEMORY)) {
+                    inMemory(frames, result);
+                } else {
+                    exportTo(path, frames, result);
+                }
+                return result;
+            }
+
+            @Override
+            public void close() throws IOException {
+                Files.deleteIfExists(path);
+                Files.deleteIfExists(dir);
+            }
+        };
+    }
+
+    /** Escribe {@code d.dcol.gz} y {@code d.csv.gz} una vez y comprueba que cuentan lo mismo. */
+    private Path exports(long frames) throws IOException {
+        Path dir = exports.get(frames);
+        if (dir != null) {
+            return dir;
+        }
+        Path temporary = Files.createTempDirectory("exportar");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                Files.deleteIfExists(temporary.resolve("d.dcol.gz"));
+                Files.deleteIfExists(temporary.resolve("d.csv.gz"));
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                // Es un temporal
+            }
+        }));
+        exportTo(temporary.resolve("d.dcol.gz"), frames, new long[4]);
+        exportTo(temporary.resolve("d.csv.gz"), frames, new long[4]);
+        Map<String, Long> columnar = countColumnar(temporary.resolve("d.dcol.gz"));
+        Map<String, Long> csv = countCsv(temporary.resolve("d.csv.gz"));
+        if (!csv.equals(columnar)) {
+            throw new IllegalStateException("Los recuentos no coinciden: " + columnar + " / " + csv);
+        }
+        exports.put(frames, temporary);
+        return temporary;
+    }
+
+    /** Lo que hacía la vista antes de escribir: todas las filas en memoria. */
+    private static void inMemory(long frames, long[] result) {
+        long base = usedMemory();
+        Random random = new Random(1);
+        List<Detection> detections = new ArrayList<>();
+        FrameResultStore store = new FrameResultStore();
+        for (long f = 0; f < frames; f++) {
+            next(random, detections);
+            store.addAll(f, detections);
+            sample(f, frames, base, result);
+        }
+        result[0] = -1;
+    }
+
+    private static void exportTo(Path path, long frames, long[] result) throws IOException {
+        long base = usedMemory();
+        Random random = new Random(1);
+        List<Detection> detections = new ArrayList<>();
+        try (DetectionExporter exporter = DetectionExporter.open(path)) {
+            for (long f = 0; f < frames; f++) {
+                next(random, detections);
+                exporter.write("Cámara " + (f & 3), f, f * 1000 / 30, detections);
+                sample(f, frames, base, result);
+            }
+        }
+        result[0] = Files.size(path);
+    }
+
+    private static Map<String, Long> countColumnar(Path file) throws IOException {
+        try (ColumnarDetectionReader reader = new ColumnarDetectionReader(file)) {
+            return reader.countByClass();
+        }
+    }
+
+    private static Map<String, Long> countCsv(Path file) throws IOException {
+        Map<String, Long> counts = new HashMap<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file), 64 * 1024), StandardCharsets.UTF_8))) {
+            in.readLine();
+            String line;
+            while ((line = in.readLine()) != null) {
+                counts.merge(line.split(",", 5)[3], 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static void next(Random random, List<Detection> detections) {
+        detections.clear();
+        int n = 1 + random.nextInt(3);
+        for (int i = 0; i < n; i++) {
+            detections.add(new Detection(CLASSES[random.nextInt(CLASSES.length)], 0.5f + random.nextFloat() / 2,
+                    random.nextInt(1200), random.nextInt(700), 20 + random.nextInt(200), 20 + random.nextInt(300)));
+        }
+    }
+
+    /** Memoria retenida al pasar por el 25, 50 y 100 %, en {@code result[1..3]}. */
+    private static void sample(long f, long frames, long base, long[] result) {
+        if (f == frames / 4 - 1) {
+            result[1] = usedMemory() - base;
+        } else if (f == frames / 2 - 1) {
+            result[2] = usedMemory() - base;
+        } else if (f == frames - 1) {
+            result[3] = usedMemory() - base;
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,94 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import benchmarks.Workload;
+import benchmarks.Workloads;
+
+/**
+ * Operaciones de {@code FrameSeekBenchmarks}: tener listo el frame de una fila
+ * seleccionada decodificando desde el principio del video o con
+ * {@link FrameSeeker}, con clics al azar o recorriendo la tabla.
+ */
+public class FrameSeekWorkloads implements Workloads.Factory {
+
+    /**
+     * Parámetros: video ({@code "sintetico"} para uno de 1280x720 con un
+     * keyframe cada 30 frames, o la ruta de un .mjpeg/.raw) y frames del
+     * video sintético.
+     */
+    @Override
+    public Workload create(String name, String... params) throws IOException {
+        VideoFile video = params[0].equals("sintetico")
+                ? new SyntheticVideo(1280, 720, 30, Long.parseLong(params[1]), 30)
+                : VideoFiles.open(Paths.get(params[0]));
+        long count = video.getFrameCount();
+        switch (name) {
+            case "fromStart":
+                return fromStart(video, count);
+            case "randomClicks":
+                return seeker(video, new Random(42)::nextDouble, count);
+            case "scrollDown":
+                return seeker(video, scroll(count / 3, 1, count), count);
+            case "scrollUp":
+                return seeker(video, scroll(2 * count / 3, -1, count), count);
+            default:
+                video.close();
+                throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+    }
+
+    private static Workload fromStart(VideoFile video, long count) {
+        Random random = new Random(42);
+        return new Workload() {
+            @Override
+            public Object run() throws IOException {
+                long n = (long) (random.nextDouble() * count);
+                Frame frame = null;
+                try (FrameSource source = video.openAt(0, null)) {
+                    for (long f = 0; f <= n; f++) {
+                        frame = source.next();
+                    }
+                }
+                return frame;
+            }
+
+            @Override
+            public void close() throws IOException {
+                video.close();
+            }
+        };
+    }
+
+    private interface Position {
+        /** Posición de la siguiente fila en [0, 1). */
+        double next();
+    }
+
+    /** Una fila cada vez desde {@code start}, volviendo al otro extremo al llegar al final. */
+    private static Position scroll(long start, int step, long count) {
+        long[] row = {start - step};
+        return () -> {
+            row[0] = Math.floorMod(row[0] + step, count);
+            return row[0] / (double) count;
+        };
+    }
+
+    /** Devuelve aciertos de caché, esperas y frames decodificados acumulados. */
+    private static Workload seeker(VideoFile video, Position position, long count) {
+        FrameSeeker seeker = new FrameSeeker(video, 32, 8);
+        return new Workload() {
+            @Override
+            public Object run() throws IOException, InterruptedException {
+                seeker.get((long) (position.next() * count));
+                return new long[] {seeker.getHits(), seeker.getMisses(), seeker.getDecodedFrames()};
+            }
+
+            @Override
+            public void close() throws IOException {
+                seeker.close();
+                video.close();
+            }
+        };
+    }
+}
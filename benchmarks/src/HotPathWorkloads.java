@@ -0,0 +1,259 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import benchmarks.PipelineBenchmarks;
+import benchmarks.Workload;
+import benchmarks.Workloads;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.ImageView;
+
+/**
+ * Operaciones medidas por los benchmarks JMH. Está en el paquete por defecto
+ * para poder usar las clases de la aplicación y sus métodos de paquete.
+ */
+public class HotPathWorkloads implements Workloads.Factory {
+    private static final int RESULTS = 4;
+    private static final int DETECTIONS_PER_RESULT = 10;
+    private static final int OVERLAY_BOXES = 100;
+
+    @Override
+    public Workload create(String name, String... params) throws Exception {
+        int[] size = Workloads.resolution(params[0]);
+        int width = size[0];
+        int height = size[1];
+        switch (name) {
+            case "writableImage":
+                return writableImage(width, height);
+            case "downscale":
+                return downscale(width, height);
+            case "jpegInput":
+                return jpegInput(width, height);
+            case "jpegFull":
+                return jpegFull(width, height);
+            case "lumaDiff":
+                return lumaDiff(width, height);
+            case "contentHash":
+                return contentHash(width, height);
+            case "motion":
+                return motion(width, height);
+            case "resultsBinary":
+                return resultsBinary();
+            case "resultsJson":
+                return resultsJson();
+            case "offlineVideo":
+                return offlineVideo(width, height);
+            case "overlayBuffer":
+                return overlayBuffer(width, height);
+            case "overlayCanvas":
+                return overlayCanvas(width, height, 10);
+            case "overlayCanvasAll":
+                return overlayCanvas(width, height, OVERLAY_BOXES);
+            default:
+                throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+    }
+
+    /** Dos frames distintos, para que las comparaciones no sean triviales. */
+    private static Frame[] frames(int width, int height) throws IOException {
+        SyntheticFrameSource source = new SyntheticFrameSource(width, height, 0, 10);
+        Frame first = source.next();
+        for (int i = 0; i < 4; i++) {
+            source.next();
+        }
+        return new Frame[] {first, source.next()};
+    }
+
+    private static Workload writableImage(int width, int height) throws Exception {
+        startFx();
+        Frame frame = frames(width, height)[0];
+        FxFrameDisplay display = new FxFrameDisplay(new ImageView());
+        return new Workload() {
+            @Override
+            public Object run() {
+                // Frame sin pool: se copia en el WritableImage reutilizable del display
+                display.show(frame);
+                return display;
+            }
+
+            @Override
+            public void close() {
+                display.clear();
+            }
+        };
+    }
+
+    private static Workload downscale(int width, int height) throws IOException {
+        Frame frame = frames(width, height)[0];
+        int size = FramePreprocessor.SSD_INPUT_SIZE;
+        int[] dst = new int[size * size];
+        int[] sums = new int[size * 3];
+        return () -> {
+            FramePreprocessor.downscale(frame, dst, size, size, sums);
+            return dst;
+        };
+    }
+
+    private static Workload jpegInput(int width, int height) throws IOException {
+        Frame frame = frames(width, height)[0];
+        FramePreprocessor preprocessor = FramePreprocessor.forSsdMobileNet(0.85f);
+        return () -> preprocessor.prepare(frame);
+    }
+
+    private static Workload jpegFull(int width, int height) throws IOException {
+        Frame frame = frames(width, height)[0];
+        return () -> FrameConverter.encodeJpeg(frame, 0.85f);
+    }
+
+    private static Workload lumaDiff(int width, int height) throws IOException {
+        Frame[] frames = frames(width, height);
+        byte[] previous = new byte[FrameSampler.THUMB_W * FrameSampler.THUMB_H];
+        byte[] current = new byte[previous.length];
+        FrameSampler.lumaThumbnail(frames[0], previous);
+        return () -> {
+            FrameSampler.lumaThumbnail(frames[1], current);
+            return FrameSampler.meanAbsDiff(current, previous);
+        };
+    }
+
+    private static Workload contentHash(int width, int height) throws IOException {
+        Frame frame = frames(width, height)[0];
+        CachingDetector cache = new CachingDetector(Detectors.none(), 16, 1, TimeUnit.MINUTES);
+        return () -> cache.keyOf(frame);
+    }
+
+    private static Workload motion(int width, int height) throws IOException {
+        Frame[] frames = frames(width, height);
+        MotionDetector detector = new MotionDetector();
+        long[] index = {0};
+        return () -> {
+            // Alterna dos frames con índices consecutivos para que el fondo nunca se reinicie
+            Frame frame = frames[(int) (index[0] & 1)];
+            frame.reset(++index[0], frame.getTimestampNanos());
+            return detector.detect(frame);
+        };
+    }
+
+    private static List<List<Detection>> sampleResults() {
+        List<List<Detection>> results = new ArrayList<>(RESULTS);
+        for (int i = 0; i < RESULTS; i++) {
+            List<Detection> detections = new ArrayList<>(DETECTIONS_PER_RESULT);
+            for (int j = 0; j < DETECTIONS_PER_RESULT; j++) {
+                detections.add(new Detection(j % 2 == 0 ? "persona" : "coche", 0.5f + j / 100f,
+                        j * 10, j * 5, 80, 160));
+            }
+            results.add(detections);
+        }
+        return results;
+    }
+
+    private static Workload resultsBinary() {
+        List<List<Detection>> results = sampleResults();
+        return () -> BinaryDetectionProtocol.decodeResults(
+                ByteBuffer.wrap(BinaryDetectionProtocol.encodeResults(results)));
+    }
+
+    private static Workload resultsJson() {
+        List<List<Detection>> results = sampleResults();
+        return () -> {
+            String json = DetectorStubServer.batchJson(results);
+            Map<String, Object> response = MiniJson.parseObject(json);
+            List<List<Detection>> decoded = new ArrayList<>(RESULTS);
+            for (Object r : (List<?>) response.get("resultados")) {
+                decoded.add(DetectorPersonasClient.parseDetections(((Map<?, ?>) r).get("detecciones")));
+            }
+            return decoded;
+        };
+    }
+
+    private static Workload offlineVideo(int width, int height) {
+        VideoProcessingEngine engine = new VideoProcessingEngine(new MotionDetector(), 0, 100);
+        return () -> {
+            try (VideoFile video = new SyntheticVideo(width, height, 30, PipelineBenchmarks.FRAMES, 30)) {
+                return engine.process(video, null);
+            }
+        };
+    }
+
+    /**
+     * Dos frames de {@link #OVERLAY_BOXES} cajas repartidas por la imagen en
+     * los que {@code moved} cajas se desplazan unos píxeles de uno a otro.
+     */
+    private static List<List<Detection>> overlayFrames(int width, int height, int moved) {
+        String[] classes = {"persona", "coche", "bicicleta", "perro"};
+        List<List<Detection>> frames = new ArrayList<>(2);
+        for (int f = 0; f < 2; f++) {
+            List<Detection> detections = new ArrayList<>(OVERLAY_BOXES);
+            for (int i = 0; i < OVERLAY_BOXES; i++) {
+                int shift = f == 1 && i < moved ? 6 : 0;
+                detections.add(new Detection(classes[i % classes.length], 0.5f + (i % 50) / 100f,
+                        (i % 10) * width / 10 + shift, (i / 10) * height / 10 + shift, width / 14, height / 14));
+            }
+            frames.add(detections);
+        }
+        return frames;
+    }
+
+    /** Las etiquetas se rasterizan en el hilo de JavaFX; después dibujar no lo necesita. */
+    private static BoundingBoxOverlay warmOverlay(Canvas canvas, List<List<Detection>> frames, Frame frame,
+            int width, int height) throws Exception {
+        startFx();
+        FutureTask<BoundingBoxOverlay> task = new FutureTask<>(() -> {
+            BoundingBoxOverlay overlay = new BoundingBoxOverlay(canvas);
+            for (List<Detection> detections : frames) {
+                overlay.draw(detections, width, height);
+                overlay.drawInto(frame, detections);
+            }
+            overlay.clear();
+            return overlay;
+        });
+        Platform.runLater(task);
+        return task.get();
+    }
+
+    private static Workload overlayBuffer(int width, int height) throws Exception {
+        Frame frame = frames(width, height)[0];
+        List<List<Detection>> frames = overlayFrames(width, height, OVERLAY_BOXES);
+        BoundingBoxOverlay overlay = warmOverlay(new Canvas(960, 540), frames, frame, width, height);
+        int[] index = {0};
+        return () -> {
+            overlay.drawInto(frame, frames.get(index[0]++ & 1));
+            return frame;
+        };
+    }
+
+    private static Workload overlayCanvas(int width, int height, int moved) throws Exception {
+        Frame frame = frames(width, height)[0];
+        List<List<Detection>> frames = overlayFrames(width, height, moved);
+        // Fuera de una escena el canvas no consume sus comandos en cada pulso;
+        // borrarlo entero cada 1000 frames los descarta
+        Canvas canvas = new Canvas(960, 540);
+        BoundingBoxOverlay overlay = warmOverlay(canvas, frames, frame, width, height);
+        int[] index = {0};
+        return () -> {
+            if (index[0] % 1000 == 0) {
+                overlay.clear();
+            }
+            overlay.draw(frames.get(index[0]++ & 1), width, height);
+            return canvas;
+        };
+    }
+
+    /** Arranca el toolkit de JavaFX (headless con Monocle) una sola vez. */
+    private static synchronized void startFx() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException e) {
+            // Ya estaba arrancado
+            started.countDown();
+        }
+        started.await();
+    }
+}
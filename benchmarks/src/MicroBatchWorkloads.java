@@ -0,0 +1,41 @@
+import java.time.Duration;
+
+import benchmarks.Workload;
+import benchmarks.Workloads;
+
+/**
+ * Operación de {@code MicroBatchBenchmarks}: una imagen a través de
+ * {@link DetectionBatcher} contra un {@link DetectorStubServer} local con
+ * latencia fija. El workload lo comparten todos los hilos del benchmark, así
+ * que sus imágenes se juntan en los mismos lotes.
+ */
+public class MicroBatchWorkloads implements Workloads.Factory {
+
+    /** Parámetros: imágenes por lote, ventana en ms y latencia del stub en ms. */
+    @Override
+    public Workload create(String name, String... params) throws Exception {
+        if (!name.equals("batcher")) {
+            throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+        int batch = Integer.parseInt(params[0]);
+        long window = Long.parseLong(params[1]);
+        long latency = Long.parseLong(params[2]);
+        byte[] jpeg = FrameConverter.encodeJpeg(new SyntheticFrameSource(640, 360, 0, 1).next(), 0.8f);
+        DetectorStubServer stub = new DetectorStubServer(0).start();
+        stub.setLatencyMillis(latency);
+        DetectorPersonasClient client = new DetectorPersonasClient(stub.getBaseUrl(), 4, Duration.ofSeconds(30), 0, 100);
+        DetectionBatcher batcher = new DetectionBatcher(client, batch, window, 0.5);
+        return new Workload() {
+            @Override
+            public Object run() {
+                return batcher.submit(jpeg).join();
+            }
+
+            @Override
+            public void close() {
+                batcher.close();
+                stub.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+import benchmarks.Workload;
+import benchmarks.Workloads;
+
+/**
+ * Operación de {@code MultiStreamBenchmarks}: un {@link MultiStreamMonitor}
+ * con cámaras sintéticas y un detector simulado de coste fijo (como una
+ * llamada remota) que corre por su cuenta. Cada {@code run()} espera al
+ * siguiente análisis y devuelve las métricas desde el último
+ * {@code reset()}.
+ */
+public class MultiStreamWorkloads implements Workloads.Factory {
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 180;
+    private static final double FPS = 30;
+
+    /** Índices de lo que devuelve {@code run()}, repetidos en {@code MultiStreamBenchmarks}. */
+    static final int JAIN = 0;
+    static final int WORST_P99_MILLIS = 1;
+    static final int DROPPED_PERCENT = 2;
+    /** Análisis por segundo de las tres primeras cámaras, desde {@code CAM0_PER_SECOND}. */
+    static final int CAM0_PER_SECOND = 3;
+
+    /**
+     * Parámetros: cámaras, workers, coste del detector en ms y {@code "mixto"}
+     * para que cam0 no tenga límite de FPS, cam1 tenga prioridad 2 y cam2 un
+     * presupuesto de 5 análisis por segundo ({@code "uniforme"} si no).
+     */
+    @Override
+    public Workload create(String name, String... params) {
+        if (!name.equals("monitor")) {
+            throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+        int streams = Integer.parseInt(params[0]);
+        int workers = Integer.parseInt(params[1]);
+        long costNanos = Long.parseLong(params[2]) * 1_000_000L;
+        boolean mixed = params[3].equals("mixto");
+
+        Semaphore analyses = new Semaphore(0);
+        Detector detector = frame -> {
+            LockSupport.parkNanos(costNanos);
+            analyses.release();
+            return Collections.emptyList();
+        };
+        MultiStreamMonitor monitor = new MultiStreamMonitor(() -> detector, workers);
+        for (int i = 0; i < streams; i++) {
+            FrameBufferPool pool = new FrameBufferPool(WIDTH, HEIGHT, MultiStreamMonitor.requiredPoolSize());
+            SyntheticFrameSource source = new SyntheticFrameSource(WIDTH, HEIGHT, mixed && i == 0 ? 0 : FPS, -1, pool);
+            monitor.addStream("cam" + i, source, result -> result.getFrame().release());
+        }
+        List<MultiStreamMonitor.CameraStream> cameras = monitor.getStreams();
+        if (mixed && streams > 2) {
+            cameras.get(1).setPriority(2);
+            cameras.get(2).setMaxDetectionsPerSecond(5);
+        }
+        monitor.start();
+
+        return new Workload() {
+            private final long[] analyzedBefore = new long[streams];
+            private final long[] capturedBefore = new long[streams];
+            private final long[] droppedBefore = new long[streams];
+            private long startNanos = System.nanoTime();
+
+            @Override
+            public Object run() throws InterruptedException {
+                analyses.acquire();
+                double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+                double[] metrics = new double[CAM0_PER_SECOND + 3];
+                double total = 0;
+                double sumSquares = 0;
+                long dropped = 0;
+                long captured = 0;
+                for (int i = 0; i < streams; i++) {
+                    MultiStreamMonitor.CameraStream s = cameras.get(i);
+                    double rate = (s.getAnalyzed() - analyzedBefore[i]) / seconds;
+                    total += rate;
+                    sumSquares += rate * rate;
+                    dropped += s.getDropped() - droppedBefore[i];
+                    captured += s.getCaptured() - capturedBefore[i];
+                    metrics[WORST_P99_MILLIS] = Math.max(metrics[WORST_P99_MILLIS],
+                            s.getLatency().snapshot().getMillisAtQuantile(0.99));
+                    if (i < 3) {
+                        metrics[CAM0_PER_SECOND + i] = rate;
+                    }
+                }
+                metrics[JAIN] = sumSquares == 0 ? 0 : total * total / (streams * sumSquares);
+                metrics[DROPPED_PERCENT] = 100.0 * dropped / Math.max(1, captured);
+                return metrics;
+            }
+
+            @Override
+            public void reset() {
+                analyses.drainPermits();
+                for (int i = 0; i < streams; i++) {
+                    MultiStreamMonitor.CameraStream s = cameras.get(i);
+                    s.getLatency().reset();
+                    analyzedBefore[i] = s.getAnalyzed();
+                    capturedBefore[i] = s.getCaptured();
+                    droppedBefore[i] = s.getDropped();
+                }
+                startNanos = System.nanoTime();
+            }
+
+            @Override
+            public void close() {
+                monitor.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import benchmarks.Workload;
+import benchmarks.Workloads;
+
+/**
+ * Operaciones de {@code FrameResultStoreBenchmarks}: cargar las filas y leer
+ * una pantalla de la tabla con {@link FrameResultStore} y con la lista de
+ * {@link FrameResult} de textos que usaba antes.
+ */
+public class ResultStoreWorkloads implements Workloads.Factory {
+    private static final String[] LABELS = {"persona", "coche", "bicicleta", "perro", "movimiento"};
+    private static final int VISIBLE_ROWS = 40;
+
+    /** Parámetro: filas. */
+    @Override
+    public Workload create(String name, String... params) {
+        int rows = Integer.parseInt(params[0]);
+        switch (name) {
+            case "storeLoad":
+                return () -> loadStore(rows);
+            case "objectsLoad":
+                return () -> loadObjects(rows);
+            case "storeScreen": {
+                FrameResultStore store = loadStore(rows);
+                return screen(rows, row -> store.formatFrame(row).length() + store.formatLabel(row).length()
+                        + store.formatConfidence(row).length());
+            }
+            case "objectsScreen": {
+                List<FrameResult> list = loadObjects(rows);
+                return screen(rows, row -> {
+                    FrameResult r = list.get(row);
+                    return r.getFrame().length() + r.getClase().length() + r.getPrecision().length();
+                });
+            }
+            default:
+                throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+    }
+
+    private static FrameResultStore loadStore(int rows) {
+        FrameResultStore store = new FrameResultStore();
+        for (int i = 0; i < rows; i++) {
+            store.add(i / 3, LABELS[i % LABELS.length], 0.5f + (i % 50) / 100f);
+        }
+        return store;
+    }
+
+    private static List<FrameResult> loadObjects(int rows) {
+        List<FrameResult> list = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            list.add(new FrameResult(Integer.toString(i / 3), LABELS[i % LABELS.length],
+                    String.format(Locale.ROOT, "%.2f", 0.5f + (i % 50) / 100f)));
+        }
+        return list;
+    }
+
+    private interface RowTask {
+        int read(int row);
+    }
+
+    /** {@value #VISIBLE_ROWS} filas consecutivas a partir de una posición aleatoria. */
+    private static Workload screen(int rows, RowTask task) {
+        Random random = new Random(42);
+        return () -> {
+            int first = random.nextInt(Math.max(1, rows - VISIBLE_ROWS));
+            int chars = 0;
+            for (int row = first; row < Math.min(rows, first + VISIBLE_ROWS); row++) {
+                chars += task.read(row);
+            }
+            return chars;
+        };
+    }
+}
@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import benchmarks.Workload;
+import benchmarks.Workloads;
+
+/**
+ * Operaciones de {@code RoiBenchmarks}: el trabajo por frame con una región
+ * de interés ({@link RoiMask}) frente al frame completo. Los frames salen de
+ * {@link SyntheticFrameSource} y se comparten entre los workloads de la misma
+ * resolución.
+ */
+public class RoiWorkloads implements Workloads.Factory {
+    private static final Map<String, RoiMask> MASKS = new HashMap<>();
+
+    static {
+        MASKS.put("completo", RoiMask.empty());
+        MASKS.put("mitadInferior", RoiMask.empty().with(new float[] {0, 0.5f, 1, 0.5f, 1, 1, 0, 1}));
+        MASKS.put("dosZonas", RoiMask.empty().with(new float[] {0.05f, 0.55f, 0.35f, 0.5f, 0.4f, 0.95f, 0.1f, 0.9f})
+                .with(new float[] {0.6f, 0.6f, 0.95f, 0.6f, 0.8f, 0.95f}));
+        MASKS.put("puerta", RoiMask.empty().with(new float[] {0.45f, 0.3f, 0.55f, 0.3f, 0.56f, 0.8f, 0.44f, 0.8f}));
+    }
+
+    /** Índices de lo que devuelve {@code "detect"}, repetidos en {@code RoiBenchmarks}. */
+    static final int JPEG_BYTES = 0;
+    static final int COVERAGE = 1;
+    static final int CROP_COVERAGE = 2;
+
+    private final Map<String, List<Frame>> videos = new HashMap<>();
+
+    /** Parámetros: máscara ({@code "completo"}, {@code "puerta"}...), resolución y frames. */
+    @Override
+    public synchronized Workload create(String name, String... params) {
+        RoiMask mask = MASKS.get(params[0]);
+        if (mask == null) {
+            throw new IllegalArgumentException("Máscara desconocida: " + params[0]);
+        }
+        int[] size = Workloads.resolution(params[1]);
+        int width = size[0];
+        int height = size[1];
+        RoiMask.Bitmap bitmap = mask.isEmpty() ? null : mask.bitmap(width, height);
+        switch (name) {
+            case "rasterize":
+                // Máscara nueva cada vez: bitmap() guarda el último tamaño
+                return () -> mask.isEmpty() ? null : new RoiMask(mask.getPolygons()).bitmap(width, height);
+            case "lookup":
+                return () -> bitmap == null ? 0 : countInside(bitmap, width, height);
+            case "crop":
+                return perFrame(video(width, height, params[2]), f -> bitmap == null ? f : bitmap.crop(f));
+            case "motion": {
+                MotionDetector motion = new MotionDetector();
+                return perFrame(video(width, height, params[2]), f -> motion.detect(f, bitmap));
+            }
+            case "detect":
+                return detect(video(width, height, params[2]), bitmap);
+            default:
+                throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+    }
+
+    private List<Frame> video(int width, int height, String frames) {
+        return videos.computeIfAbsent(width + "x" + height + "/" + frames, key -> {
+            int n = Integer.parseInt(frames);
+            List<Frame> video = new ArrayList<>(n);
+            SyntheticFrameSource source = new SyntheticFrameSource(width, height, 0, n);
+            for (Frame f = source.next(); f != null; f = source.next()) {
+                video.add(f);
+            }
+            return video;
+        });
+    }
+
+    private interface FrameTask {
+        Object apply(Frame frame);
+    }
+
+    /** Un frame por llamada, recorriendo el video en bucle. */
+    private static Workload perFrame(List<Frame> video, FrameTask task) {
+        int[] next = {0};
+        return () -> {
+            Frame frame = video.get(next[0]);
+            next[0] = (next[0] + 1) % video.size();
+            return task.apply(frame);
+        };
+    }
+
+    /**
+     * Detección simulada que, como {@link RemoteDetector}, codifica en JPEG lo
+     * que recibe (un lote con todos los recortes). Devuelve los bytes JPEG del
+     * frame y la cobertura de la máscara y de sus recortes.
+     */
+    private static Workload detect(List<Frame> video, RoiMask.Bitmap bitmap) {
+        long[] jpegBytes = new long[1];
+        Detector encoder = f -> {
+            try {
+                jpegBytes[0] += FrameConverter.encodeJpeg(f, 0.8f).length;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new ArrayList<>();
+        };
+        return perFrame(video, f -> {
+            jpegBytes[0] = 0;
+            if (bitmap == null) {
+                encoder.detect(f);
+            } else {
+                encoder.detect(f, bitmap);
+            }
+            double[] result = new double[CROP_COVERAGE + 1];
+            result[JPEG_BYTES] = jpegBytes[0];
+            result[COVERAGE] = bitmap == null ? 1 : bitmap.getCoverage();
+            result[CROP_COVERAGE] = bitmap == null ? 1 : bitmap.getCropCoverage();
+            return result;
+        });
+    }
+
+    private static long countInside(RoiMask.Bitmap bitmap, int width, int height) {
+        long inside = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (bitmap.contains(x, y)) {
+                    inside++;
+                }
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,162 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import benchmarks.Workload;
+import benchmarks.Workloads;
+
+/**
+ * Operación de {@code TrackerBenchmarks}: una pasada de {@link ObjectTracker}
+ * por una escena sintética de objetos que se mueven a velocidad constante y
+ * rebotan en los bordes.
+ *
+ * <p>El detector simulado devuelve las cajas reales con unos píxeles de
+ * ruido y pierde un 2% de los objetos. Cada pasada mide las llamadas al
+ * detector, el IoU medio entre cada objeto real y la caja que se muestra para
+ * él (detectada o predicha), los cambios de id de un mismo objeto y el coste
+ * del seguidor.</p>
+ */
+public class TrackerWorkloads implements Workloads.Factory {
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+
+    /** Índices de lo que devuelve {@code run()}, repetidos en {@code TrackerBenchmarks}. */
+    static final int CALLS = 0;
+    static final int SAVED_PERCENT = 1;
+    static final int MEAN_IOU = 2;
+    static final int ID_SWITCHES = 3;
+    static final int TRACKER_NANOS = 4;
+
+    /** Parámetros: política de seguimiento ({@code "iou:5"}...), frames y objetos. */
+    @Override
+    public Workload create(String name, String... params) {
+        if (!name.equals("tracking")) {
+            throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+        TrackingPolicy policy = TrackingPolicy.parse(params[0]);
+        int frames = Integer.parseInt(params[1]);
+        int objects = Integer.parseInt(params[2]);
+        return () -> run(policy, frames, objects);
+    }
+
+    private static double[] run(TrackingPolicy policy, int frames, int objects) {
+        TrackingStats stats = new TrackingStats();
+        ObjectTracker tracker = policy.newTracker(stats);
+        Scene scene = new Scene(objects, new Random(42));
+        Random noise = new Random(7);
+        Frame frame = new Frame(0, 0, WIDTH, HEIGHT, ByteBuffer.allocate(0));
+        int[] lastId = new int[objects];
+        long switches = 0;
+        double iouSum = 0;
+        long iouCount = 0;
+        long trackerNanos = 0;
+        for (int f = 0; f < frames; f++) {
+            scene.step();
+            frame.reset(f, f * 33_333_333L);
+            long t0 = System.nanoTime();
+            List<Detection> shown;
+            if (tracker.needsDetection(frame)) {
+                List<Detection> detected = scene.detect(noise);
+                t0 = System.nanoTime();
+                shown = tracker.update(frame, detected);
+            } else {
+                shown = tracker.predict(frame);
+            }
+            trackerNanos += System.nanoTime() - t0;
+
+            List<Detection> truth = scene.truth();
+            int[] match = ObjectTracker.associate(shown, truth, TrackingPolicy.iou(1, 0.01f));
+            for (int o = 0; o < objects; o++) {
+                iouCount++;
+                if (match[o] < 0) {
+                    continue;
+                }
+                TrackedDetection d = (TrackedDetection) shown.get(match[o]);
+                iouSum += iou(d, truth.get(o));
+                if (lastId[o] != 0 && lastId[o] != d.getTrackId()) {
+                    switches++;
+                }
+                lastId[o] = d.getTrackId();
+            }
+        }
+        double[] result = new double[TRACKER_NANOS + 1];
+        result[CALLS] = stats.getDetected();
+        result[SAVED_PERCENT] = stats.getSavedRatio() * 100;
+        result[MEAN_IOU] = iouSum / iouCount;
+        result[ID_SWITCHES] = switches;
+        result[TRACKER_NANOS] = trackerNanos;
+        return result;
+    }
+
+    private static double iou(Detection a, Detection b) {
+        double ix = Math.max(0, Math.min(a.getX() + a.getWidth(), b.getX() + b.getWidth()) - Math.max(a.getX(), b.getX()));
+        double iy = Math.max(0, Math.min(a.getY() + a.getHeight(), b.getY() + b.getHeight()) - Math.max(a.getY(), b.getY()));
+        double inter = ix * iy;
+        return inter / ((double) a.getWidth() * a.getHeight() + (double) b.getWidth() * b.getHeight() - inter);
+    }
+
+    /** Objetos con posición y velocidad; rebotan al tocar un borde. */
+    private static final class Scene {
+        private static final String[] CLASSES = {"persona", "coche", "bicicleta"};
+        final double[] x;
+        final double[] y;
+        final double[] vx;
+        final double[] vy;
+        final int[] w;
+        final int[] h;
+
+        Scene(int n, Random random) {
+            x = new double[n];
+            y = new double[n];
+            vx = new double[n];
+            vy = new double[n];
+            w = new int[n];
+            h = new int[n];
+            for (int i = 0; i < n; i++) {
+                w[i] = 60 + random.nextInt(140);
+                h[i] = 60 + random.nextInt(140);
+                x[i] = random.nextInt(WIDTH - w[i]);
+                y[i] = random.nextInt(HEIGHT - h[i]);
+                vx[i] = random.nextDouble() * 12 - 6;
+                vy[i] = random.nextDouble() * 8 - 4;
+            }
+        }
+
+        void step() {
+            for (int i = 0; i < x.length; i++) {
+                x[i] += vx[i];
+                y[i] += vy[i];
+                if (x[i] < 0 || x[i] + w[i] > WIDTH) {
+                    vx[i] = -vx[i];
+                    x[i] = Math.max(0, Math.min(WIDTH - w[i], x[i]));
+                }
+                if (y[i] < 0 || y[i] + h[i] > HEIGHT) {
+                    vy[i] = -vy[i];
+                    y[i] = Math.max(0, Math.min(HEIGHT - h[i], y[i]));
+                }
+            }
+        }
+
+        List<Detection> truth() {
+            List<Detection> out = new ArrayList<>(x.length);
+            for (int i = 0; i < x.length; i++) {
+                out.add(new Detection(CLASSES[i % CLASSES.length], 1, (int) x[i], (int) y[i], w[i], h[i]));
+            }
+            return out;
+        }
+
+        List<Detection> detect(Random noise) {
+            List<Detection> out = new ArrayList<>(x.length);
+            for (int i = 0; i < x.length; i++) {
+                if (noise.nextInt(50) == 0) {
+                    continue;
+                }
+                out.add(new Detection(CLASSES[i % CLASSES.length], 0.6f + noise.nextFloat() * 0.4f,
+                        (int) x[i] + noise.nextInt(5) - 2, (int) y[i] + noise.nextInt(5) - 2,
+                        w[i] + noise.nextInt(5) - 2, h[i] + noise.nextInt(5) - 2));
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import benchmarks.Workload;
+import benchmarks.Workloads;
+
+/**
+ * Operaciones de {@code TransportBenchmarks}: una ida y vuelta de
+ * {@code /detect-batch} con JSON+base64 y con {@link BinaryDetectionProtocol}.
+ * Cada una devuelve los bytes que viajan (petición más respuesta).
+ */
+public class TransportWorkloads implements Workloads.Factory {
+
+    /** Parámetros: resolución, imágenes por lote y detecciones por imagen. */
+    @Override
+    public Workload create(String name, String... params) throws Exception {
+        int[] size = Workloads.resolution(params[0]);
+        int batch = Integer.parseInt(params[1]);
+        int detectionsPerImage = Integer.parseInt(params[2]);
+        Frame frame = new SyntheticFrameSource(size[0], size[1], 0, 1).next();
+        List<byte[]> images = Collections.nCopies(batch, FrameConverter.encodeJpeg(frame, 0.85f));
+        List<List<Detection>> results = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            List<Detection> detections = new ArrayList<>(detectionsPerImage);
+            for (int j = 0; j < detectionsPerImage; j++) {
+                detections.add(new Detection("persona", 0.5f + j / 100f, j * 10, j * 5, 80, 160));
+            }
+            results.add(detections);
+        }
+        switch (name) {
+            case "json":
+                return () -> jsonRoundTrip(images, results);
+            case "binary":
+                return () -> binaryRoundTrip(images, results);
+            default:
+                throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+    }
+
+    /** Cliente codifica, servidor decodifica y responde, cliente decodifica. */
+    private static long jsonRoundTrip(List<byte[]> images, List<List<Detection>> results) {
+        byte[] request = DetectorPersonasClient.jsonBatchBody(images, 0.5).getBytes(StandardCharsets.UTF_8);
+        Map<String, Object> parsed = MiniJson.parseObject(new String(request, StandardCharsets.UTF_8));
+        for (Object image : (List<?>) parsed.get("imagenes")) {
+            Base64.getDecoder().decode((String) image);
+        }
+        byte[] response = DetectorStubServer.batchJson(results).getBytes(StandardCharsets.UTF_8);
+        Map<String, Object> json = MiniJson.parseObject(new String(response, StandardCharsets.UTF_8));
+        for (Object r : (List<?>) json.get("resultados")) {
+            DetectorPersonasClient.parseDetections(((Map<?, ?>) r).get("detecciones"));
+        }
+        return request.length + response.length;
+    }
+
+    private static long binaryRoundTrip(List<byte[]> images, List<List<Detection>> results) {
+        byte[] request = BinaryDetectionProtocol.encodeRequest(images, 0.5);
+        BinaryDetectionProtocol.decodeRequest(ByteBuffer.wrap(request));
+        byte[] response = BinaryDetectionProtocol.encodeResults(results);
+        BinaryDetectionProtocol.decodeResults(ByteBuffer.wrap(response));
+        return request.length + response.length;
+    }
+}
@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import benchmarks.Workload;
+import benchmarks.Workloads;
+
+/**
+ * Operación de {@code VirtualThreadBenchmarks}: muchas fuentes concurrentes
+ * en hilos de E/S de {@link IoThreads}. Cada fuente espera en bucle un frame
+ * (33 ms, una cámara a 30 FPS), lo reduce en el pool de CPU, espera la
+ * respuesta de la API (20 ms simulados) y escribe una línea de resultado en
+ * un archivo compartido. Cada {@code run()} espera al siguiente frame de
+ * cualquier fuente.
+ */
+public class VirtualThreadWorkloads implements Workloads.Factory {
+    private static final long FRAME_MILLIS = 33;
+    private static final long API_MILLIS = 20;
+    private static final long RSS_INTERVAL_NANOS = 100_000_000L;
+
+    /** Índices de lo que devuelve {@code run()}, repetidos en {@code VirtualThreadBenchmarks}. */
+    static final int PEAK_THREADS = 0;
+    static final int RSS_MEGABYTES = 1;
+    static final int HEAP_MEGABYTES = 2;
+    static final int PERCENT_OF_MAX = 3;
+
+    /** Parámetros: fuentes y modo de {@link IoThreads} ({@code "plataforma"} o {@code "virtuales"}). */
+    @Override
+    public Workload create(String name, String... params) throws IOException {
+        if (!name.equals("sources")) {
+            throw new IllegalArgumentException("Workload desconocido: " + name);
+        }
+        int sources = Integer.parseInt(params[0]);
+        boolean virtual = params[1].equals("virtuales");
+        if (virtual && !IoThreads.isVirtualSupported()) {
+            throw new IllegalStateException("Esta JVM no tiene hilos virtuales (Java "
+                    + Runtime.version().feature() + ")");
+        }
+        IoThreads.setVirtualEnabled(virtual);
+
+        Path output = Files.createTempFile("resultados", ".txt");
+        FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        Semaphore frames = new Semaphore(0);
+        AtomicBoolean running = new AtomicBoolean(true);
+        long rssBefore = residentMegabytes();
+        double maxPerSecond = sources * 1000.0 / (FRAME_MILLIS + API_MILLIS);
+        List<Thread> threads = new ArrayList<>(sources);
+        for (int i = 0; i < sources; i++) {
+            int id = i;
+            threads.add(IoThreads.start("fuente", () -> sourceLoop(id, running, channel, frames)));
+        }
+
+        return new Workload() {
+            private long startNanos = System.nanoTime();
+            private long count;
+            private long rssNanos;
+            private long rss = -1;
+
+            @Override
+            public Object run() throws InterruptedException {
+                frames.acquire();
+                count++;
+                long now = System.nanoTime();
+                if (now - rssNanos > RSS_INTERVAL_NANOS) {
+                    long resident = residentMegabytes();
+                    rss = resident < 0 ? -1 : resident - rssBefore;
+                    rssNanos = now;
+                }
+                Runtime rt = Runtime.getRuntime();
+                double[] metrics = new double[PERCENT_OF_MAX + 1];
+                metrics[PEAK_THREADS] = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+                metrics[RSS_MEGABYTES] = rss;
+                metrics[HEAP_MEGABYTES] = (rt.totalMemory() - rt.freeMemory()) >> 20;
+                metrics[PERCENT_OF_MAX] = 100 * count / ((now - startNanos) / 1e9) / maxPerSecond;
+                return metrics;
+            }
+
+            @Override
+            public void reset() {
+                frames.drainPermits();
+                count = 0;
+                startNanos = System.nanoTime();
+            }
+
+            @Override
+            public void close() throws Exception {
+                running.set(false);
+                for (Thread t : threads) {
+                    t.join();
+                }
+                channel.close();
+                Files.deleteIfExists(output);
+            }
+        };
+    }
+
+    private static void sourceLoop(int id, AtomicBoolean running, FileChannel channel, Semaphore frames) {
+        byte[] pixels = new byte[32 * 1024];
+        ByteBuffer line = ByteBuffer.allocate(64);
+        try {
+            while (running.get()) {
+                // Lectura bloqueante del siguiente frame
+                Thread.sleep(FRAME_MILLIS);
+                pixels[0]++;
+                int hash = IoThreads.compute(() -> Arrays.hashCode(pixels));
+                // Petición a la API
+                LockSupport.parkNanos(API_MILLIS * 1_000_000L);
+                line.clear();
+                line.put((id + " " + hash + "\n").getBytes(StandardCharsets.US_ASCII)).flip();
+                channel.write(line);
+                frames.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Memoria residente del proceso en MB según /proc, o -1 fuera de Linux. */
+    private static long residentMegabytes() {
+        try {
+            for (String l : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (l.startsWith("VmRSS:")) {
+                    return Long.parseLong(l.replaceAll("[^0-9]", "")) >> 10;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Fuera de Linux
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,194 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code DetectionLog}: appends con cada política desde 1 y 8 hilos,
+ * escritura de {@code records} detecciones sintéticas (90 días de 16
+ * cámaras), apertura y consultas indexadas frente a recorrer el registro
+ * completo. Las consultas son las personas de la cámara 3 entre las 02:00 y
+ * las 03:00 de un día, todo lo de la cámara 3 ese día, los perros de una
+ * semana y las personas de la cámara 3 en todo el registro.
+ *
+ * <p>{@code java -jar benchmarks.jar DetectionLogBenchmarks -p directory=registro}
+ * reutiliza un registro ya generado entre forks; por defecto cada fork genera
+ * uno temporal.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DetectionLogBenchmarks {
+
+    /** Registro compartido por los hilos que hacen appends. */
+    @State(Scope.Benchmark)
+    public static class Appends {
+        @Param({"GROUP_COMMIT", "FSYNC_EACH_APPEND"})
+        public String policy;
+
+        Workload append;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            append = Workloads.create("DetectionLogWorkloads", "append", policy);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            append.close();
+        }
+    }
+
+    /** Registro sintético para abrir y consultar. */
+    @State(Scope.Benchmark)
+    public static class Data {
+        @Param("20000000")
+        public long records;
+
+        @Param("")
+        public String directory;
+
+        Workload open;
+        Workload personsHour;
+        Workload cameraDay;
+        Workload dogsWeek;
+        Workload personsScan;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            String n = String.valueOf(records);
+            open = Workloads.create("DetectionLogWorkloads", "open", n, directory);
+            personsHour = Workloads.create("DetectionLogWorkloads", "personsHour", n, directory);
+            cameraDay = Workloads.create("DetectionLogWorkloads", "cameraDay", n, directory);
+            dogsWeek = Workloads.create("DetectionLogWorkloads", "dogsWeek", n, directory);
+            personsScan = Workloads.create("DetectionLogWorkloads", "personsScan", n, directory);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            open.close();
+            personsHour.close();
+            cameraDay.close();
+            dogsWeek.close();
+            personsScan.close();
+        }
+    }
+
+    /** Escritura del registro completo en un directorio nuevo por iteración. */
+    @State(Scope.Thread)
+    public static class Writes {
+        @Param("20000000")
+        public long records;
+
+        Workload write;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            write = Workloads.create("DetectionLogWorkloads", "write", String.valueOf(records));
+        }
+
+        @Setup(Level.Iteration)
+        public void deletePrevious() {
+            write.reset();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            write.close();
+        }
+    }
+
+    /** Tamaño en disco del registro escrito. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Disk {
+        public long megabytes;
+    }
+
+    /** Resultado de la última consulta. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Blocks {
+        public long matches;
+        public long blocksRead;
+        public long blocksTotal;
+
+        Object update(Object stats) {
+            long[] s = (long[]) stats;
+            matches = s[0];
+            blocksRead = s[1];
+            blocksTotal = s[2];
+            return stats;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Object appendOneThread(Appends appends) throws Exception {
+        return appends.append.run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(8)
+    public Object appendEightThreads(Appends appends) throws Exception {
+        return appends.append.run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public Object write(Writes writes, Disk disk) throws Exception {
+        Object bytes = writes.write.run();
+        disk.megabytes = (Long) bytes >> 20;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object open(Data data) throws Exception {
+        return data.open.run();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object personsOneCameraOneHour(Data data, Blocks blocks) throws Exception {
+        return blocks.update(data.personsHour.run());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object allOneCameraOneDay(Data data, Blocks blocks) throws Exception {
+        return blocks.update(data.cameraDay.run());
+    }
+
+    @Benchmark
+    public Object dogsOneWeek(Data data, Blocks blocks) throws Exception {
+        return blocks.update(data.dogsWeek.run());
+    }
+
+    @Benchmark
+    public Object personsOneCameraFullScan(Data data, Blocks blocks) throws Exception {
+        return blocks.update(data.personsScan.run());
+    }
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exportación en streaming de {@code DetectionExporter} con cada formato,
+ * con y sin compresión, frente a guardar todas las filas en un
+ * {@code FrameResultStore} ({@code format=memoria}). Los contadores dan el
+ * tamaño del archivo y la memoria retenida al 25, 50 y 100 % de la
+ * exportación; medirla fuerza GCs que cuentan en el tiempo. También cuenta
+ * detecciones por clase leyendo la columna de clases del {@code .dcol.gz}
+ * frente a parsear el {@code .csv.gz}.
+ *
+ * <p>{@code java -jar benchmarks.jar ExportBenchmarks}; por defecto 3 millones
+ * de frames (28 horas a 30 fps) con 1 a 3 detecciones sintéticas.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ExportBenchmarks {
+
+    @Param("3000000")
+    public long frames;
+
+    /** Exportación con un formato. */
+    @State(Scope.Thread)
+    public static class Export {
+        @Param({"memoria", "csv", "csv.gz", "jsonl", "jsonl.gz", "dcol", "dcol.gz"})
+        public String format;
+
+        Workload export;
+
+        @Setup(Level.Trial)
+        public void setup(ExportBenchmarks b) throws Exception {
+            export = Workloads.create("ExportWorkloads", "export", format, String.valueOf(b.frames));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            export.close();
+        }
+    }
+
+    /** Tamaño y memoria retenida de la última exportación, en MB. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memory {
+        public double fileMegabytes;
+        public double retainedAt25;
+        public double retainedAt50;
+        public double retainedAt100;
+    }
+
+    /** {@code d.dcol.gz} y {@code d.csv.gz} escritos una vez por fork. */
+    @State(Scope.Thread)
+    public static class Counts {
+        Workload columnar;
+        Workload csv;
+
+        @Setup(Level.Trial)
+        public void setup(ExportBenchmarks b) throws Exception {
+            columnar = Workloads.create("ExportWorkloads", "countColumnar", String.valueOf(b.frames));
+            csv = Workloads.create("ExportWorkloads", "countCsv", String.valueOf(b.frames));
+        }
+    }
+
+    @Benchmark
+    public Object export(Export export, Memory memory) throws Exception {
+        long[] result = (long[]) export.export.run();
+        memory.fileMegabytes = result[0] < 0 ? 0 : result[0] / 1e6;
+        memory.retainedAt25 = result[1] / 1e6;
+        memory.retainedAt50 = result[2] / 1e6;
+        memory.retainedAt100 = result[3] / 1e6;
+        return result;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 3, time = 2)
+    public Object countByClassColumnar(Counts counts) throws Exception {
+        return counts.columnar.run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 3, time = 2)
+    public Object countByClassCsv(Counts counts) throws Exception {
+        return counts.csv.run();
+    }
+}
@@ -0,0 +1,160 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Coste por frame de cada paso del camino caliente, a 720p y 1080p.
+ *
+ * <p>{@code java -jar benchmarks.jar FrameBenchmarks}</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dglass.platform=Monocle",
+        "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class FrameBenchmarks {
+
+    @Param({"1280x720", "1920x1080"})
+    public String resolution;
+
+    private Workload writableImage;
+    private Workload downscale;
+    private Workload jpegInput;
+    private Workload jpegFull;
+    private Workload lumaDiff;
+    private Workload contentHash;
+    private Workload motion;
+    private Workload resultsBinary;
+    private Workload resultsJson;
+
+    /**
+     * Overlays: dibujan texto y necesitan las fuentes de JavaFX (Pango en
+     * Linux). En su propio estado para que, sin ellas, fallen sólo estos
+     * benchmarks y no la clase entera.
+     */
+    @State(Scope.Thread)
+    public static class Overlays {
+        Workload buffer;
+        Workload canvas;
+        Workload canvasAll;
+
+        @Setup(Level.Trial)
+        public void setup(FrameBenchmarks b) throws Exception {
+            buffer = Workloads.create("overlayBuffer", b.resolution);
+            canvas = Workloads.create("overlayCanvas", b.resolution);
+            canvasAll = Workloads.create("overlayCanvasAll", b.resolution);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            Workloads.closeAll(buffer, canvas, canvasAll);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        writableImage = Workloads.create("writableImage", resolution);
+        downscale = Workloads.create("downscale", resolution);
+        jpegInput = Workloads.create("jpegInput", resolution);
+        jpegFull = Workloads.create("jpegFull", resolution);
+        lumaDiff = Workloads.create("lumaDiff", resolution);
+        contentHash = Workloads.create("contentHash", resolution);
+        motion = Workloads.create("motion", resolution);
+        resultsBinary = Workloads.create("resultsBinary", resolution);
+        resultsJson = Workloads.create("resultsJson", resolution);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Workloads.closeAll(writableImage, downscale, jpegInput, jpegFull, lumaDiff, contentHash, motion,
+                resultsBinary, resultsJson);
+    }
+
+    /** Copia del frame BGRA a un WritableImage (camino de frames sin pool de FxFrameDisplay). */
+    @Benchmark
+    public Object toWritableImage() throws Exception {
+        return writableImage.run();
+    }
+
+    /** Reducción por bloques a 300x300 (entrada de SSD MobileNet). */
+    @Benchmark
+    public Object downscaleTo300() throws Exception {
+        return downscale.run();
+    }
+
+    /** Reducción y JPEG de 300x300, lo que se envía a la API. */
+    @Benchmark
+    public Object jpegEncodeInput() throws Exception {
+        return jpegInput.run();
+    }
+
+    /** JPEG a resolución completa (archivos MJPEG, exportación). */
+    @Benchmark
+    public Object jpegEncodeFull() throws Exception {
+        return jpegFull.run();
+    }
+
+    /** Miniatura de luminancia y diferencia con la anterior (muestreo por cambio de escena). */
+    @Benchmark
+    public Object frameDiff() throws Exception {
+        return lumaDiff.run();
+    }
+
+    /** Hash de contenido de la caché de resultados. */
+    @Benchmark
+    public Object frameHash() throws Exception {
+        return contentHash.run();
+    }
+
+    /** Detector de movimiento en Java puro. */
+    @Benchmark
+    public Object motionDetect() throws Exception {
+        return motion.run();
+    }
+
+    /** Codificar y decodificar 4 resultados de 10 detecciones en binario. */
+    @Benchmark
+    public Object serializeResultsBinary() throws Exception {
+        return resultsBinary.run();
+    }
+
+    /** Lo mismo en JSON, como responde hoy la API Flask. */
+    @Benchmark
+    public Object serializeResultsJson() throws Exception {
+        return resultsJson.run();
+    }
+
+    /** 100 cajas con etiqueta escritas en los píxeles del frame. */
+    @Benchmark
+    public Object overlayIntoFrame(Overlays overlays) throws Exception {
+        return overlays.buffer.run();
+    }
+
+    /** 100 cajas en el canvas, 10 se mueven por frame: sólo se redibuja su zona. */
+    @Benchmark
+    public Object overlayCanvasDirty(Overlays overlays) throws Exception {
+        return overlays.canvas.run();
+    }
+
+    /** 100 cajas en el canvas, todas se mueven por frame. */
+    @Benchmark
+    public Object overlayCanvasAllMoving(Overlays overlays) throws Exception {
+        return overlays.canvasAll.run();
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tabla de resultados: {@code FrameResultStore} (columnas) frente a la lista
+ * de {@code FrameResult} con textos. Mide cargar todas las filas y formatear
+ * una pantalla de 40 filas visibles en una posición aleatoria. Con
+ * {@code -prof gc}, {@code gc.alloc.rate.norm} de la carga da los bytes que
+ * reserva cada representación.
+ *
+ * <p>{@code java -jar benchmarks.jar FrameResultStoreBenchmarks -p rows=10000000}
+ * (10 millones de filas de objetos necesitan unos 4 GB de heap).</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+public class FrameResultStoreBenchmarks {
+
+    @Param("1000000")
+    public int rows;
+
+    private Workload storeLoad;
+    private Workload objectsLoad;
+    private Workload storeScreen;
+    private Workload objectsScreen;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String n = String.valueOf(rows);
+        storeLoad = Workloads.create("ResultStoreWorkloads", "storeLoad", n);
+        objectsLoad = Workloads.create("ResultStoreWorkloads", "objectsLoad", n);
+        storeScreen = Workloads.create("ResultStoreWorkloads", "storeScreen", n);
+        objectsScreen = Workloads.create("ResultStoreWorkloads", "objectsScreen", n);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Object loadStore() throws Exception {
+        return storeLoad.run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Object loadObjects() throws Exception {
+        return objectsLoad.run();
+    }
+
+    @Benchmark
+    public Object screenStore() throws Exception {
+        return storeScreen.run();
+    }
+
+    @Benchmark
+    public Object screenObjects() throws Exception {
+        return objectsScreen.run();
+    }
+}
@@ -0,0 +1,126 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tiempo hasta tener listo el frame de una fila seleccionada: decodificar
+ * desde el principio del video frente a {@code FrameSeeker} con clics en
+ * filas al azar y recorriendo la tabla con el teclado hacia abajo y hacia
+ * arriba (una fila cada {@value #KEY_REPEAT_MILLIS} ms, pausa que no se
+ * mide). Los contadores dan los aciertos de caché, las esperas y los frames
+ * decodificados del buscador.
+ *
+ * <p>{@code java -jar benchmarks.jar FrameSeekBenchmarks -p video=video.mjpeg};
+ * por defecto un video sintético de 1280x720 con un keyframe cada 30 frames.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FrameSeekBenchmarks {
+    public static final long KEY_REPEAT_MILLIS = 40;
+
+    @Param("sintetico")
+    public String video;
+
+    @Param("900")
+    public long frames;
+
+    private Workload fromStart;
+    private Workload randomClicks;
+
+    /** Estado del buscador tras la última fila. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Seeker {
+        public long hits;
+        public long misses;
+        public long decodedFrames;
+
+        void update(Object counts) {
+            long[] c = (long[]) counts;
+            hits = c[0];
+            misses = c[1];
+            decodedFrames = c[2];
+        }
+    }
+
+    /** Recorrido con el teclado: espera {@value #KEY_REPEAT_MILLIS} ms entre filas. */
+    @State(Scope.Thread)
+    public static class Scroll {
+        Workload down;
+        Workload up;
+
+        @Setup(Level.Trial)
+        public void setup(FrameSeekBenchmarks b) throws Exception {
+            down = Workloads.create("FrameSeekWorkloads", "scrollDown", b.video, String.valueOf(b.frames));
+            up = Workloads.create("FrameSeekWorkloads", "scrollUp", b.video, String.valueOf(b.frames));
+        }
+
+        @Setup(Level.Invocation)
+        public void keyRepeat() throws InterruptedException {
+            Thread.sleep(KEY_REPEAT_MILLIS);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            down.close();
+            up.close();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        fromStart = Workloads.create("FrameSeekWorkloads", "fromStart", video, String.valueOf(frames));
+        randomClicks = Workloads.create("FrameSeekWorkloads", "randomClicks", video, String.valueOf(frames));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fromStart.close();
+        randomClicks.close();
+    }
+
+    @Benchmark
+    public Object decodeFromStart() throws Exception {
+        return fromStart.run();
+    }
+
+    @Benchmark
+    public Object seekerRandomClicks(Seeker seeker) throws Exception {
+        Object counts = randomClicks.run();
+        seeker.update(counts);
+        return counts;
+    }
+
+    @Benchmark
+    public Object seekerScrollDown(Scroll scroll, Seeker seeker) throws Exception {
+        Object counts = scroll.down.run();
+        seeker.update(counts);
+        return counts;
+    }
+
+    @Benchmark
+    public Object seekerScrollUp(Scroll scroll, Seeker seeker) throws Exception {
+        Object counts = scroll.up.run();
+        seeker.update(counts);
+        return counts;
+    }
+}
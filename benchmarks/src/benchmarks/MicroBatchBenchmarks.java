@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latencia por imagen de {@code DetectionBatcher} con varios tamaños de lote
+ * y ventanas, contra el stub de la API con {@code latency} ms por petición.
+ * {@value #THREADS} hilos envían una imagen cada uno y esperan su resultado,
+ * como las cámaras de la aplicación; el rendimiento total es
+ * {@value #THREADS} / latencia media.
+ *
+ * <p>{@code java -jar benchmarks.jar MicroBatchBenchmarks}</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(MicroBatchBenchmarks.THREADS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MicroBatchBenchmarks {
+    public static final int THREADS = 16;
+
+    @Param({"1", "4", "8", "16"})
+    public int batch;
+
+    @Param({"5", "20", "50"})
+    public long window;
+
+    @Param("20")
+    public long latency;
+
+    private Workload batcher;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        batcher = Workloads.create("MicroBatchWorkloads", "batcher", String.valueOf(batch), String.valueOf(window),
+                String.valueOf(latency));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        batcher.close();
+    }
+
+    @Benchmark
+    public Object detectOne() throws Exception {
+        return batcher.run();
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Escalado de {@code MultiStreamMonitor} de 1 a 32 cámaras sintéticas de
+ * 320x180 a 30 FPS con un detector simulado de {@code costMillis} ms. El
+ * resultado son los análisis por segundo en total; los contadores dan el
+ * índice de equidad de Jain (1 = reparto perfecto), la latencia p99 extremo a
+ * extremo de la peor cámara, el porcentaje de frames descartados y los
+ * análisis por segundo de las tres primeras cámaras. Con
+ * {@code mix=mixto}, cam0 no tiene límite de FPS, cam1 tiene prioridad 2 y
+ * cam2 un presupuesto de 5 análisis por segundo.
+ *
+ * <p>{@code java -jar benchmarks.jar MultiStreamBenchmarks -p mix=mixto -p streams=16}</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MultiStreamBenchmarks {
+    // Mismos índices que MultiStreamWorkloads
+    private static final int JAIN = 0;
+    private static final int WORST_P99_MILLIS = 1;
+    private static final int DROPPED_PERCENT = 2;
+    private static final int CAM0_PER_SECOND = 3;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int streams;
+
+    @Param("4")
+    public int workers;
+
+    @Param("10")
+    public long costMillis;
+
+    @Param("uniforme")
+    public String mix;
+
+    private Workload monitor;
+
+    /** Métricas desde el comienzo de la iteración. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Fairness {
+        public double jain;
+        public double worstP99Millis;
+        public double droppedPercent;
+        public double cam0PerSecond;
+        public double cam1PerSecond;
+        public double cam2PerSecond;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        monitor = Workloads.create("MultiStreamWorkloads", "monitor", String.valueOf(streams), String.valueOf(workers),
+                String.valueOf(costMillis), mix);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        monitor.reset();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        monitor.close();
+    }
+
+    /** Espera al siguiente análisis de cualquier cámara. */
+    @Benchmark
+    public Object analysis(Fairness fairness) throws Exception {
+        double[] metrics = (double[]) monitor.run();
+        fairness.jain = metrics[JAIN];
+        fairness.worstP99Millis = metrics[WORST_P99_MILLIS];
+        fairness.droppedPercent = metrics[DROPPED_PERCENT];
+        fairness.cam0PerSecond = metrics[CAM0_PER_SECOND];
+        fairness.cam1PerSecond = metrics[CAM0_PER_SECOND + 1];
+        fairness.cam2PerSecond = metrics[CAM0_PER_SECOND + 2];
+        return metrics;
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Procesamiento de video sin conexión de punta a punta: video sintético de
+ * {@value #FRAMES} frames, segmentos en paralelo y detector de movimiento.
+ * El resultado es el tiempo medio por frame.
+ *
+ * <p>{@code java -jar benchmarks.jar PipelineBenchmarks}</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PipelineBenchmarks {
+    public static final int FRAMES = 300;
+
+    @Param({"1280x720", "1920x1080"})
+    public String resolution;
+
+    private Workload offlineVideo;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        offlineVideo = Workloads.create("offlineVideo", resolution);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public Object offlineVideoPipeline() throws Exception {
+        return offlineVideo.run();
+    }
+}
@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Trabajo por frame que ahorran las regiones de interés ({@code RoiMask})
+ * frente a analizar el frame completo: rasterizar la máscara, consultar todos
+ * los píxeles, recortar las regiones, el detector de movimiento limitado a la
+ * máscara y una detección simulada que, como {@code RemoteDetector}, codifica
+ * en JPEG un lote con todos los recortes. Los contadores de la detección dan
+ * los bytes JPEG por frame y la cobertura de la máscara y de sus recortes.
+ *
+ * <p>{@code java -jar benchmarks.jar RoiBenchmarks -p resolution=1920x1080}</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RoiBenchmarks {
+    // Mismos índices que RoiWorkloads
+    private static final int JPEG_BYTES = 0;
+    private static final int COVERAGE = 1;
+    private static final int CROP_COVERAGE = 2;
+
+    @Param({"completo", "mitadInferior", "dosZonas", "puerta"})
+    public String mask;
+
+    @Param("1280x720")
+    public String resolution;
+
+    @Param("200")
+    public int frames;
+
+    private Workload rasterize;
+    private Workload lookup;
+    private Workload crop;
+    private Workload motion;
+    private Workload detect;
+
+    /** Resultado de la última detección. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Coverage {
+        public double jpegBytes;
+        public double coveragePercent;
+        public double cropCoveragePercent;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String n = String.valueOf(frames);
+        rasterize = Workloads.create("RoiWorkloads", "rasterize", mask, resolution, n);
+        lookup = Workloads.create("RoiWorkloads", "lookup", mask, resolution, n);
+        crop = Workloads.create("RoiWorkloads", "crop", mask, resolution, n);
+        motion = Workloads.create("RoiWorkloads", "motion", mask, resolution, n);
+        detect = Workloads.create("RoiWorkloads", "detect", mask, resolution, n);
+    }
+
+    @Benchmark
+    public Object rasterizeMask() throws Exception {
+        return rasterize.run();
+    }
+
+    @Benchmark
+    public Object lookupAllPixels() throws Exception {
+        return lookup.run();
+    }
+
+    @Benchmark
+    public Object cropFrame() throws Exception {
+        return crop.run();
+    }
+
+    @Benchmark
+    public Object motionFrame() throws Exception {
+        return motion.run();
+    }
+
+    @Benchmark
+    public Object detectFrame(Coverage coverage) throws Exception {
+        double[] result = (double[]) detect.run();
+        coverage.jpegBytes = result[JPEG_BYTES];
+        coverage.coveragePercent = result[COVERAGE] * 100;
+        coverage.cropCoveragePercent = result[CROP_COVERAGE] * 100;
+        return result;
+    }
+}
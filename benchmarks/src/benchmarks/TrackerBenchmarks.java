@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Llamadas al detector que ahorra {@code ObjectTracker} y lo que cuesta en
+ * precisión: una pasada de {@code frames} frames de 1280x720 con
+ * {@code objects} objetos sintéticos por cada política de seguimiento. El
+ * resultado es el tiempo de la pasada (escena simulada y evaluación
+ * incluidas); los contadores dan las llamadas al detector, el porcentaje
+ * ahorrado, el IoU medio con las cajas reales, los cambios de id, el coste
+ * del seguidor por frame y el tiempo estimado con un detector de
+ * {@code costMillis} ms (llamadas por coste más el seguidor).
+ *
+ * <p>{@code java -jar benchmarks.jar TrackerBenchmarks -p costMillis=50}</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TrackerBenchmarks {
+    // Mismos índices que TrackerWorkloads
+    private static final int CALLS = 0;
+    private static final int SAVED_PERCENT = 1;
+    private static final int MEAN_IOU = 2;
+    private static final int ID_SWITCHES = 3;
+    private static final int TRACKER_NANOS = 4;
+
+    @Param({"iou:1", "iou:2", "iou:3", "iou:5", "iou:10", "iou:10:0.3:estatico", "centroide:5", "iou:30"})
+    public String tracking;
+
+    @Param("3000")
+    public int frames;
+
+    @Param("20")
+    public int objects;
+
+    @Param("20")
+    public double costMillis;
+
+    private Workload pass;
+
+    /** Resultado de la última pasada. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Accuracy {
+        public double detectorCalls;
+        public double savedPercent;
+        public double meanIou;
+        public double idSwitches;
+        public double trackerMicrosPerFrame;
+        public double estimatedSeconds;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        pass = Workloads.create("TrackerWorkloads", "tracking", tracking, String.valueOf(frames),
+                String.valueOf(objects));
+    }
+
+    @Benchmark
+    public Object trackingPass(Accuracy accuracy) throws Exception {
+        double[] result = (double[]) pass.run();
+        accuracy.detectorCalls = result[CALLS];
+        accuracy.savedPercent = result[SAVED_PERCENT];
+        accuracy.meanIou = result[MEAN_IOU];
+        accuracy.idSwitches = result[ID_SWITCHES];
+        accuracy.trackerMicrosPerFrame = result[TRACKER_NANOS] / 1e3 / frames;
+        accuracy.estimatedSeconds = result[CALLS] * costMillis / 1000 + result[TRACKER_NANOS] / 1e9;
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transporte JSON+base64 frente al binario: CPU de una ida y vuelta de
+ * {@code /detect-batch} (codificar y decodificar petición y respuesta en
+ * ambos extremos) con un lote de JPEGs a resolución completa. El contador
+ * {@code wireBytes} da los bytes de petición más respuesta.
+ *
+ * <p>{@code java -jar benchmarks.jar TransportBenchmarks}</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TransportBenchmarks {
+
+    @Param({"1280x720", "1920x1080"})
+    public String resolution;
+
+    @Param("4")
+    public int images;
+
+    @Param("10")
+    public int detections;
+
+    private Workload json;
+    private Workload binary;
+
+    /** Bytes en la red de la última ida y vuelta. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Wire {
+        public long wireBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String batch = String.valueOf(images);
+        String perImage = String.valueOf(detections);
+        json = Workloads.create("TransportWorkloads", "json", resolution, batch, perImage);
+        binary = Workloads.create("TransportWorkloads", "binary", resolution, batch, perImage);
+    }
+
+    @Benchmark
+    public Object jsonRoundTrip(Wire wire) throws Exception {
+        Object bytes = json.run();
+        wire.wireBytes = (Long) bytes;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object binaryRoundTrip(Wire wire) throws Exception {
+        Object bytes = binary.run();
+        wire.wireBytes = (Long) bytes;
+        return bytes;
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hilos de plataforma frente a virtuales ({@code IoThreads}) con muchas
+ * fuentes concurrentes: cada una espera un frame (33 ms), lo reduce en el
+ * pool de CPU, espera a la API (20 ms simulados) y escribe una línea en un
+ * archivo compartido. El resultado son los frames por segundo en total; los
+ * contadores dan los hilos del sistema en el pico, la memoria residente
+ * añadida por las fuentes (Linux), el heap en uso y el porcentaje del máximo
+ * teórico. JMH corre cada combinación en una JVM aparte, así que los hilos y
+ * la memoria medidos son sólo suyos.
+ *
+ * <p>{@code java -jar benchmarks.jar VirtualThreadBenchmarks}; el modo
+ * {@code virtuales} requiere Java 21 y falla en Java 17.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class VirtualThreadBenchmarks {
+    // Mismos índices que VirtualThreadWorkloads
+    private static final int PEAK_THREADS = 0;
+    private static final int RSS_MEGABYTES = 1;
+    private static final int HEAP_MEGABYTES = 2;
+    private static final int PERCENT_OF_MAX = 3;
+
+    @Param({"100", "250", "500", "1000"})
+    public int sources;
+
+    @Param({"plataforma", "virtuales"})
+    public String mode;
+
+    private Workload workload;
+
+    /** Memoria e hilos en el último frame; porcentaje desde el comienzo de la iteración. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Resources {
+        public double peakThreads;
+        public double rssMegabytes;
+        public double heapMegabytes;
+        public double percentOfMax;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        workload = Workloads.create("VirtualThreadWorkloads", "sources", String.valueOf(sources), mode);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        workload.reset();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        workload.close();
+    }
+
+    /** Espera al siguiente frame de cualquier fuente. */
+    @Benchmark
+    public Object frame(Resources resources) throws Exception {
+        double[] metrics = (double[]) workload.run();
+        resources.peakThreads = metrics[PEAK_THREADS];
+        resources.rssMegabytes = metrics[RSS_MEGABYTES];
+        resources.heapMegabytes = metrics[HEAP_MEGABYTES];
+        resources.percentOfMax = metrics[PERCENT_OF_MAX];
+        return metrics;
+    }
+}
@@ -0,0 +1,26 @@
+package benchmarks;
+
+/**
+ * Operación medida por un benchmark.
+ *
+ * <p>Las clases de la aplicación están en el paquete por defecto, que no se
+ * puede importar desde un paquete con nombre (y JMH exige uno). Por eso los
+ * benchmarks sólo conocen esta interfaz; las implementaciones viven en
+ * las clases {@code *Workloads} del paquete por defecto.</p>
+ */
+public interface Workload extends AutoCloseable {
+
+    /** Ejecuta una vez la operación; el resultado se pasa al Blackhole. */
+    Object run() throws Exception;
+
+    /**
+     * Descarta lo acumulado hasta ahora (contadores, latencias). Lo usan los
+     * workloads que miden algo que corre por su cuenta, antes de cada iteración.
+     */
+    default void reset() {
+    }
+
+    @Override
+    default void close() throws Exception {
+    }
+}
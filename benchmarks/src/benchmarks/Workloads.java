@@ -0,0 +1,67 @@
+package benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Crea {@link Workload}s a través de las clases {@code *Workloads} del
+ * paquete por defecto ({@code HotPathWorkloads}, {@code TransportWorkloads}...).
+ */
+public final class Workloads {
+
+    /** Implementada por cada clase {@code *Workloads} del paquete por defecto. */
+    public interface Factory {
+        Workload create(String name, String... params) throws Exception;
+    }
+
+    private static final Map<String, Factory> factories = new HashMap<>();
+
+    private Workloads() {
+    }
+
+    /** Workload {@code name} de {@code HotPathWorkloads} con frames de {@code resolution} ("1280x720"). */
+    public static Workload create(String name, String resolution) throws Exception {
+        return create("HotPathWorkloads", name, resolution);
+    }
+
+    /** Workload {@code name} de la clase {@code factory} del paquete por defecto. */
+    public static synchronized Workload create(String factory, String name, String... params) throws Exception {
+        Factory f = factories.get(factory);
+        if (f == null) {
+            f = (Factory) Class.forName(factory).getDeclaredConstructor().newInstance();
+            factories.put(factory, f);
+        }
+        return f.create(name, params);
+    }
+
+    /**
+     * Cierra todos los workloads aunque alguno falle (los {@code null}, de un
+     * {@code @Setup} que no llegó a crearlos, se saltan) y relanza el primer
+     * error.
+     */
+    public static void closeAll(Workload... workloads) throws Exception {
+        Exception failure = null;
+        for (Workload w : workloads) {
+            try {
+                if (w != null) {
+                    w.close();
+                }
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** Ancho y alto de una resolución {@code "ANCHOxALTO"}. */
+    public static int[] resolution(String resolution) {
+        String[] size = resolution.split("x");
+        return new int[] {Integer.parseInt(size[0]), Integer.parseInt(size[1])};
+    }
+}
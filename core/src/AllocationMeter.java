@@ -0,0 +1,84 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Mide los bytes asignados en el heap por un conjunto de hilos.
+ *
+ * <p>Usa {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes}
+ * (HotSpot/OpenJ9). En JVMs sin soporte {@link #isSupported()} devuelve
+ * {@code false} y todas las lecturas son 0. Lo mismo pasa en cuanto se
+ * registra un hilo virtual ({@code -Dio.hilos=virtuales}): la JVM no mide sus
+ * asignaciones y una cifra sin ellos sería engañosa.</p>
+ */
+public class AllocationMeter {
+    private final com.sun.management.ThreadMXBean mxBean;
+    private final CopyOnWriteArrayList<Thread> threads = new CopyOnWriteArrayList<>();
+    private volatile boolean virtualThreads;
+
+    private long lastBytes;
+    private long lastNanos;
+    private double bytesPerSecond;
+
+    public AllocationMeter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean sunBean = null;
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (!sunBean.isThreadAllocatedMemorySupported()) {
+                sunBean = null;
+            } else if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+        this.mxBean = sunBean;
+    }
+
+    /** {@code false} si la JVM no mide asignaciones o alguno de los hilos es virtual. */
+    public boolean isSupported() {
+        return mxBean != null && !virtualThreads;
+    }
+
+    public void track(Thread thread) {
+        if (IoThreads.isVirtual(thread)) {
+            virtualThreads = true;
+            return;
+        }
+        threads.add(thread);
+    }
+
+    /** Bytes asignados en total por los hilos registrados que siguen vivos. */
+    public long getAllocatedBytes() {
+        if (!isSupported()) {
+            return 0;
+        }
+        long total = 0;
+        for (Thread t : threads) {
+            long bytes = mxBean.getThreadAllocatedBytes(t.getId());
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Calcula la tasa de asignación desde la llamada anterior.
+     * Pensado para invocarse periódicamente (p.ej. una vez por segundo).
+     */
+    public synchronized double sample() {
+        long now = System.nanoTime();
+        long bytes = getAllocatedBytes();
+        if (lastNanos != 0 && now > lastNanos) {
+            bytesPerSecond = (bytes - lastBytes) * 1e9 / (now - lastNanos);
+        }
+        lastBytes = bytes;
+        lastNanos = now;
+        return bytesPerSecond;
+    }
+
+    /** Última tasa calculada por {@link #sample()}, en bytes por segundo. */
+    public synchronized double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+}
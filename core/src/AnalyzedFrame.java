@@ -0,0 +1,33 @@
+import java.util.List;
+
+/**
+ * Resultado de la etapa de inferencia: el frame y sus detecciones.
+ */
+public class AnalyzedFrame {
+    private final Frame frame;
+    private final List<Detection> detections;
+
+    public AnalyzedFrame(Frame frame, List<Detection> detections) {
+        this.frame = frame;
+        this.detections = detections;
+    }
+
+    public Frame getFrame() {
+        return frame;
+    }
+
+    public List<Detection> getDetections() {
+        return detections;
+    }
+
+    /** Detección con mayor confianza, o {@code null} si no hay ninguna. */
+    public Detection getBest() {
+        Detection best = null;
+        for (Detection d : detections) {
+            if (best == null || d.getConfidence() > best.getConfidence()) {
+                best = d;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,456 @@
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+
+/**
+ * Procesamiento por lotes sin interfaz de directorios de videos e imágenes.
+ *
+ * <p>Recorre un directorio (o un patrón glob), pasa cada archivo por el mismo
+ * {@link Detector} que usan las vistas y escribe las filas en un CSV
+ * {@code archivo,frame,clase,confianza}. Los archivos se reparten en un pool
+ * de tamaño fijo con una cola acotada, así que recorrer miles de archivos no
+ * los carga todos en memoria.</p>
+ *
+ * <p>Tras escribir las filas de cada archivo se añade una línea al archivo de
+ * checkpoint con la posición del CSV en ese momento. Al reanudar se omiten los
+ * archivos ya registrados y el CSV se recorta a la última posición registrada,
+ * de modo que un corte a mitad de escritura no deja filas duplicadas.</p>
+ */
+public class BatchProcessor {
+
+    private static final String[] IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".bmp"};
+    private static final String HEADER = "archivo,frame,clase,confianza\n";
+
+    private final Detector detector;
+    private final int workers;
+    private final int segmentFrames;
+    private SamplingPolicy sampling = SamplingPolicy.all();
+    private TrackingPolicy tracking = TrackingPolicy.none();
+    private long reportPeriodMs = 5000;
+    private Path spoolDirectory;
+    private DetectionLog detectionLog;
+
+    private final AtomicInteger filesDone = new AtomicInteger();
+    private final AtomicInteger filesFailed = new AtomicInteger();
+    private final AtomicLong framesDone = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final Object outputLock = new Object();
+    private int filesTotal;
+    private int filesSkipped;
+    private long startNanos;
+
+    /**
+     * @param detector      backend de inferencia; se invoca en paralelo
+     * @param workers       archivos en paralelo; 0 para usar tantos como núcleos
+     * @param segmentFrames tamaño de segmento para {@link VideoProcessingEngine}
+     */
+    public BatchProcessor(Detector detector, int workers, int segmentFrames) {
+        this.detector = detector;
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.segmentFrames = segmentFrames;
+    }
+
+    /** Muestreo aplicado a cada video (ver {@link VideoProcessingEngine#setSampling}). */
+    public void setSampling(SamplingPolicy sampling) {
+        this.sampling = sampling;
+    }
+
+    /** Seguimiento aplicado a cada video (ver {@link VideoProcessingEngine#setTracking}). */
+    public void setTracking(TrackingPolicy tracking) {
+        this.tracking = tracking;
+    }
+
+    /**
+     * Directorio donde guardar un {@link FrameSpool} por video procesado, para
+     * reanalizarlos después pasando los {@code .spool} como entrada.
+     * {@code null} (por defecto) para no guardarlos.
+     */
+    public void setSpoolDirectory(Path spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    /**
+     * Registro donde guardar también las detecciones, con la ruta del archivo
+     * como fuente y su fecha de modificación (más la posición del frame) como
+     * instante. Un archivo que se cortó a medias y se repite al reanudar queda
+     * registrado dos veces. {@code null} (por defecto) para no guardarlas.
+     */
+    public void setDetectionLog(DetectionLog detectionLog) {
+        this.detectionLog = detectionLog;
+    }
+
+    /** Cada cuánto se imprime el avance en stderr; 0 para no imprimirlo. */
+    public void setReportPeriodMs(long reportPeriodMs) {
+        this.reportPeriodMs = reportPeriodMs;
+    }
+
+    /** Indica si el archivo es un video o una imagen que sabemos procesar. */
+    public static boolean isSupported(Path path) {
+        return VideoFiles.isSupported(path) || isImage(path);
+    }
+
+    private static boolean isImage(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String ext : IMAGE_EXTENSIONS) {
+            if (name.endsWith(ext)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Archivos soportados bajo {@code input}, ordenados. Si {@code input}
+     * contiene comodines ({@code * ? [ {}) se interpreta como glob relativo
+     * al directorio fijo más largo que lo precede, p. ej. {@code videos/**.mjpeg}.
+     */
+    public static List<Path> listInputs(String input) throws IOException {
+        Path base;
+        PathMatcher matcher;
+        int wildcard = firstWildcard(input);
+        if (wildcard < 0) {
+            base = Paths.get(input);
+            matcher = null;
+            if (Files.isRegularFile(base)) {
+                return List.of(base.toAbsolutePath().normalize());
+            }
+        } else {
+            int cut = Math.max(input.lastIndexOf('/', wildcard), input.lastIndexOf('\\', wildcard));
+            base = Paths.get(cut < 0 ? "." : input.substring(0, cut + 1));
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + input.substring(cut + 1));
+        }
+        if (!Files.isDirectory(base)) {
+            throw new IOException("No existe el directorio: " + base);
+        }
+        Path root = base;
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(BatchProcessor::isSupported)
+                    .filter(p -> matcher == null || matcher.matches(root.relativize(p)))
+                    .map(p -> p.toAbsolutePath().normalize())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int firstWildcard(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Procesa {@code files} y escribe las filas en {@code output}. Si
+     * {@code resume} es verdadero y existe {@code checkpoint}, continúa donde
+     * se quedó la ejecución anterior; si no, empieza de cero.
+     *
+     * @return archivos que fallaron (se reintentan en la siguiente reanudación)
+     */
+    public int run(List<Path> files, Path output, Path checkpoint, boolean resume)
+            throws IOException, InterruptedException {
+        Set<String> done = new HashSet<>();
+        long offset = resume ? readCheckpoint(checkpoint, done) : -1;
+        if (offset < 0) {
+            done.clear();
+            Files.deleteIfExists(checkpoint);
+        }
+        List<Path> pending = new ArrayList<>(files.size());
+        for (Path file : files) {
+            if (!done.contains(file.toString())) {
+                pending.add(file);
+            }
+        }
+        filesTotal = files.size();
+        filesSkipped = files.size() - pending.size();
+        filesDone.set(0);
+        filesFailed.set(0);
+        framesDone.set(0);
+        rowsWritten.set(0);
+        startNanos = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                Writer checkpointOut = Files.newBufferedWriter(checkpoint, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            channel.truncate(Math.max(0, offset));
+            channel.position(Math.max(0, offset));
+            Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                    StandardCharsets.UTF_8));
+            if (offset <= 0) {
+                out.write(HEADER);
+                out.flush();
+            }
+
+            ScheduledExecutorService reporter = null;
+            if (reportPeriodMs > 0) {
+                reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "lote-avance");
+                    t.setDaemon(true);
+                    return t;
+                });
+                reporter.scheduleAtFixedRate(() -> System.err.println(report()),
+                        reportPeriodMs, reportPeriodMs, TimeUnit.MILLISECONDS);
+            }
+            Semaphore slots;
+            ExecutorService pool;
+            if (IoThreads.isVirtualEnabled()) {
+                // Un hilo virtual por archivo; el semáforo limita cuántos van a la vez
+                slots = new Semaphore(workers);
+                pool = IoThreads.newPerTaskExecutor("lote-worker");
+            } else {
+                // Como mucho dos archivos en cola por hilo: el recorrido no se adelanta al trabajo
+                slots = new Semaphore(workers * 2);
+                pool = Executors.newFixedThreadPool(workers, r -> {
+                    Thread t = new Thread(r, "lote-worker");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            try {
+                for (Path file : pending) {
+                    slots.acquire();
+                    pool.execute(() -> {
+                        try {
+                            processFile(file, out, channel, checkpointOut);
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                }
+                pool.shutdown();
+                while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                    // sigue esperando: los videos largos pueden tardar
+                }
+            } finally {
+                pool.shutdownNow();
+                if (reporter != null) {
+                    reporter.shutdownNow();
+                }
+            }
+        }
+        return filesFailed.get();
+    }
+
+    private void processFile(Path file, Writer out, FileChannel channel, Writer checkpointOut) {
+        StringBuilder rows = new StringBuilder();
+        String name = csvField(file.toString());
+        try {
+            if (isImage(file)) {
+                processImage(file, name, rows);
+            } else {
+                processVideo(file, name, rows);
+            }
+            synchronized (outputLock) {
+                out.write(rows.toString());
+                out.flush();
+                checkpointOut.write(channel.position() + "\t" + file + "\n");
+                checkpointOut.flush();
+            }
+            filesDone.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            filesFailed.incrementAndGet();
+            System.err.println("Error en " + file + ": " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void processImage(Path file, String name, StringBuilder rows) throws IOException {
+        Frame frame = IoThreads.compute(() -> decodeImage(file));
+        List<Detection> detections = detector.detect(frame);
+        if (detectionLog != null) {
+            detectionLog.append(Files.getLastModifiedTime(file).toMillis(), file.toString(), 0, detections);
+        }
+        for (Detection d : detections) {
+            appendRow(rows, name, 0, d.getLabel(), d.getConfidence());
+        }
+        framesDone.incrementAndGet();
+    }
+
+    private static Frame decodeImage(Path file) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        if (image == null) {
+            throw new IOException("No se pudo decodificar la imagen");
+        }
+        return FrameConverter.fromImage(image, 0, System.nanoTime());
+    }
+
+    private void processVideo(Path file, String name, StringBuilder rows)
+            throws IOException, InterruptedException {
+        // Un hilo por video: el paralelismo está entre archivos, no dentro de cada uno
+        VideoProcessingEngine engine = new VideoProcessingEngine(detector, 1, segmentFrames);
+        engine.setSampling(sampling);
+        engine.setTracking(tracking);
+        AtomicLong seen = new AtomicLong();
+        FrameResultStore store;
+        try (VideoFile video = VideoFiles.open(file);
+                FrameSpool spool = createSpool(video, file)) {
+            engine.setSpool(spool);
+            if (detectionLog != null) {
+                engine.setDetectionLog(detectionLog, file.toString(), Files.getLastModifiedTime(file).toMillis());
+            }
+            store = engine.process(video, (n, total) -> framesDone.addAndGet(n - seen.getAndSet(n)));
+        }
+        for (int i = 0; i < store.size(); i++) {
+            appendRow(rows, name, store.getFrame(i), store.getLabel(i), store.getConfidence(i));
+        }
+    }
+
+    private FrameSpool createSpool(VideoFile video, Path file) throws IOException {
+        if (spoolDirectory == null || video instanceof FrameSpool) {
+            return null;
+        }
+        Files.createDirectories(spoolDirectory);
+        // La ruta completa en el nombre evita choques entre directorios
+        String name = file.toString().replaceAll("[/\\\\:]", "_") + FrameSpool.EXTENSION;
+        return FrameSpool.create(spoolDirectory.resolve(name), video);
+    }
+
+    private void appendRow(StringBuilder rows, String name, long frame, String label, float confidence) {
+        rows.append(name).append(',').append(frame).append(',').append(csvField(label)).append(',')
+                .append(String.format(Locale.ROOT, "%.4f", confidence)).append('\n');
+        rowsWritten.incrementAndGet();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Lee el checkpoint y devuelve la posición del CSV tras el último archivo
+     * completo, o -1 si no hay checkpoint. Ignora una última línea a medias.
+     */
+    private static long readCheckpoint(Path checkpoint, Set<String> done) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return -1;
+        }
+        String content = new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8);
+        int end = content.lastIndexOf('\n');
+        long offset = 0;
+        for (String line : content.substring(0, end + 1).split("\n")) {
+            int tab = line.indexOf('\t');
+            if (tab > 0) {
+                offset = Math.max(offset, Long.parseLong(line.substring(0, tab)));
+                done.add(line.substring(tab + 1));
+            }
+        }
+        return offset;
+    }
+
+    /** Línea de avance: archivos, frames por segundo y tiempo restante estimado. */
+    public String report() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        int finished = filesDone.get() + filesFailed.get();
+        int remaining = filesTotal - filesSkipped - finished;
+        double filesPerSecond = finished / seconds;
+        String eta = finished == 0 ? "?" : String.format(Locale.ROOT, "%.0f s", remaining / filesPerSecond);
+        return String.format(Locale.ROOT,
+                "%d/%d archivos (%d ya hechos, %d errores), %d frames, %d filas | %.1f fps, %.2f archivos/s | %.1f s, quedan %s",
+                filesSkipped + finished, filesTotal, filesSkipped, filesFailed.get(), framesDone.get(),
+                rowsWritten.get(), framesDone.get() / seconds, filesPerSecond, seconds, eta);
+    }
+
+    /**
+     * {@code BatchProcessor <directorio|glob> <salida.csv> [--workers N] [--segmento N] [--muestreo X] [--seguimiento X] [--spool DIR] [--registro DIR] [--reiniciar]}
+     *
+     * <p>El checkpoint se guarda junto a la salida ({@code salida.csv.checkpoint}).
+     * Con {@code --spool} los frames de cada video quedan en {@code DIR} para
+     * volver a lanzar el lote sobre {@code DIR} con otro detector u otro umbral.
+     * Con {@code --registro} las detecciones se añaden además a un
+     * {@link DetectionLog} en {@code DIR}. {@code --seguimiento} sigue el formato
+     * de {@link TrackingPolicy#parse(String)}; el CSV no incluye los ids de objeto.
+     * El backend de detección se elige con las propiedades de {@link Detectors}.</p>
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: BatchProcessor <directorio|glob> <salida.csv> [--workers N] [--segmento N] "
+                    + "[--muestreo X] [--seguimiento X] [--spool DIR] [--registro DIR] [--reiniciar]");
+            System.exit(2);
+        }
+        int workers = 0;
+        int segment = 300;
+        SamplingPolicy sampling = SamplingPolicy.all();
+        TrackingPolicy tracking = TrackingPolicy.none();
+        Path spoolDirectory = null;
+        Path logDirectory = null;
+        boolean resume = true;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--workers":
+                    workers = Integer.parseInt(args[++i]);
+                    break;
+                case "--segmento":
+                    segment = Integer.parseInt(args[++i]);
+                    break;
+                case "--muestreo":
+                    sampling = SamplingPolicy.parse(args[++i]);
+                    break;
+                case "--seguimiento":
+                    tracking = TrackingPolicy.parse(args[++i]);
+                    break;
+                case "--spool":
+                    spoolDirectory = Paths.get(args[++i]);
+                    break;
+                case "--registro":
+                    logDirectory = Paths.get(args[++i]);
+                    break;
+                case "--reiniciar":
+                    resume = false;
+                    break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        List<Path> files = listInputs(args[0]);
+        Path output = Paths.get(args[1]);
+        Path checkpoint = Paths.get(args[1] + ".checkpoint");
+
+        int failed;
+        BatchProcessor batch;
+        try (Detector detector = Detectors.fromSystemProperties();
+                DetectionLog log = logDirectory == null ? null
+                        : new DetectionLog(logDirectory, DetectionLog.SyncPolicy.GROUP_COMMIT, 200)) {
+            batch = new BatchProcessor(detector, workers, segment);
+            batch.setDetectionLog(log);
+            batch.setSampling(sampling);
+            batch.setTracking(tracking);
+            batch.setSpoolDirectory(spoolDirectory);
+            failed = batch.run(files, output, checkpoint, resume);
+        }
+        System.out.println(batch.report());
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,202 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transporte binario compacto para {@code /detect} y {@code /detect-batch}.
+ *
+ * <p>Evita el base64 dentro de JSON (un 33% más de bytes y CPU para
+ * codificar y parsear en ambos extremos). Todos los enteros son big-endian.</p>
+ *
+ * <pre>
+ * Petición:  "DTB1" | umbral float32 | n int32 | n × (longitud int32 | bytes JPEG/PNG)
+ * Respuesta: "DTR1" | clases int16 | clases × (id int16 | longitud int16 | nombre UTF-8)
+ *            | n int32 | n × (estado int8 | m int16 | m × detección)
+ * Detección: clase int16 | confianza float32 | x, y, ancho, alto int16   (14 bytes)
+ * </pre>
+ *
+ * <p>La tabla de clases de la respuesta sólo incluye las que aparecen, así
+ * que cada detección ocupa 14 bytes en lugar de ~90 en JSON.</p>
+ */
+public final class BinaryDetectionProtocol {
+    public static final String CONTENT_TYPE = "application/x-deteccion-bin";
+
+    static final int REQUEST_MAGIC = 0x44544231;  // "DTB1"
+    static final int RESPONSE_MAGIC = 0x44545231; // "DTR1"
+    static final int DETECTION_BYTES = 14;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ERROR = 1;
+
+    private BinaryDetectionProtocol() {
+    }
+
+    /** Petición decodificada; las imágenes son vistas sobre el buffer original, sin copia. */
+    public static class Request {
+        public final float umbral;
+        public final List<ByteBuffer> images;
+
+        Request(float umbral, List<ByteBuffer> images) {
+            this.umbral = umbral;
+            this.images = images;
+        }
+    }
+
+    /**
+     * Cabecera de la petición y un prefijo de longitud por imagen. Junto con
+     * las propias imágenes forma el cuerpo completo (ver {@link #requestParts}).
+     */
+    public static List<byte[]> requestParts(List<byte[]> images, double umbral) {
+        List<byte[]> parts = new ArrayList<>(images.size() * 2 + 1);
+        parts.add(ByteBuffer.allocate(12).putInt(REQUEST_MAGIC).putFloat((float) umbral)
+                .putInt(images.size()).array());
+        for (byte[] image : images) {
+            parts.add(ByteBuffer.allocate(4).putInt(image.length).array());
+            parts.add(image);
+        }
+        return parts;
+    }
+
+    /** Petición completa en un solo array (para pruebas y benchmarks). */
+    public static byte[] encodeRequest(List<byte[]> images, double umbral) {
+        int size = 12;
+        for (byte[] image : images) {
+            size += 4 + image.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        for (byte[] part : requestParts(images, umbral)) {
+            out.put(part);
+        }
+        return out.array();
+    }
+
+    public static Request decodeRequest(ByteBuffer in) {
+        try {
+            in = in.duplicate().order(ByteOrder.BIG_ENDIAN);
+            if (in.getInt() != REQUEST_MAGIC) {
+                throw new IllegalArgumentException("Petición binaria no reconocida");
+            }
+            float umbral = in.getFloat();
+            int count = checkCount(in, in.getInt(), 4);
+            List<ByteBuffer> images = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = checkCount(in, in.getInt(), 1);
+                ByteBuffer image = in.slice();
+                image.limit(length);
+                images.add(image);
+                in.position(in.position() + length);
+            }
+            return new Request(umbral, images);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Petición binaria truncada o inválida", e);
+        }
+    }
+
+    /**
+     * Codifica los resultados de varias imágenes.
+     * Un elemento {@code null} en la lista indica que esa imagen falló.
+     */
+    public static byte[] encodeResults(List<List<Detection>> results) {
+        Map<String, Short> classIds = new HashMap<>();
+        List<byte[]> classNames = new ArrayList<>();
+        int detections = 0;
+        for (List<Detection> result : results) {
+            if (result == null) {
+                continue;
+            }
+            for (Detection d : result) {
+                if (!classIds.containsKey(d.getLabel())) {
+                    classIds.put(d.getLabel(), (short) classNames.size());
+                    classNames.add(d.getLabel().getBytes(StandardCharsets.UTF_8));
+                }
+                detections++;
+            }
+        }
+        int size = 4 + 2 + 4 + results.size() * 3 + detections * DETECTION_BYTES;
+        for (byte[] name : classNames) {
+            size += 4 + name.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(RESPONSE_MAGIC).putShort((short) classNames.size());
+        for (int i = 0; i < classNames.size(); i++) {
+            out.putShort((short) i).putShort((short) classNames.get(i).length).put(classNames.get(i));
+        }
+        out.putInt(results.size());
+        for (List<Detection> result : results) {
+            if (result == null) {
+                out.put(STATUS_ERROR).putShort((short) 0);
+                continue;
+            }
+            out.put(STATUS_OK).putShort((short) result.size());
+            for (Detection d : result) {
+                out.putShort(classIds.get(d.getLabel()))
+                        .putFloat(d.getConfidence())
+                        .putShort(clamp(d.getX()))
+                        .putShort(clamp(d.getY()))
+                        .putShort(clamp(d.getWidth()))
+                        .putShort(clamp(d.getHeight()));
+            }
+        }
+        return out.array();
+    }
+
+    /** Decodifica la respuesta; los elementos {@code null} son imágenes que fallaron. */
+    public static List<List<Detection>> decodeResults(ByteBuffer in) {
+        try {
+            in = in.duplicate().order(ByteOrder.BIG_ENDIAN);
+            if (in.getInt() != RESPONSE_MAGIC) {
+                throw new IllegalArgumentException("Respuesta binaria no reconocida");
+            }
+            int classCount = checkCount(in, in.getShort(), 4);
+            Map<Short, String> classNames = new HashMap<>(classCount * 2);
+            for (int i = 0; i < classCount; i++) {
+                short id = in.getShort();
+                byte[] name = new byte[checkCount(in, in.getShort(), 1)];
+                in.get(name);
+                classNames.put(id, new String(name, StandardCharsets.UTF_8));
+            }
+            int count = checkCount(in, in.getInt(), 3);
+            List<List<Detection>> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte status = in.get();
+                int n = checkCount(in, in.getShort(), DETECTION_BYTES);
+                if (status != STATUS_OK) {
+                    results.add(null);
+                    continue;
+                }
+                List<Detection> detections = n == 0 ? Collections.emptyList() : new ArrayList<>(n);
+                for (int j = 0; j < n; j++) {
+                    String label = classNames.getOrDefault(in.getShort(), "?");
+                    detections.add(new Detection(label, in.getFloat(), in.getShort(), in.getShort(),
+                            in.getShort(), in.getShort()));
+                }
+                results.add(detections);
+            }
+            return results;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Respuesta binaria truncada", e);
+        }
+    }
+
+    /**
+     * Comprueba un contador o una longitud leídos del mensaje antes de
+     * reservar memoria con él: no puede ser negativo ni pedir más elementos
+     * de {@code minBytes} bytes de los que quedan en {@code in}.
+     */
+    private static int checkCount(ByteBuffer in, int count, int minBytes) {
+        if (count < 0 || (long) count * minBytes > in.remaining()) {
+            throw new IllegalArgumentException("Longitud inválida en el mensaje binario: " + count);
+        }
+        return count;
+    }
+
+    private static short clamp(int value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    }
+}
@@ -0,0 +1,280 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de resultados delante de cualquier {@link Detector}.
+ *
+ * <p>La clave es un hash de 64 bits de una miniatura de
+ * {@value #THUMB_W}x{@value #THUMB_H} del frame (promedio por bloques,
+ * cuantizado a 5 bits por canal para ignorar el ruido del sensor) junto con
+ * su tamaño, así que una imagen reenviada o una racha de frames idénticos
+ * de una cámara fija no vuelven a llegar al backend. Calcular la clave cuesta
+ * una pasada por el frame, mucho menos que una detección.</p>
+ *
+ * <p>Las entradas caducan a los {@code ttl} y, con la caché llena, se expulsa
+ * la usada hace más tiempo. Es thread-safe; los contadores se pueden leer
+ * en cualquier momento.</p>
+ */
+public class CachingDetector implements Detector {
+    static final int THUMB_W = 64;
+    static final int THUMB_H = 36;
+    private static final int QUANTIZE_MASK = 0xF8F8F8;
+
+    private final Detector delegate;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    private final ThreadLocal<int[][]> scratch =
+            ThreadLocal.withInitial(() -> new int[][] {new int[THUMB_W * THUMB_H], new int[THUMB_W * 3]});
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /** Identifica el contenido de un frame. */
+    static final class Key {
+        final long hash;
+        final int width;
+        final int height;
+
+        Key(long hash, int width, int height) {
+            this.hash = hash;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return hash == k.hash && width == k.width && height == k.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+
+    private static final class Entry {
+        final List<Detection> detections;
+        final long expiresAt;
+
+        Entry(List<Detection> detections, long expiresAt) {
+            this.detections = detections;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * @param delegate   backend al que se llama en caso de fallo de caché
+     * @param maxEntries número máximo de resultados guardados
+     * @param ttl        tiempo de vida de cada resultado
+     */
+    public CachingDetector(Detector delegate, int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries <= 0 || ttl <= 0) {
+            throw new IllegalArgumentException("maxEntries y ttl deben ser > 0");
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > CachingDetector.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public List<Detection> detect(Frame frame) {
+        Key key = keyOf(frame);
+        List<Detection> cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return store(key, delegate.detect(frame));
+    }
+
+    /**
+     * La clave sólo tiene en cuenta las celdas de la miniatura que tocan la
+     * máscara (un reloj sobreimpreso fuera de ella no invalida el resultado)
+     * y la propia máscara.
+     */
+    @Override
+    public List<Detection> detect(Frame frame, RoiMask.Bitmap roi) {
+        Key key = keyOf(frame, roi);
+        List<Detection> cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return store(key, delegate.detect(frame, roi));
+    }
+
+    @Override
+    public List<List<Detection>> detectAll(List<Frame> frames) {
+        List<List<Detection>> results = new ArrayList<>(frames.size());
+        List<Key> missKeys = new ArrayList<>();
+        List<Frame> missFrames = new ArrayList<>();
+        List<Integer> missSlots = new ArrayList<>();
+        for (Frame frame : frames) {
+            Key key = keyOf(frame);
+            List<Detection> cached = lookup(key);
+            if (cached == null) {
+                missKeys.add(key);
+                missFrames.add(frame);
+                missSlots.add(results.size());
+            }
+            results.add(cached);
+        }
+        if (!missFrames.isEmpty()) {
+            List<List<Detection>> fresh = delegate.detectAll(missFrames);
+            for (int i = 0; i < fresh.size(); i++) {
+                results.set(missSlots.get(i), store(missKeys.get(i), fresh.get(i)));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<List<Detection>> detectAsync(Frame frame, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> keyOf(frame), executor).thenCompose(key -> {
+            List<Detection> cached = lookup(key);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            return delegate.detectAsync(frame, executor).thenApply(detections -> store(key, detections));
+        });
+    }
+
+    Key keyOf(Frame frame) {
+        return keyOf(frame, null);
+    }
+
+    private Key keyOf(Frame frame, RoiMask.Bitmap roi) {
+        int[][] s = scratch.get();
+        int[] thumb = s[0];
+        FramePreprocessor.downscale(frame, thumb, THUMB_W, THUMB_H, s[1]);
+        boolean[] cells = roi != null ? roi.grid(THUMB_W, THUMB_H) : null;
+        long h = roi != null ? 0xCBF29CE484222325L ^ roi.getMask().hashCode() : 0xCBF29CE484222325L;
+        for (int i = 0; i < thumb.length; i++) {
+            int rgb = cells == null || cells[i] ? thumb[i] & QUANTIZE_MASK : 0;
+            h = (h ^ rgb) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 29;
+        }
+        return new Key(h, frame.getWidth(), frame.getHeight());
+    }
+
+    private List<Detection> lookup(Key key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.expiresAt < 0) {
+                    hits.increment();
+                    return entry.detections;
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /** Guarda el resultado y lo devuelve como lista inmutable, ya que se compartirá entre llamadores. */
+    private List<Detection> store(Key key, List<Detection> detections) {
+        List<Detection> shared = Collections.unmodifiableList(detections);
+        Entry entry = new Entry(shared, System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        return shared;
+    }
+
+    /** Vacía la caché sin tocar los contadores. */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getTtlMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(ttlNanos);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** Entradas expulsadas por falta de espacio. */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** Entradas descartadas por haber superado el TTL. */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /** Fracción de consultas resueltas desde la caché (0 a 1). */
+    public double getHitRatio() {
+        long h = hits.sum();
+        long m = misses.sum();
+        return h + m == 0 ? 0 : (double) h / (h + m);
+    }
+
+    @Override
+    public void setMetrics(PipelineMetrics metrics) {
+        delegate.setMetrics(metrics);
+    }
+
+    public Detector getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName() + " + caché";
+    }
+
+    @Override
+    public void close() {
+        clear();
+        delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("caché: %d/%d entradas, %d aciertos, %d fallos (%.1f%%), %d expulsadas, %d caducadas",
+                size(), maxEntries, getHits(), getMisses(), getHitRatio() * 100, getEvictions(), getExpirations());
+    }
+}
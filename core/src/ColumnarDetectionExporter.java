@@ -0,0 +1,236 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Exporta detecciones en un formato columnar por bloques ({@code .dcol}),
+ * pensado para análisis que solo leen algunas columnas.
+ *
+ * <p>Las filas se acumulan en bloques de {@value #CHUNK_ROWS}; al llenarse,
+ * cada columna del bloque se escribe seguida, en little-endian y, si se pide
+ * compresión, deflate por separado. Fuentes y clases se guardan como índices
+ * a diccionarios que van en el pie. Estructura del archivo:</p>
+ * <pre>
+ * cabecera  "DCOL" versión:u8 códec:u8 (0 sin comprimir, 1 deflate) 0:u16
+ * bloques   por cada bloque, las columnas de {@link Column} en ese orden
+ * pie       fuentes:i32 [longitud:u16 UTF-8]…  clases:i32 [longitud:u16 UTF-8]…
+ *           bloques:i32 [posición:i64 filas:i32 frameMín:i64 frameMáx:i64 bytesColumna:i32×9]…
+ * final     posiciónPie:i64 "DCOL"
+ * </pre>
+ * <p>La memoria es la de un bloque (unos 3 MB con sus buffers) más los
+ * diccionarios y la tabla de bloques, que crece 64 bytes cada 65.536 filas.
+ * {@link ColumnarDetectionReader} lo lee.</p>
+ */
+public class ColumnarDetectionExporter implements DetectionExporter {
+
+    static final byte[] MAGIC = {'D', 'C', 'O', 'L'};
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int TRAILER_BYTES = 12;
+    public static final int CHUNK_ROWS = 65_536;
+
+    /** Columnas en el orden en que se escriben dentro de cada bloque. */
+    public enum Column {
+        SOURCE(2), FRAME(8), TIME(8), CLASS(2), CONFIDENCE(4), X(2), Y(2), WIDTH(2), HEIGHT(2);
+
+        /** Bytes por fila sin comprimir. */
+        public final int width;
+
+        Column(int width) {
+            this.width = width;
+        }
+    }
+
+    private final FileChannel channel;
+    private final Deflater deflater;
+    private final Map<String, Integer> sources = new HashMap<>();
+    private final Map<String, Integer> classes = new HashMap<>();
+    private final List<String> sourceNames = new ArrayList<>();
+    private final List<String> classNames = new ArrayList<>();
+    private final List<long[]> chunks = new ArrayList<>();
+
+    private final short[] source = new short[CHUNK_ROWS];
+    private final long[] frame = new long[CHUNK_ROWS];
+    private final long[] time = new long[CHUNK_ROWS];
+    private final short[] label = new short[CHUNK_ROWS];
+    private final float[] confidence = new float[CHUNK_ROWS];
+    private final short[] x = new short[CHUNK_ROWS];
+    private final short[] y = new short[CHUNK_ROWS];
+    private final short[] width = new short[CHUNK_ROWS];
+    private final short[] height = new short[CHUNK_ROWS];
+    private final ByteBuffer raw = ByteBuffer.allocate(CHUNK_ROWS * 8).order(ByteOrder.LITTLE_ENDIAN);
+    private final byte[] compressed;
+    private int rows;
+    private long position;
+
+    /** @param compress deflate por columna */
+    public ColumnarDetectionExporter(Path path, boolean compress) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        this.compressed = compress ? new byte[CHUNK_ROWS * 8 + 1024] : null;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.put(MAGIC).put((byte) VERSION).put((byte) (compress ? 1 : 0)).putShort((short) 0).flip();
+        writeFully(header);
+    }
+
+    @Override
+    public void write(String sourceName, long frameIndex, long timestampMillis, List<Detection> detections)
+            throws IOException {
+        if (detections.isEmpty()) {
+            return;
+        }
+        short sourceId = id(sources, sourceNames, sourceName);
+        for (Detection d : detections) {
+            source[rows] = sourceId;
+            frame[rows] = frameIndex;
+            time[rows] = timestampMillis;
+            label[rows] = id(classes, classNames, d.getLabel());
+            confidence[rows] = d.getConfidence();
+            x[rows] = clamp(d.getX());
+            y[rows] = clamp(d.getY());
+            width[rows] = clamp(d.getWidth());
+            height[rows] = clamp(d.getHeight());
+            if (++rows == CHUNK_ROWS) {
+                flushChunk();
+            }
+        }
+    }
+
+    private static short id(Map<String, Integer> ids, List<String> names, String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            if (names.size() > 0xFFFF) {
+                throw new IllegalStateException("Más de 65536 nombres distintos en una columna");
+            }
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return (short) id.intValue();
+    }
+
+    /** Coordenadas como u16: el lector las devuelve con {@code & 0xFFFF}. */
+    private static short clamp(int value) {
+        return (short) Math.max(0, Math.min(0xFFFF, value));
+    }
+
+    private void flushChunk() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        long[] entry = new long[4 + Column.values().length];
+        entry[0] = position;
+        entry[1] = rows;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < rows; i++) {
+            min = Math.min(min, frame[i]);
+            max = Math.max(max, frame[i]);
+        }
+        entry[2] = min;
+        entry[3] = max;
+        for (Column column : Column.values()) {
+            raw.clear();
+            for (int i = 0; i < rows; i++) {
+                switch (column) {
+                    case SOURCE: raw.putShort(source[i]); break;
+                    case FRAME: raw.putLong(frame[i]); break;
+                    case TIME: raw.putLong(time[i]); break;
+                    case CLASS: raw.putShort(label[i]); break;
+                    case CONFIDENCE: raw.putFloat(confidence[i]); break;
+                    case X: raw.putShort(x[i]); break;
+                    case Y: raw.putShort(y[i]); break;
+                    case WIDTH: raw.putShort(width[i]); break;
+                    default: raw.putShort(height[i]); break;
+                }
+            }
+            raw.flip();
+            entry[4 + column.ordinal()] = writeColumn();
+        }
+        chunks.add(entry);
+        rows = 0;
+    }
+
+    /** Escribe la columna que hay en {@code raw}, comprimida si toca, y devuelve sus bytes en disco. */
+    private int writeColumn() throws IOException {
+        if (deflater == null) {
+            int length = raw.remaining();
+            writeFully(raw);
+            return length;
+        }
+        deflater.reset();
+        deflater.setInput(raw.array(), 0, raw.limit());
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            length += deflater.deflate(compressed, length, compressed.length - length);
+            if (length == compressed.length && !deflater.finished()) {
+                throw new IllegalStateException("Columna comprimida mayor que el buffer");
+            }
+        }
+        writeFully(ByteBuffer.wrap(compressed, 0, length));
+        return length;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushChunk();
+            long footer = position;
+            List<byte[]> names = new ArrayList<>();
+            int size = 4 + 4 + 4 + chunks.size() * (8 + 4 + 8 + 8 + 4 * Column.values().length) + TRAILER_BYTES;
+            for (List<String> list : List.of(sourceNames, classNames)) {
+                for (String name : list) {
+                    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                    names.add(bytes);
+                    size += 2 + Math.min(bytes.length, 0xFFFF);
+                }
+            }
+            ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(sourceNames.size());
+            int n = 0;
+            for (; n < sourceNames.size(); n++) {
+                putName(out, names.get(n));
+            }
+            out.putInt(classNames.size());
+            for (; n < names.size(); n++) {
+                putName(out, names.get(n));
+            }
+            out.putInt(chunks.size());
+            for (long[] entry : chunks) {
+                out.putLong(entry[0]).putInt((int) entry[1]).putLong(entry[2]).putLong(entry[3]);
+                for (int c = 0; c < Column.values().length; c++) {
+                    out.putInt((int) entry[4 + c]);
+                }
+            }
+            out.putLong(footer).put(MAGIC).flip();
+            writeFully(out);
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+            channel.close();
+        }
+    }
+
+    private static void putName(ByteBuffer out, byte[] bytes) {
+        int length = Math.min(bytes.length, 0xFFFF);
+        out.putShort((short) length).put(bytes, 0, length);
+    }
+}
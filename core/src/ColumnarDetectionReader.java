@@ -0,0 +1,225 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Lee archivos {@code .dcol} de {@link ColumnarDetectionExporter}.
+ *
+ * <p>Al abrir solo se leen el pie y la tabla de bloques; cada columna se lee
+ * (y descomprime) por separado con {@link #readColumn}, así que contar clases
+ * lee 2 bytes por fila en lugar de la fila entera.</p>
+ */
+public class ColumnarDetectionReader implements Closeable {
+
+    private final FileChannel channel;
+    private final boolean compressed;
+    private final List<String> sources;
+    private final List<String> classes;
+    private final long[] chunkOffsets;
+    private final int[] chunkRows;
+    private final long[] chunkMinFrame;
+    private final long[] chunkMaxFrame;
+    private final int[][] columnBytes;
+    private final Inflater inflater = new Inflater();
+    private long bytesRead;
+
+    public ColumnarDetectionReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer header = read(0, ColumnarDetectionExporter.HEADER_BYTES);
+            ByteBuffer trailer = read(size - ColumnarDetectionExporter.TRAILER_BYTES,
+                    ColumnarDetectionExporter.TRAILER_BYTES);
+            if (!hasMagic(header, 0) || !hasMagic(trailer, 8)
+                    || header.get(4) != ColumnarDetectionExporter.VERSION) {
+                throw new IOException("No es un archivo .dcol válido (¿exportación sin cerrar?): " + path);
+            }
+            compressed = header.get(5) == 1;
+            long footer = trailer.getLong(0);
+            ByteBuffer in = read(footer, (int) (size - ColumnarDetectionExporter.TRAILER_BYTES - footer));
+            sources = readNames(in);
+            classes = readNames(in);
+            int count = in.getInt();
+            int columns = ColumnarDetectionExporter.Column.values().length;
+            chunkOffsets = new long[count];
+            chunkRows = new int[count];
+            chunkMinFrame = new long[count];
+            chunkMaxFrame = new long[count];
+            columnBytes = new int[count][columns];
+            for (int i = 0; i < count; i++) {
+                chunkOffsets[i] = in.getLong();
+                chunkRows[i] = in.getInt();
+                chunkMinFrame[i] = in.getLong();
+                chunkMaxFrame[i] = in.getLong();
+                for (int c = 0; c < columns; c++) {
+                    columnBytes[i][c] = in.getInt();
+                }
+            }
+            bytesRead = 0;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static boolean hasMagic(ByteBuffer buffer, int offset) {
+        for (int i = 0; i < 4; i++) {
+            if (buffer.get(offset + i) != ColumnarDetectionExporter.MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> readNames(ByteBuffer in) {
+        int count = in.getInt();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[in.getShort() & 0xFFFF];
+            in.get(bytes);
+            names.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Archivo .dcol truncado");
+            }
+        }
+        bytesRead += length;
+        return buffer.flip();
+    }
+
+    /** Nombres de fuente; los valores de {@code SOURCE} son índices a esta lista. */
+    public List<String> getSources() {
+        return sources;
+    }
+
+    /** Nombres de clase; los valores de {@code CLASS} son índices a esta lista. */
+    public List<String> getClasses() {
+        return classes;
+    }
+
+    public int getChunkCount() {
+        return chunkRows.length;
+    }
+
+    public int getChunkRows(int chunk) {
+        return chunkRows[chunk];
+    }
+
+    /** Frame mínimo del bloque, para saltar bloques fuera de un rango. */
+    public long getChunkMinFrame(int chunk) {
+        return chunkMinFrame[chunk];
+    }
+
+    public long getChunkMaxFrame(int chunk) {
+        return chunkMaxFrame[chunk];
+    }
+
+    public long getRowCount() {
+        long total = 0;
+        for (int rows : chunkRows) {
+            total += rows;
+        }
+        return total;
+    }
+
+    /** Bytes leídos del archivo desde la apertura, sin contar el pie. */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Devuelve una columna de un bloque descomprimida, en little-endian y con
+     * {@link ColumnarDetectionExporter.Column#width} bytes por fila. Las
+     * coordenadas son u16: leerlas con {@code getShort(i) & 0xFFFF}.
+     */
+    public ByteBuffer readColumn(int chunk, ColumnarDetectionExporter.Column column) throws IOException {
+        long offset = chunkOffsets[chunk];
+        for (int c = 0; c < column.ordinal(); c++) {
+            offset += columnBytes[chunk][c];
+        }
+        ByteBuffer stored = read(offset, columnBytes[chunk][column.ordinal()]);
+        if (!compressed) {
+            return stored;
+        }
+        byte[] raw = new byte[chunkRows[chunk] * column.width];
+        inflater.reset();
+        inflater.setInput(stored.array(), 0, stored.limit());
+        try {
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, length, raw.length - length);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != raw.length) {
+                throw new IOException("Columna " + column + " del bloque " + chunk + " incompleta");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Columna " + column + " del bloque " + chunk + " dañada", e);
+        }
+        return ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Detecciones por clase, leyendo solo la columna de clases. */
+    public Map<String, Long> countByClass() throws IOException {
+        long[] counts = new long[classes.size()];
+        for (int chunk = 0; chunk < getChunkCount(); chunk++) {
+            ByteBuffer column = readColumn(chunk, ColumnarDetectionExporter.Column.CLASS);
+            for (int i = 0; i < chunkRows[chunk]; i++) {
+                counts[column.getShort(i * 2) & 0xFFFF]++;
+            }
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            result.put(classes.get(i), counts[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    /** {@code ColumnarDetectionReader <archivo.dcol>}: resumen y detecciones por clase. */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: ColumnarDetectionReader <archivo.dcol>");
+            System.exit(2);
+        }
+        try (ColumnarDetectionReader reader = new ColumnarDetectionReader(Paths.get(args[0]))) {
+            System.out.printf(Locale.ROOT, "%,d detecciones en %d bloques, %d fuentes%n", reader.getRowCount(),
+                    reader.getChunkCount(), reader.getSources().size());
+            Map<String, Long> counts = reader.countByClass();
+            String[] names = counts.keySet().toArray(new String[0]);
+            Arrays.sort(names, (a, b) -> Long.compare(counts.get(b), counts.get(a)));
+            for (String name : names) {
+                System.out.printf(Locale.ROOT, "%-20s %,12d%n", name, counts.get(name));
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Una detección: clase, confianza y caja en coordenadas del frame original.
+ */
+public class Detection {
+    private final String label;
+    private final float confidence;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+
+    public Detection(String label, float confidence, int x, int y, int width, int height) {
+        this.label = label;
+        this.confidence = confidence;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public float getConfidence() {
+        return confidence;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String toString() {
+        return label + " " + confidence + " [" + x + "," + y + "," + width + "," + height + "]";
+    }
+}
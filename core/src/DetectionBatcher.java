@@ -0,0 +1,212 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Agrupa imágenes en micro-lotes para {@code /detect-batch}.
+ *
+ * <p>Cada {@link #submit(byte[])} se acumula en el lote actual, que se envía
+ * cuando alcanza {@code maxBatch} imágenes o cuando pasan {@code windowMillis}
+ * desde la primera. Cada resultado vuelve al futuro de su imagen según su
+ * posición en el lote; si la API no pudo analizar una imagen su futuro
+ * termina con error. Con {@code maxBatch = 1} equivale a una petición por
+ * imagen.</p>
+ */
+public class DetectionBatcher implements AutoCloseable {
+    private final DetectorPersonasClient client;
+    private final int maxBatch;
+    private final long windowMillis;
+    private final double umbral;
+    private final ScheduledExecutorService timer;
+
+    private List<Pending> current = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+    private boolean closed;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong failedItems = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final long createdNanos = System.nanoTime();
+
+    private static class Pending {
+        final byte[] image;
+        final long submittedNanos;
+        final CompletableFuture<List<Detection>> future = new CompletableFuture<>();
+
+        Pending(byte[] image) {
+            this.image = image;
+            this.submittedNanos = System.nanoTime();
+        }
+    }
+
+    public DetectionBatcher(DetectorPersonasClient client, int maxBatch, long windowMillis, double umbral) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("maxBatch debe ser > 0");
+        }
+        this.client = client;
+        this.maxBatch = maxBatch;
+        this.windowMillis = windowMillis;
+        this.umbral = umbral;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "detection-batcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Añade una imagen codificada al lote en curso. */
+    public CompletableFuture<List<Detection>> submit(byte[] image) {
+        Pending pending = new Pending(image);
+        List<Pending> ready = null;
+        synchronized (this) {
+            if (closed) {
+                pending.future.completeExceptionally(new IllegalStateException("Batcher cerrado"));
+                return pending.future;
+            }
+            current.add(pending);
+            if (current.size() >= maxBatch) {
+                ready = takeCurrent();
+            } else if (current.size() == 1) {
+                List<Pending> batch = current;
+                flushTask = timer.schedule(() -> flushIfCurrent(batch), windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ready != null) {
+            send(ready);
+        }
+        return pending.future;
+    }
+
+    /** Envía ya lo que haya acumulado. */
+    public void flush() {
+        List<Pending> ready;
+        synchronized (this) {
+            ready = takeCurrent();
+        }
+        if (!ready.isEmpty()) {
+            send(ready);
+        }
+    }
+
+    /**
+     * Fin de la ventana de {@code batch}. Si la tarea ya había empezado cuando
+     * el lote se envió por estar lleno, {@code cancel} no la detiene: no debe
+     * enviar antes de tiempo el lote siguiente ni cancelar su ventana.
+     */
+    private void flushIfCurrent(List<Pending> batch) {
+        List<Pending> ready;
+        synchronized (this) {
+            if (current != batch) {
+                return;
+            }
+            ready = takeCurrent();
+        }
+        send(ready);
+    }
+
+    private List<Pending> takeCurrent() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        List<Pending> ready = current;
+        current = new ArrayList<>(maxBatch);
+        return ready;
+    }
+
+    private void send(List<Pending> batch) {
+        batches.incrementAndGet();
+        List<byte[]> images = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            images.add(p.image);
+        }
+        client.detectarLote(images, umbral).whenComplete((results, error) -> {
+            long now = System.nanoTime();
+            for (int i = 0; i < batch.size(); i++) {
+                Pending p = batch.get(i);
+                recordLatency(now - p.submittedNanos);
+                DetectorPersonasClient.DetectionResult r = error == null ? results.get(i) : null;
+                if (r != null && r.exito) {
+                    p.future.complete(r.detecciones);
+                } else {
+                    // Igual que sin lotes: un error de la API no es "no hay nada"
+                    failedItems.incrementAndGet();
+                    p.future.completeExceptionally(error != null ? error
+                            : new IOException(r.mensaje != null ? r.mensaje : "La API devolvió error"));
+                }
+            }
+            items.addAndGet(batch.size());
+        });
+    }
+
+    private void recordLatency(long nanos) {
+        totalLatencyNanos.addAndGet(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        timer.shutdown();
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /** Imágenes con respuesta (correcta o fallida). */
+    public long getItems() {
+        return items.get();
+    }
+
+    public long getFailedItems() {
+        return failedItems.get();
+    }
+
+    public double getAverageBatchSize() {
+        long b = batches.get();
+        return b == 0 ? 0 : (double) items.get() / b;
+    }
+
+    /** Latencia media por imagen, desde {@code submit} hasta la respuesta. */
+    public double getAverageLatencyMillis() {
+        long n = items.get();
+        return n == 0 ? 0 : totalLatencyNanos.get() / 1e6 / n;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1e6;
+    }
+
+    /** Imágenes resueltas por segundo desde que se creó el batcher. */
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - createdNanos) / 1e9;
+        return seconds <= 0 ? 0 : items.get() / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("lote=%d ventana=%dms: %d lotes, %.1f img/lote, latencia media %.1f ms (max %.1f ms), %.1f img/s",
+                maxBatch, windowMillis, getBatches(), getAverageBatchSize(), getAverageLatencyMillis(),
+                getMaxLatencyMillis(), getThroughput());
+    }
+}
@@ -0,0 +1,50 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Destino de exportación de detecciones que escribe a medida que llegan.
+ *
+ * <p>Recibe los frames en orden y no guarda nada más que un buffer de tamaño
+ * fijo, así que exportar un video de horas usa la misma memoria que uno de
+ * segundos. No es seguro entre hilos: {@link VideoProcessingEngine#export}
+ * lo llama siempre desde el mismo.</p>
+ */
+public interface DetectionExporter extends Closeable {
+
+    /**
+     * Añade las detecciones de un frame.
+     *
+     * @param source          nombre del video o de la cámara
+     * @param timestampMillis posición del frame en el video
+     */
+    void write(String source, long frameIndex, long timestampMillis, List<Detection> detections) throws IOException;
+
+    /**
+     * Abre un exportador según la extensión de {@code path}: {@code .csv},
+     * {@code .jsonl} o {@code .dcol} (ver {@link ColumnarDetectionExporter}).
+     * Un {@code .gz} final comprime: con gzip los dos formatos de texto y por
+     * columna el columnar, que así sigue pudiendo leerse columna a columna.
+     * Sobrescribe el archivo si existe.
+     */
+    static DetectionExporter open(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean compressed = name.endsWith(".gz");
+        if (compressed) {
+            name = name.substring(0, name.length() - 3);
+        }
+        if (name.endsWith(".csv")) {
+            return new TextDetectionExporter(path, TextDetectionExporter.Format.CSV, compressed);
+        }
+        if (name.endsWith(".jsonl")) {
+            return new TextDetectionExporter(path, TextDetectionExporter.Format.JSON_LINES, compressed);
+        }
+        if (name.endsWith(".dcol")) {
+            return new ColumnarDetectionExporter(path, compressed);
+        }
+        throw new IllegalArgumentException("Formato de exportación desconocido: " + path.getFileName()
+                + " (se espera .csv, .jsonl o .dcol, con .gz opcional)");
+    }
+}
@@ -0,0 +1,772 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Registro persistente de detecciones, sólo de añadir, en un directorio.
+ *
+ * <p>Cada detección ocupa {@value #RECORD_SIZE} bytes: instante (ms desde
+ * 1970), índice de frame, id de fuente, id de clase, confianza y caja (cuatro
+ * enteros de 16 bits). Los nombres de fuentes y clases se guardan una vez en
+ * {@code nombres.txt}. Los registros van en segmentos {@code segmento-N.log}
+ * de tamaño fijo y cada bloque de {@value #BLOCK_RECORDS} registros tiene una
+ * entrada en el índice {@code indice.bin}: primer y último instante y una
+ * máscara de bits de las clases y fuentes que contiene. Una consulta por rango
+ * de tiempo, fuente y clase recorre el índice en memoria y sólo lee los
+ * bloques que pueden tener resultados.</p>
+ *
+ * <p>Las escrituras se agrupan en memoria. Con {@link SyncPolicy#GROUP_COMMIT}
+ * un hilo escribe el lote cada pocos milisegundos con un único fsync; con
+ * {@link SyncPolicy#FSYNC_EACH_APPEND} cada {@link #append} vuelve cuando sus
+ * registros están en disco (los appends concurrentes comparten el fsync) y
+ * lanza la excepción si el lote que los llevaba no pudo escribirse. Tras un
+ * fallo de escritura el registro no acepta más appends. Las consultas ven los registros ya escritos. Cada entrada del índice se escribe
+ * después de forzar a disco los registros de su bloque; al abrir se descarta
+ * un registro a medias al final, las entradas de bloques que no están enteros
+ * en disco y se reconstruye el índice que falte.</p>
+ *
+ * <p>Sólo un proceso puede escribir en un directorio: el constructor toma un
+ * {@link FileLock} exclusivo sobre el índice. {@link #openReadOnly(Path)}
+ * abre el registro para consultas sin bloqueo y sin modificar ningún
+ * archivo, aunque otro proceso esté escribiendo en él; ve lo escrito hasta
+ * ese momento.</p>
+ */
+public class DetectionLog implements AutoCloseable {
+    public static final int RECORD_SIZE = 28;
+    static final int BLOCK_RECORDS = 4096;
+    private static final int INDEX_ENTRY_SIZE = 48;
+    private static final long SEGMENT_RECORDS = 512L * BLOCK_RECORDS;
+    private static final String NAMES_FILE = "nombres.txt";
+    private static final String INDEX_FILE = "indice.bin";
+
+    /** Cuándo se fuerzan a disco los registros añadidos. */
+    public enum SyncPolicy {
+        /** Un hilo escribe el lote pendiente periódicamente con un solo fsync. */
+        GROUP_COMMIT,
+        /** Cada append espera a que sus registros estén en disco. */
+        FSYNC_EACH_APPEND
+    }
+
+    /** Una detección leída del registro. */
+    public static final class Entry {
+        private final long timestampMillis;
+        private final String source;
+        private final long frameIndex;
+        private final Detection detection;
+
+        Entry(long timestampMillis, String source, long frameIndex, Detection detection) {
+            this.timestampMillis = timestampMillis;
+            this.source = source;
+            this.frameIndex = frameIndex;
+            this.detection = detection;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public long getFrameIndex() {
+            return frameIndex;
+        }
+
+        public Detection getDetection() {
+            return detection;
+        }
+    }
+
+    /** Cuánto trabajo hizo la última consulta. */
+    public static final class QueryStats {
+        private long matches;
+        private long blocksRead;
+        private long blocksTotal;
+
+        public long getMatches() {
+            return matches;
+        }
+
+        public long getBlocksRead() {
+            return blocksRead;
+        }
+
+        public long getBlocksTotal() {
+            return blocksTotal;
+        }
+    }
+
+    private final Path directory;
+    private final boolean readOnly;
+    private final SyncPolicy policy;
+    private final int batchRecords;
+    private final ScheduledExecutorService committer;
+
+    // Protegidos por this: lo que aún no se ha escrito
+    private ByteBuffer pending;
+    private final StringBuilder pendingNames = new StringBuilder();
+    private final Map<String, Integer> sourceIds = new HashMap<>();
+    private final Map<String, Integer> classIds = new HashMap<>();
+    private final List<String> sourceNames = new ArrayList<>();
+    private final List<String> classNames = new ArrayList<>();
+
+    // Protegidos por writeLock: archivos e índice
+    private final Object writeLock = new Object();
+    private final FileChannel namesChannel;
+    private final FileChannel indexChannel;
+    private FileChannel segment;
+    private int segmentNumber;
+    private long segmentRecords;
+    private final BlockIndex index = new BlockIndex();
+    private final BlockIndex current = new BlockIndex();
+    private volatile List<String> committedSources = List.of();
+    private volatile List<String> committedClasses = List.of();
+    private final Map<Integer, FileChannel> readers = new HashMap<>();
+    private boolean closed;
+    private volatile IOException commitFailure;
+
+    /**
+     * Abre (o crea) el registro de {@code directory}.
+     *
+     * @param commitIntervalMs cada cuánto se escribe el lote con {@link SyncPolicy#GROUP_COMMIT}
+     */
+    public DetectionLog(Path directory, SyncPolicy policy, long commitIntervalMs) throws IOException {
+        this(directory, policy, commitIntervalMs, false);
+    }
+
+    private DetectionLog(Path directory, SyncPolicy policy, long commitIntervalMs, boolean readOnly)
+            throws IOException {
+        this.directory = directory;
+        this.readOnly = readOnly;
+        this.policy = policy;
+        this.batchRecords = BLOCK_RECORDS;
+        this.pending = ByteBuffer.allocate(readOnly ? 0 : batchRecords * RECORD_SIZE);
+        if (readOnly) {
+            if (!Files.isDirectory(directory)) {
+                throw new IOException("No existe el registro " + directory);
+            }
+            namesChannel = FileChannel.open(directory.resolve(NAMES_FILE), StandardOpenOption.READ);
+            indexChannel = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.READ);
+        } else {
+            Files.createDirectories(directory);
+            namesChannel = FileChannel.open(directory.resolve(NAMES_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            indexChannel = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        try {
+            if (!readOnly) {
+                lock();
+            }
+            loadNames();
+            loadIndex();
+            openLastSegment();
+        } catch (IOException | RuntimeException e) {
+            namesChannel.close();
+            indexChannel.close();
+            if (segment != null) {
+                segment.close();
+            }
+            throw e;
+        }
+        if (!readOnly && policy == SyncPolicy.GROUP_COMMIT) {
+            committer = Executors.newSingleThreadScheduledExecutor(IoThreads.factory("registro-detecciones"));
+            committer.scheduleWithFixedDelay(() -> {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    // Ya quedó en commitFailure: los siguientes append lo notifican
+                }
+            }, commitIntervalMs, commitIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            committer = null;
+        }
+    }
+
+    /**
+     * Abre el registro de {@code directory} sólo para consultas: no toma el
+     * bloqueo, no recorta ni reconstruye nada en disco y {@link #append}
+     * falla. Sirve mientras otro proceso escribe en el mismo directorio.
+     */
+    public static DetectionLog openReadOnly(Path directory) throws IOException {
+        return new DetectionLog(directory, SyncPolicy.GROUP_COMMIT, 0, true);
+    }
+
+    private void lock() throws IOException {
+        FileLock lock;
+        try {
+            lock = indexChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new IOException("El registro " + directory + " ya está abierto para escritura");
+        }
+        // Se libera al cerrar indexChannel
+    }
+
+    /**
+     * Registro configurado con {@code -Dregistro.directorio=DIR}, o
+     * {@code null} si no se indicó. {@code registro.politica} es {@code grupo}
+     * (por defecto) o {@code fsync}; {@code registro.intervalo} son los ms
+     * entre lotes (200).
+     */
+    public static DetectionLog fromSystemProperties() throws IOException {
+        Properties props = System.getProperties();
+        String dir = props.getProperty("registro.directorio");
+        if (dir == null || dir.isBlank()) {
+            return null;
+        }
+        SyncPolicy policy = props.getProperty("registro.politica", "grupo").trim().equalsIgnoreCase("fsync")
+                ? SyncPolicy.FSYNC_EACH_APPEND : SyncPolicy.GROUP_COMMIT;
+        long interval = Long.parseLong(props.getProperty("registro.intervalo", "200"));
+        return new DetectionLog(Paths.get(dir), policy, interval);
+    }
+
+    /** Añade las detecciones de un frame. Sin detecciones no escribe nada. */
+    public void append(long timestampMillis, String source, long frameIndex, List<Detection> detections)
+            throws IOException {
+        if (detections.isEmpty()) {
+            return;
+        }
+        boolean flushNow;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("El registro está cerrado");
+            }
+            if (readOnly) {
+                throw new IOException("El registro está abierto sólo para lectura");
+            }
+            if (commitFailure != null) {
+                throw new IOException("Falló la escritura del registro", commitFailure);
+            }
+            int sourceId = nameId(sourceIds, sourceNames, "fuente", source);
+            if (pending.remaining() < detections.size() * RECORD_SIZE) {
+                pending = ByteBuffer.allocate(Math.max(pending.capacity() * 2,
+                        pending.position() + detections.size() * RECORD_SIZE)).put(pending.flip());
+            }
+            for (Detection d : detections) {
+                pending.putLong(timestampMillis)
+                        .putInt((int) frameIndex)
+                        .putShort((short) sourceId)
+                        .putShort((short) nameId(classIds, classNames, "clase", d.getLabel()))
+                        .putFloat(d.getConfidence())
+                        .putShort(clamp(d.getX())).putShort(clamp(d.getY()))
+                        .putShort(clamp(d.getWidth())).putShort(clamp(d.getHeight()));
+            }
+            flushNow = policy == SyncPolicy.FSYNC_EACH_APPEND || pending.position() >= batchRecords * RECORD_SIZE;
+        }
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    private static short clamp(int value) {
+        return (short) Math.max(0, Math.min(0xFFFF, value));
+    }
+
+    private int nameId(Map<String, Integer> ids, List<String> names, String kind, String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            if (names.size() > 0xFFFF) {
+                throw new IllegalStateException("Demasiados nombres de " + kind);
+            }
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+            pendingNames.append(kind).append('\t').append(id).append('\t')
+                    .append(name.replace('\t', ' ').replace('\n', ' ')).append('\n');
+        }
+        return id;
+    }
+
+    /**
+     * Escribe y fuerza a disco todo lo añadido hasta ahora. Si falla, los
+     * registros del lote se pierden y el registro queda inservible: este y
+     * los siguientes {@code flush} y {@link #append} lanzan la excepción, así
+     * que también fallan los appends cuyos registros iban en el lote que
+     * escribía otro hilo.
+     */
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            if (commitFailure != null) {
+                throw new IOException("Falló la escritura del registro", commitFailure);
+            }
+            ByteBuffer batch;
+            String names;
+            List<String> sources;
+            List<String> classes;
+            synchronized (this) {
+                if (pending.position() == 0) {
+                    return;
+                }
+                batch = pending.flip();
+                pending = ByteBuffer.allocate(batchRecords * RECORD_SIZE);
+                names = pendingNames.toString();
+                pendingNames.setLength(0);
+                sources = List.copyOf(sourceNames);
+                classes = List.copyOf(classNames);
+            }
+            try {
+                if (!names.isEmpty()) {
+                    writeFully(namesChannel, ByteBuffer.wrap(names.getBytes(StandardCharsets.UTF_8)),
+                            namesChannel.size());
+                    namesChannel.force(false);
+                }
+                writeRecords(batch);
+                segment.force(false);
+                indexChannel.force(false);
+            } catch (IOException | RuntimeException e) {
+                // Antes de soltar writeLock: quien espera para escribir su lote lo ve
+                commitFailure = e instanceof IOException ? (IOException) e : new IOException(e);
+                throw e;
+            }
+            committedSources = sources;
+            committedClasses = classes;
+        }
+    }
+
+    private void writeRecords(ByteBuffer batch) throws IOException {
+        while (batch.hasRemaining()) {
+            if (segmentRecords == SEGMENT_RECORDS) {
+                segment.force(false);
+                segment.close();
+                openSegment(segmentNumber + 1);
+            }
+            int records = (int) Math.min(batch.remaining() / RECORD_SIZE, SEGMENT_RECORDS - segmentRecords);
+            ByteBuffer chunk = batch.slice().limit(records * RECORD_SIZE);
+            // Los datos llegan a disco antes que las entradas de índice que los cubren
+            writeFully(segment, chunk.duplicate(), segmentRecords * RECORD_SIZE);
+            if (current.count[0] + records >= BLOCK_RECORDS) {
+                segment.force(false);
+            }
+            for (int i = 0; i < records; i++) {
+                int at = i * RECORD_SIZE;
+                current.include(chunk.getLong(at), chunk.getShort(at + 14) & 0xFFFF, chunk.getShort(at + 12) & 0xFFFF);
+                if (current.count[0] == BLOCK_RECORDS) {
+                    finishBlock(segmentRecords + i + 1);
+                }
+            }
+            segmentRecords += records;
+            batch.position(batch.position() + records * RECORD_SIZE);
+        }
+    }
+
+    /** Pasa el bloque en curso al índice; {@code endRecord} es el registro siguiente al bloque. */
+    private void finishBlock(long endRecord) throws IOException {
+        int block = (int) ((endRecord - 1) / BLOCK_RECORDS);
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        entry.putInt(segmentNumber).putInt(block).putLong(current.minTime[0]).putLong(current.maxTime[0])
+                .putLong(current.classMask[0]).putLong(current.sourceMask[0]).putInt(current.count[0]).putInt(0).flip();
+        if (!readOnly) {
+            writeFully(indexChannel, entry, (long) index.size * INDEX_ENTRY_SIZE);
+        }
+        index.add(segmentNumber, block, current.minTime[0], current.maxTime[0], current.classMask[0],
+                current.sourceMask[0], current.count[0]);
+        current.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    private void loadNames() throws IOException {
+        String content = new String(Files.readAllBytes(directory.resolve(NAMES_FILE)), StandardCharsets.UTF_8);
+        int end = content.lastIndexOf('\n') + 1;
+        for (String line : content.substring(0, end).split("\n")) {
+            String[] parts = line.split("\t", 3);
+            if (parts.length < 3) {
+                continue;
+            }
+            boolean source = parts[0].equals("fuente");
+            List<String> names = source ? sourceNames : classNames;
+            if (Integer.parseInt(parts[1]) == names.size()) {
+                (source ? sourceIds : classIds).put(parts[2], names.size());
+                names.add(parts[2]);
+            }
+        }
+        // Una línea a medias al final se descarta
+        if (!readOnly) {
+            namesChannel.truncate(content.substring(0, end).getBytes(StandardCharsets.UTF_8).length);
+        }
+        committedSources = List.copyOf(sourceNames);
+        committedClasses = List.copyOf(classNames);
+    }
+
+    private void loadIndex() throws IOException {
+        long entries = indexChannel.size() / INDEX_ENTRY_SIZE;
+        ByteBuffer all = ByteBuffer.allocate((int) (entries * INDEX_ENTRY_SIZE));
+        while (all.hasRemaining() && indexChannel.read(all, all.position()) >= 0) {
+            // Lee el índice completo
+        }
+        all.flip();
+        for (long i = 0; i < entries; i++) {
+            index.add(all.getInt(), all.getInt(), all.getLong(), all.getLong(), all.getLong(), all.getLong(),
+                    all.getInt());
+            all.getInt();
+        }
+        if (!readOnly) {
+            indexChannel.truncate(entries * INDEX_ENTRY_SIZE);
+        }
+    }
+
+    private Path segmentPath(int n) {
+        return directory.resolve(String.format(Locale.ROOT, "segmento-%06d.log", n));
+    }
+
+    private void openLastSegment() throws IOException {
+        int last = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                String name = p.getFileName().toString();
+                if (name.startsWith("segmento-") && name.endsWith(".log")) {
+                    last = Math.max(last, Integer.parseInt(name.substring(9, name.length() - 4)));
+                }
+            }
+        }
+        // Las entradas de índice cuyos bloques no llegaron enteros a disco se recortan
+        int keep = index.size;
+        while (keep > 0 && (long) (index.block[keep - 1] + 1) * BLOCK_RECORDS
+                > recordsIn(index.segment[keep - 1], last)) {
+            keep--;
+        }
+        index.size = keep;
+        if (readOnly) {
+            // Sin canal de escritura: las consultas leen los segmentos con reader()
+            segmentNumber = Math.max(1, last);
+            segmentRecords = recordsIn(segmentNumber, last);
+        } else {
+            openSegment(Math.max(1, last));
+            segmentRecords = segment.size() / RECORD_SIZE;
+            segment.truncate(segmentRecords * RECORD_SIZE);
+        }
+        // Reconstruye los bloques que faltan en el índice desde el primer segmento sin indexar
+        int from = index.size == 0 ? 1 : index.segment[index.size - 1];
+        long fromRecord = index.size == 0 ? 0 : (long) (index.block[index.size - 1] + 1) * BLOCK_RECORDS;
+        if (from < segmentNumber && fromRecord == SEGMENT_RECORDS) {
+            from++;
+            fromRecord = 0;
+        }
+        if (!readOnly) {
+            indexChannel.truncate((long) index.size * INDEX_ENTRY_SIZE);
+        }
+        for (int s = from; s <= segmentNumber; s++) {
+            rebuildIndex(s, s == from ? fromRecord : 0);
+        }
+    }
+
+    /** Registros completos del segmento {@code n}; 0 si no existe o va después del último. */
+    private long recordsIn(int n, int last) throws IOException {
+        Path path = segmentPath(n);
+        return n > last || !Files.exists(path) ? 0 : Files.size(path) / RECORD_SIZE;
+    }
+
+    private void rebuildIndex(int n, long fromRecord) throws IOException {
+        Path path = segmentPath(n);
+        if (!Files.exists(path)) {
+            return;
+        }
+        int saved = segmentNumber;
+        segmentNumber = n;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            long records = in.size() / RECORD_SIZE;
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_SIZE);
+            for (long r = fromRecord; r < records; r += BLOCK_RECORDS) {
+                int count = (int) Math.min(BLOCK_RECORDS, records - r);
+                block.clear().limit(count * RECORD_SIZE);
+                readFully(in, block, r * RECORD_SIZE);
+                for (int i = 0; i < count; i++) {
+                    int at = i * RECORD_SIZE;
+                    current.include(block.getLong(at), block.getShort(at + 14) & 0xFFFF,
+                            block.getShort(at + 12) & 0xFFFF);
+                }
+                if (count == BLOCK_RECORDS) {
+                    finishBlock(r + count);
+                }
+            }
+        } finally {
+            segmentNumber = saved;
+        }
+        if (n != segmentNumber) {
+            current.clear();
+        }
+    }
+
+    private void openSegment(int n) throws IOException {
+        segment = FileChannel.open(segmentPath(n), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segmentNumber = n;
+        segmentRecords = 0;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Fin de archivo inesperado en el registro");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Recorre las detecciones en {@code [desdeMs, hastaMs)} de una fuente y una
+     * clase; {@code null} en fuente o clase para cualquiera. Los resultados
+     * salen en el orden en que se añadieron.
+     */
+    public QueryStats query(long fromMillis, long toMillis, String source, String label, Consumer<Entry> consumer)
+            throws IOException {
+        QueryStats stats = new QueryStats();
+        List<String> sources;
+        List<String> classes;
+        BlockIndex snapshot;
+        synchronized (writeLock) {
+            sources = committedSources;
+            classes = committedClasses;
+            snapshot = index.copy();
+            if (current.count[0] > 0) {
+                snapshot.add(segmentNumber, (int) (segmentRecords / BLOCK_RECORDS), current.minTime[0],
+                        current.maxTime[0], current.classMask[0], current.sourceMask[0], current.count[0]);
+            }
+        }
+        int sourceId = source == null ? -1 : sources.indexOf(source);
+        int classId = label == null ? -1 : classes.indexOf(label);
+        stats.blocksTotal = snapshot.size;
+        if ((source != null && sourceId < 0) || (label != null && classId < 0)) {
+            return stats;
+        }
+        long sourceBit = sourceId < 0 ? -1L : 1L << (sourceId & 63);
+        long classBit = classId < 0 ? -1L : 1L << (classId & 63);
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_SIZE);
+        for (int b = 0; b < snapshot.size; b++) {
+            if (snapshot.maxTime[b] < fromMillis || snapshot.minTime[b] >= toMillis
+                    || (snapshot.sourceMask[b] & sourceBit) == 0 || (snapshot.classMask[b] & classBit) == 0) {
+                continue;
+            }
+            int count = snapshot.count[b];
+            block.clear().limit(count * RECORD_SIZE);
+            readFully(reader(snapshot.segment[b]), block, (long) snapshot.block[b] * BLOCK_RECORDS * RECORD_SIZE);
+            stats.blocksRead++;
+            for (int i = 0; i < count; i++) {
+                int at = i * RECORD_SIZE;
+                long time = block.getLong(at);
+                int s = block.getShort(at + 12) & 0xFFFF;
+                int c = block.getShort(at + 14) & 0xFFFF;
+                if (time < fromMillis || time >= toMillis || (sourceId >= 0 && s != sourceId)
+                        || (classId >= 0 && c != classId)) {
+                    continue;
+                }
+                stats.matches++;
+                consumer.accept(new Entry(time, sources.get(s), block.getInt(at + 8),
+                        new Detection(classes.get(c), block.getFloat(at + 16), block.getShort(at + 20) & 0xFFFF,
+                                block.getShort(at + 22) & 0xFFFF, block.getShort(at + 24) & 0xFFFF,
+                                block.getShort(at + 26) & 0xFFFF)));
+            }
+        }
+        return stats;
+    }
+
+    private FileChannel reader(int n) throws IOException {
+        synchronized (readers) {
+            FileChannel channel = readers.get(n);
+            if (channel == null) {
+                channel = FileChannel.open(segmentPath(n), StandardOpenOption.READ);
+                readers.put(n, channel);
+            }
+            return channel;
+        }
+    }
+
+    /** Registros escritos en disco (sin contar los pendientes). */
+    public long size() {
+        synchronized (writeLock) {
+            long records = 0;
+            for (int b = 0; b < index.size; b++) {
+                records += index.count[b];
+            }
+            return records + current.count[0];
+        }
+    }
+
+    public SyncPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (committer != null) {
+            committer.shutdown();
+        }
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                closed = true;
+            }
+            synchronized (writeLock) {
+                if (segment != null) {
+                    segment.close();
+                }
+                namesChannel.close();
+                indexChannel.close();
+                synchronized (readers) {
+                    for (FileChannel channel : readers.values()) {
+                        channel.close();
+                    }
+                    readers.clear();
+                }
+            }
+        }
+    }
+
+    /** Entradas del índice en columnas; con un solo elemento sirve de bloque en curso. */
+    private static final class BlockIndex {
+        int size;
+        int[] segment = new int[1];
+        int[] block = new int[1];
+        long[] minTime = {Long.MAX_VALUE};
+        long[] maxTime = {Long.MIN_VALUE};
+        long[] classMask = new long[1];
+        long[] sourceMask = new long[1];
+        int[] count = new int[1];
+
+        void add(int seg, int blk, long min, long max, long classes, long sources, int records) {
+            if (size == segment.length) {
+                int n = size * 2;
+                segment = Arrays.copyOf(segment, n);
+                block = Arrays.copyOf(block, n);
+                minTime = Arrays.copyOf(minTime, n);
+                maxTime = Arrays.copyOf(maxTime, n);
+                classMask = Arrays.copyOf(classMask, n);
+                sourceMask = Arrays.copyOf(sourceMask, n);
+                count = Arrays.copyOf(count, n);
+            }
+            segment[size] = seg;
+            block[size] = blk;
+            minTime[size] = min;
+            maxTime[size] = max;
+            classMask[size] = classes;
+            sourceMask[size] = sources;
+            count[size] = records;
+            size++;
+        }
+
+        void include(long time, int classId, int sourceId) {
+            minTime[0] = Math.min(minTime[0], time);
+            maxTime[0] = Math.max(maxTime[0], time);
+            classMask[0] |= 1L << (classId & 63);
+            sourceMask[0] |= 1L << (sourceId & 63);
+            count[0]++;
+        }
+
+        void clear() {
+            minTime[0] = Long.MAX_VALUE;
+            maxTime[0] = Long.MIN_VALUE;
+            classMask[0] = 0;
+            sourceMask[0] = 0;
+            count[0] = 0;
+        }
+
+        BlockIndex copy() {
+            BlockIndex c = new BlockIndex();
+            int n = Math.max(1, size + 1);
+            c.segment = Arrays.copyOf(segment, n);
+            c.block = Arrays.copyOf(block, n);
+            c.minTime = Arrays.copyOf(minTime, n);
+            c.maxTime = Arrays.copyOf(maxTime, n);
+            c.classMask = Arrays.copyOf(classMask, n);
+            c.sourceMask = Arrays.copyOf(sourceMask, n);
+            c.count = Arrays.copyOf(count, n);
+            c.size = size;
+            return c;
+        }
+    }
+
+    /**
+     * Consulta desde la línea de comandos:
+     * {@code DetectionLog <directorio> [--desde AAAA-MM-DDTHH:MM] [--hasta ...] [--fuente X] [--clase Y] [--limite N]}.
+     * Las fechas son de la zona horaria local; imprime CSV
+     * {@code instante,fuente,frame,clase,confianza,x,y,ancho,alto}.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Uso: DetectionLog <directorio> [--desde AAAA-MM-DDTHH:MM] [--hasta ...] "
+                    + "[--fuente X] [--clase Y] [--limite N]");
+            System.exit(2);
+        }
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        String source = null;
+        String label = null;
+        long limit = Long.MAX_VALUE;
+        ZoneId zone = ZoneId.systemDefault();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--desde":
+                    from = LocalDateTime.parse(args[++i]).atZone(zone).toInstant().toEpochMilli();
+                    break;
+                case "--hasta":
+                    to = LocalDateTime.parse(args[++i]).atZone(zone).toInstant().toEpochMilli();
+                    break;
+                case "--fuente":
+                    source = args[++i];
+                    break;
+                case "--clase":
+                    label = args[++i];
+                    break;
+                case "--limite":
+                    limit = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        long max = limit;
+        long[] printed = new long[1];
+        StringBuilder out = new StringBuilder();
+        long t0 = System.nanoTime();
+        QueryStats stats;
+        try (DetectionLog log = openReadOnly(Paths.get(args[0]))) {
+            stats = log.query(from, to, source, label, e -> {
+                if (printed[0]++ < max) {
+                    Detection d = e.getDetection();
+                    out.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(e.getTimestampMillis()), zone))
+                            .append(',').append(e.getSource()).append(',').append(e.getFrameIndex()).append(',')
+                            .append(d.getLabel()).append(',')
+                            .append(String.format(Locale.ROOT, "%.4f", d.getConfidence())).append(',')
+                            .append(d.getX()).append(',').append(d.getY()).append(',')
+                            .append(d.getWidth()).append(',').append(d.getHeight()).append('\n');
+                }
+            });
+        }
+        System.out.print(out);
+        System.err.printf(Locale.ROOT, "%d detecciones, %d de %d bloques leídos, %.1f ms%n", stats.getMatches(),
+                stats.getBlocksRead(), stats.getBlocksTotal(), (System.nanoTime() - t0) / 1e6);
+    }
+}
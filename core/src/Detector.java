@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Backend de detección: recibe un frame y devuelve sus detecciones en
+ * coordenadas del frame.
+ *
+ * <p>Implementaciones incluidas: {@link RemoteDetector} (API Flask por
+ * HTTP) y {@link MotionDetector} (detector de movimiento en Java puro, sin
+ * red). {@link Detectors} elige una según la configuración. Las
+ * implementaciones deben poder llamarse desde varios hilos a la vez.</p>
+ */
+@FunctionalInterface
+public interface Detector extends AutoCloseable {
+
+    /** Detecta objetos en el frame. No toma posesión del frame. */
+    List<Detection> detect(Frame frame);
+
+    /**
+     * Detecta en varios frames. Los backends que pueden agrupar trabajo lo
+     * hacen aquí; por defecto se llama a {@link #detect(Frame)} uno a uno.
+     */
+    default List<List<Detection>> detectAll(List<Frame> frames) {
+        List<List<Detection>> results = new ArrayList<>(frames.size());
+        for (Frame frame : frames) {
+            results.add(detect(frame));
+        }
+        return results;
+    }
+
+    /**
+     * Detecta sólo dentro de las regiones de interés de {@code roi}, que debe
+     * tener el tamaño del frame. Por defecto recorta todas las regiones de una
+     * vez y las analiza con una única llamada a {@link #detectAll(List)} (un
+     * lote para los backends que agrupan); los backends que analizan el frame
+     * completo de otra forma pueden limitar su trabajo a la máscara.
+     */
+    default List<Detection> detect(Frame frame, RoiMask.Bitmap roi) {
+        return roi.detectCropped(this, frame);
+    }
+
+    /**
+     * Versión asíncrona para llamadores que no deben bloquearse (p.ej. el
+     * hilo de JavaFX). Por defecto ejecuta {@link #detect(Frame)} en {@code executor}.
+     */
+    default CompletableFuture<List<Detection>> detectAsync(Frame frame, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> detect(frame), executor);
+    }
+
+    /**
+     * Detector para analizar otro flujo de frames (otra cámara u otro
+     * segmento de video) en paralelo con éste. Los backends que guardan
+     * estado del flujo, como el fondo de {@link MotionDetector}, devuelven
+     * uno nuevo; por defecto se devuelve este mismo. El devuelto comparte los
+     * recursos del original y no hace falta cerrarlo.
+     */
+    default Detector forStream() {
+        return this;
+    }
+
+    /**
+     * Métricas donde el backend puede registrar sus etapas internas (p.ej.
+     * {@link PipelineMetrics.Stage#PREPROCESS}). Por defecto se ignoran.
+     */
+    default void setMetrics(PipelineMetrics metrics) {
+    }
+
+    /** Nombre corto para mostrar en la interfaz y en los informes. */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    default void close() {
+        // Por defecto no hay recursos que liberar
+    }
+}
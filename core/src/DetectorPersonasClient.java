@@ -0,0 +1,500 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cliente asíncrono de la API Flask de detección ({@code /detect} y
+ * {@code /detect-con-visualizacion}).
+ *
+ * <p>Usa un único {@link HttpClient} (conexiones keep-alive reutilizadas),
+ * devuelve {@link CompletableFuture}s, limita cuántas peticiones hay en
+ * vuelo a la vez (el resto esperan en cola sin bloquear hilos) y reintenta
+ * con espera exponencial los errores de red, 429 y 5xx.</p>
+ *
+ * <p>El formato se negocia con {@code /info}: si el servidor anuncia el
+ * transporte {@code binario}, {@code /detect} y {@code /detect-batch} viajan
+ * con {@link BinaryDetectionProtocol}; si no, con JSON y base64.</p>
+ *
+ * <p>Nunca bloquea al llamador salvo en los métodos estáticos de
+ * conveniencia ({@link #detectarDesdeBase64}), que no deben usarse desde el
+ * hilo de JavaFX.</p>
+ */
+public class DetectorPersonasClient {
+    public static final String DEFAULT_URL = System.getProperty("detector.url", "http://localhost:5000");
+
+    private static DetectorPersonasClient defaultClient;
+
+    /** Formato de las peticiones de detección. */
+    public enum Transport {
+        JSON,
+        BINARIO
+    }
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile CompletableFuture<Transport> transport;
+
+    /** Resultado de {@code /detect}. */
+    public static class DetectionResult {
+        public final boolean exito;
+        public final int totalDetecciones;
+        public final List<Detection> detecciones;
+        public final String mensaje;
+
+        public DetectionResult(boolean exito, List<Detection> detecciones, String mensaje) {
+            this.exito = exito;
+            this.detecciones = detecciones;
+            this.totalDetecciones = detecciones.size();
+            this.mensaje = mensaje;
+        }
+    }
+
+    /** Resultado de {@code /detect-con-visualizacion}: incluye la imagen anotada. */
+    public static class DetectionResultConImagen extends DetectionResult {
+        public final byte[] imagen;
+
+        public DetectionResultConImagen(boolean exito, List<Detection> detecciones, String mensaje, byte[] imagen) {
+            super(exito, detecciones, mensaje);
+            this.imagen = imagen;
+        }
+
+        public void guardarImagen(String ruta) throws IOException {
+            if (imagen == null) {
+                throw new IOException("La respuesta no contiene imagen");
+            }
+            Files.write(Paths.get(ruta), imagen);
+        }
+    }
+
+    public DetectorPersonasClient(String baseUrl) {
+        this(baseUrl, 8, Duration.ofSeconds(10), 2, 100);
+    }
+
+    /**
+     * @param baseUrl              URL de la API, p.ej. {@code http://localhost:5000}
+     * @param maxInFlight          peticiones simultáneas como máximo
+     * @param requestTimeout       tiempo máximo por intento
+     * @param maxRetries           reintentos tras el primer intento
+     * @param initialBackoffMillis espera antes del primer reintento; se duplica en cada uno
+     */
+    public DetectorPersonasClient(String baseUrl, int maxInFlight, Duration requestTimeout, int maxRetries,
+            long initialBackoffMillis) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.maxRetries = maxRetries;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.permits = new Semaphore(maxInFlight);
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(3));
+        if (IoThreads.isVirtualEnabled()) {
+            // Cada respuesta pendiente en un hilo virtual en lugar del pool del HttpClient
+            builder.executor(IoThreads.newPerTaskExecutor("http"));
+        }
+        this.http = builder.build();
+    }
+
+    /** Cliente compartido apuntando a {@link #DEFAULT_URL}. */
+    public static synchronized DetectorPersonasClient getDefault() {
+        if (defaultClient == null) {
+            defaultClient = new DetectorPersonasClient(DEFAULT_URL);
+        }
+        return defaultClient;
+    }
+
+    /** Envía una imagen (JPEG/PNG codificada) a {@code /detect}. */
+    public CompletableFuture<DetectionResult> detectar(byte[] imagen, double umbral) {
+        return getTransport().thenCompose(t -> t == Transport.BINARIO
+                ? submit(() -> postBinary("/detect", Collections.singletonList(imagen), umbral))
+                        .thenApply(DetectorPersonasClient::parseBinaryResult)
+                : submit(() -> post("/detect", jsonBody(imagen, umbral))
+                        .thenApply(response -> parseResult(response, false))));
+    }
+
+    /** Envía una imagen a {@code /detect-con-visualizacion}. */
+    public CompletableFuture<DetectionResultConImagen> detectarConVisualizacion(byte[] imagen, double umbral) {
+        return submit(() -> post("/detect-con-visualizacion", jsonBody(imagen, umbral))
+                .thenApply(response -> (DetectionResultConImagen) parseResult(response, true)));
+    }
+
+    /**
+     * Envía varias imágenes en una sola petición a {@code /detect-batch}.
+     * Los resultados vuelven en el mismo orden que las imágenes.
+     */
+    public CompletableFuture<List<DetectionResult>> detectarLote(List<byte[]> imagenes, double umbral) {
+        return getTransport().thenCompose(t -> t == Transport.BINARIO
+                ? submit(() -> postBinary("/detect-batch", imagenes, umbral))
+                        .thenApply(response -> parseBinary(response, imagenes.size()))
+                : submit(() -> post("/detect-batch", jsonBatchBody(imagenes, umbral))
+                        .thenApply(response -> parseBatch(response, imagenes.size()))));
+    }
+
+    /**
+     * Transporte a usar, negociado con {@code /info}. Una API sin
+     * {@code /info} usa JSON, que todas las versiones aceptan. Si el servidor
+     * no responde (p.ej. aún está arrancando) también se usa JSON, pero sólo
+     * para esa petición: la siguiente vuelve a preguntar. Una respuesta del
+     * servidor se recuerda durante toda la vida del cliente.
+     */
+    public CompletableFuture<Transport> getTransport() {
+        CompletableFuture<Transport> current = transport;
+        if (current == null) {
+            synchronized (this) {
+                current = transport;
+                if (current == null) {
+                    CompletableFuture<Transport> negotiation = negotiate();
+                    CompletableFuture<Transport> attempt = negotiation.thenApply(t -> t != null ? t : Transport.JSON);
+                    transport = attempt;
+                    negotiation.thenAccept(t -> {
+                        if (t == null) {
+                            forgetTransport(attempt);
+                        }
+                    });
+                    current = attempt;
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized void forgetTransport(CompletableFuture<Transport> attempt) {
+        if (transport == attempt) {
+            transport = null;
+        }
+    }
+
+    /** Fija el transporte sin consultar al servidor. */
+    public void setTransport(Transport forced) {
+        transport = CompletableFuture.completedFuture(forced);
+    }
+
+    /** Transporte que anuncia el servidor, o {@code null} si no se pudo preguntar. */
+    private CompletableFuture<Transport> negotiate() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/info"))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, error) -> {
+            if (error != null || isRetryable(response.statusCode())) {
+                return null;
+            }
+            if (response.statusCode() != 200) {
+                return Transport.JSON;
+            }
+            try {
+                Object transports = MiniJson.parseObject(response.body()).get("transportes");
+                return transports instanceof List && ((List<?>) transports).contains("binario")
+                        ? Transport.BINARIO : Transport.JSON;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        });
+    }
+
+    /** {@code true} si {@code /health} responde 200. */
+    public CompletableFuture<Boolean> health() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/health"))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> error == null && response.statusCode() == 200);
+    }
+
+    /** Versión bloqueante, equivalente a la documentada en ESTRUCTURA.md. */
+    public static DetectionResult detectarDesdeBase64(String ruta, double umbral) throws IOException {
+        return join(getDefault().detectar(Files.readAllBytes(Paths.get(ruta)), umbral));
+    }
+
+    /** Versión bloqueante, equivalente a la documentada en ESTRUCTURA.md. */
+    public static DetectionResultConImagen detectarConVisualizacion(String ruta, double umbral) throws IOException {
+        return join(getDefault().detectarConVisualizacion(Files.readAllBytes(Paths.get(ruta)), umbral));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // ---- Limitador de peticiones en vuelo ----
+
+    /**
+     * Ejecuta {@code call} cuando haya un permiso libre. Si no lo hay, la
+     * llamada queda en cola y se lanza cuando termine otra; el llamador
+     * nunca se bloquea.
+     */
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable task = () -> {
+            CompletableFuture<T> inner;
+            try {
+                inner = call.get();
+            } catch (RuntimeException e) {
+                inner = CompletableFuture.failedFuture(e);
+            }
+            inner.whenComplete((value, error) -> {
+                permits.release();
+                drain();
+                if (error != null) {
+                    failures.incrementAndGet();
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+        waiting.add(task);
+        drain();
+        return result;
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            next.run();
+        }
+    }
+
+    // ---- HTTP con reintentos ----
+
+    CompletableFuture<HttpResponse<String>> post(String path, String json) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return send(request, HttpResponse.BodyHandlers.ofString(), 0);
+    }
+
+    <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+            int attempt) {
+        requests.incrementAndGet();
+        return http.sendAsync(request, handler).handle((response, error) -> {
+            boolean retryable = error != null || isRetryable(response.statusCode());
+            if (!retryable || attempt >= maxRetries) {
+                return error != null
+                        ? CompletableFuture.<HttpResponse<T>>failedFuture(error)
+                        : CompletableFuture.completedFuture(response);
+            }
+            retries.incrementAndGet();
+            long delay = backoffMillis(attempt);
+            return CompletableFuture.runAsync(() -> { },
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> send(request, handler, attempt + 1));
+        }).thenCompose(f -> f);
+    }
+
+    CompletableFuture<HttpResponse<byte[]>> postBinary(String path, List<byte[]> imagenes, double umbral) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Content-Type", BinaryDetectionProtocol.CONTENT_TYPE)
+                .header("Accept", BinaryDetectionProtocol.CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(BinaryDetectionProtocol.requestParts(imagenes, umbral)))
+                .build();
+        return send(request, HttpResponse.BodyHandlers.ofByteArray(), 0);
+    }
+
+    /**
+     * Resultado de {@code /detect} en binario. Como en JSON, una respuesta de
+     * error o ilegible es un resultado fallido y no una excepción.
+     */
+    private static DetectionResult parseBinaryResult(HttpResponse<byte[]> response) {
+        try {
+            return parseBinary(response, 1).get(0);
+        } catch (CompletionException e) {
+            return new DetectionResult(false, Collections.emptyList(), e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Resultados en binario. Una respuesta de error o ilegible es una
+     * excepción, como un lote rechazado en JSON.
+     */
+    private static List<DetectionResult> parseBinary(HttpResponse<byte[]> response, int expected) {
+        if (response.statusCode() / 100 != 2) {
+            throw new CompletionException(new IOException("HTTP " + response.statusCode()));
+        }
+        List<List<Detection>> decoded;
+        try {
+            decoded = BinaryDetectionProtocol.decodeResults(ByteBuffer.wrap(response.body()));
+        } catch (IllegalArgumentException e) {
+            throw new CompletionException(new IOException(e.getMessage(), e));
+        }
+        if (decoded.size() != expected) {
+            throw new CompletionException(new IOException("Se esperaban " + expected + " resultados y llegaron "
+                    + decoded.size()));
+        }
+        List<DetectionResult> results = new ArrayList<>(expected);
+        for (List<Detection> detections : decoded) {
+            results.add(detections != null
+                    ? new DetectionResult(true, detections, null)
+                    : new DetectionResult(false, Collections.emptyList(), "Error del servidor"));
+        }
+        return results;
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    /** Espera exponencial con algo de aleatoriedad para no sincronizar reintentos. */
+    private long backoffMillis(int attempt) {
+        long base = initialBackoffMillis << Math.min(attempt, 10);
+        return base + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    // ---- Formato JSON ----
+
+    private static String jsonBody(byte[] imagen, double umbral) {
+        return "{\"imagen\":\"" + Base64.getEncoder().encodeToString(imagen) + "\",\"umbral\":" + umbral + "}";
+    }
+
+    static String jsonBatchBody(List<byte[]> imagenes, double umbral) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        StringBuilder sb = new StringBuilder("{\"umbral\":").append(umbral).append(",\"imagenes\":[");
+        for (int i = 0; i < imagenes.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(encoder.encodeToString(imagenes.get(i))).append('"');
+        }
+        return sb.append("]}").toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<DetectionResult> parseBatch(HttpResponse<String> response, int expected) {
+        Map<String, Object> json;
+        try {
+            json = MiniJson.parseObject(response.body());
+        } catch (IllegalArgumentException e) {
+            throw new CompletionException(new IOException("HTTP " + response.statusCode() + ": respuesta no JSON"));
+        }
+        Object resultados = json.get("resultados");
+        if (response.statusCode() / 100 != 2 || !(resultados instanceof List)
+                || ((List<Object>) resultados).size() != expected) {
+            throw new CompletionException(new IOException("Lote rechazado (HTTP " + response.statusCode() + "): "
+                    + MiniJson.getString(json, "error", "respuesta inválida")));
+        }
+        List<DetectionResult> results = new ArrayList<>(expected);
+        for (Object item : (List<Object>) resultados) {
+            Map<String, Object> r = (Map<String, Object>) item;
+            results.add(new DetectionResult(MiniJson.getBoolean(r, "exito", true),
+                    parseDetections(r.get("detecciones")), MiniJson.getString(r, "error", null)));
+        }
+        return results;
+    }
+
+    private static DetectionResult parseResult(HttpResponse<String> response, boolean conImagen) {
+        Map<String, Object> json;
+        try {
+            json = MiniJson.parseObject(response.body());
+        } catch (IllegalArgumentException e) {
+            String message = "HTTP " + response.statusCode();
+            return conImagen
+                    ? new DetectionResultConImagen(false, Collections.emptyList(), message, null)
+                    : new DetectionResult(false, Collections.emptyList(), message);
+        }
+        boolean exito = response.statusCode() / 100 == 2 && MiniJson.getBoolean(json, "exito", true);
+        String mensaje = MiniJson.getString(json, "mensaje", MiniJson.getString(json, "error", null));
+        List<Detection> detecciones = parseDetections(json.get("detecciones"));
+        if (!conImagen) {
+            return new DetectionResult(exito, detecciones, mensaje);
+        }
+        String imagen = MiniJson.getString(json, "imagen_resultado", null);
+        return new DetectionResultConImagen(exito, detecciones, mensaje,
+                imagen != null ? Base64.getDecoder().decode(imagen) : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Detection> parseDetections(Object value) {
+        if (!(value instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<Detection> detections = new ArrayList<>();
+        for (Object item : (List<Object>) value) {
+            Map<String, Object> d = (Map<String, Object>) item;
+            Object bbox = d.get("bbox");
+            int x = 0;
+            int y = 0;
+            int w = 0;
+            int h = 0;
+            if (bbox instanceof Map) {
+                Map<String, Object> box = (Map<String, Object>) bbox;
+                x = (int) MiniJson.getDouble(box, "x", 0);
+                y = (int) MiniJson.getDouble(box, "y", 0);
+                w = (int) MiniJson.getDouble(box, "ancho", 0);
+                h = (int) MiniJson.getDouble(box, "alto", 0);
+            }
+            detections.add(new Detection(MiniJson.getString(d, "clase", "?"),
+                    (float) MiniJson.getDouble(d, "confianza", 0), x, y, w, h));
+        }
+        return detections;
+    }
+
+    // ---- Métricas ----
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /** Peticiones esperando un permiso libre. */
+    public int getQueued() {
+        return waiting.size();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /** Intentos HTTP enviados, incluidos los reintentos. */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /** Llamadas que terminaron en error tras agotar los reintentos. */
+    public long getFailures() {
+        return failures.get();
+    }
+}
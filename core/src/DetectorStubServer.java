@@ -0,0 +1,248 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Servidor HTTP local que imita la API Flask de detección.
+ *
+ * <p>Sirve para probar {@link DetectorPersonasClient} y medir el pipeline
+ * sin Python ni modelos (incluido el endpoint por lotes
+ * {@code /detect-batch}): responde siempre con una detección fija, puede
+ * añadir latencia artificial y fallar las primeras peticiones con 503 para
+ * ejercitar los reintentos. Acepta tanto JSON como
+ * {@link BinaryDetectionProtocol} y anuncia ambos en {@code /info}.</p>
+ */
+public class DetectorStubServer implements AutoCloseable {
+    private static final Detection DETECTION = new Detection("persona", 0.9f, 10, 20, 100, 200);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private volatile long latencyMillis;
+    private volatile boolean binaryEnabled = true;
+
+    /** @param port puerto a escuchar; 0 para elegir uno libre */
+    public DetectorStubServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "detector-stub");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/health", ex -> respond(ex, 200, "{\"estado\":\"ok\"}"));
+        server.createContext("/info", ex -> respond(ex, 200,
+                "{\"nombre\":\"detector-stub\",\"modelo\":\"ssd_mobilenet_v2_coco\",\"entrada\":[300,300],"
+                        + "\"transportes\":" + (binaryEnabled ? "[\"json\",\"binario\"]" : "[\"json\"]") + "}"));
+        server.createContext("/detect", ex -> handleDetect(ex, false));
+        server.createContext("/detect-con-visualizacion", ex -> handleDetect(ex, true));
+        server.createContext("/detect-batch", this::handleBatch);
+    }
+
+    public DetectorStubServer start() {
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** Añade una espera fija antes de cada respuesta de detección. */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /** Hace que las próximas {@code n} peticiones de detección respondan 503. */
+    public void failNext(int n) {
+        failuresLeft.set(n);
+    }
+
+    /** Si es {@code false}, el stub se comporta como una API que sólo habla JSON. */
+    public void setBinaryEnabled(boolean binaryEnabled) {
+        this.binaryEnabled = binaryEnabled;
+    }
+
+    /** Peticiones de detección recibidas, incluidas las fallidas. */
+    public int getReceived() {
+        return received.get();
+    }
+
+    private void handleDetect(HttpExchange exchange, boolean conImagen) throws IOException {
+        received.incrementAndGet();
+        byte[] body = readAll(exchange.getRequestBody());
+        if (failuresLeft.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+            respond(exchange, 503, "{\"exito\":false,\"error\":\"ocupado\"}");
+            return;
+        }
+        pause();
+        if (!conImagen && isBinary(exchange)) {
+            handleBinary(exchange, body);
+            return;
+        }
+        Map<String, Object> request;
+        try {
+            request = MiniJson.parseObject(new String(body, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, "{\"exito\":false,\"error\":" + MiniJson.quote(e.getMessage()) + "}");
+            return;
+        }
+        String imagen = MiniJson.getString(request, "imagen", null);
+        if (imagen == null) {
+            respond(exchange, 400, "{\"exito\":false,\"error\":\"Falta la imagen\"}");
+            return;
+        }
+        StringBuilder json = new StringBuilder(128)
+                .append("{\"exito\":true,\"total_detecciones\":1,\"detecciones\":[");
+        appendDetection(json, DETECTION).append(']');
+        if (conImagen) {
+            json.append(",\"imagen_resultado\":").append(MiniJson.quote(imagen));
+        }
+        respond(exchange, 200, json.append('}').toString());
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        received.incrementAndGet();
+        byte[] body = readAll(exchange.getRequestBody());
+        if (failuresLeft.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+            respond(exchange, 503, "{\"exito\":false,\"error\":\"ocupado\"}");
+            return;
+        }
+        pause();
+        if (isBinary(exchange)) {
+            handleBinary(exchange, body);
+            return;
+        }
+        Object imagenes;
+        try {
+            imagenes = MiniJson.parseObject(new String(body, StandardCharsets.UTF_8)).get("imagenes");
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, "{\"exito\":false,\"error\":" + MiniJson.quote(e.getMessage()) + "}");
+            return;
+        }
+        if (!(imagenes instanceof List)) {
+            respond(exchange, 400, "{\"exito\":false,\"error\":\"Faltan las imagenes\"}");
+            return;
+        }
+        int count = ((List<?>) imagenes).size();
+        respond(exchange, 200, batchJson(Collections.nCopies(count, Collections.singletonList(DETECTION))));
+    }
+
+    private boolean isBinary(HttpExchange exchange) {
+        return binaryEnabled && BinaryDetectionProtocol.CONTENT_TYPE.equals(
+                exchange.getRequestHeaders().getFirst("Content-Type"));
+    }
+
+    private void handleBinary(HttpExchange exchange, byte[] body) throws IOException {
+        BinaryDetectionProtocol.Request request;
+        try {
+            request = BinaryDetectionProtocol.decodeRequest(ByteBuffer.wrap(body));
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, "{\"exito\":false,\"error\":" + MiniJson.quote(e.getMessage()) + "}");
+            return;
+        }
+        List<List<Detection>> results = new ArrayList<>(request.images.size());
+        for (int i = 0; i < request.images.size(); i++) {
+            results.add(Collections.singletonList(DETECTION));
+        }
+        byte[] bytes = BinaryDetectionProtocol.encodeResults(results);
+        exchange.getResponseHeaders().set("Content-Type", BinaryDetectionProtocol.CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Respuesta JSON de {@code /detect-batch} con los resultados de cada
+     * imagen, en el formato de la API Flask.
+     */
+    static String batchJson(List<List<Detection>> results) {
+        StringBuilder json = new StringBuilder(64 + results.size() * 96).append("{\"exito\":true,\"resultados\":[");
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"exito\":true,\"detecciones\":[");
+            List<Detection> detections = results.get(i);
+            for (int j = 0; j < detections.size(); j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                appendDetection(json, detections.get(j));
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static StringBuilder appendDetection(StringBuilder json, Detection d) {
+        return json.append("{\"clase\":").append(MiniJson.quote(d.getLabel()))
+                .append(",\"confianza\":").append(d.getConfidence())
+                .append(",\"bbox\":{\"x\":").append(d.getX())
+                .append(",\"y\":").append(d.getY())
+                .append(",\"ancho\":").append(d.getWidth())
+                .append(",\"alto\":").append(d.getHeight()).append("}}");
+    }
+
+    void pause() {
+        long latency = latencyMillis;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /** Arranca el stub de forma independiente: {@code DetectorStubServer [puerto] [latencia ms]}. */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        DetectorStubServer stub = new DetectorStubServer(port).start();
+        if (args.length > 1) {
+            stub.setLatencyMillis(Long.parseLong(args[1]));
+        }
+        System.out.println("Stub de detección escuchando en " + stub.getBaseUrl());
+    }
+}
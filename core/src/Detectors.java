@@ -0,0 +1,94 @@
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crea el {@link Detector} configurado con propiedades del sistema
+ * ({@code -Ddetector.backend=...}) o con un {@link Properties}.
+ *
+ * <table>
+ * <caption>Propiedades</caption>
+ * <tr><td>{@code detector.backend}</td><td>{@code remoto} (por defecto), {@code movimiento} o {@code ninguno}</td></tr>
+ * <tr><td>{@code detector.url}</td><td>URL de la API Flask (backend remoto)</td></tr>
+ * <tr><td>{@code detector.umbral}</td><td>confianza mínima, 0.5 por defecto</td></tr>
+ * <tr><td>{@code detector.lote}</td><td>imágenes por lote; 1 (por defecto) desactiva los lotes</td></tr>
+ * <tr><td>{@code detector.ventana}</td><td>espera máxima en ms para llenar un lote, 20 por defecto</td></tr>
+ * <tr><td>{@code detector.calidad}</td><td>calidad JPEG de 0 a 1, 0.85 por defecto</td></tr>
+ * <tr><td>{@code detector.movimiento.umbral}</td><td>diferencia de luminancia del detector de movimiento, 25 por defecto</td></tr>
+ * <tr><td>{@code detector.cache.entradas}</td><td>resultados en caché del backend remoto, 1024 por defecto; 0 la desactiva</td></tr>
+ * <tr><td>{@code detector.cache.ttl}</td><td>vida de cada resultado en caché en ms, 60000 por defecto</td></tr>
+ * </table>
+ *
+ * <p>El backend remoto queda detrás de un {@link CachingDetector}, así que
+ * una imagen repetida no vuelve a llegar al modelo. El de movimiento no: su
+ * resultado depende del fondo acumulado y no sólo del frame, y un acierto de
+ * caché dejaría además el fondo sin actualizar.</p>
+ *
+ * <p>Cada llamada devuelve un detector nuevo, porque el de movimiento guarda
+ * el fondo del flujo que analiza; el cliente HTTP por defecto sí se comparte.</p>
+ */
+public final class Detectors {
+    public static final String BACKEND_REMOTE = "remoto";
+    public static final String BACKEND_MOTION = "movimiento";
+    public static final String BACKEND_NONE = "ninguno";
+
+    private Detectors() {
+    }
+
+    /** Detector configurado con las propiedades del sistema. */
+    public static Detector fromSystemProperties() {
+        return fromProperties(System.getProperties());
+    }
+
+    public static Detector fromProperties(Properties props) {
+        String backend = props.getProperty("detector.backend", BACKEND_REMOTE).trim();
+        switch (backend) {
+            case BACKEND_REMOTE:
+                return cached(remote(props), props);
+            case BACKEND_MOTION:
+                return new MotionDetector(
+                        Float.parseFloat(props.getProperty("detector.movimiento.umbral", "25")), 0.05f, 2);
+            case BACKEND_NONE:
+                return none();
+            default:
+                throw new IllegalArgumentException("Backend de detección desconocido: " + backend);
+        }
+    }
+
+    /** Detector que nunca detecta nada (útil para medir el resto del pipeline). */
+    public static Detector none() {
+        return new Detector() {
+            @Override
+            public List<Detection> detect(Frame frame) {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public String getName() {
+                return BACKEND_NONE;
+            }
+        };
+    }
+
+    private static Detector cached(Detector detector, Properties props) {
+        int maxEntries = Integer.parseInt(props.getProperty("detector.cache.entradas", "1024"));
+        if (maxEntries <= 0) {
+            return detector;
+        }
+        long ttl = Long.parseLong(props.getProperty("detector.cache.ttl", "60000"));
+        return new CachingDetector(detector, maxEntries, ttl, TimeUnit.MILLISECONDS);
+    }
+
+    private static Detector remote(Properties props) {
+        String url = props.getProperty("detector.url");
+        DetectorPersonasClient client = url == null || url.equals(DetectorPersonasClient.DEFAULT_URL)
+                ? DetectorPersonasClient.getDefault() : new DetectorPersonasClient(url);
+        double umbral = Double.parseDouble(props.getProperty("detector.umbral", "0.5"));
+        int batch = Integer.parseInt(props.getProperty("detector.lote", "1"));
+        long window = Long.parseLong(props.getProperty("detector.ventana", "20"));
+        float quality = Float.parseFloat(props.getProperty("detector.calidad", "0.85"));
+        DetectionBatcher batcher = batch > 1 ? new DetectionBatcher(client, batch, window, umbral) : null;
+        return new RemoteDetector(client, FramePreprocessor.forSsdMobileNet(quality), batcher, umbral);
+    }
+}
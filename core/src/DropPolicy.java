@@ -0,0 +1,11 @@
+/**
+ * Política a aplicar cuando un {@link RingBuffer} está lleno.
+ */
+public enum DropPolicy {
+    /** Descarta el elemento más antiguo para hacer sitio al nuevo. */
+    DROP_OLDEST,
+    /** Descarta el elemento que se intenta insertar. */
+    DROP_NEWEST,
+    /** Bloquea al productor hasta que haya espacio. */
+    BLOCK
+}
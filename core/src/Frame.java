@@ -0,0 +1,88 @@
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Un frame de video en memoria.
+ * Los píxeles se guardan en formato BGRA premultiplicado (4 bytes por
+ * píxel, filas contiguas), que es el formato nativo de JavaFX.
+ *
+ * <p>Los frames que salen de un {@link FrameBufferPool} se reciclan: quien
+ * sea el dueño del frame al final del recorrido debe llamar a
+ * {@link #release()}. Para frames sin pool la llamada no hace nada.</p>
+ */
+public class Frame {
+    public static final int BYTES_PER_PIXEL = 4;
+
+    private final int width;
+    private final int height;
+    private final ByteBuffer pixels;
+    private final FrameBufferPool pool;
+    private final AtomicInteger refCount = new AtomicInteger();
+
+    private long index;
+    private long timestampNanos;
+
+    public Frame(long index, long timestampNanos, int width, int height, ByteBuffer pixels) {
+        this(width, height, pixels, null);
+        this.index = index;
+        this.timestampNanos = timestampNanos;
+    }
+
+    Frame(int width, int height, ByteBuffer pixels, FrameBufferPool pool) {
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+        this.pool = pool;
+    }
+
+    /** Reinicia un frame reciclado antes de volver a entregarlo. */
+    void reset(long index, long timestampNanos) {
+        this.index = index;
+        this.timestampNanos = timestampNanos;
+        refCount.set(1);
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getStride() {
+        return width * BYTES_PER_PIXEL;
+    }
+
+    /** Buffer de píxeles BGRA; la posición no se usa, se accede por índice absoluto. */
+    public ByteBuffer getPixels() {
+        return pixels;
+    }
+
+    public boolean isPooled() {
+        return pool != null;
+    }
+
+    /** Añade un dueño más; cada {@code retain()} necesita su {@link #release()}. */
+    public Frame retain() {
+        if (pool != null) {
+            refCount.incrementAndGet();
+        }
+        return this;
+    }
+
+    /** Devuelve el buffer al pool cuando el último dueño lo suelta. */
+    public void release() {
+        if (pool != null && refCount.decrementAndGet() == 0) {
+            pool.recycle(this);
+        }
+    }
+}
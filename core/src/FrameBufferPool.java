@@ -0,0 +1,101 @@
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de frames con buffers directos preasignados.
+ *
+ * <p>Todos los buffers se crean al construir el pool; en régimen
+ * estacionario captura, inferencia y visualización se pasan los mismos
+ * frames una y otra vez sin asignar memoria. Si el pool se agota,
+ * {@link #acquire(long, long)} espera a que alguien libere un frame, lo que
+ * actúa como contrapresión natural sobre la captura.</p>
+ */
+public class FrameBufferPool {
+    private final int width;
+    private final int height;
+    private final int capacity;
+    private final ArrayBlockingQueue<Frame> free;
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong recycled = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+
+    public FrameBufferPool(int width, int height, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity debe ser > 0");
+        }
+        this.width = width;
+        this.height = height;
+        this.capacity = capacity;
+        this.free = new ArrayBlockingQueue<>(capacity);
+        int size = width * height * Frame.BYTES_PER_PIXEL;
+        for (int i = 0; i < capacity; i++) {
+            free.add(new Frame(width, height, ByteBuffer.allocateDirect(size), this));
+        }
+    }
+
+    /**
+     * Toma un frame libre, esperando si hace falta.
+     *
+     * @throws InterruptedException si se interrumpe la espera (p.ej. al parar el pipeline)
+     */
+    public Frame acquire(long index, long timestampNanos) throws InterruptedException {
+        Frame frame = free.poll();
+        if (frame == null) {
+            waits.incrementAndGet();
+            frame = free.take();
+        }
+        frame.reset(index, timestampNanos);
+        acquired.incrementAndGet();
+        return frame;
+    }
+
+    /** Igual que {@link #acquire(long, long)} con tiempo máximo; {@code null} si expira. */
+    public Frame tryAcquire(long index, long timestampNanos, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        Frame frame = free.poll(timeout, unit);
+        if (frame == null) {
+            waits.incrementAndGet();
+            return null;
+        }
+        frame.reset(index, timestampNanos);
+        acquired.incrementAndGet();
+        return frame;
+    }
+
+    void recycle(Frame frame) {
+        recycled.incrementAndGet();
+        free.offer(frame);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getAvailable() {
+        return free.size();
+    }
+
+    public long getAcquired() {
+        return acquired.get();
+    }
+
+    public long getRecycled() {
+        return recycled.get();
+    }
+
+    /** Veces que un {@code acquire} encontró el pool vacío y tuvo que esperar. */
+    public long getWaits() {
+        return waits.get();
+    }
+}
@@ -0,0 +1,102 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Conversiones entre {@link BufferedImage} de AWT/ImageIO y el formato BGRA
+ * premultiplicado de {@link Frame}. No depende de JavaFX.
+ */
+public final class FrameConverter {
+
+    private FrameConverter() {
+    }
+
+    /**
+     * Copia {@code image} en {@code pixels} (BGRA premultiplicado).
+     * La imagen debe tener las mismas dimensiones que el destino.
+     */
+    public static void copyToBgra(BufferedImage image, ByteBuffer pixels, int[] rowScratch) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] row = rowScratch != null && rowScratch.length >= width ? rowScratch : new int[width];
+        int stride = width * Frame.BYTES_PER_PIXEL;
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int base = y * stride;
+            for (int x = 0; x < width; x++) {
+                int argb = row[x];
+                int a = argb >>> 24;
+                int r = (argb >> 16) & 0xFF;
+                int g = (argb >> 8) & 0xFF;
+                int b = argb & 0xFF;
+                if (a != 255) {
+                    r = r * a / 255;
+                    g = g * a / 255;
+                    b = b * a / 255;
+                }
+                int p = base + x * Frame.BYTES_PER_PIXEL;
+                pixels.put(p, (byte) b);
+                pixels.put(p + 1, (byte) g);
+                pixels.put(p + 2, (byte) r);
+                pixels.put(p + 3, (byte) a);
+            }
+        }
+    }
+
+    /** Convierte un frame BGRA a una imagen RGB de AWT (p.ej. para codificar a JPEG). */
+    public static BufferedImage toRgbImage(Frame frame, BufferedImage reuse) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        BufferedImage image = reuse;
+        if (image == null || image.getWidth() != width || image.getHeight() != height
+                || image.getType() != BufferedImage.TYPE_INT_RGB) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        int[] dst = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        ByteBuffer pixels = frame.getPixels();
+        for (int i = 0, p = 0; i < dst.length; i++, p += Frame.BYTES_PER_PIXEL) {
+            int b = pixels.get(p) & 0xFF;
+            int g = pixels.get(p + 1) & 0xFF;
+            int r = pixels.get(p + 2) & 0xFF;
+            dst[i] = (r << 16) | (g << 8) | b;
+        }
+        return image;
+    }
+
+    /** Codifica un frame como JPEG con la calidad indicada (0 a 1). */
+    public static byte[] encodeJpeg(Frame frame, float quality) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(frame.getWidth() * frame.getHeight() / 4);
+        encodeJpeg(toRgbImage(frame, null), quality, out);
+        return out.toByteArray();
+    }
+
+    /** Codifica una imagen RGB como JPEG en {@code out}. */
+    public static void encodeJpeg(BufferedImage image, float quality, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /** Crea un frame sin pool a partir de una imagen. */
+    public static Frame fromImage(BufferedImage image, long index, long timestampNanos) {
+        ByteBuffer pixels = ByteBuffer.allocate(image.getWidth() * image.getHeight() * Frame.BYTES_PER_PIXEL);
+        copyToBgra(image, pixels, null);
+        return new Frame(index, timestampNanos, image.getWidth(), image.getHeight(), pixels);
+    }
+}
@@ -0,0 +1,427 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Pipeline de tres etapas: captura → inferencia → render.
+ *
+ * <p>Un hilo de captura lee de la {@link FrameSource}, un grupo de hilos
+ * ejecuta el detector y un hilo de render entrega los resultados al
+ * consumidor (normalmente la vista). Las etapas se comunican mediante
+ * {@link RingBuffer} acotados, así que un detector lento nunca hace crecer
+ * la memoria ni bloquea la interfaz: se descartan frames según la
+ * {@link DropPolicy} elegida.</p>
+ *
+ * <p>Con una {@link SamplingPolicy} el hilo de captura decide qué frames
+ * pasan por el detector; el resto va directo al render con las últimas
+ * detecciones conocidas. El render los retiene hasta que llegan los frames
+ * anteriores que estaban en el detector, para no adelantarlos.</p>
+ *
+ * <p>Con una {@link TrackingPolicy} un {@link ObjectTracker} decide además
+ * cuáles de los frames muestreados necesitan el detector; el resto, y los
+ * saltados por el muestreo, van al render con las cajas predichas y todas
+ * las detecciones llevan el id de su objeto. El seguidor es uno solo para
+ * el flujo: la captura y los workers de inferencia lo usan bajo su monitor.</p>
+ *
+ * <p>Con una {@link RoiMask} el muestreo y el detector sólo miran las
+ * regiones de interés (ver {@link Detector#detect(Frame, RoiMask.Bitmap)}).
+ * La máscara puede cambiarse con el pipeline en marcha.</p>
+ *
+ * <p>Propiedad de los frames: los descartados se liberan aquí; los que
+ * llegan al consumidor pasan a ser suyos y éste debe llamar a
+ * {@link Frame#release()} cuando deje de mostrarlos.</p>
+ */
+public class FramePipeline implements AutoCloseable {
+    private final FrameSource source;
+    private final Detector detector;
+    private final Consumer<AnalyzedFrame> sink;
+    private final int workers;
+    private final int capacity;
+
+    private final RingBuffer<Frame> captureQueue;
+    private final RingBuffer<AnalyzedFrame> renderQueue;
+    private final List<Thread> threads = new ArrayList<>();
+    // Índices de los frames enviados al detector cuyo resultado aún no ha llegado al render
+    private final ConcurrentSkipListSet<Long> inAnalysis = new ConcurrentSkipListSet<>();
+
+    private final AtomicLong captured = new AtomicLong();
+    private final AtomicLong analyzed = new AtomicLong();
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong detectionErrors = new AtomicLong();
+    private final AllocationMeter allocationMeter = new AllocationMeter();
+    private final SamplingStats samplingStats = new SamplingStats();
+    private final TrackingStats trackingStats = new TrackingStats();
+    private final PipelineMetrics metrics = new PipelineMetrics();
+
+    private SamplingPolicy sampling = SamplingPolicy.all();
+    private TrackingPolicy tracking = TrackingPolicy.none();
+    private ObjectTracker tracker;
+    private volatile RoiMask roi = RoiMask.empty();
+    private volatile List<Detection> lastDetections = Collections.emptyList();
+
+    private volatile boolean running;
+    private volatile Throwable failure;
+    private volatile RuntimeException lastError;
+    private int activeWorkers;
+    // Sólo lo usa el hilo de render
+    private long lastRenderedIndex = -1;
+
+    /**
+     * @param source    origen de los frames
+     * @param detector  backend de inferencia; se invoca en paralelo desde varios hilos
+     * @param sink      recibe los frames analizados desde el hilo de render
+     * @param workers   número de hilos de inferencia
+     * @param capacity  capacidad de cada buffer entre etapas
+     * @param policy    qué hacer cuando un buffer está lleno
+     */
+    public FramePipeline(FrameSource source, Detector detector,
+            Consumer<AnalyzedFrame> sink, int workers, int capacity, DropPolicy policy) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers debe ser > 0");
+        }
+        this.source = source;
+        this.detector = detector;
+        this.sink = sink;
+        detector.setMetrics(metrics);
+        this.workers = workers;
+        this.capacity = capacity;
+        this.captureQueue = new RingBuffer<>(capacity, policy);
+        this.renderQueue = new RingBuffer<>(capacity, policy);
+    }
+
+    /** Muestreo previo a la detección; debe configurarse antes de {@link #start()}. */
+    public synchronized void setSampling(SamplingPolicy sampling) {
+        this.sampling = sampling;
+    }
+
+    /** Regiones de interés del flujo; vacía para analizar el frame completo. */
+    public void setRoi(RoiMask roi) {
+        this.roi = roi;
+    }
+
+    public RoiMask getRoi() {
+        return roi;
+    }
+
+    /** Seguimiento de objetos entre detecciones; debe configurarse antes de {@link #start()}. */
+    public synchronized void setTracking(TrackingPolicy tracking) {
+        this.tracking = tracking;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        tracker = tracking.newTracker(trackingStats);
+        activeWorkers = workers;
+        threads.add(newThread("capture", this::captureLoop));
+        for (int i = 0; i < workers; i++) {
+            threads.add(newThread("inference-" + i, this::inferenceLoop));
+        }
+        threads.add(newThread("render", this::renderLoop));
+        for (Thread t : threads) {
+            t.start();
+            allocationMeter.track(t);
+        }
+    }
+
+    /**
+     * Tamaño mínimo de {@link FrameBufferPool} para que el pipeline no se
+     * quede sin buffers: ambos buffers llenos, los frames que el render
+     * retiene para no adelantar a los que están en el detector, un frame por
+     * worker, el que se está capturando y los dos que retiene la vista.
+     */
+    public static int requiredPoolSize(int workers, int capacity) {
+        return 3 * capacity + workers + 3;
+    }
+
+    /** Detiene todas las etapas, espera a que terminen y cierra la fuente. */
+    public void stop() {
+        List<Thread> toJoin;
+        synchronized (this) {
+            running = false;
+            captureQueue.close();
+            renderQueue.close();
+            toJoin = new ArrayList<>(threads);
+            threads.clear();
+        }
+        for (Thread t : toJoin) {
+            t.interrupt();
+        }
+        for (Thread t : toJoin) {
+            try {
+                t.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        releaseAll(captureQueue);
+        AnalyzedFrame pending;
+        while ((pending = renderQueue.pollNow()) != null) {
+            pending.getFrame().release();
+        }
+        try {
+            source.close();
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /** Espera a que el pipeline termine por sí solo (fuente agotada). */
+    public void awaitCompletion() throws InterruptedException {
+        List<Thread> toJoin;
+        synchronized (this) {
+            toJoin = new ArrayList<>(threads);
+        }
+        for (Thread t : toJoin) {
+            t.join();
+        }
+    }
+
+    // Captura, inferencia y render esperan E/S (cámara, API, vista): hilos virtuales si están activos
+    private Thread newThread(String name, Runnable body) {
+        return IoThreads.factory("pipeline-" + name).newThread(() -> {
+            try {
+                body.run();
+            } catch (RuntimeException e) {
+                recordFailure(e);
+            }
+        });
+    }
+
+    private void captureLoop() {
+        FrameSampler sampler = sampling.newSampler(samplingStats);
+        try {
+            while (running) {
+                long start = System.nanoTime();
+                Frame frame = source.next();
+                if (frame == null) {
+                    break;
+                }
+                metrics.recordSince(PipelineMetrics.Stage.CAPTURE, start);
+                captured.incrementAndGet();
+                List<Detection> carried = null;
+                sampler.setRoi(roi);
+                if (!sampler.shouldAnalyze(frame)) {
+                    carried = tracker != null ? predict(frame) : lastDetections;
+                } else if (tracker != null) {
+                    synchronized (tracker) {
+                        if (!tracker.needsDetection(frame)) {
+                            carried = tracker.predict(frame);
+                        }
+                    }
+                }
+                if (carried != null) {
+                    offerResult(new AnalyzedFrame(frame, carried));
+                    continue;
+                }
+                inAnalysis.add(frame.getIndex());
+                Frame discarded = captureQueue.offer(frame);
+                if (discarded != null) {
+                    inAnalysis.remove(discarded.getIndex());
+                    discarded.release();
+                }
+            }
+        } catch (IOException e) {
+            recordFailure(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            captureQueue.close();
+        }
+    }
+
+    private void inferenceLoop() {
+        try {
+            Frame frame;
+            while ((frame = captureQueue.take()) != null) {
+                List<Detection> detections;
+                long start = System.nanoTime();
+                try {
+                    RoiMask mask = roi;
+                    detections = mask.isEmpty() ? detector.detect(frame)
+                            : detector.detect(frame, mask.bitmap(frame.getWidth(), frame.getHeight()));
+                    metrics.recordSince(PipelineMetrics.Stage.INFERENCE, start);
+                    if (tracker != null) {
+                        synchronized (tracker) {
+                            detections = tracker.update(frame, detections);
+                        }
+                    }
+                    lastDetections = detections;
+                    analyzed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    // Un fallo puntual del backend no debe parar el worker:
+                    // el frame se muestra con las últimas detecciones
+                    detectionErrors.incrementAndGet();
+                    lastError = e;
+                    detections = tracker != null ? predict(frame) : lastDetections;
+                }
+                offerResult(new AnalyzedFrame(frame, detections));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                if (--activeWorkers == 0) {
+                    renderQueue.close();
+                }
+            }
+        }
+    }
+
+    private void offerResult(AnalyzedFrame result) throws InterruptedException {
+        AnalyzedFrame discarded = renderQueue.offer(result);
+        if (discarded != null) {
+            inAnalysis.remove(discarded.getFrame().getIndex());
+            discarded.getFrame().release();
+        }
+    }
+
+    private List<Detection> predict(Frame frame) {
+        synchronized (tracker) {
+            return tracker.predict(frame);
+        }
+    }
+
+    private void renderLoop() {
+        // Frames que no pasaron por el detector, a la espera de los anteriores que sí
+        PriorityQueue<AnalyzedFrame> held = new PriorityQueue<>(
+                Comparator.comparingLong((AnalyzedFrame r) -> r.getFrame().getIndex()));
+        try {
+            AnalyzedFrame result;
+            while ((result = renderQueue.take()) != null) {
+                if (inAnalysis.remove(result.getFrame().getIndex())) {
+                    render(result);
+                } else {
+                    held.add(result);
+                    if (held.size() > capacity) {
+                        stale.incrementAndGet();
+                        held.poll().getFrame().release();
+                    }
+                }
+                while (!held.isEmpty()) {
+                    Long oldest = inAnalysis.ceiling(Long.MIN_VALUE);
+                    if (oldest != null && oldest < held.peek().getFrame().getIndex()) {
+                        break;
+                    }
+                    render(held.poll());
+                }
+            }
+            // Fuente agotada: ya no queda nada en el detector
+            while (!held.isEmpty()) {
+                render(held.poll());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (AnalyzedFrame r : held) {
+                r.getFrame().release();
+            }
+        }
+    }
+
+    private void render(AnalyzedFrame result) {
+        long index = result.getFrame().getIndex();
+        // Con varios workers los resultados pueden llegar desordenados:
+        // nunca retrocedemos en el tiempo en la vista
+        if (index <= lastRenderedIndex) {
+            stale.incrementAndGet();
+            result.getFrame().release();
+            return;
+        }
+        lastRenderedIndex = index;
+        long captureNanos = result.getFrame().getTimestampNanos();
+        long start = System.nanoTime();
+        sink.accept(result);
+        metrics.recordSince(PipelineMetrics.Stage.RENDER, start);
+        metrics.recordSince(PipelineMetrics.Stage.END_TO_END, captureNanos);
+        rendered.incrementAndGet();
+    }
+
+    private static void releaseAll(RingBuffer<Frame> queue) {
+        Frame frame;
+        while ((frame = queue.pollNow()) != null) {
+            frame.release();
+        }
+    }
+
+    private void recordFailure(Throwable t) {
+        if (failure == null) {
+            failure = t;
+        }
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Primer error producido en alguna etapa, o {@code null}. */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /** Frames en los que el detector lanzó una excepción; el pipeline sigue funcionando. */
+    public long getDetectionErrors() {
+        return detectionErrors.get();
+    }
+
+    /** Última excepción del detector, o {@code null}. */
+    public RuntimeException getLastDetectionError() {
+        return lastError;
+    }
+
+    public long getCaptured() {
+        return captured.get();
+    }
+
+    public long getAnalyzed() {
+        return analyzed.get();
+    }
+
+    public long getRendered() {
+        return rendered.get();
+    }
+
+    /** Frames analizados frente a saltados por el muestreo. */
+    public SamplingStats getSamplingStats() {
+        return samplingStats;
+    }
+
+    /** Llamadas al detector hechas y ahorradas por el seguimiento. */
+    public TrackingStats getTrackingStats() {
+        return trackingStats;
+    }
+
+    /** Tiempos por etapa (captura, preproceso, inferencia, render y extremo a extremo). */
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Bytes asignados por los hilos del pipeline; ver {@link AllocationMeter#sample()}.
+     * Con hilos virtuales no hay medida: {@link AllocationMeter#isSupported()} es {@code false}.
+     */
+    public AllocationMeter getAllocationMeter() {
+        return allocationMeter;
+    }
+
+    /** Frames descartados por buffers llenos o por llegar fuera de orden. */
+    public long getDropped() {
+        return captureQueue.getDropped() + renderQueue.getDropped() + stale.get();
+    }
+}
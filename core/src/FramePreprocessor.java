@@ -0,0 +1,160 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Reduce cada frame al tamaño de entrada del detector y lo codifica a JPEG.
+ *
+ * <p>El modelo SSD MobileNet de la API trabaja con 300x300, así que enviar
+ * frames a resolución completa sólo gasta ancho de banda y tiempo de
+ * decodificación en el servidor. La reducción promedia bloques de píxeles
+ * directamente desde el buffer BGRA, sin pasar por Java2D.</p>
+ *
+ * <p>Es thread-safe: cada hilo que llama a {@link #prepare(Frame)} reutiliza
+ * su propia imagen destino, buffer de salida y codificador JPEG. Las cajas
+ * devueltas por el detector se traducen de vuelta a coordenadas del frame
+ * original con {@link Prepared#mapBack(List)}.</p>
+ */
+public class FramePreprocessor {
+    public static final int SSD_INPUT_SIZE = 300;
+
+    private final int targetWidth;
+    private final int targetHeight;
+    private final float jpegQuality;
+    private final ThreadLocal<Scratch> scratch;
+
+    /** Imagen lista para enviar y la escala para deshacer la reducción. */
+    public static class Prepared {
+        public final byte[] jpeg;
+        public final float scaleX;
+        public final float scaleY;
+
+        Prepared(byte[] jpeg, float scaleX, float scaleY) {
+            this.jpeg = jpeg;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+        }
+
+        /** Convierte cajas en coordenadas de la imagen reducida a las del frame original. */
+        public List<Detection> mapBack(List<Detection> detections) {
+            if (scaleX == 1f && scaleY == 1f) {
+                return detections;
+            }
+            List<Detection> mapped = new ArrayList<>(detections.size());
+            for (Detection d : detections) {
+                mapped.add(new Detection(d.getLabel(), d.getConfidence(),
+                        Math.round(d.getX() * scaleX), Math.round(d.getY() * scaleY),
+                        Math.round(d.getWidth() * scaleX), Math.round(d.getHeight() * scaleY)));
+            }
+            return mapped;
+        }
+    }
+
+    private static class Scratch {
+        final BufferedImage image;
+        final int[] rowSums;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+
+        Scratch(int width, int height, float quality) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            rowSums = new int[width * 3];
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+        }
+    }
+
+    public FramePreprocessor(int targetWidth, int targetHeight, float jpegQuality) {
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+        this.jpegQuality = jpegQuality;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(targetWidth, targetHeight, jpegQuality));
+    }
+
+    /** Preprocesador para SSD MobileNet (300x300). */
+    public static FramePreprocessor forSsdMobileNet(float jpegQuality) {
+        return new FramePreprocessor(SSD_INPUT_SIZE, SSD_INPUT_SIZE, jpegQuality);
+    }
+
+    public Prepared prepare(Frame frame) throws IOException {
+        Scratch s = scratch.get();
+        int[] dst = ((DataBufferInt) s.image.getRaster().getDataBuffer()).getData();
+        downscale(frame, dst, targetWidth, targetHeight, s.rowSums);
+        s.out.reset();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(s.out)) {
+            s.writer.setOutput(ios);
+            s.writer.write(null, new IIOImage(s.image, null, null), s.param);
+        } finally {
+            s.writer.reset();
+        }
+        return new Prepared(s.out.toByteArray(),
+                (float) frame.getWidth() / targetWidth, (float) frame.getHeight() / targetHeight);
+    }
+
+    /**
+     * Reduce el frame BGRA a {@code dst} (RGB empaquetado) promediando el
+     * bloque de píxeles de origen que cubre cada píxel destino. Si el destino
+     * es mayor que el origen, cada bloque tiene un solo píxel (vecino más cercano).
+     */
+    static void downscale(Frame frame, int[] dst, int dstWidth, int dstHeight, int[] sums) {
+        ByteBuffer pixels = frame.getPixels();
+        int srcWidth = frame.getWidth();
+        int srcHeight = frame.getHeight();
+        int stride = frame.getStride();
+        for (int dy = 0; dy < dstHeight; dy++) {
+            int y0 = dy * srcHeight / dstHeight;
+            int y1 = Math.max(y0 + 1, (dy + 1) * srcHeight / dstHeight);
+            Arrays.fill(sums, 0, dstWidth * 3, 0);
+            for (int y = y0; y < y1; y++) {
+                int row = y * stride;
+                for (int dx = 0; dx < dstWidth; dx++) {
+                    int x0 = dx * srcWidth / dstWidth;
+                    int x1 = Math.max(x0 + 1, (dx + 1) * srcWidth / dstWidth);
+                    int b = 0;
+                    int g = 0;
+                    int r = 0;
+                    for (int x = x0, p = row + x0 * Frame.BYTES_PER_PIXEL; x < x1; x++, p += Frame.BYTES_PER_PIXEL) {
+                        b += pixels.get(p) & 0xFF;
+                        g += pixels.get(p + 1) & 0xFF;
+                        r += pixels.get(p + 2) & 0xFF;
+                    }
+                    sums[dx * 3] += r;
+                    sums[dx * 3 + 1] += g;
+                    sums[dx * 3 + 2] += b;
+                }
+            }
+            int rows = y1 - y0;
+            int out = dy * dstWidth;
+            for (int dx = 0; dx < dstWidth; dx++) {
+                int x0 = dx * srcWidth / dstWidth;
+                int x1 = Math.max(x0 + 1, (dx + 1) * srcWidth / dstWidth);
+                int n = rows * (x1 - x0);
+                dst[out + dx] = ((sums[dx * 3] / n) << 16) | ((sums[dx * 3 + 1] / n) << 8) | (sums[dx * 3 + 2] / n);
+            }
+        }
+    }
+
+    public int getTargetWidth() {
+        return targetWidth;
+    }
+
+    public int getTargetHeight() {
+        return targetHeight;
+    }
+
+    public float getJpegQuality() {
+        return jpegQuality;
+    }
+}
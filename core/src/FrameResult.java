@@ -0,0 +1,46 @@
+/**
+ * Fila de resultados de procesamiento de video: frame, clase y precisión.
+ * Los resultados se guardan en un {@link FrameResultStore}; esta clase sólo
+ * se crea al pedir una fila suelta ({@link FrameResultStore#getRow(int)}).
+ */
+public class FrameResult {
+    private String frame;
+    private String clase;
+    private String precision;
+
+    public FrameResult() {
+        this.frame = "";
+        this.clase = "";
+        this.precision = "";
+    }
+
+    public FrameResult(String frame, String clase, String precision) {
+        this.frame = frame;
+        this.clase = clase;
+        this.precision = precision;
+    }
+
+    public String getFrame() {
+        return frame;
+    }
+
+    public void setFrame(String frame) {
+        this.frame = frame;
+    }
+
+    public String getClase() {
+        return clase;
+    }
+
+    public void setClase(String clase) {
+        this.clase = clase;
+    }
+
+    public String getPrecision() {
+        return precision;
+    }
+
+    public void setPrecision(String precision) {
+        this.precision = precision;
+    }
+}
@@ -0,0 +1,192 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resultados de procesamiento de video guardados por columnas.
+ *
+ * <p>Cada fila ocupa 14 bytes: el índice de frame como {@code int}, la clase
+ * como un {@code short} que apunta a un diccionario de nombres, la
+ * confianza como {@code float} y el id del objeto seguido como {@code int}
+ * (0 si la detección no viene de un {@link ObjectTracker}). Las columnas se reservan en bloques de
+ * {@value #CHUNK_SIZE} filas, así que crecer nunca copia los datos ya
+ * guardados. Los textos de la tabla se generan al pedirlos
+ * ({@link #formatFrame(int)}, ...), sólo para las celdas visibles.</p>
+ *
+ * <p>Un único hilo escribe y cualquier hilo puede leer a la vez las filas
+ * por debajo de {@link #size()}: el tamaño se publica después de escribir
+ * la fila.</p>
+ */
+public class FrameResultStore {
+    static final int CHUNK_BITS = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile int[][] frames = new int[0][];
+    private volatile short[][] classIds = new short[0][];
+    private volatile float[][] confidences = new float[0][];
+    private volatile int[][] trackIds = new int[0][];
+    private volatile int size;
+
+    private final Map<String, Short> classIndex = new HashMap<>();
+    private volatile String[] classNames = new String[0];
+
+    /** Añade una fila. Sólo debe llamarse desde el hilo escritor. */
+    public void add(long frameIndex, String label, float confidence) {
+        add(Math.toIntExact(frameIndex), classId(label), confidence, 0);
+    }
+
+    /** Añade una fila por cada detección del frame. */
+    public void addAll(long frameIndex, Iterable<Detection> detections) {
+        int frame = Math.toIntExact(frameIndex);
+        for (Detection d : detections) {
+            add(frame, classId(d.getLabel()), d.getConfidence(),
+                    d instanceof TrackedDetection ? ((TrackedDetection) d).getTrackId() : 0);
+        }
+    }
+
+    /** Añade al final todas las filas de otro almacén, traduciendo sus ids de clase. */
+    public void appendAll(FrameResultStore other) {
+        appendAll(other, null);
+    }
+
+    /**
+     * Como {@link #appendAll(FrameResultStore)}, cambiando además cada id de
+     * objeto {@code t} por {@code trackMap[t]} ({@code null} para copiarlos tal cual).
+     */
+    public void appendAll(FrameResultStore other, int[] trackMap) {
+        int n = other.size();
+        String[] otherNames = other.classNames;
+        short[] remap = new short[otherNames.length];
+        for (int i = 0; i < otherNames.length; i++) {
+            remap[i] = classId(otherNames[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            int track = other.getTrackId(i);
+            add(other.getFrame(i), remap[other.getClassId(i)], other.getConfidence(i),
+                    trackMap != null && track > 0 ? trackMap[track] : track);
+        }
+    }
+
+    private void add(int frame, short classId, float confidence, int trackId) {
+        int row = size;
+        int chunk = row >>> CHUNK_BITS;
+        if (chunk == frames.length) {
+            grow();
+        }
+        int offset = row & CHUNK_MASK;
+        frames[chunk][offset] = frame;
+        classIds[chunk][offset] = classId;
+        confidences[chunk][offset] = confidence;
+        trackIds[chunk][offset] = trackId;
+        size = row + 1;
+    }
+
+    private void grow() {
+        int n = frames.length;
+        int[][] f = Arrays.copyOf(frames, n + 1);
+        short[][] c = Arrays.copyOf(classIds, n + 1);
+        float[][] p = Arrays.copyOf(confidences, n + 1);
+        int[][] t = Arrays.copyOf(trackIds, n + 1);
+        f[n] = new int[CHUNK_SIZE];
+        c[n] = new short[CHUNK_SIZE];
+        p[n] = new float[CHUNK_SIZE];
+        t[n] = new int[CHUNK_SIZE];
+        frames = f;
+        classIds = c;
+        confidences = p;
+        trackIds = t;
+    }
+
+    private short classId(String label) {
+        Short id = classIndex.get(label);
+        if (id != null) {
+            return id;
+        }
+        if (classIndex.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Demasiadas clases distintas");
+        }
+        short next = (short) classIndex.size();
+        classIndex.put(label, next);
+        String[] names = Arrays.copyOf(classNames, next + 1);
+        names[next] = label;
+        classNames = names;
+        return next;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getFrame(int row) {
+        return frames[row >>> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    public short getClassId(int row) {
+        return classIds[row >>> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    public String getLabel(int row) {
+        return classNames[getClassId(row)];
+    }
+
+    public float getConfidence(int row) {
+        return confidences[row >>> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    /** Id del objeto seguido, o 0 si no hay seguimiento. */
+    public int getTrackId(int row) {
+        return trackIds[row >>> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    /** Nombres de clase indexados por id. */
+    public String[] getClassNames() {
+        return classNames.clone();
+    }
+
+    public String formatFrame(int row) {
+        return Integer.toString(getFrame(row));
+    }
+
+    public String formatLabel(int row) {
+        return getLabel(row);
+    }
+
+    /** Id del objeto como {@code "#12"}, o vacío sin seguimiento. */
+    public String formatTrack(int row) {
+        int id = getTrackId(row);
+        return id > 0 ? "#" + id : "";
+    }
+
+    /** Confianza con dos decimales, como en la tabla ("0.87"). */
+    public String formatConfidence(int row) {
+        int hundredths = Math.round(getConfidence(row) * 100);
+        int fraction = hundredths % 100;
+        return (hundredths / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    /** Fila {@code row} como objeto; sólo para exportar o depurar, la tabla no lo usa. */
+    public FrameResult getRow(int row) {
+        return new FrameResult(formatFrame(row), formatLabel(row), formatConfidence(row));
+    }
+
+    /** Primera fila cuyo frame es {@code >= frameIndex} (las filas están en orden de frame). */
+    public int findFirstRow(int frameIndex) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (getFrame(mid) < frameIndex) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Memoria aproximada de las columnas en bytes. */
+    public long getMemoryBytes() {
+        return (long) frames.length * CHUNK_SIZE * (Integer.BYTES + Short.BYTES + Float.BYTES + Integer.BYTES);
+    }
+}
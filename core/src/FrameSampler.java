@@ -0,0 +1,140 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Decide qué frames se envían al detector según una {@link SamplingPolicy}.
+ *
+ * <p>Tiene estado (último frame analizado), así que cada flujo de frames
+ * necesita su propia instancia y no debe usarse desde varios hilos a la vez.
+ * El modo de cambio de escena compara una miniatura de luminancia de
+ * {@value #THUMB_W}x{@value #THUMB_H} puntos con la del último frame
+ * analizado: cuesta unos cientos de lecturas por frame. Con una máscara de
+ * regiones de interés ({@link #setRoi}) sólo cuentan los puntos que caen en
+ * ella, así que el cielo o un reloj sobreimpreso no disparan análisis.</p>
+ */
+public class FrameSampler {
+    static final int THUMB_W = 32;
+    static final int THUMB_H = 18;
+
+    private final SamplingPolicy policy;
+    private final SamplingStats stats;
+
+    private final byte[] lastThumb = new byte[THUMB_W * THUMB_H];
+    private final byte[] thumb = new byte[THUMB_W * THUMB_H];
+    private boolean hasLast;
+    private long lastAnalyzedIndex = Long.MIN_VALUE;
+    private long lastAnalyzedNanos;
+    private int skippedInRow;
+    private RoiMask roi = RoiMask.empty();
+    private boolean[] thumbCells;
+
+    FrameSampler(SamplingPolicy policy, SamplingStats stats) {
+        this.policy = policy;
+        this.stats = stats;
+    }
+
+    /**
+     * Máscara de regiones de interés para el modo de cambio de escena; puede
+     * cambiar entre frames (el siguiente frame se analiza siempre).
+     */
+    public void setRoi(RoiMask roi) {
+        if (!roi.equals(this.roi)) {
+            this.roi = roi;
+            hasLast = false;
+        }
+    }
+
+    /** @return {@code true} si el frame debe analizarse */
+    public boolean shouldAnalyze(Frame frame) {
+        boolean analyze;
+        switch (policy.getMode()) {
+            case STRIDE:
+                analyze = frame.getIndex() % policy.getStride() == 0;
+                break;
+            case TIME:
+                analyze = lastAnalyzedIndex == Long.MIN_VALUE
+                        || frame.getTimestampNanos() - lastAnalyzedNanos >= policy.getIntervalNanos();
+                break;
+            case SCENE_CHANGE:
+                analyze = sceneChanged(frame);
+                break;
+            case ALL:
+            default:
+                analyze = true;
+                break;
+        }
+        if (analyze) {
+            lastAnalyzedIndex = frame.getIndex();
+            lastAnalyzedNanos = frame.getTimestampNanos();
+            skippedInRow = 0;
+            if (stats != null) {
+                stats.recordAnalyzed();
+            }
+        } else {
+            skippedInRow++;
+            if (stats != null) {
+                stats.recordSkipped();
+            }
+        }
+        return analyze;
+    }
+
+    private boolean sceneChanged(Frame frame) {
+        boolean[] cells = roi.isEmpty() ? null
+                : roi.bitmap(frame.getWidth(), frame.getHeight()).grid(THUMB_W, THUMB_H);
+        if (cells != thumbCells) {
+            thumbCells = cells;
+            hasLast = false;
+        }
+        lumaThumbnail(frame, thumb, cells);
+        boolean changed = !hasLast
+                || (policy.getMaxSkipped() > 0 && skippedInRow >= policy.getMaxSkipped())
+                || meanAbsDiff(thumb, lastThumb, cells) >= policy.getThreshold();
+        if (changed) {
+            System.arraycopy(thumb, 0, lastThumb, 0, thumb.length);
+            hasLast = true;
+        }
+        return changed;
+    }
+
+    /** Luminancia aproximada de una rejilla de puntos del frame. */
+    static void lumaThumbnail(Frame frame, byte[] out) {
+        lumaThumbnail(frame, out, null);
+    }
+
+    /** Como {@link #lumaThumbnail(Frame, byte[])}, sin leer los puntos a {@code false} en {@code cells}. */
+    static void lumaThumbnail(Frame frame, byte[] out, boolean[] cells) {
+        ByteBuffer pixels = frame.getPixels();
+        int stride = frame.getStride();
+        for (int ty = 0; ty < THUMB_H; ty++) {
+            int y = (ty * 2 + 1) * frame.getHeight() / (THUMB_H * 2);
+            for (int tx = 0; tx < THUMB_W; tx++) {
+                if (cells != null && !cells[ty * THUMB_W + tx]) {
+                    continue;
+                }
+                int x = (tx * 2 + 1) * frame.getWidth() / (THUMB_W * 2);
+                int p = y * stride + x * Frame.BYTES_PER_PIXEL;
+                int b = pixels.get(p) & 0xFF;
+                int g = pixels.get(p + 1) & 0xFF;
+                int r = pixels.get(p + 2) & 0xFF;
+                out[ty * THUMB_W + tx] = (byte) ((r * 77 + g * 150 + b * 29) >> 8);
+            }
+        }
+    }
+
+    static double meanAbsDiff(byte[] a, byte[] b) {
+        return meanAbsDiff(a, b, null);
+    }
+
+    /** Diferencia media sólo en los puntos a {@code true} de {@code cells} ({@code null} para todos). */
+    static double meanAbsDiff(byte[] a, byte[] b, boolean[] cells) {
+        long sum = 0;
+        int n = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (cells == null || cells[i]) {
+                sum += Math.abs((a[i] & 0xFF) - (b[i] & 0xFF));
+                n++;
+            }
+        }
+        return n == 0 ? 0 : (double) sum / n;
+    }
+}
@@ -0,0 +1,227 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Acceso aleatorio a los frames de un {@link VideoFile} para mostrar la fila
+ * seleccionada sin decodificar el video desde el principio.
+ *
+ * <p>Cada petición decodifica desde el keyframe más cercano anterior (búsqueda
+ * binaria en {@link VideoFile#getKeyframes()}, el índice que el video construye
+ * al abrirse para procesarlo) o continúa el decodificador abierto si el frame
+ * está más adelante en el mismo tramo. Los frames decodificados quedan en una
+ * caché LRU pequeña y, tras cada petición, se adelantan los siguientes frames
+ * en la dirección en que se está recorriendo la tabla.</p>
+ *
+ * <p>Todo el decodificado ocurre en un único hilo propio. Si llega una
+ * petición nueva, las pendientes y el adelanto en curso se abandonan: al
+ * desplazarse rápido sólo se decodifica el último frame pedido.</p>
+ */
+public class FrameSeeker implements AutoCloseable {
+    private final VideoFile video;
+    private final long[] keyframes;
+    private final int prefetchFrames;
+    private final Map<Long, Frame> cache;
+    private final ExecutorService executor;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong decoded = new AtomicLong();
+
+    private long lastRequested = -1;
+    private int direction = 1;
+
+    // Sólo desde el hilo del buscador
+    private FrameSource source;
+    private long sourceNext = -1;
+
+    /**
+     * @param video          video abierto; sigue siendo del llamador
+     * @param cacheFrames    frames decodificados que se guardan
+     * @param prefetchFrames frames que se adelantan tras cada petición
+     */
+    public FrameSeeker(VideoFile video, int cacheFrames, int prefetchFrames) {
+        if (cacheFrames <= prefetchFrames) {
+            throw new IllegalArgumentException("La caché debe ser mayor que el adelanto");
+        }
+        this.video = video;
+        this.keyframes = video.getKeyframes();
+        this.prefetchFrames = prefetchFrames;
+        this.cache = new LinkedHashMap<>(cacheFrames * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Frame> eldest) {
+                return size() > cacheFrames;
+            }
+        };
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "frame-seeker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Pide el frame {@code n}. Si está en caché el futuro ya viene completo;
+     * si no, se completa en el hilo del buscador, o se cancela si antes llega
+     * otra petición. Los frames son de sólo lectura y no hace falta liberarlos.
+     */
+    public synchronized CompletableFuture<Frame> request(long n) {
+        if (n < 0 || n >= video.getFrameCount()) {
+            return CompletableFuture.failedFuture(new IndexOutOfBoundsException("Frame " + n));
+        }
+        if (lastRequested >= 0 && n != lastRequested) {
+            direction = n > lastRequested ? 1 : -1;
+        }
+        lastRequested = n;
+        long gen = generation.incrementAndGet();
+        int dir = direction;
+        Frame cached = cached(n);
+        CompletableFuture<Frame> result;
+        if (cached != null) {
+            hits.incrementAndGet();
+            result = CompletableFuture.completedFuture(cached);
+        } else {
+            misses.incrementAndGet();
+            result = new CompletableFuture<>();
+        }
+        executor.execute(() -> {
+            if (!result.isDone()) {
+                if (generation.get() != gen) {
+                    result.cancel(false);
+                    return;
+                }
+                try {
+                    result.complete(decodeTo(n, dir));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+            }
+            prefetch(n, dir, gen);
+        });
+        return result;
+    }
+
+    /** Versión bloqueante de {@link #request(long)}. */
+    public Frame get(long n) throws IOException, InterruptedException {
+        try {
+            return request(n).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void prefetch(long n, int dir, long gen) {
+        for (int i = 1; i <= prefetchFrames && generation.get() == gen; i++) {
+            long m = n + (long) dir * i;
+            if (m < 0 || m >= video.getFrameCount()) {
+                return;
+            }
+            if (cached(m) == null) {
+                try {
+                    decodeTo(m, dir);
+                } catch (IOException | RuntimeException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodifica hasta el frame {@code n}. Si se recorre hacia atrás guarda
+     * también los frames intermedios que caben en el adelanto, para no volver
+     * a decodificar el tramo desde su keyframe por cada frame. Falla si el
+     * video salta el frame {@code n} (el siguiente que entrega es posterior).
+     */
+    private Frame decodeTo(long n, int dir) throws IOException {
+        Frame frame = cached(n);
+        if (frame != null) {
+            return frame;
+        }
+        long keyframe = keyframeAtOrBefore(n);
+        if (source == null || sourceNext > n || sourceNext < keyframe) {
+            closeSource();
+            source = video.openAt(keyframe, null);
+            sourceNext = keyframe;
+        }
+        long keepFrom = dir < 0 ? n - prefetchFrames : n;
+        while (sourceNext <= n) {
+            frame = source.next();
+            if (frame == null) {
+                closeSource();
+                throw new IOException("El video terminó antes del frame " + n);
+            }
+            sourceNext = frame.getIndex() + 1;
+            decoded.incrementAndGet();
+            if (frame.getIndex() >= keepFrom) {
+                synchronized (cache) {
+                    cache.put(frame.getIndex(), frame);
+                }
+            }
+        }
+        if (frame.getIndex() != n) {
+            throw new IOException("El video no tiene el frame " + n + " (sigue en el " + frame.getIndex() + ")");
+        }
+        return frame;
+    }
+
+    private long keyframeAtOrBefore(long n) {
+        int i = Arrays.binarySearch(keyframes, n);
+        return i >= 0 ? keyframes[i] : keyframes[Math.max(0, -i - 2)];
+    }
+
+    private Frame cached(long n) {
+        synchronized (cache) {
+            return cache.get(n);
+        }
+    }
+
+    private void closeSource() throws IOException {
+        if (source != null) {
+            source.close();
+            source = null;
+        }
+        sourceNext = -1;
+    }
+
+    /** Peticiones servidas desde la caché. */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** Peticiones que tuvieron que esperar a decodificar. */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** Frames decodificados en total, incluidos los adelantados. */
+    public long getDecodedFrames() {
+        return decoded.get();
+    }
+
+    /** Detiene el hilo y vacía la caché. No cierra el video. */
+    @Override
+    public void close() {
+        generation.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                closeSource();
+            } catch (IOException e) {
+                // El video lo cierra su dueño
+            }
+        });
+        executor.shutdown();
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
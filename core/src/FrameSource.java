@@ -0,0 +1,23 @@
+import java.io.IOException;
+
+/**
+ * Origen de frames para el pipeline (cámara, archivo, generador sintético...).
+ * Las implementaciones no necesitan ser thread-safe: el pipeline sólo
+ * llama a {@link #next()} desde el hilo de captura.
+ */
+public interface FrameSource extends AutoCloseable {
+
+    /**
+     * Devuelve el siguiente frame, bloqueando si hace falta.
+     *
+     * @return el frame, o {@code null} cuando la fuente se agotó
+     */
+    Frame next() throws IOException;
+
+    int getWidth();
+
+    int getHeight();
+
+    @Override
+    void close() throws IOException;
+}
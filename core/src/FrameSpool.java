@@ -0,0 +1,342 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Frames ya decodificados y reducidos, guardados en un archivo mapeado en
+ * memoria para volver a analizarlos sin decodificar el video otra vez.
+ *
+ * <p>Formato: una cabecera de 64 bytes ({@code "FSPL"}, versión, ancho, alto,
+ * fps, número de frames y tamaño original), un índice con un {@code long} por
+ * frame y, alineados a 4 KB, los frames BGRA de tamaño fijo. La entrada del
+ * índice vale el timestamp del frame más uno, o 0 si el frame aún no se ha
+ * escrito, así que un spool a medias (proceso cancelado o en curso) se puede
+ * leer igual.</p>
+ *
+ * <p>Es un {@link VideoFile}: {@link VideoProcessingEngine} y
+ * {@link BatchProcessor} lo reanalizan como cualquier video, a la velocidad del
+ * disco (o de la caché de páginas). Las detecciones salen en coordenadas del
+ * spool; {@link #getSourceWidth()} y {@link #getSourceHeight()} dan la escala
+ * al video original.</p>
+ *
+ * <p>Varios hilos pueden escribir frames distintos a la vez y leer mientras
+ * tanto. Java 17 no permite desmapear: la memoria mapeada se libera cuando el
+ * recolector reclama los buffers, después de {@link #close()}.</p>
+ */
+public class FrameSpool implements VideoFile {
+    public static final String EXTENSION = ".spool";
+    /** Ancho máximo por defecto de los frames guardados. */
+    public static final int DEFAULT_MAX_WIDTH = 640;
+
+    private static final int MAGIC = 0x4653504C; // "FSPL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int ALIGNMENT = 4096;
+    private static final long MAX_REGION_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final boolean writable;
+    private final int width;
+    private final int height;
+    private final double fps;
+    private final long frameCount;
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final int frameSize;
+    private final long dataStart;
+    private final int framesPerRegion;
+    private final MappedByteBuffer index;
+    private final MappedByteBuffer[] regions;
+    private final ThreadLocal<int[][]> scratch;
+
+    private FrameSpool(FileChannel channel, boolean writable, int width, int height, double fps, long frameCount,
+            int sourceWidth, int sourceHeight) throws IOException {
+        this.channel = channel;
+        this.writable = writable;
+        this.width = width;
+        this.height = height;
+        this.fps = fps;
+        this.frameCount = frameCount;
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.frameSize = width * height * Frame.BYTES_PER_PIXEL;
+        this.dataStart = align(HEADER_SIZE + frameCount * Long.BYTES);
+        this.framesPerRegion = (int) Math.max(1, MAX_REGION_BYTES / frameSize);
+        this.regions = new MappedByteBuffer[(int) ((frameCount + framesPerRegion - 1) / framesPerRegion)];
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        this.index = channel.map(mode, HEADER_SIZE, frameCount * Long.BYTES);
+        this.scratch = ThreadLocal.withInitial(() -> new int[][] {new int[width * height], new int[width * 3]});
+    }
+
+    /**
+     * Crea (o sobrescribe) un spool vacío para un video. Los frames se
+     * reducen para que el ancho no pase de {@code maxWidth}, manteniendo la
+     * proporción.
+     */
+    public static FrameSpool create(Path path, int sourceWidth, int sourceHeight, double fps, long frameCount,
+            int maxWidth) throws IOException {
+        int width = Math.min(sourceWidth, maxWidth);
+        int height = Math.max(1, (int) ((long) sourceHeight * width / sourceWidth));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putFloat((float) fps)
+                    .putLong(frameCount).putInt(sourceWidth).putInt(sourceHeight);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            FrameSpool spool = new FrameSpool(channel, true, width, height, fps, frameCount,
+                    sourceWidth, sourceHeight);
+            // Reserva el archivo completo; en Linux y NTFS queda disperso hasta que se escribe
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.setLength(spool.dataStart + frameCount * spool.frameSize);
+            }
+            return spool;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Spool para un video, con el ancho máximo por defecto. */
+    public static FrameSpool create(Path path, VideoFile video) throws IOException {
+        return create(path, video.getWidth(), video.getHeight(), video.getFps(), video.getFrameCount(),
+                DEFAULT_MAX_WIDTH);
+    }
+
+    /** Tamaño en bytes del spool de un video con el ancho máximo por defecto. */
+    public static long sizeFor(VideoFile video) {
+        int width = Math.min(video.getWidth(), DEFAULT_MAX_WIDTH);
+        int height = Math.max(1, (int) ((long) video.getHeight() * width / video.getWidth()));
+        long frames = video.getFrameCount();
+        return align(HEADER_SIZE + frames * Long.BYTES) + frames * width * height * Frame.BYTES_PER_PIXEL;
+    }
+
+    /** Abre un spool existente sólo para leer. */
+    public static FrameSpool open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Lee la cabecera completa
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("No es un archivo de spool: " + path);
+            }
+            if (header.getInt() != VERSION) {
+                throw new IOException("Versión de spool no soportada: " + path);
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            double fps = header.getFloat();
+            long frameCount = header.getLong();
+            FrameSpool spool = new FrameSpool(channel, false, width, height, fps, frameCount,
+                    header.getInt(), header.getInt());
+            if (channel.size() < spool.dataStart + frameCount * spool.frameSize) {
+                throw new IOException("Spool truncado: " + path);
+            }
+            return spool;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Reduce y guarda un frame en su posición según {@link Frame#getIndex()}.
+     * El frame no cambia de dueño.
+     */
+    public void write(Frame frame) throws IOException {
+        if (!writable) {
+            throw new IOException("El spool está abierto sólo para lectura");
+        }
+        long n = frame.getIndex();
+        if (n < 0 || n >= frameCount) {
+            throw new IndexOutOfBoundsException("Frame " + n + " fuera del spool de " + frameCount);
+        }
+        MappedByteBuffer region = region(n);
+        int offset = (int) (n % framesPerRegion) * frameSize;
+        if (frame.getWidth() == width && frame.getHeight() == height) {
+            region.put(offset, frame.getPixels(), 0, frameSize);
+        } else {
+            int[][] s = scratch.get();
+            FramePreprocessor.downscale(frame, s[0], width, height, s[1]);
+            ByteBuffer out = region.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            int[] rgb = s[0];
+            for (int i = 0; i < rgb.length; i++) {
+                // 0xAARRGGBB en little-endian son los bytes B, G, R, A
+                out.putInt(offset + i * Frame.BYTES_PER_PIXEL, 0xFF000000 | rgb[i]);
+            }
+        }
+        // El índice se publica después de los píxeles
+        synchronized (index) {
+            index.putLong((int) n * Long.BYTES, frame.getTimestampNanos() + 1);
+        }
+    }
+
+    /** Indica si el frame {@code n} ya está guardado. */
+    public boolean contains(long n) {
+        return n >= 0 && n < frameCount && indexEntry(n) != 0;
+    }
+
+    private long indexEntry(long n) {
+        synchronized (index) {
+            return index.getLong((int) n * Long.BYTES);
+        }
+    }
+
+    /**
+     * Frame {@code n} sin copiar: sus píxeles son una vista de sólo lectura
+     * del archivo mapeado. Devuelve {@code null} si no está guardado.
+     */
+    public Frame read(long n) throws IOException {
+        if (!contains(n)) {
+            return null;
+        }
+        int offset = (int) (n % framesPerRegion) * frameSize;
+        ByteBuffer pixels = region(n).asReadOnlyBuffer().position(offset).limit(offset + frameSize).slice();
+        return new Frame(n, indexEntry(n) - 1, width, height, pixels);
+    }
+
+    private MappedByteBuffer region(long n) throws IOException {
+        int r = (int) (n / framesPerRegion);
+        synchronized (regions) {
+            if (regions[r] == null) {
+                long first = (long) r * framesPerRegion;
+                long frames = Math.min(framesPerRegion, frameCount - first);
+                regions[r] = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                        dataStart + first * frameSize, frames * frameSize);
+            }
+            return regions[r];
+        }
+    }
+
+    /** Número de frames ya guardados. */
+    public long getStoredFrames() {
+        long stored = 0;
+        for (long n = 0; n < frameCount; n++) {
+            if (indexEntry(n) != 0) {
+                stored++;
+            }
+        }
+        return stored;
+    }
+
+    public int getSourceWidth() {
+        return sourceWidth;
+    }
+
+    public int getSourceHeight() {
+        return sourceHeight;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public double getFps() {
+        return fps;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public long[] getKeyframes() {
+        long[] keyframes = new long[(int) frameCount];
+        for (int i = 0; i < keyframes.length; i++) {
+            keyframes[i] = i;
+        }
+        return keyframes;
+    }
+
+    /** Recorre los frames guardados desde {@code keyframe}; los que faltan se saltan. */
+    @Override
+    public FrameSource openAt(long keyframe, FrameBufferPool pool) {
+        return new FrameSource() {
+            private long next = keyframe;
+
+            @Override
+            public Frame next() throws IOException {
+                while (next < frameCount && !contains(next)) {
+                    next++;
+                }
+                if (next >= frameCount) {
+                    return null;
+                }
+                Frame stored = read(next++);
+                if (pool == null) {
+                    return stored;
+                }
+                Frame frame;
+                try {
+                    frame = pool.acquire(stored.getIndex(), stored.getTimestampNanos());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+                frame.getPixels().put(0, stored.getPixels(), 0, frameSize);
+                return frame;
+            }
+
+            @Override
+            public int getWidth() {
+                return width;
+            }
+
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public void close() {
+                // El mapeo es compartido; se cierra con el spool
+            }
+        };
+    }
+
+    /** Escribe a disco los frames y el índice guardados hasta ahora. */
+    public void force() {
+        if (!writable) {
+            return;
+        }
+        synchronized (regions) {
+            for (MappedByteBuffer region : regions) {
+                if (region != null) {
+                    region.force();
+                }
+            }
+        }
+        synchronized (index) {
+            index.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
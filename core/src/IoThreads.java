@@ -0,0 +1,191 @@
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hilos para trabajo de E/S bloqueante: leer frames, llamadas HTTP y
+ * escritura de resultados.
+ *
+ * <p>Con {@code -Dio.hilos=virtuales} y Java 21 o superior estos hilos son
+ * virtuales: cien cámaras o mil peticiones en espera no ocupan cien o mil
+ * hilos del sistema. Con {@code plataforma} (por defecto) o en Java 17 son
+ * hilos normales en modo daemon. El proyecto compila para Java 17, así que
+ * la API de hilos virtuales se usa por reflexión.</p>
+ *
+ * <p>El trabajo de CPU (reducir y codificar frames) no debe correr en hilos
+ * virtuales sin límite: {@link #compute(CpuTask)} lo pasa a un pool fijo de
+ * tantos hilos como núcleos cuando se llama desde un hilo virtual.</p>
+ */
+public final class IoThreads {
+    public static final String PROPERTY = "io.hilos";
+
+    /** Trabajo de CPU que puede lanzar una excepción comprobada concreta. */
+    @FunctionalInterface
+    public interface CpuTask<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method IS_VIRTUAL;
+    private static final Method NEW_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method isVirtual = null;
+        Method newPerTaskExecutor = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builder.getMethod("name", String.class, long.class);
+            builderFactory = builder.getMethod("factory");
+            isVirtual = Thread.class.getMethod("isVirtual");
+            newPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // En Java 19 y 20 existen como preview y fallan sin --enable-preview
+            ofVirtual.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 17: sin hilos virtuales
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        IS_VIRTUAL = isVirtual;
+        NEW_PER_TASK_EXECUTOR = newPerTaskExecutor;
+    }
+
+    private static volatile boolean virtualEnabled = isVirtualSupported()
+            && "virtuales".equals(System.getProperty(PROPERTY, "plataforma").trim().toLowerCase(Locale.ROOT));
+
+    private static final ExecutorService CPU_POOL = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), platformFactory("cpu"));
+
+    private IoThreads() {
+    }
+
+    /** Indica si la JVM tiene hilos virtuales (Java 21+). */
+    public static boolean isVirtualSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /** Indica si los hilos de E/S creados a partir de ahora serán virtuales. */
+    public static boolean isVirtualEnabled() {
+        return virtualEnabled;
+    }
+
+    /**
+     * Cambia el modo para los hilos que se creen a partir de ahora, ignorando
+     * la propiedad. Sin soporte en la JVM se queda en hilos de plataforma.
+     */
+    public static void setVirtualEnabled(boolean enabled) {
+        virtualEnabled = enabled && isVirtualSupported();
+    }
+
+    /** Nombre del modo activo, para mostrarlo en informes. */
+    public static String getModeName() {
+        return virtualEnabled ? "virtuales" : "plataforma";
+    }
+
+    /**
+     * Fábrica de hilos de E/S; los hilos se llaman {@code nombre-0},
+     * {@code nombre-1}... y nunca impiden que termine la JVM.
+     */
+    public static ThreadFactory factory(String name) {
+        if (virtualEnabled) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name + "-", 0L);
+                return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("No se pudieron crear hilos virtuales", e);
+            }
+        }
+        return platformFactory(name);
+    }
+
+    private static ThreadFactory platformFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** Crea y arranca un hilo de E/S. */
+    public static Thread start(String name, Runnable task) {
+        Thread t = factory(name).newThread(task);
+        t.start();
+        return t;
+    }
+
+    /**
+     * Ejecutor con un hilo por tarea: virtual si el modo está activo o un
+     * pool de hilos de plataforma reutilizables si no.
+     */
+    public static ExecutorService newPerTaskExecutor(String name) {
+        if (virtualEnabled) {
+            try {
+                return (ExecutorService) NEW_PER_TASK_EXECUTOR.invoke(null, factory(name));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("No se pudieron crear hilos virtuales", e);
+            }
+        }
+        return Executors.newCachedThreadPool(platformFactory(name));
+    }
+
+    /** Pool fijo (un hilo por núcleo) para trabajo de CPU. */
+    public static ExecutorService cpuPool() {
+        return CPU_POOL;
+    }
+
+    /** Indica si {@code thread} es un hilo virtual. */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Ejecuta trabajo de CPU. Desde un hilo virtual lo pasa al {@link #cpuPool()}
+     * y espera el resultado (esperar no ocupa un hilo del sistema); desde
+     * cualquier otro hilo lo ejecuta directamente.
+     */
+    public static <T, E extends Exception> T compute(CpuTask<T, E> task) throws E {
+        if (!isVirtual(Thread.currentThread())) {
+            return task.call();
+        }
+        Future<T> future = CPU_POOL.submit(task::call);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrumpido esperando al pool de CPU");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            @SuppressWarnings("unchecked")
+            E checked = (E) cause;
+            throw checked;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Publica instantáneas de {@link PipelineMetrics} en un archivo local y/o
+ * en un endpoint HTTP ({@code /metrics} en formato Prometheus,
+ * {@code /metrics.json} en JSON).
+ *
+ * <p>El archivo se reescribe periódicamente de forma atómica (archivo
+ * temporal y renombrado), así que quien lo lea nunca ve una escritura a
+ * medias. El formato se elige por la extensión: {@code .json} o texto de
+ * Prometheus para cualquier otra. El rendimiento del archivo es el del
+ * último periodo; el de HTTP es la media desde el inicio, para que varios
+ * scrapers no se muevan la ventana entre sí (Prometheus calcula tasas con
+ * {@code rate()} sobre los {@code _count}).</p>
+ */
+public class MetricsExporter implements AutoCloseable {
+    private final PipelineMetrics metrics;
+    private final PipelineMetrics.Reader fileReader;
+    private ScheduledExecutorService scheduler;
+    private HttpServer server;
+
+    public MetricsExporter(PipelineMetrics metrics) {
+        this.metrics = metrics;
+        this.fileReader = metrics.newReader();
+    }
+
+    /**
+     * Exportador configurado con {@code -Dmetricas.archivo=ruta},
+     * {@code -Dmetricas.periodo=ms} (10000 por defecto) y
+     * {@code -Dmetricas.puerto=n}; {@code null} si no se pidió ninguno.
+     */
+    public static MetricsExporter fromSystemProperties(PipelineMetrics metrics) throws IOException {
+        String file = System.getProperty("metricas.archivo");
+        String port = System.getProperty("metricas.puerto");
+        if (file == null && port == null) {
+            return null;
+        }
+        MetricsExporter exporter = new MetricsExporter(metrics);
+        if (file != null) {
+            exporter.startFileExport(Paths.get(file), Long.getLong("metricas.periodo", 10_000));
+        }
+        if (port != null) {
+            exporter.startServer(Integer.parseInt(port));
+        }
+        return exporter;
+    }
+
+    /** Escribe una instantánea en {@code file} ahora. */
+    public void write(Path file) throws IOException {
+        PipelineMetrics.Snapshot snapshot = fileReader.snapshot();
+        String text = file.getFileName().toString().endsWith(".json") ? snapshot.toJson() : snapshot.toPrometheus();
+        Path parent = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, text.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Reescribe {@code file} cada {@code periodMillis} en un hilo de fondo. */
+    public synchronized void startFileExport(Path file, long periodMillis) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(IoThreads.factory("metrics-export"));
+        }
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                write(file);
+            } catch (IOException e) {
+                System.err.println("No se pudieron exportar las métricas a " + file + ": " + e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Sirve las métricas en {@code http://127.0.0.1:port/metrics}; 0 elige un puerto libre. */
+    public synchronized void startServer(int port) throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/metrics", ex -> respond(ex, "text/plain; version=0.0.4; charset=utf-8",
+                metrics.snapshot().toPrometheus()));
+        server.createContext("/metrics.json", ex -> respond(ex, "application/json",
+                metrics.snapshot().toJson()));
+        server.start();
+    }
+
+    /** Puerto del endpoint HTTP, o -1 si no está activo. */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Video Motion-JPEG: JPEGs concatenados. Cada frame es independiente, así
+ * que todos son keyframes. Al abrir se recorre el archivo una vez para
+ * indexar el inicio y la longitud de cada JPEG, siguiendo sus segmentos.
+ */
+public class MjpegVideoFile implements VideoFile {
+    private final Path path;
+    private final double fps;
+    private final FileChannel channel;
+    private long[] offsets = new long[1024];
+    private int[] lengths = new int[1024];
+    private int count;
+    private int width;
+    private int height;
+
+    public MjpegVideoFile(Path path, double fps) throws IOException {
+        this.path = path;
+        this.fps = fps;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        buildIndex();
+        if (count == 0) {
+            channel.close();
+            throw new IOException("No se encontraron frames JPEG en " + path);
+        }
+        BufferedImage first = decode(0, null);
+        width = first.getWidth();
+        height = first.getHeight();
+    }
+
+    /**
+     * Indexa cada JPEG de SOI a EOI recorriendo sus segmentos por las
+     * longitudes de su cabecera. Buscar el primer FFD9 no basta: una
+     * miniatura EXIF dentro de APP1 es un JPEG completo con su propio EOI.
+     * Los bytes que no forman un JPEG válido se saltan hasta el siguiente SOI.
+     */
+    private void buildIndex() throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            JpegScanner scanner = new JpegScanner(in);
+            long start;
+            while ((start = scanner.findStart()) >= 0) {
+                long end = scanner.findEnd();
+                if (end >= 0) {
+                    add(start, (int) (end - start));
+                }
+            }
+        }
+    }
+
+    /** Recorre los marcadores de JPEGs concatenados contando la posición en bytes. */
+    private static final class JpegScanner {
+        private static final int EOF = -1;
+        private static final int CORRUPT = -2;
+        private static final int SOI = 0xD8;
+        private static final int EOI = 0xD9;
+        private static final int SOS = 0xDA;
+
+        private final InputStream in;
+        private long pos;
+        // SOI encontrado dentro de un JPEG sin terminar: empieza el siguiente
+        private long pendingStart = -1;
+
+        JpegScanner(InputStream in) {
+            this.in = in;
+        }
+
+        /** Posición del siguiente SOI, o -1 al final del archivo. */
+        long findStart() throws IOException {
+            if (pendingStart >= 0) {
+                long start = pendingStart;
+                pendingStart = -1;
+                return start;
+            }
+            int prev = -1;
+            int b;
+            while ((b = read()) != EOF) {
+                if (prev == 0xFF && b == SOI) {
+                    return pos - 2;
+                }
+                prev = b;
+            }
+            return -1;
+        }
+
+        /** Posición justo después del EOI del JPEG empezado, o -1 si está cortado o dañado. */
+        long findEnd() throws IOException {
+            int marker = nextMarker();
+            while (marker >= 0) {
+                if (marker == EOI) {
+                    return pos;
+                }
+                if (marker == SOI) {
+                    pendingStart = pos - 2;
+                    return -1;
+                }
+                if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                    // TEM y RST no llevan longitud
+                    marker = nextMarker();
+                    continue;
+                }
+                int high = read();
+                int low = read();
+                if (low == EOF) {
+                    return -1;
+                }
+                int length = (high << 8) | low;
+                if (length < 2 || !skip(length - 2)) {
+                    return -1;
+                }
+                marker = marker == SOS ? skipEntropyData() : nextMarker();
+            }
+            return -1;
+        }
+
+        /** Marcador que sigue, saltando bytes de relleno 0xFF. */
+        private int nextMarker() throws IOException {
+            int b = read();
+            if (b != 0xFF) {
+                return b == EOF ? EOF : CORRUPT;
+            }
+            do {
+                b = read();
+            } while (b == 0xFF);
+            return b == 0x00 ? CORRUPT : b;
+        }
+
+        /** Salta los datos comprimidos de un SOS (FF00 y RSTn incluidos) hasta el siguiente marcador. */
+        private int skipEntropyData() throws IOException {
+            int b;
+            while ((b = read()) != EOF) {
+                if (b != 0xFF) {
+                    continue;
+                }
+                do {
+                    b = read();
+                } while (b == 0xFF);
+                if (b == EOF) {
+                    return EOF;
+                }
+                if (b != 0x00 && (b < 0xD0 || b > 0xD7)) {
+                    return b;
+                }
+            }
+            return EOF;
+        }
+
+        private boolean skip(long n) throws IOException {
+            while (n > 0) {
+                long skipped = in.skip(n);
+                if (skipped <= 0) {
+                    if (in.read() == EOF) {
+                        return false;
+                    }
+                    skipped = 1;
+                }
+                pos += skipped;
+                n -= skipped;
+            }
+            return true;
+        }
+
+        private int read() throws IOException {
+            int b = in.read();
+            if (b != EOF) {
+                pos++;
+            }
+            return b;
+        }
+    }
+
+    private void add(long offset, int length) {
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+            lengths = Arrays.copyOf(lengths, count * 2);
+        }
+        offsets[count] = offset;
+        lengths[count] = length;
+        count++;
+    }
+
+    private BufferedImage decode(int frame, byte[][] scratch) throws IOException {
+        int length = lengths[frame];
+        byte[] data = scratch != null && scratch[0] != null && scratch[0].length >= length
+                ? scratch[0] : new byte[length];
+        if (scratch != null) {
+            scratch[0] = data;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+        long position = offsets[frame];
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Fin de archivo inesperado en el frame " + frame);
+            }
+            position += read;
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(data, 0, length));
+        if (image == null) {
+            throw new IOException("No se pudo decodificar el frame " + frame);
+        }
+        return image;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public double getFps() {
+        return fps;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return count;
+    }
+
+    @Override
+    public long[] getKeyframes() {
+        long[] keyframes = new long[count];
+        for (int i = 0; i < count; i++) {
+            keyframes[i] = i;
+        }
+        return keyframes;
+    }
+
+    /** Posición en bytes del frame dentro del archivo. */
+    public long getOffset(long frame) {
+        return offsets[(int) frame];
+    }
+
+    @Override
+    public FrameSource openAt(long keyframe, FrameBufferPool pool) {
+        return new FrameSource() {
+            private final byte[][] scratch = new byte[1][];
+            private final int[] rowScratch = new int[width];
+            private int next = (int) keyframe;
+
+            @Override
+            public Frame next() throws IOException {
+                if (next >= count) {
+                    return null;
+                }
+                BufferedImage image = decode(next, scratch);
+                long timestamp = (long) (next * 1_000_000_000L / fps);
+                Frame frame;
+                if (pool != null) {
+                    try {
+                        frame = pool.acquire(next, timestamp);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                    FrameConverter.copyToBgra(image, frame.getPixels(), rowScratch);
+                } else {
+                    frame = FrameConverter.fromImage(image, next, timestamp);
+                }
+                next++;
+                return frame;
+            }
+
+            @Override
+            public int getWidth() {
+                return width;
+            }
+
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public void close() {
+                // El canal es compartido; se cierra con el VideoFile
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,231 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Detector de movimiento en Java puro, sin red ni modelos.
+ *
+ * <p>Mantiene un fondo como media móvil de una rejilla de luminancia de
+ * {@value #GRID_W}x{@value #GRID_H} celdas; las celdas que se alejan del
+ * fondo más de {@code threshold} niveles se agrupan en regiones conexas y
+ * cada región suficientemente grande se devuelve como una detección
+ * {@value #LABEL} con la caja en coordenadas del frame. Es determinista, por
+ * lo que también sirve como backend de referencia para pruebas y benchmarks.</p>
+ *
+ * <p>El fondo pertenece a la instancia, así que cada instancia sirve a un
+ * único flujo de frames: una cámara o un segmento de video. Para otro flujo
+ * se usa {@link #forStream()}. Varios hilos pueden llamarla a la vez (los
+ * workers de {@link FramePipeline}); las llamadas se serializan y un frame
+ * que llega después de otro posterior se compara con el fondo sin
+ * actualizarlo. El fondo se reinicia cuando el índice de frame se repite o
+ * salta más de {@value #MAX_GAP} frames hacia delante o hacia atrás.</p>
+ *
+ * <p>Con una máscara de regiones de interés ({@link #detect(Frame, RoiMask.Bitmap)})
+ * sólo se muestrean y comparan las celdas que tocan la máscara: el resto del
+ * frame no cuesta nada y nunca genera movimiento. Al cambiar la máscara el
+ * fondo se reinicia.</p>
+ */
+public class MotionDetector implements Detector {
+    public static final String LABEL = "movimiento";
+
+    static final int GRID_W = 80;
+    static final int GRID_H = 45;
+    static final int MAX_GAP = 30;
+    private static final int SAMPLES = 4;
+
+    private final float threshold;
+    private final float learningRate;
+    private final int minCells;
+    private final State state = new State();
+
+    private static class State {
+        final float[] background = new float[GRID_W * GRID_H];
+        final float[] luma = new float[GRID_W * GRID_H];
+        final int[] labels = new int[GRID_W * GRID_H];
+        final int[] stack = new int[GRID_W * GRID_H];
+        long lastIndex = Long.MIN_VALUE;
+        int width;
+        int height;
+        RoiMask.Bitmap roi;
+    }
+
+    /** Umbral de 25 niveles, fondo que se adapta al 5% por frame y regiones de al menos 2 celdas. */
+    public MotionDetector() {
+        this(25f, 0.05f, 2);
+    }
+
+    /**
+     * @param threshold    diferencia de luminancia (0-255) con el fondo para considerar una celda en movimiento
+     * @param learningRate peso de cada frame nuevo en el fondo (0-1)
+     * @param minCells     celdas mínimas de una región para reportarla
+     */
+    public MotionDetector(float threshold, float learningRate, int minCells) {
+        if (threshold <= 0 || learningRate <= 0 || learningRate > 1 || minCells <= 0) {
+            throw new IllegalArgumentException("Parámetros del detector de movimiento inválidos");
+        }
+        this.threshold = threshold;
+        this.learningRate = learningRate;
+        this.minCells = minCells;
+    }
+
+    @Override
+    public List<Detection> detect(Frame frame) {
+        return detect(frame, (RoiMask.Bitmap) null);
+    }
+
+    @Override
+    public List<Detection> detect(Frame frame, RoiMask.Bitmap roi) {
+        boolean[] cells = roi != null ? roi.grid(GRID_W, GRID_H) : null;
+        State s = state;
+        synchronized (s) {
+            sampleLuma(frame, s.luma, cells);
+            long index = frame.getIndex();
+            boolean reset = s.lastIndex == Long.MIN_VALUE || index == s.lastIndex
+                    || Math.abs(index - s.lastIndex) > MAX_GAP
+                    || s.width != frame.getWidth() || s.height != frame.getHeight() || s.roi != roi;
+            if (reset) {
+                System.arraycopy(s.luma, 0, s.background, 0, s.luma.length);
+                s.lastIndex = index;
+                s.roi = roi;
+                s.width = frame.getWidth();
+                s.height = frame.getHeight();
+                return Collections.emptyList();
+            }
+            List<Detection> detections = findRegions(s, frame.getWidth(), frame.getHeight());
+            if (index > s.lastIndex) {
+                s.lastIndex = index;
+                float[] bg = s.background;
+                float[] luma = s.luma;
+                for (int i = 0; i < bg.length; i++) {
+                    bg[i] += learningRate * (luma[i] - bg[i]);
+                }
+            }
+            return detections;
+        }
+    }
+
+    /** Detector nuevo con los mismos parámetros y su propio fondo. */
+    @Override
+    public Detector forStream() {
+        return new MotionDetector(threshold, learningRate, minCells);
+    }
+
+    /**
+     * Luminancia media de cada celda, a partir de {@value #SAMPLES}x{@value #SAMPLES}
+     * puntos por celda. Las celdas a {@code false} en {@code cells} quedan a 0 sin leerse.
+     */
+    static void sampleLuma(Frame frame, float[] out, boolean[] cells) {
+        ByteBuffer pixels = frame.getPixels();
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        int stride = frame.getStride();
+        for (int gy = 0; gy < GRID_H; gy++) {
+            for (int gx = 0; gx < GRID_W; gx++) {
+                if (cells != null && !cells[gy * GRID_W + gx]) {
+                    out[gy * GRID_W + gx] = 0;
+                    continue;
+                }
+                int sum = 0;
+                for (int sy = 0; sy < SAMPLES; sy++) {
+                    int y = (int) (((long) gy * SAMPLES + sy) * height / (GRID_H * SAMPLES));
+                    int row = y * stride;
+                    for (int sx = 0; sx < SAMPLES; sx++) {
+                        int x = (int) (((long) gx * SAMPLES + sx) * width / (GRID_W * SAMPLES));
+                        int p = row + x * Frame.BYTES_PER_PIXEL;
+                        // BGRA: Y ≈ (29 B + 150 G + 77 R) / 256
+                        sum += (29 * (pixels.get(p) & 0xFF) + 150 * (pixels.get(p + 1) & 0xFF)
+                                + 77 * (pixels.get(p + 2) & 0xFF)) >> 8;
+                    }
+                }
+                out[gy * GRID_W + gx] = (float) sum / (SAMPLES * SAMPLES);
+            }
+        }
+    }
+
+    /** Agrupa en regiones conexas (vecindad 4) las celdas que difieren del fondo. */
+    private List<Detection> findRegions(State s, int width, int height) {
+        float[] bg = s.background;
+        float[] luma = s.luma;
+        int[] labels = s.labels;
+        int[] stack = s.stack;
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = Math.abs(luma[i] - bg[i]) > threshold ? -1 : 0;
+        }
+        List<Detection> detections = null;
+        int next = 1;
+        for (int start = 0; start < labels.length; start++) {
+            if (labels[start] != -1) {
+                continue;
+            }
+            int label = next++;
+            int top = 0;
+            stack[top++] = start;
+            labels[start] = label;
+            int cells = 0;
+            float diff = 0;
+            int minX = GRID_W;
+            int minY = GRID_H;
+            int maxX = -1;
+            int maxY = -1;
+            while (top > 0) {
+                int c = stack[--top];
+                int cx = c % GRID_W;
+                int cy = c / GRID_W;
+                cells++;
+                diff += Math.abs(luma[c] - bg[c]);
+                minX = Math.min(minX, cx);
+                maxX = Math.max(maxX, cx);
+                minY = Math.min(minY, cy);
+                maxY = Math.max(maxY, cy);
+                if (cx > 0 && labels[c - 1] == -1) {
+                    labels[c - 1] = label;
+                    stack[top++] = c - 1;
+                }
+                if (cx < GRID_W - 1 && labels[c + 1] == -1) {
+                    labels[c + 1] = label;
+                    stack[top++] = c + 1;
+                }
+                if (cy > 0 && labels[c - GRID_W] == -1) {
+                    labels[c - GRID_W] = label;
+                    stack[top++] = c - GRID_W;
+                }
+                if (cy < GRID_H - 1 && labels[c + GRID_W] == -1) {
+                    labels[c + GRID_W] = label;
+                    stack[top++] = c + GRID_W;
+                }
+            }
+            if (cells < minCells) {
+                continue;
+            }
+            if (detections == null) {
+                detections = new ArrayList<>();
+            }
+            int x0 = minX * width / GRID_W;
+            int y0 = minY * height / GRID_H;
+            int x1 = (maxX + 1) * width / GRID_W;
+            int y1 = (maxY + 1) * height / GRID_H;
+            // Confianza: diferencia media de la región, normalizada a 0-1
+            float confidence = Math.min(1f, diff / cells / 128f);
+            detections.add(new Detection(LABEL, confidence, x0, y0, x1 - x0, y1 - y0));
+        }
+        return detections != null ? detections : Collections.emptyList();
+    }
+
+    public float getThreshold() {
+        return threshold;
+    }
+
+    public float getLearningRate() {
+        return learningRate;
+    }
+
+    public int getMinCells() {
+        return minCells;
+    }
+
+    @Override
+    public String getName() {
+        return "movimiento";
+    }
+}
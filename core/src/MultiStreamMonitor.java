@@ -0,0 +1,497 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Monitoreo de varias cámaras con un único grupo de workers de detección.
+ *
+ * <p>Cada cámara tiene su hilo de captura y un hueco para su último frame:
+ * si llega uno nuevo antes de que un worker recoja el anterior, el anterior
+ * se descarta. Los workers eligen la siguiente cámara con planificación por
+ * pasos (<i>stride scheduling</i>): cada cámara avanza un paso inversamente
+ * proporcional a su prioridad cada vez que se le analiza un frame, y se sirve
+ * la que menos ha avanzado. Además cada cámara tiene como mucho un frame en
+ * el detector, así que una cámara rápida no puede acaparar los workers.
+ * Los workers son compartidos pero cada cámara tiene su propio detector:
+ * los backends con estado (el fondo de {@link MotionDetector}) lo guardan
+ * en la instancia, y como cada cámara tiene un solo frame en el detector, su
+ * instancia recibe sus frames en orden sea cual sea el worker que los tome.</p>
+ *
+ * <p>El presupuesto de cada cámara limita cuántos frames por segundo pasan
+ * por el detector; el resto se entrega al consumidor con las últimas
+ * detecciones conocidas, como hace el muestreo en {@link FramePipeline}.
+ * Mientras la cámara tiene un frame anterior pendiente o en el detector, el
+ * último frame fuera de presupuesto espera a que se entregue ese antes.</p>
+ *
+ * <p>Propiedad de los frames: igual que en {@link FramePipeline}, los que
+ * llegan al consumidor pasan a ser suyos.</p>
+ */
+public class MultiStreamMonitor implements AutoCloseable {
+
+    /** Una cámara del monitor: su fuente, su consumidor y sus contadores. */
+    public static final class CameraStream {
+        private final String name;
+        private final FrameSource source;
+        private final Consumer<AnalyzedFrame> sink;
+        private final Detector detector;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong captured = new AtomicLong();
+        private final AtomicLong analyzed = new AtomicLong();
+        private final AtomicLong overBudget = new AtomicLong();
+        private final AtomicLong replaced = new AtomicLong();
+        private final AtomicLong stale = new AtomicLong();
+        private final AtomicLong rendered = new AtomicLong();
+        private final AtomicLong detectionErrors = new AtomicLong();
+
+        private volatile int priority = 1;
+        private volatile long budgetIntervalNanos;
+        private volatile List<Detection> lastDetections = Collections.emptyList();
+        private volatile Throwable failure;
+
+        // Protegidos por el lock del monitor
+        private Frame pending;
+        private Frame held;
+        private boolean inFlight;
+        private double pass;
+        private long nextAllowedNanos;
+
+        // Protegido por el propio CameraStream
+        private long lastIndex = -1;
+
+        private Thread captureThread;
+
+        CameraStream(String name, FrameSource source, Consumer<AnalyzedFrame> sink, Detector detector) {
+            this.name = name;
+            this.source = source;
+            this.sink = sink;
+            this.detector = detector;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Peso en el reparto de los workers cuando no dan abasto: una cámara
+         * con prioridad 2 recibe el doble de análisis que una con prioridad 1.
+         */
+        public void setPriority(int priority) {
+            if (priority <= 0) {
+                throw new IllegalArgumentException("priority debe ser > 0");
+            }
+            this.priority = priority;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        /** Máximo de frames por segundo que pasan por el detector; 0 o negativo sin límite. */
+        public void setMaxDetectionsPerSecond(double maxPerSecond) {
+            this.budgetIntervalNanos = maxPerSecond > 0 ? (long) (1_000_000_000L / maxPerSecond) : 0;
+        }
+
+        public double getMaxDetectionsPerSecond() {
+            long interval = budgetIntervalNanos;
+            return interval > 0 ? 1_000_000_000.0 / interval : 0;
+        }
+
+        public long getCaptured() {
+            return captured.get();
+        }
+
+        /** Frames que pasaron por el detector. */
+        public long getAnalyzed() {
+            return analyzed.get();
+        }
+
+        /** Frames entregados sin analizar por superar el presupuesto. */
+        public long getOverBudget() {
+            return overBudget.get();
+        }
+
+        /** Frames descartados porque llegó otro más nuevo antes de analizarlos o por llegar tarde. */
+        public long getDropped() {
+            return replaced.get() + stale.get();
+        }
+
+        public long getRendered() {
+            return rendered.get();
+        }
+
+        public long getDetectionErrors() {
+            return detectionErrors.get();
+        }
+
+        /** Latencia extremo a extremo (captura → consumidor) de esta cámara. */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /** Error que detuvo la captura de esta cámara, o {@code null}. */
+        public Throwable getFailure() {
+            return failure;
+        }
+    }
+
+    private final Supplier<? extends Detector> detectors;
+    private final int workers;
+    private final List<CameraStream> streams = new CopyOnWriteArrayList<>();
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    private final AtomicLong logErrors = new AtomicLong();
+    private volatile DetectionLog detectionLog;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ready = lock.newCondition();
+    private double virtualTime;
+    private volatile boolean running;
+
+    /**
+     * @param detectors crea el detector de cada cámara que se añade; el monitor
+     *                  los cierra en {@link #close()}
+     * @param workers   hilos de detección para todas las cámaras; 0 para tantos como núcleos
+     */
+    public MultiStreamMonitor(Supplier<? extends Detector> detectors, int workers) {
+        this.detectors = detectors;
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Añade una cámara. Puede llamarse antes o después de {@link #start()};
+     * el consumidor se invoca desde hilos del monitor.
+     */
+    public CameraStream addStream(String name, FrameSource source, Consumer<AnalyzedFrame> sink) {
+        Detector detector = detectors.get();
+        detector.setMetrics(metrics);
+        CameraStream stream = new CameraStream(name, source, sink, detector);
+        lock.lock();
+        try {
+            stream.pass = virtualTime;
+            streams.add(stream);
+            if (running) {
+                startCapture(stream);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return stream;
+    }
+
+    /**
+     * Tamaño mínimo del {@link FrameBufferPool} de cada cámara: el frame
+     * pendiente, el que está en el detector, el fuera de presupuesto que
+     * espera a éstos, el que se está capturando y los tres que puede retener
+     * la vista.
+     */
+    public static int requiredPoolSize() {
+        return 7;
+    }
+
+    public List<CameraStream> getStreams() {
+        return Collections.unmodifiableList(streams);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = true;
+            for (CameraStream stream : streams) {
+                startCapture(stream);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < workers; i++) {
+            workerThreads.add(IoThreads.start("multicamara-worker", this::workerLoop));
+        }
+    }
+
+    private void startCapture(CameraStream stream) {
+        stream.captureThread = IoThreads.start("multicamara-captura-" + stream.name, () -> captureLoop(stream));
+    }
+
+    /** Detiene la captura y los workers, libera los frames pendientes y cierra las fuentes. */
+    public synchronized void stop() {
+        List<Thread> toJoin = new ArrayList<>(workerThreads);
+        lock.lock();
+        try {
+            running = false;
+            ready.signalAll();
+            for (CameraStream stream : streams) {
+                if (stream.captureThread != null) {
+                    toJoin.add(stream.captureThread);
+                    stream.captureThread = null;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        workerThreads.clear();
+        for (Thread t : toJoin) {
+            t.interrupt();
+        }
+        for (Thread t : toJoin) {
+            try {
+                t.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (CameraStream stream : streams) {
+            Frame pending;
+            Frame held;
+            lock.lock();
+            try {
+                pending = stream.pending;
+                held = stream.held;
+                stream.pending = null;
+                stream.held = null;
+            } finally {
+                lock.unlock();
+            }
+            if (pending != null) {
+                pending.release();
+            }
+            if (held != null) {
+                held.release();
+            }
+            try {
+                stream.source.close();
+            } catch (IOException e) {
+                stream.failure = e;
+            }
+        }
+    }
+
+    /** Detiene el monitor y cierra los detectores de las cámaras. */
+    @Override
+    public void close() {
+        stop();
+        for (CameraStream stream : streams) {
+            stream.detector.close();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Registro donde guardar las detecciones de cada análisis, con el nombre
+     * de la cámara como fuente; {@code null} para no guardarlas. El monitor no
+     * lo cierra.
+     */
+    public void setDetectionLog(DetectionLog detectionLog) {
+        this.detectionLog = detectionLog;
+    }
+
+    /** Análisis cuyas detecciones no se pudieron guardar en el registro. */
+    public long getLogErrors() {
+        return logErrors.get();
+    }
+
+    /** Tiempos compartidos por todas las cámaras (preproceso, inferencia, render, extremo a extremo). */
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void captureLoop(CameraStream stream) {
+        try {
+            while (running) {
+                long start = System.nanoTime();
+                Frame frame = stream.source.next();
+                if (frame == null) {
+                    break;
+                }
+                metrics.recordSince(PipelineMetrics.Stage.CAPTURE, start);
+                stream.captured.incrementAndGet();
+                Frame replaced = null;
+                Frame ready = null;
+                boolean overBudget;
+                lock.lock();
+                try {
+                    overBudget = stream.budgetIntervalNanos > 0 && System.nanoTime() < stream.nextAllowedNanos;
+                    if (overBudget) {
+                        // No debe adelantar al frame pendiente ni al que está en el detector
+                        replaced = stream.held;
+                        stream.held = frame;
+                    } else {
+                        replaced = stream.pending;
+                        stream.pending = frame;
+                        if (replaced == null && !stream.inFlight) {
+                            becomeReady(stream);
+                        }
+                    }
+                    ready = takeHeld(stream);
+                } finally {
+                    lock.unlock();
+                }
+                if (overBudget) {
+                    stream.overBudget.incrementAndGet();
+                }
+                if (replaced != null) {
+                    stream.replaced.incrementAndGet();
+                    replaced.release();
+                }
+                if (ready != null) {
+                    deliver(stream, new AnalyzedFrame(ready, stream.lastDetections));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            stream.failure = e;
+        }
+    }
+
+    /**
+     * Frame fuera de presupuesto que ya puede entregarse: ninguno anterior
+     * está pendiente ni en el detector. Llamar con el lock tomado.
+     */
+    private static Frame takeHeld(CameraStream stream) {
+        Frame held = stream.held;
+        if (held == null || stream.inFlight
+                || (stream.pending != null && stream.pending.getIndex() < held.getIndex())) {
+            return null;
+        }
+        stream.held = null;
+        return held;
+    }
+
+    // Llamar con el lock tomado
+    private void becomeReady(CameraStream stream) {
+        // Una cámara que estuvo parada no acumula crédito: entra al ritmo actual
+        stream.pass = Math.max(stream.pass, virtualTime);
+        ready.signal();
+    }
+
+    private void workerLoop() {
+        try {
+            while (true) {
+                CameraStream stream;
+                Frame frame;
+                lock.lock();
+                try {
+                    while ((stream = nextReady()) == null) {
+                        if (!running) {
+                            return;
+                        }
+                        ready.await();
+                    }
+                    frame = stream.pending;
+                    stream.pending = null;
+                    stream.inFlight = true;
+                    virtualTime = stream.pass;
+                    stream.pass += 1.0 / stream.priority;
+                    // El presupuesto sigue su propio calendario para que la media no
+                    // dependa de cuándo llegan los frames; con mucho retraso no se acumula
+                    long interval = stream.budgetIntervalNanos;
+                    stream.nextAllowedNanos = Math.max(stream.nextAllowedNanos, System.nanoTime() - interval) + interval;
+                } finally {
+                    lock.unlock();
+                }
+                Frame ready = null;
+                try {
+                    analyze(stream, frame);
+                } finally {
+                    lock.lock();
+                    try {
+                        stream.inFlight = false;
+                        if (stream.pending != null) {
+                            becomeReady(stream);
+                        }
+                        ready = takeHeld(stream);
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                if (ready != null) {
+                    deliver(stream, new AnalyzedFrame(ready, stream.lastDetections));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cámara con frame pendiente, sin frame en el detector y con el menor
+     * paso acumulado. Un recorrido lineal basta para las decenas de cámaras
+     * de un monitor; llamar con el lock tomado.
+     */
+    private CameraStream nextReady() {
+        if (!running) {
+            return null;
+        }
+        CameraStream best = null;
+        for (CameraStream stream : streams) {
+            if (stream.pending != null && !stream.inFlight && (best == null || stream.pass < best.pass)) {
+                best = stream;
+            }
+        }
+        return best;
+    }
+
+    private void analyze(CameraStream stream, Frame frame) {
+        List<Detection> detections;
+        long start = System.nanoTime();
+        try {
+            detections = stream.detector.detect(frame);
+            metrics.recordSince(PipelineMetrics.Stage.INFERENCE, start);
+            stream.lastDetections = detections;
+            stream.analyzed.incrementAndGet();
+            logDetections(stream, frame, detections);
+        } catch (RuntimeException e) {
+            // Igual que en FramePipeline: se muestra el frame con las últimas detecciones
+            stream.detectionErrors.incrementAndGet();
+            detections = stream.lastDetections;
+        }
+        deliver(stream, new AnalyzedFrame(frame, detections));
+    }
+
+    private void logDetections(CameraStream stream, Frame frame, List<Detection> detections) {
+        DetectionLog log = detectionLog;
+        if (log == null) {
+            return;
+        }
+        try {
+            log.append(System.currentTimeMillis(), stream.getName(), frame.getIndex(), detections);
+        } catch (IOException e) {
+            logErrors.incrementAndGet();
+        }
+    }
+
+    private void deliver(CameraStream stream, AnalyzedFrame result) {
+        Frame frame = result.getFrame();
+        synchronized (stream) {
+            // Con la cámara muy cargada un frame retenido puede llegar después de uno más nuevo
+            if (frame.getIndex() <= stream.lastIndex) {
+                stream.stale.incrementAndGet();
+                frame.release();
+                return;
+            }
+            stream.lastIndex = frame.getIndex();
+            long captureNanos = frame.getTimestampNanos();
+            long start = System.nanoTime();
+            stream.sink.accept(result);
+            metrics.recordSince(PipelineMetrics.Stage.RENDER, start);
+            metrics.recordSince(PipelineMetrics.Stage.END_TO_END, captureNanos);
+            stream.latency.recordSince(captureNanos);
+            stream.rendered.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,386 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sigue objetos entre detecciones para no llamar al detector en cada frame.
+ *
+ * <p>Con {@link #needsDetection(Frame)} decide qué frames van al detector:
+ * uno de cada {@link TrackingPolicy#getInterval()} o, antes, el siguiente a
+ * una detección en la que el seguimiento perdió confianza. Los resultados del
+ * detector se pasan a {@link #update} y en el resto de frames
+ * {@link #predict(Frame)} devuelve las cajas de la última detección movidas
+ * con velocidad constante. Todas las cajas son {@link TrackedDetection} con
+ * el id del objeto, que se mantiene mientras se siga emparejando.</p>
+ *
+ * <p>El emparejamiento es voraz: de todas las parejas caja predicha/caja
+ * detectada de la misma clase que superan el umbral se toman primero las de
+ * mayor puntuación. Los objetos y detecciones que quedan sueltos se
+ * emparejan después por distancia entre centros con un umbral amplio, para
+ * no cambiar el id de un objeto que cambió de dirección entre detecciones.
+ * Con las pocas decenas de objetos de un frame cuesta microsegundos, frente
+ * a los milisegundos de una inferencia. La confianza del seguimiento es el
+ * IoU medio entre cada caja predicha y la detectada con la que se emparejó,
+ * contando como 0 los objetos que desaparecen: mide lo bien que predijo
+ * desde la detección anterior.</p>
+ *
+ * <p>Tiene estado, así que cada flujo de frames necesita su propia instancia
+ * y no debe usarse desde varios hilos a la vez sin sincronizar.</p>
+ */
+public class ObjectTracker {
+
+    /** Estado de un objeto: centro, tamaño y velocidad en píxeles por frame. */
+    private static final class Track {
+        final int id;
+        String label;
+        float confidence;
+        float cx;
+        float cy;
+        float w;
+        float h;
+        float vx;
+        float vy;
+        long frame;
+        int hits = 1;
+        int missed;
+
+        Track(int id, Detection d, long frame) {
+            this.id = id;
+            this.frame = frame;
+            set(d);
+        }
+
+        void set(Detection d) {
+            label = d.getLabel();
+            confidence = d.getConfidence();
+            cx = d.getX() + d.getWidth() / 2f;
+            cy = d.getY() + d.getHeight() / 2f;
+            w = d.getWidth();
+            h = d.getHeight();
+        }
+
+        void correct(Detection d, long frameIndex, boolean velocity) {
+            float oldCx = cx;
+            float oldCy = cy;
+            long dt = frameIndex - frame;
+            set(d);
+            if (velocity && dt > 0) {
+                float ix = (cx - oldCx) / dt;
+                float iy = (cy - oldCy) / dt;
+                // La primera medida se toma tal cual; después se suaviza el ruido del detector
+                vx = hits == 1 ? ix : (vx + ix) / 2;
+                vy = hits == 1 ? iy : (vy + iy) / 2;
+            }
+            frame = frameIndex;
+            hits++;
+            missed = 0;
+        }
+    }
+
+    /** Segunda pasada: centros a menos de dos veces el lado medio de la caja predicha. */
+    private static final TrackingPolicy RECOVERY = TrackingPolicy.centroid(1, 2f);
+
+    private final TrackingPolicy policy;
+    private final TrackingStats stats;
+    private final List<Track> tracks = new ArrayList<>();
+    private int nextId = 1;
+    private int sinceDetection;
+    private boolean detectNext = true;
+    private long lastUpdated = Long.MIN_VALUE;
+    private float confidence = 1;
+
+    ObjectTracker(TrackingPolicy policy, TrackingStats stats) {
+        this.policy = policy;
+        this.stats = stats;
+    }
+
+    /** @return {@code true} si el frame debe pasar por el detector y su resultado por {@link #update} */
+    public boolean needsDetection(Frame frame) {
+        boolean detect = detectNext || ++sinceDetection >= policy.getInterval();
+        if (detect) {
+            sinceDetection = 0;
+            detectNext = false;
+            if (stats != null) {
+                stats.recordDetected();
+            }
+        } else if (stats != null) {
+            stats.recordPredicted();
+        }
+        return detect;
+    }
+
+    /**
+     * Empareja las detecciones del frame con los objetos seguidos, crea
+     * objetos nuevos para las que no se emparejan y olvida los que llevan más
+     * de {@link TrackingPolicy#getMaxMissed()} detecciones sin aparecer.
+     *
+     * <p>Un resultado más antiguo que el último aplicado (varios workers de
+     * inferencia pueden terminar desordenados) sólo se etiqueta con los ids
+     * que encajan, sin cambiar el estado.</p>
+     *
+     * @return las mismas detecciones, en el mismo orden, como {@link TrackedDetection}
+     */
+    public List<Detection> update(Frame frame, List<Detection> detections) {
+        long index = frame.getIndex();
+        int nt = tracks.size();
+        float[] predicted = new float[nt * 4];
+        List<String> labels = new ArrayList<>(nt);
+        for (int i = 0; i < nt; i++) {
+            Track t = tracks.get(i);
+            predictInto(t, index, predicted, i);
+            labels.add(t.label);
+        }
+        float[] detected = boxes(detections);
+        List<String> detectedLabels = labelsOf(detections);
+        int[] match = associate(predicted, labels, detected, detectedLabels, policy);
+        recover(match, predicted, labels, detected, detectedLabels);
+
+        List<Detection> out = new ArrayList<>(detections.size());
+        if (index < lastUpdated) {
+            for (int j = 0; j < detections.size(); j++) {
+                out.add(match[j] < 0 ? detections.get(j) : tracked(tracks.get(match[j]).id, false, detections.get(j)));
+            }
+            return out;
+        }
+
+        boolean[] matched = new boolean[nt];
+        float quality = 0;
+        int measured = 0;
+        Track[] assigned = new Track[detections.size()];
+        for (int j = 0; j < detections.size(); j++) {
+            if (match[j] >= 0) {
+                matched[match[j]] = true;
+                quality += iou(predicted, match[j], detected, j);
+                measured++;
+                Track t = tracks.get(match[j]);
+                t.correct(detections.get(j), index, policy.usesVelocity());
+                assigned[j] = t;
+            }
+        }
+        List<Track> kept = new ArrayList<>(nt + detections.size());
+        for (int i = 0; i < nt; i++) {
+            Track t = tracks.get(i);
+            if (!matched[i]) {
+                if (t.missed == 0) {
+                    // Un objeto visible que el detector no encuentra: la predicción falló
+                    measured++;
+                }
+                if (++t.missed > policy.getMaxMissed()) {
+                    continue;
+                }
+            }
+            kept.add(t);
+        }
+        for (int j = 0; j < detections.size(); j++) {
+            if (assigned[j] == null) {
+                assigned[j] = new Track(nextId++, detections.get(j), index);
+                kept.add(assigned[j]);
+            }
+            out.add(tracked(assigned[j].id, false, detections.get(j)));
+        }
+        tracks.clear();
+        tracks.addAll(kept);
+        lastUpdated = index;
+        confidence = measured == 0 ? 1 : quality / measured;
+        if (confidence < policy.getMinConfidence()) {
+            detectNext = true;
+        }
+        return out;
+    }
+
+    /** Empareja por {@link #RECOVERY} los objetos y las detecciones que quedaron sin pareja. */
+    private static void recover(int[] match, float[] predicted, List<String> labels, float[] detected,
+            List<String> detectedLabels) {
+        boolean[] used = new boolean[labels.size()];
+        int[] freeDetections = new int[match.length];
+        int nd = 0;
+        for (int j = 0; j < match.length; j++) {
+            if (match[j] >= 0) {
+                used[match[j]] = true;
+            } else {
+                freeDetections[nd++] = j;
+            }
+        }
+        int[] freeTracks = new int[labels.size()];
+        int nt = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (!used[i]) {
+                freeTracks[nt++] = i;
+            }
+        }
+        if (nt == 0 || nd == 0) {
+            return;
+        }
+        float[] a = new float[nt * 4];
+        List<String> aLabels = new ArrayList<>(nt);
+        for (int k = 0; k < nt; k++) {
+            System.arraycopy(predicted, freeTracks[k] * 4, a, k * 4, 4);
+            aLabels.add(labels.get(freeTracks[k]));
+        }
+        float[] b = new float[nd * 4];
+        List<String> bLabels = new ArrayList<>(nd);
+        for (int k = 0; k < nd; k++) {
+            System.arraycopy(detected, freeDetections[k] * 4, b, k * 4, 4);
+            bLabels.add(detectedLabels.get(freeDetections[k]));
+        }
+        int[] second = associate(a, aLabels, b, bLabels, RECOVERY);
+        for (int k = 0; k < nd; k++) {
+            if (second[k] >= 0) {
+                match[freeDetections[k]] = freeTracks[second[k]];
+            }
+        }
+    }
+
+    /**
+     * Cajas de los objetos visibles en la última detección, movidas hasta el
+     * frame y recortadas a sus bordes; no cuenta como llamada al detector.
+     */
+    public List<Detection> predict(Frame frame) {
+        if (tracks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long index = frame.getIndex();
+        float[] box = new float[4];
+        List<Detection> out = new ArrayList<>(tracks.size());
+        for (Track t : tracks) {
+            if (t.missed > 0) {
+                continue;
+            }
+            predictInto(t, index, box, 0);
+            int x0 = clamp(Math.round(box[0] - box[2] / 2), frame.getWidth());
+            int y0 = clamp(Math.round(box[1] - box[3] / 2), frame.getHeight());
+            int x1 = clamp(Math.round(box[0] + box[2] / 2), frame.getWidth());
+            int y1 = clamp(Math.round(box[1] + box[3] / 2), frame.getHeight());
+            if (x1 > x0 && y1 > y0) {
+                out.add(new TrackedDetection(t.id, true, t.label, t.confidence, x0, y0, x1 - x0, y1 - y0));
+            }
+        }
+        return out;
+    }
+
+    /** Confianza del seguimiento en la última detección (0 a 1). */
+    public float getConfidence() {
+        return confidence;
+    }
+
+    /** Objetos seguidos, incluidos los que faltaron en la última detección. */
+    public int getTrackCount() {
+        return tracks.size();
+    }
+
+    /** Mayor id asignado hasta ahora; los ids van de 1 a éste. */
+    public int getLastTrackId() {
+        return nextId - 1;
+    }
+
+    private void predictInto(Track t, long frameIndex, float[] out, int i) {
+        long dt = frameIndex - t.frame;
+        out[i * 4] = t.cx + t.vx * dt;
+        out[i * 4 + 1] = t.cy + t.vy * dt;
+        out[i * 4 + 2] = t.w;
+        out[i * 4 + 3] = t.h;
+    }
+
+    private static int clamp(int v, int max) {
+        return v < 0 ? 0 : Math.min(v, max);
+    }
+
+    private static TrackedDetection tracked(int id, boolean predicted, Detection d) {
+        return new TrackedDetection(id, predicted, d.getLabel(), d.getConfidence(), d.getX(), d.getY(),
+                d.getWidth(), d.getHeight());
+    }
+
+    /**
+     * Empareja las cajas de {@code b} con las de {@code a} según la asociación
+     * de {@code policy}, sin repetir ninguna.
+     *
+     * @return para cada caja de {@code b}, el índice de su pareja en {@code a} o -1
+     */
+    static int[] associate(List<? extends Detection> a, List<? extends Detection> b, TrackingPolicy policy) {
+        return associate(boxes(a), labelsOf(a), boxes(b), labelsOf(b), policy);
+    }
+
+    /** Cajas como {@code cx, cy, ancho, alto} seguidos. */
+    private static int[] associate(float[] a, List<String> aLabels, float[] b, List<String> bLabels,
+            TrackingPolicy policy) {
+        int na = aLabels.size();
+        int nb = bLabels.size();
+        int[] match = new int[nb];
+        Arrays.fill(match, -1);
+        if (na == 0 || nb == 0) {
+            return match;
+        }
+        // Puntuación en los 32 bits altos (los float positivos se ordenan igual
+        // que sus bits) y la pareja en los bajos: ordenar los long ordena parejas
+        long[] candidates = new long[na * nb];
+        int n = 0;
+        for (int i = 0; i < na && i < 0xFFFF; i++) {
+            for (int j = 0; j < nb && j < 0xFFFF; j++) {
+                if (!aLabels.get(i).equals(bLabels.get(j))) {
+                    continue;
+                }
+                float score = score(a, i, b, j, policy);
+                if (score > 0) {
+                    candidates[n++] = ((long) Float.floatToIntBits(score) << 32) | ((long) i << 16) | j;
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, n);
+        boolean[] usedA = new boolean[na];
+        for (int k = n - 1; k >= 0; k--) {
+            int i = (int) (candidates[k] >>> 16) & 0xFFFF;
+            int j = (int) candidates[k] & 0xFFFF;
+            if (!usedA[i] && match[j] < 0) {
+                usedA[i] = true;
+                match[j] = i;
+            }
+        }
+        return match;
+    }
+
+    /** Mayor cuanto mejor encajan; 0 si no llegan al umbral. */
+    private static float score(float[] a, int i, float[] b, int j, TrackingPolicy policy) {
+        if (policy.getAssociation() == TrackingPolicy.Association.IOU) {
+            float iou = iou(a, i, b, j);
+            return iou >= policy.getThreshold() && iou > 0 ? iou : 0;
+        }
+        float dx = a[i * 4] - b[j * 4];
+        float dy = a[i * 4 + 1] - b[j * 4 + 1];
+        float side = Math.max(1, (a[i * 4 + 2] + a[i * 4 + 3]) / 2);
+        float distance = (float) Math.sqrt(dx * dx + dy * dy) / side;
+        return distance <= policy.getThreshold() ? 1 / (1 + distance) : 0;
+    }
+
+    private static float iou(float[] a, int i, float[] b, int j) {
+        float ix = overlap(a[i * 4], a[i * 4 + 2], b[j * 4], b[j * 4 + 2]);
+        float iy = overlap(a[i * 4 + 1], a[i * 4 + 3], b[j * 4 + 1], b[j * 4 + 3]);
+        float inter = ix * iy;
+        float union = a[i * 4 + 2] * a[i * 4 + 3] + b[j * 4 + 2] * b[j * 4 + 3] - inter;
+        return union <= 0 ? 0 : inter / union;
+    }
+
+    private static float overlap(float c1, float s1, float c2, float s2) {
+        return Math.max(0, Math.min(c1 + s1 / 2, c2 + s2 / 2) - Math.max(c1 - s1 / 2, c2 - s2 / 2));
+    }
+
+    private static float[] boxes(List<? extends Detection> detections) {
+        float[] out = new float[detections.size() * 4];
+        for (int i = 0; i < detections.size(); i++) {
+            Detection d = detections.get(i);
+            out[i * 4] = d.getX() + d.getWidth() / 2f;
+            out[i * 4 + 1] = d.getY() + d.getHeight() / 2f;
+            out[i * 4 + 2] = d.getWidth();
+            out[i * 4 + 3] = d.getHeight();
+        }
+        return out;
+    }
+
+    private static List<String> labelsOf(List<? extends Detection> detections) {
+        List<String> labels = new ArrayList<>(detections.size());
+        for (Detection d : detections) {
+            labels.add(d.getLabel());
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,250 @@
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempos por etapa del pipeline de frames.
+ *
+ * <p>Cada {@link Stage} tiene un {@link LatencyHistogram}; registrar una
+ * duración es lock-free y no asigna memoria. {@link #snapshot()} calcula
+ * p50/p95/p99 y el rendimiento medio de cada etapa, y se exporta como JSON o
+ * como texto de Prometheus. Quien consulta las métricas periódicamente (la
+ * vista, el archivo exportado) usa su propio {@link Reader}, que da el
+ * rendimiento desde su consulta anterior sin mover la ventana de los
+ * demás.</p>
+ */
+public class PipelineMetrics {
+
+    /** Etapas medidas. */
+    public enum Stage {
+        /** Espera y lectura del siguiente frame de la fuente. */
+        CAPTURE("captura"),
+        /** Reducción y codificación antes de enviar a la API (incluido en {@link #INFERENCE}). */
+        PREPROCESS("preproceso"),
+        /** Llamada completa al {@link Detector}: red e inferencia, o el backend local. */
+        INFERENCE("inferencia"),
+        /** Entrega del frame analizado a la vista. */
+        RENDER("render"),
+        /** Desde la marca de tiempo del frame ({@link System#nanoTime()} al capturarlo) hasta su entrega a la vista. */
+        END_TO_END("extremo_a_extremo");
+
+        private final String key;
+
+        Stage(String key) {
+            this.key = key;
+        }
+
+        /** Nombre usado en las exportaciones. */
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+    private final long startNanos = System.nanoTime();
+    private long resetNanos = startNanos;
+    private int resets;
+
+    /**
+     * Ventana de rendimiento de un lector: cada {@link #snapshot()} da los
+     * eventos por segundo desde su instantánea anterior (o desde el último
+     * {@link PipelineMetrics#reset()}, la primera vez).
+     */
+    public final class Reader {
+        private final long[] lastCounts = new long[Stage.values().length];
+        private long lastNanos;
+        private int resets = -1;
+
+        private Reader() {
+        }
+
+        public Snapshot snapshot() {
+            return read(this);
+        }
+    }
+
+    public PipelineMetrics() {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    public void record(Stage stage, long nanos) {
+        histograms.get(stage).record(nanos);
+    }
+
+    /** Registra el tiempo transcurrido desde {@code startNanos} ({@link System#nanoTime()}). */
+    public void recordSince(Stage stage, long startNanos) {
+        histograms.get(stage).record(System.nanoTime() - startNanos);
+    }
+
+    public LatencyHistogram getHistogram(Stage stage) {
+        return histograms.get(stage);
+    }
+
+    /** Nuevo lector con su propia ventana de rendimiento. */
+    public Reader newReader() {
+        return new Reader();
+    }
+
+    /**
+     * Percentiles acumulados y rendimiento medio de cada etapa desde la
+     * creación o el último {@link #reset()}. No cambia ningún estado, así
+     * que varias consultas a la vez (por ejemplo, scrapes de {@code /metrics})
+     * no se afectan entre sí.
+     */
+    public synchronized Snapshot snapshot() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - resetNanos) / 1e9);
+        Map<Stage, StageSnapshot> stages = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot h = histograms.get(stage).snapshot();
+            stages.put(stage, new StageSnapshot(stage, h, h.getCount() / seconds));
+        }
+        return new Snapshot(stages, TimeUnit.NANOSECONDS.toMillis(now - startNanos));
+    }
+
+    private synchronized Snapshot read(Reader reader) {
+        long now = System.nanoTime();
+        if (reader.resets != resets) {
+            Arrays.fill(reader.lastCounts, 0);
+            reader.lastNanos = resetNanos;
+            reader.resets = resets;
+        }
+        double seconds = Math.max(1e-9, (now - reader.lastNanos) / 1e9);
+        Map<Stage, StageSnapshot> stages = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot h = histograms.get(stage).snapshot();
+            double rate = (h.getCount() - reader.lastCounts[stage.ordinal()]) / seconds;
+            reader.lastCounts[stage.ordinal()] = h.getCount();
+            stages.put(stage, new StageSnapshot(stage, h, rate));
+        }
+        reader.lastNanos = now;
+        return new Snapshot(stages, TimeUnit.NANOSECONDS.toMillis(now - startNanos));
+    }
+
+    public synchronized void reset() {
+        for (LatencyHistogram h : histograms.values()) {
+            h.reset();
+        }
+        resetNanos = System.nanoTime();
+        resets++;
+    }
+
+    /** Resumen de una etapa. */
+    public static class StageSnapshot {
+        private final Stage stage;
+        private final LatencyHistogram.Snapshot histogram;
+        private final double throughput;
+
+        StageSnapshot(Stage stage, LatencyHistogram.Snapshot histogram, double throughput) {
+            this.stage = stage;
+            this.histogram = histogram;
+            this.throughput = throughput;
+        }
+
+        public Stage getStage() {
+            return stage;
+        }
+
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        /**
+         * Eventos por segundo: desde la instantánea anterior del mismo
+         * {@link Reader}, o de media desde el inicio con {@link PipelineMetrics#snapshot()}.
+         */
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public double getP50Millis() {
+            return histogram.getMillisAtQuantile(0.50);
+        }
+
+        public double getP95Millis() {
+            return histogram.getMillisAtQuantile(0.95);
+        }
+
+        public double getP99Millis() {
+            return histogram.getMillisAtQuantile(0.99);
+        }
+
+        public double getMeanMillis() {
+            return histogram.getMeanNanos() / 1e6;
+        }
+
+        public double getMaxMillis() {
+            return histogram.getMaxNanos() / 1e6;
+        }
+    }
+
+    /** Estado de todas las etapas en un instante. */
+    public static class Snapshot {
+        private final Map<Stage, StageSnapshot> stages;
+        private final long uptimeMillis;
+
+        Snapshot(Map<Stage, StageSnapshot> stages, long uptimeMillis) {
+            this.stages = stages;
+            this.uptimeMillis = uptimeMillis;
+        }
+
+        public StageSnapshot get(Stage stage) {
+            return stages.get(stage);
+        }
+
+        public long getUptimeMillis() {
+            return uptimeMillis;
+        }
+
+        public String toJson() {
+            StringBuilder json = new StringBuilder(256 * stages.size());
+            json.append("{\"uptime_ms\":").append(uptimeMillis).append(",\"etapas\":{");
+            boolean first = true;
+            for (StageSnapshot s : stages.values()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                json.append(MiniJson.quote(s.getStage().getKey())).append(String.format(Locale.ROOT,
+                        ":{\"total\":%d,\"por_segundo\":%.2f,\"p50_ms\":%.3f,\"p95_ms\":%.3f,\"p99_ms\":%.3f,"
+                                + "\"media_ms\":%.3f,\"max_ms\":%.3f}",
+                        s.getCount(), s.getThroughput(), s.getP50Millis(), s.getP95Millis(), s.getP99Millis(),
+                        s.getMeanMillis(), s.getMaxMillis()));
+            }
+            return json.append("}}").toString();
+        }
+
+        /** Formato de texto de Prometheus; las duraciones en segundos, como pide su convención. */
+        public String toPrometheus() {
+            StringBuilder out = new StringBuilder(512 * stages.size());
+            out.append("# HELP pipeline_stage_seconds Duración de cada etapa del pipeline.\n");
+            out.append("# TYPE pipeline_stage_seconds summary\n");
+            for (StageSnapshot s : stages.values()) {
+                String stage = s.getStage().getKey();
+                appendSample(out, "pipeline_stage_seconds", stage, "0.5", s.getP50Millis() / 1e3);
+                appendSample(out, "pipeline_stage_seconds", stage, "0.95", s.getP95Millis() / 1e3);
+                appendSample(out, "pipeline_stage_seconds", stage, "0.99", s.getP99Millis() / 1e3);
+                out.append(String.format(Locale.ROOT, "pipeline_stage_seconds_sum{etapa=\"%s\"} %.6f%n",
+                        stage, s.getMeanMillis() * s.getCount() / 1e3));
+                out.append(String.format(Locale.ROOT, "pipeline_stage_seconds_count{etapa=\"%s\"} %d%n",
+                        stage, s.getCount()));
+            }
+            out.append("# HELP pipeline_stage_throughput Eventos por segundo de cada etapa.\n");
+            out.append("# TYPE pipeline_stage_throughput gauge\n");
+            for (StageSnapshot s : stages.values()) {
+                out.append(String.format(Locale.ROOT, "pipeline_stage_throughput{etapa=\"%s\"} %.3f%n",
+                        s.getStage().getKey(), s.getThroughput()));
+            }
+            return out.toString();
+        }
+
+        private static void appendSample(StringBuilder out, String name, String stage, String quantile, double value) {
+            out.append(String.format(Locale.ROOT, "%s{etapa=\"%s\",quantile=\"%s\"} %.6f%n",
+                    name, stage, quantile, value));
+        }
+    }
+}
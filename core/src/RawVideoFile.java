@@ -0,0 +1,162 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Video sin comprimir: una cabecera de 16 bytes ({@code "RAWV"}, ancho,
+ * alto y fps) seguida de frames BGRA de tamaño fijo. Cada frame es un
+ * keyframe y su posición se calcula directamente.
+ */
+public class RawVideoFile implements VideoFile {
+    private static final int MAGIC = 0x52415756; // "RAWV"
+    private static final int HEADER_SIZE = 16;
+
+    private final FileChannel channel;
+    private final int width;
+    private final int height;
+    private final double fps;
+    private final long frameCount;
+    private final int frameSize;
+
+    public RawVideoFile(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException("No es un archivo RAWV: " + path);
+        }
+        this.width = header.getInt();
+        this.height = header.getInt();
+        this.fps = header.getFloat();
+        this.frameSize = width * height * Frame.BYTES_PER_PIXEL;
+        this.frameCount = (channel.size() - HEADER_SIZE) / frameSize;
+    }
+
+    /**
+     * Vuelca una fuente completa a un archivo RAWV.
+     *
+     * @return número de frames escritos
+     */
+    public static long write(Path path, FrameSource source, double fps) throws IOException {
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(source.getWidth()).putInt(source.getHeight()).putFloat((float) fps);
+            header.flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            long written = 0;
+            Frame frame;
+            while ((frame = source.next()) != null) {
+                ByteBuffer pixels = frame.getPixels().duplicate();
+                pixels.clear();
+                while (pixels.hasRemaining()) {
+                    out.write(pixels);
+                }
+                frame.release();
+                written++;
+            }
+            return written;
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Fin de archivo inesperado");
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public double getFps() {
+        return fps;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public long[] getKeyframes() {
+        long[] keyframes = new long[(int) frameCount];
+        for (int i = 0; i < keyframes.length; i++) {
+            keyframes[i] = i;
+        }
+        return keyframes;
+    }
+
+    /** Posición en bytes del frame dentro del archivo. */
+    public long getOffset(long frame) {
+        return HEADER_SIZE + frame * frameSize;
+    }
+
+    @Override
+    public FrameSource openAt(long keyframe, FrameBufferPool pool) {
+        return new FrameSource() {
+            private long next = keyframe;
+
+            @Override
+            public Frame next() throws IOException {
+                if (next >= frameCount) {
+                    return null;
+                }
+                long timestamp = (long) (next * 1_000_000_000L / fps);
+                Frame frame;
+                if (pool != null) {
+                    try {
+                        frame = pool.acquire(next, timestamp);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                } else {
+                    frame = new Frame(next, timestamp, width, height, ByteBuffer.allocate(frameSize));
+                }
+                ByteBuffer pixels = frame.getPixels().duplicate();
+                pixels.clear();
+                readFully(pixels, getOffset(next));
+                next++;
+                return frame;
+            }
+
+            @Override
+            public int getWidth() {
+                return width;
+            }
+
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public void close() {
+                // El canal es compartido; se cierra con el VideoFile
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
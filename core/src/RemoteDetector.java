@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Detector que delega en la API Flask a través de {@link DetectorPersonasClient}.
+ *
+ * <p>Cada frame se reduce y codifica con un {@link FramePreprocessor} en el
+ * hilo llamador (así el buffer puede reciclarse enseguida) y las cajas se
+ * devuelven en coordenadas del frame original. Con un {@link DetectionBatcher}
+ * las peticiones de varios hilos se agrupan en lotes; los lotes sólo se
+ * llenan si hay al menos tantos workers de inferencia como imágenes por lote.</p>
+ */
+public class RemoteDetector implements Detector {
+    private final DetectorPersonasClient client;
+    private final FramePreprocessor preprocessor;
+    private final DetectionBatcher batcher;
+    private final double umbral;
+    private volatile PipelineMetrics metrics;
+
+    /**
+     * @param batcher lotes a usar, o {@code null} para una petición por frame
+     */
+    public RemoteDetector(DetectorPersonasClient client, FramePreprocessor preprocessor,
+            DetectionBatcher batcher, double umbral) {
+        this.client = client;
+        this.preprocessor = preprocessor;
+        this.batcher = batcher;
+        this.umbral = umbral;
+    }
+
+    @Override
+    public List<Detection> detect(Frame frame) {
+        FramePreprocessor.Prepared prepared = prepare(frame);
+        try {
+            return send(prepared).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Fallo al detectar el frame " + frame.getIndex(), e.getCause());
+        }
+    }
+
+    @Override
+    public List<List<Detection>> detectAll(List<Frame> frames) {
+        if (frames.size() <= 1) {
+            return Detector.super.detectAll(frames);
+        }
+        if (batcher != null) {
+            return detectAllBatched(frames);
+        }
+        List<FramePreprocessor.Prepared> prepared = new ArrayList<>(frames.size());
+        List<byte[]> images = new ArrayList<>(frames.size());
+        for (Frame frame : frames) {
+            FramePreprocessor.Prepared p = prepare(frame);
+            prepared.add(p);
+            images.add(p.jpeg);
+        }
+        List<DetectorPersonasClient.DetectionResult> results;
+        try {
+            results = client.detectarLote(images, umbral).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Fallo al detectar un lote de " + frames.size() + " frames", e.getCause());
+        }
+        List<List<Detection>> mapped = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            DetectorPersonasClient.DetectionResult r = results.get(i);
+            if (!r.exito) {
+                throw new IllegalStateException("Fallo al detectar el frame " + frames.get(i).getIndex(),
+                        new IOException(r.mensaje != null ? r.mensaje : "La API devolvió error"));
+            }
+            mapped.add(prepared.get(i).mapBack(r.detecciones));
+        }
+        return mapped;
+    }
+
+    /**
+     * Entrega todos los frames al {@link DetectionBatcher} antes de esperar a
+     * ninguno, para que compartan lote en lugar de esperar cada uno su ventana.
+     */
+    private List<List<Detection>> detectAllBatched(List<Frame> frames) {
+        List<CompletableFuture<List<Detection>>> futures = new ArrayList<>(frames.size());
+        for (Frame frame : frames) {
+            futures.add(send(prepare(frame)));
+        }
+        List<List<Detection>> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<List<Detection>> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Fallo al detectar un lote de " + frames.size() + " frames", e.getCause());
+        }
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<List<Detection>> detectAsync(Frame frame, Executor executor) {
+        // Sólo la preparación ocupa un hilo; la petición HTTP es asíncrona
+        return CompletableFuture.supplyAsync(() -> prepare(frame), executor).thenCompose(this::send);
+    }
+
+    private FramePreprocessor.Prepared prepare(Frame frame) {
+        long start = System.nanoTime();
+        try {
+            // Reducir y codificar es CPU: fuera de los hilos virtuales de E/S
+            return IoThreads.compute(() -> preprocessor.prepare(frame));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            PipelineMetrics m = metrics;
+            if (m != null) {
+                m.recordSince(PipelineMetrics.Stage.PREPROCESS, start);
+            }
+        }
+    }
+
+    private CompletableFuture<List<Detection>> send(FramePreprocessor.Prepared prepared) {
+        if (batcher != null) {
+            return batcher.submit(prepared.jpeg).thenApply(prepared::mapBack);
+        }
+        return client.detectar(prepared.jpeg, umbral).thenApply(r -> {
+            if (!r.exito) {
+                throw new CompletionException(new IOException(r.mensaje != null ? r.mensaje : "La API devolvió error"));
+            }
+            return prepared.mapBack(r.detecciones);
+        });
+    }
+
+    @Override
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public DetectorPersonasClient getClient() {
+        return client;
+    }
+
+    @Override
+    public String getName() {
+        return "remoto (" + client.getBaseUrl() + ")";
+    }
+
+    @Override
+    public void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola circular acotada que une dos etapas del pipeline.
+ * Nunca crece por encima de su capacidad: cuando está llena aplica la
+ * {@link DropPolicy} configurada y devuelve el elemento descartado para
+ * que el llamador pueda liberarlo.
+ */
+public class RingBuffer<T> {
+    private final Object[] items;
+    private final DropPolicy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private int head;
+    private int count;
+    private boolean closed;
+
+    public RingBuffer(int capacity, DropPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity debe ser > 0");
+        }
+        this.items = new Object[capacity];
+        this.policy = policy;
+    }
+
+    /**
+     * Inserta un elemento.
+     *
+     * @return el elemento descartado (puede ser el propio {@code item}),
+     *         o {@code null} si no se descartó nada
+     */
+    public T offer(T item) throws InterruptedException {
+        lock.lock();
+        try {
+            if (closed) {
+                return item;
+            }
+            T discarded = null;
+            if (count == items.length) {
+                switch (policy) {
+                    case DROP_NEWEST:
+                        dropped.incrementAndGet();
+                        return item;
+                    case DROP_OLDEST:
+                        discarded = removeFirst();
+                        dropped.incrementAndGet();
+                        break;
+                    case BLOCK:
+                    default:
+                        while (count == items.length && !closed) {
+                            notFull.await();
+                        }
+                        if (closed) {
+                            return item;
+                        }
+                        break;
+                }
+            }
+            items[(head + count) % items.length] = item;
+            count++;
+            notEmpty.signal();
+            return discarded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Extrae el siguiente elemento esperando si hace falta.
+     *
+     * @return el elemento, o {@code null} si el buffer se cerró y está vacío
+     */
+    public T take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (count == 0 && !closed) {
+                notEmpty.await();
+            }
+            return count == 0 ? null : removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Igual que {@link #take()} pero con tiempo máximo de espera.
+     *
+     * @return el elemento, o {@code null} si expiró el tiempo o está cerrado
+     */
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (count == 0 && !closed) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return count == 0 ? null : removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cierra el buffer: despierta a productores y consumidores.
+     * Los elementos pendientes aún pueden extraerse con {@link #take()}.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Extrae el siguiente elemento sin esperar, o {@code null} si está vacío. */
+    public T pollNow() {
+        lock.lock();
+        try {
+            return count == 0 ? null : removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T removeFirst() {
+        T item = (T) items[head];
+        items[head] = null;
+        head = (head + 1) % items.length;
+        count--;
+        notFull.signal();
+        return item;
+    }
+}
@@ -0,0 +1,499 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Regiones de interés de una fuente: polígonos en coordenadas relativas
+ * (0 a 1) del frame, así que valen para cualquier resolución.
+ *
+ * <p>Es inmutable. Para cada tamaño de frame se rasteriza una vez a un
+ * {@link Bitmap} (se guarda el último), con un bit por píxel: comprobar si un
+ * píxel está dentro es leer un bit. Las máscaras se guardan por fuente en
+ * {@code -Droi.directorio} (por defecto {@code ~/.monitoreo/roi}), un archivo
+ * de texto por fuente con un polígono por línea.</p>
+ */
+public class RoiMask {
+    public static final String EXTENSION = ".roi";
+    private static final RoiMask EMPTY = new RoiMask(Collections.emptyList());
+
+    private final List<float[]> polygons;
+    private volatile Bitmap lastBitmap;
+
+    /**
+     * @param polygons vértices {@code x0, y0, x1, y1, ...} de cada polígono,
+     *                 relativos al ancho y alto del frame; al menos 3 por polígono
+     */
+    public RoiMask(List<float[]> polygons) {
+        List<float[]> copy = new ArrayList<>(polygons.size());
+        for (float[] p : polygons) {
+            if (p.length < 6 || p.length % 2 != 0) {
+                throw new IllegalArgumentException("Un polígono necesita al menos 3 vértices");
+            }
+            copy.add(p.clone());
+        }
+        this.polygons = Collections.unmodifiableList(copy);
+    }
+
+    /** Sin regiones: se analiza el frame completo. */
+    public static RoiMask empty() {
+        return EMPTY;
+    }
+
+    /** Misma máscara con un polígono más. */
+    public RoiMask with(float[] polygon) {
+        List<float[]> next = new ArrayList<>(polygons);
+        next.add(polygon);
+        return new RoiMask(next);
+    }
+
+    public boolean isEmpty() {
+        return polygons.isEmpty();
+    }
+
+    /** Polígonos de la máscara; los arrays no deben modificarse. */
+    public List<float[]> getPolygons() {
+        return polygons;
+    }
+
+    /** Máscara rasterizada para frames de {@code width}x{@code height}. */
+    public Bitmap bitmap(int width, int height) {
+        Bitmap b = lastBitmap;
+        if (b == null || b.width != width || b.height != height) {
+            b = new Bitmap(this, width, height);
+            lastBitmap = b;
+        }
+        return b;
+    }
+
+    /** Un polígono por línea: {@code x y x y ...} relativos, separados por espacios. */
+    public String format() {
+        StringBuilder sb = new StringBuilder("# Regiones de interés: x y relativos (0-1) de cada vértice\n");
+        for (float[] p : polygons) {
+            for (int i = 0; i < p.length; i++) {
+                sb.append(i > 0 ? " " : "").append(String.format(Locale.ROOT, "%.5f", p[i]));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** Interpreta el texto de {@link #format()}; las líneas vacías y las que empiezan por {@code #} se ignoran. */
+    public static RoiMask parse(String text) {
+        List<float[]> polygons = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            float[] p = new float[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                p[i] = Float.parseFloat(parts[i]);
+            }
+            polygons.add(p);
+        }
+        return polygons.isEmpty() ? EMPTY : new RoiMask(polygons);
+    }
+
+    public static RoiMask load(Path file) throws IOException {
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    /** Escribe en un temporal y lo renombra, para no dejar nunca un archivo a medias. */
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, format().getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Directorio de máscaras por fuente ({@code -Droi.directorio}). */
+    public static Path directory() {
+        String dir = System.getProperty("roi.directorio");
+        if (dir == null || dir.isBlank()) {
+            return Paths.get(System.getProperty("user.home"), ".monitoreo", "roi");
+        }
+        return Paths.get(dir);
+    }
+
+    /** Archivo de la máscara de {@code source}; los caracteres raros del nombre se cambian por {@code _}. */
+    public static Path fileFor(String source) {
+        return directory().resolve(source.replaceAll("[^A-Za-z0-9._-]", "_") + EXTENSION);
+    }
+
+    /** Máscara guardada de la fuente, o vacía si no tiene. */
+    public static RoiMask forSource(String source) throws IOException {
+        Path file = fileFor(source);
+        return Files.exists(file) ? load(file) : EMPTY;
+    }
+
+    /** Guarda la máscara de la fuente; una máscara vacía borra el archivo. */
+    public void saveForSource(String source) throws IOException {
+        Path file = fileFor(source);
+        if (isEmpty()) {
+            Files.deleteIfExists(file);
+        } else {
+            save(file);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof RoiMask)) {
+            return false;
+        }
+        List<float[]> other = ((RoiMask) o).polygons;
+        if (other.size() != polygons.size()) {
+            return false;
+        }
+        for (int i = 0; i < polygons.size(); i++) {
+            if (!Arrays.equals(polygons.get(i), other.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (float[] p : polygons) {
+            h = 31 * h + Arrays.hashCode(p);
+        }
+        return h;
+    }
+
+    /**
+     * Máscara rasterizada a un tamaño de frame.
+     *
+     * <p>Guarda un bit por píxel (el centro del píxel está dentro de algún
+     * polígono), los tramos dentro de cada fila y los rectángulos que hay que
+     * recortar: el de cada polígono, unidos los que se solapan. Es inmutable y
+     * puede usarse desde varios hilos.</p>
+     */
+    public static final class Bitmap {
+        private final RoiMask mask;
+        private final int width;
+        private final int height;
+        private final long[] bits;
+        // Tramos [x0, x1) dentro de la máscara: los de la fila y van de rowStart[y] a rowStart[y + 1]
+        private final int[] rowStart;
+        private final int[] spans;
+        private final List<int[]> regions;
+        private final long inside;
+        private final ConcurrentHashMap<Integer, boolean[]> grids = new ConcurrentHashMap<>();
+        private final ThreadLocal<ByteBuffer[]> cropBuffers = new ThreadLocal<>();
+
+        Bitmap(RoiMask mask, int width, int height) {
+            this.mask = mask;
+            this.width = width;
+            this.height = height;
+            this.bits = new long[(int) (((long) width * height + 63) >>> 6)];
+            for (float[] p : mask.polygons) {
+                fill(p);
+            }
+            int[] starts = new int[height + 1];
+            int[] s = new int[64];
+            int n = 0;
+            long count = 0;
+            for (int y = 0; y < height; y++) {
+                starts[y] = n / 2;
+                long rowEnd = (long) (y + 1) * width;
+                long i = nextBit(bits, (long) y * width, rowEnd, true);
+                while (i < rowEnd) {
+                    long end = nextBit(bits, i, rowEnd, false);
+                    if (n + 2 > s.length) {
+                        s = Arrays.copyOf(s, s.length * 2);
+                    }
+                    s[n++] = (int) (i - (long) y * width);
+                    s[n++] = (int) (end - (long) y * width);
+                    count += end - i;
+                    i = nextBit(bits, end, rowEnd, true);
+                }
+            }
+            starts[height] = n / 2;
+            this.rowStart = starts;
+            this.spans = Arrays.copyOf(s, n);
+            this.inside = count;
+            this.regions = Collections.unmodifiableList(mergeRegions(mask.polygons, width, height));
+        }
+
+        /** Relleno par-impar por filas, tomando el centro de cada píxel. */
+        private void fill(float[] p) {
+            int nv = p.length / 2;
+            double[] xs = new double[nv];
+            for (int y = 0; y < height; y++) {
+                double cy = (y + 0.5) / height;
+                int n = 0;
+                for (int i = 0, j = nv - 1; i < nv; j = i++) {
+                    double yi = p[i * 2 + 1];
+                    double yj = p[j * 2 + 1];
+                    if ((yi > cy) != (yj > cy)) {
+                        double xi = p[i * 2];
+                        double xj = p[j * 2];
+                        xs[n++] = (xi + (cy - yi) * (xj - xi) / (yj - yi)) * width;
+                    }
+                }
+                Arrays.sort(xs, 0, n);
+                for (int k = 0; k + 1 < n; k += 2) {
+                    int x0 = Math.max(0, (int) Math.ceil(xs[k] - 0.5));
+                    int x1 = Math.min(width, (int) Math.ceil(xs[k + 1] - 0.5));
+                    if (x1 > x0) {
+                        setRange(bits, (long) y * width + x0, (long) y * width + x1);
+                    }
+                }
+            }
+        }
+
+        /** Pone a 1 los bits {@code [from, to)}, de palabra en palabra. */
+        private static void setRange(long[] bits, long from, long to) {
+            int w0 = (int) (from >>> 6);
+            int w1 = (int) ((to - 1) >>> 6);
+            long first = -1L << from;
+            long last = -1L >>> -to;
+            if (w0 == w1) {
+                bits[w0] |= first & last;
+                return;
+            }
+            bits[w0] |= first;
+            for (int w = w0 + 1; w < w1; w++) {
+                bits[w] = -1L;
+            }
+            bits[w1] |= last;
+        }
+
+        /** Primer bit en {@code [from, limit)} que vale {@code set}, o {@code limit} si no hay. */
+        private static long nextBit(long[] bits, long from, long limit, boolean set) {
+            if (from >= limit) {
+                return limit;
+            }
+            int w = (int) (from >>> 6);
+            long word = (set ? bits[w] : ~bits[w]) & (-1L << from);
+            while (word == 0) {
+                if (((long) ++w << 6) >= limit) {
+                    return limit;
+                }
+                word = set ? bits[w] : ~bits[w];
+            }
+            return Math.min(limit, ((long) w << 6) + Long.numberOfTrailingZeros(word));
+        }
+
+        /** Caja de cada polígono en píxeles; las que se solapan se unen hasta que ninguna se solapa. */
+        private static List<int[]> mergeRegions(List<float[]> polygons, int width, int height) {
+            List<int[]> boxes = new ArrayList<>();
+            for (float[] p : polygons) {
+                float minX = 1;
+                float minY = 1;
+                float maxX = 0;
+                float maxY = 0;
+                for (int i = 0; i < p.length; i += 2) {
+                    minX = Math.min(minX, p[i]);
+                    maxX = Math.max(maxX, p[i]);
+                    minY = Math.min(minY, p[i + 1]);
+                    maxY = Math.max(maxY, p[i + 1]);
+                }
+                int x0 = Math.max(0, (int) Math.floor(minX * width));
+                int y0 = Math.max(0, (int) Math.floor(minY * height));
+                int x1 = Math.min(width, (int) Math.ceil(maxX * width));
+                int y1 = Math.min(height, (int) Math.ceil(maxY * height));
+                if (x1 > x0 && y1 > y0) {
+                    boxes.add(new int[] {x0, y0, x1, y1});
+                }
+            }
+            boolean merged = true;
+            while (merged) {
+                merged = false;
+                for (int i = 0; i < boxes.size() && !merged; i++) {
+                    for (int j = i + 1; j < boxes.size(); j++) {
+                        int[] a = boxes.get(i);
+                        int[] b = boxes.get(j);
+                        if (a[0] < b[2] && b[0] < a[2] && a[1] < b[3] && b[1] < a[3]) {
+                            a[0] = Math.min(a[0], b[0]);
+                            a[1] = Math.min(a[1], b[1]);
+                            a[2] = Math.max(a[2], b[2]);
+                            a[3] = Math.max(a[3], b[3]);
+                            boxes.remove(j);
+                            merged = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            List<int[]> regions = new ArrayList<>(boxes.size());
+            for (int[] b : boxes) {
+                regions.add(new int[] {b[0], b[1], b[2] - b[0], b[3] - b[1]});
+            }
+            return regions;
+        }
+
+        public boolean contains(int x, int y) {
+            if (x < 0 || y < 0 || x >= width || y >= height) {
+                return false;
+            }
+            long i = (long) y * width + x;
+            return (bits[(int) (i >>> 6)] & (1L << i)) != 0;
+        }
+
+        /** {@code true} si el centro de la caja está dentro de la máscara. */
+        public boolean containsCenter(Detection d) {
+            return contains(d.getX() + d.getWidth() / 2, d.getY() + d.getHeight() / 2);
+        }
+
+        /**
+         * Celdas de una rejilla de {@code gridW}x{@code gridH} sobre el frame
+         * que tocan la máscara, por filas. Se calcula una vez por tamaño de
+         * rejilla; el array no debe modificarse.
+         */
+        public boolean[] grid(int gridW, int gridH) {
+            return grids.computeIfAbsent(gridW * 65536 + gridH, k -> {
+                boolean[] cells = new boolean[gridW * gridH];
+                for (int y = 0; y < height; y++) {
+                    int row = (int) ((long) y * gridH / height) * gridW;
+                    for (int s = rowStart[y]; s < rowStart[y + 1]; s++) {
+                        int c0 = (int) ((long) spans[s * 2] * gridW / width);
+                        int c1 = (int) ((long) (spans[s * 2 + 1] - 1) * gridW / width);
+                        for (int c = c0; c <= c1; c++) {
+                            cells[row + c] = true;
+                        }
+                    }
+                }
+                return cells;
+            });
+        }
+
+        /** Rectángulos {@code x, y, ancho, alto} que se recortan, sin solapes. */
+        public List<int[]> getRegions() {
+            return regions;
+        }
+
+        /** Fracción de los píxeles del frame dentro de la máscara. */
+        public double getCoverage() {
+            return (double) inside / ((long) width * height);
+        }
+
+        /** Fracción de los píxeles del frame dentro de los rectángulos recortados. */
+        public double getCropCoverage() {
+            long area = 0;
+            for (int[] r : regions) {
+                area += (long) r[2] * r[3];
+            }
+            return (double) area / ((long) width * height);
+        }
+
+        public RoiMask getMask() {
+            return mask;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Recorta todas las regiones del frame en una sola pasada por sus
+         * filas. Dentro de cada recorte los píxeles fuera de los polígonos
+         * quedan en negro, así que el detector no ve cielo ni paredes aunque
+         * caigan dentro del rectángulo. Los recortes usan buffers del hilo
+         * llamador y sólo valen hasta su siguiente llamada; tienen el índice y
+         * el instante del frame original.
+         */
+        public List<Frame> crop(Frame frame) {
+            if (frame.getWidth() != width || frame.getHeight() != height) {
+                throw new IllegalArgumentException("El frame no tiene el tamaño de la máscara");
+            }
+            ByteBuffer[] buffers = cropBuffers.get();
+            if (buffers == null) {
+                buffers = new ByteBuffer[regions.size()];
+                for (int i = 0; i < buffers.length; i++) {
+                    int[] r = regions.get(i);
+                    buffers[i] = ByteBuffer.allocate(r[2] * r[3] * Frame.BYTES_PER_PIXEL);
+                }
+                cropBuffers.set(buffers);
+            }
+            ByteBuffer src = frame.getPixels();
+            int stride = frame.getStride();
+            int minY = height;
+            int maxY = 0;
+            for (int[] r : regions) {
+                minY = Math.min(minY, r[1]);
+                maxY = Math.max(maxY, r[1] + r[3]);
+            }
+            for (int y = minY; y < maxY; y++) {
+                for (int i = 0; i < buffers.length; i++) {
+                    int[] r = regions.get(i);
+                    if (y < r[1] || y >= r[1] + r[3]) {
+                        continue;
+                    }
+                    ByteBuffer dst = buffers[i];
+                    int rowOut = (y - r[1]) * r[2] * Frame.BYTES_PER_PIXEL;
+                    int x = r[0];
+                    int end = r[0] + r[2];
+                    for (int s = rowStart[y]; s < rowStart[y + 1] && x < end; s++) {
+                        int x0 = Math.max(spans[s * 2], r[0]);
+                        int x1 = Math.min(spans[s * 2 + 1], end);
+                        if (x1 <= x0) {
+                            continue;
+                        }
+                        clear(dst, rowOut + (x - r[0]) * Frame.BYTES_PER_PIXEL, (x0 - x) * Frame.BYTES_PER_PIXEL);
+                        dst.put(rowOut + (x0 - r[0]) * Frame.BYTES_PER_PIXEL, src,
+                                y * stride + x0 * Frame.BYTES_PER_PIXEL, (x1 - x0) * Frame.BYTES_PER_PIXEL);
+                        x = x1;
+                    }
+                    clear(dst, rowOut + (x - r[0]) * Frame.BYTES_PER_PIXEL, (end - x) * Frame.BYTES_PER_PIXEL);
+                }
+            }
+            List<Frame> crops = new ArrayList<>(buffers.length);
+            for (int i = 0; i < buffers.length; i++) {
+                int[] r = regions.get(i);
+                crops.add(new Frame(frame.getIndex(), frame.getTimestampNanos(), r[2], r[3], buffers[i]));
+            }
+            return crops;
+        }
+
+        private static void clear(ByteBuffer dst, int offset, int length) {
+            if (length > 0) {
+                Arrays.fill(dst.array(), dst.arrayOffset() + offset, dst.arrayOffset() + offset + length, (byte) 0);
+            }
+        }
+
+        /**
+         * Detecta en todos los recortes con una sola llamada a
+         * {@link Detector#detectAll(List)}, devuelve las cajas a coordenadas
+         * del frame y descarta las que tienen el centro fuera de la máscara.
+         */
+        public List<Detection> detectCropped(Detector detector, Frame frame) {
+            if (regions.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<List<Detection>> results = detector.detectAll(crop(frame));
+            List<Detection> out = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                int[] r = regions.get(i);
+                for (Detection d : results.get(i)) {
+                    Detection moved = new Detection(d.getLabel(), d.getConfidence(), d.getX() + r[0], d.getY() + r[1],
+                            d.getWidth(), d.getHeight());
+                    if (containsCenter(moved)) {
+                        out.add(moved);
+                    }
+                }
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Configuración del muestreo de frames previo a la detección.
+ * Es inmutable; cada flujo de frames crea su propio {@link FrameSampler}
+ * con {@link #newSampler(SamplingStats)}.
+ */
+public class SamplingPolicy {
+
+    public enum Mode {
+        /** Analiza todos los frames. */
+        ALL,
+        /** Analiza uno de cada {@code stride} frames. */
+        STRIDE,
+        /** Analiza como mucho un frame cada {@code intervalNanos}. */
+        TIME,
+        /** Salta frames casi idénticos al último analizado. */
+        SCENE_CHANGE
+    }
+
+    private final Mode mode;
+    private final int stride;
+    private final long intervalNanos;
+    private final double threshold;
+    private final int maxSkipped;
+
+    private SamplingPolicy(Mode mode, int stride, long intervalNanos, double threshold, int maxSkipped) {
+        this.mode = mode;
+        this.stride = stride;
+        this.intervalNanos = intervalNanos;
+        this.threshold = threshold;
+        this.maxSkipped = maxSkipped;
+    }
+
+    public static SamplingPolicy all() {
+        return new SamplingPolicy(Mode.ALL, 1, 0, 0, 0);
+    }
+
+    public static SamplingPolicy stride(int stride) {
+        if (stride <= 0) {
+            throw new IllegalArgumentException("stride debe ser > 0");
+        }
+        return new SamplingPolicy(Mode.STRIDE, stride, 0, 0, 0);
+    }
+
+    public static SamplingPolicy everyMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("El intervalo de muestreo debe ser >= 0");
+        }
+        return new SamplingPolicy(Mode.TIME, 1, millis * 1_000_000L, 0, 0);
+    }
+
+    /**
+     * @param threshold  diferencia media de luminancia (0-255) a partir de la cual
+     *                   se considera que la escena cambió
+     * @param maxSkipped frames seguidos que pueden saltarse antes de forzar un
+     *                   análisis; 0 para no forzar nunca
+     */
+    public static SamplingPolicy sceneChange(double threshold, int maxSkipped) {
+        if (!(threshold >= 0) || maxSkipped < 0) {
+            throw new IllegalArgumentException("El umbral y los frames saltados deben ser >= 0");
+        }
+        return new SamplingPolicy(Mode.SCENE_CHANGE, 1, 0, threshold, maxSkipped);
+    }
+
+    /**
+     * Interpreta textos como {@code all}, {@code stride:5}, {@code time:200}
+     * o {@code scene:4.0[:30]}.
+     */
+    public static SamplingPolicy parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        if (parts[0].equals("all") && parts.length == 1) {
+            return all();
+        }
+        int max = parts[0].equals("scene") ? 3 : 2;
+        if (parts.length < 2 || parts.length > max) {
+            throw new IllegalArgumentException("Muestreo desconocido: " + spec);
+        }
+        try {
+            switch (parts[0]) {
+                case "stride":
+                    return stride(Integer.parseInt(parts[1]));
+                case "time":
+                    return everyMillis(Long.parseLong(parts[1]));
+                case "scene":
+                    return sceneChange(Double.parseDouble(parts[1]),
+                            parts.length > 2 ? Integer.parseInt(parts[2]) : 0);
+                default:
+                    throw new IllegalArgumentException("Muestreo desconocido: " + spec);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Muestreo desconocido: " + spec, e);
+        }
+    }
+
+    public FrameSampler newSampler(SamplingStats stats) {
+        return new FrameSampler(this, stats);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public int getMaxSkipped() {
+        return maxSkipped;
+    }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case STRIDE:
+                return "stride:" + stride;
+            case TIME:
+                return "time:" + intervalNanos / 1_000_000L;
+            case SCENE_CHANGE:
+                return "scene:" + threshold + ":" + maxSkipped;
+            default:
+                return "all";
+        }
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de frames analizados y saltados por el muestreo.
+ * Puede compartirse entre varios {@link FrameSampler} de distintos hilos.
+ */
+public class SamplingStats {
+    private final LongAdder analyzed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    void recordAnalyzed() {
+        analyzed.increment();
+    }
+
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    public long getAnalyzed() {
+        return analyzed.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /** Fracción de frames que no llegaron al detector (0 a 1). */
+    public double getSkipRatio() {
+        long a = analyzed.sum();
+        long s = skipped.sum();
+        return a + s == 0 ? 0 : (double) s / (a + s);
+    }
+
+    public void reset() {
+        analyzed.reset();
+        skipped.reset();
+    }
+}
@@ -0,0 +1,121 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Fuente de frames sintética: un degradado de fondo con un cuadrado que
+ * se desplaza. Sirve para probar y medir el pipeline sin cámara.
+ * Si se le da un {@link FrameBufferPool} reutiliza sus buffers en lugar
+ * de asignar uno nuevo por frame.
+ */
+public class SyntheticFrameSource implements FrameSource {
+    private final int width;
+    private final int height;
+    private final long frameIntervalNanos;
+    private final long maxFrames;
+    private final FrameBufferPool pool;
+
+    private long index;
+    private long nextDeadline;
+
+    /**
+     * @param fps       frames por segundo a simular; 0 para entregar lo más rápido posible
+     * @param maxFrames índice en el que termina la fuente; negativo para una fuente infinita
+     */
+    public SyntheticFrameSource(int width, int height, double fps, long maxFrames) {
+        this(width, height, fps, maxFrames, null);
+    }
+
+    public SyntheticFrameSource(int width, int height, double fps, long maxFrames, FrameBufferPool pool) {
+        this.width = width;
+        this.height = height;
+        this.frameIntervalNanos = fps > 0 ? (long) (1_000_000_000L / fps) : 0;
+        this.maxFrames = maxFrames;
+        this.pool = pool;
+    }
+
+    /** Hace que el próximo frame generado sea el {@code index}. */
+    public void startAt(long index) {
+        this.index = index;
+    }
+
+    @Override
+    public Frame next() {
+        if (maxFrames >= 0 && index >= maxFrames) {
+            return null;
+        }
+        pace();
+        Frame frame;
+        if (pool != null) {
+            try {
+                frame = pool.acquire(index, System.nanoTime());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        } else {
+            ByteBuffer pixels = ByteBuffer.allocate(width * height * Frame.BYTES_PER_PIXEL);
+            frame = new Frame(index, System.nanoTime(), width, height, pixels);
+        }
+        render(index++, frame.getPixels());
+        return frame;
+    }
+
+    private void pace() {
+        if (frameIntervalNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (nextDeadline == 0) {
+            nextDeadline = now;
+        }
+        long wait = nextDeadline - now;
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        nextDeadline += frameIntervalNanos;
+    }
+
+    /** Dibuja el frame {@code n} en {@code pixels} (BGRA). */
+    protected void render(long n, ByteBuffer pixels) {
+        int side = Math.max(8, Math.min(width, height) / 6);
+        int boxX = (int) ((n * 7) % Math.max(1, width - side));
+        int boxY = (int) ((n * 3) % Math.max(1, height - side));
+        int stride = width * Frame.BYTES_PER_PIXEL;
+        for (int y = 0; y < height; y++) {
+            int row = y * stride;
+            byte shade = (byte) (y * 255 / height);
+            boolean inBoxRow = y >= boxY && y < boxY + side;
+            for (int x = 0; x < width; x++) {
+                int p = row + x * Frame.BYTES_PER_PIXEL;
+                if (inBoxRow && x >= boxX && x < boxX + side) {
+                    pixels.put(p, (byte) 255);
+                    pixels.put(p + 1, (byte) 255);
+                    pixels.put(p + 2, (byte) 255);
+                } else {
+                    pixels.put(p, shade);
+                    pixels.put(p + 1, (byte) 40);
+                    pixels.put(p + 2, (byte) 60);
+                }
+                pixels.put(p + 3, (byte) 255);
+            }
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void close() {
+        // Nada que liberar
+    }
+}
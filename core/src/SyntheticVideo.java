@@ -0,0 +1,63 @@
+/**
+ * Video sintético con un keyframe cada {@code gop} frames.
+ * Útil para medir el motor de procesamiento sin archivos reales.
+ */
+public class SyntheticVideo implements VideoFile {
+    private final int width;
+    private final int height;
+    private final double fps;
+    private final long frameCount;
+    private final int gop;
+
+    public SyntheticVideo(int width, int height, double fps, long frameCount, int gop) {
+        this.width = width;
+        this.height = height;
+        this.fps = fps;
+        this.frameCount = frameCount;
+        this.gop = gop;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public double getFps() {
+        return fps;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public long[] getKeyframes() {
+        long[] keyframes = new long[(int) ((frameCount + gop - 1) / gop)];
+        for (int i = 0; i < keyframes.length; i++) {
+            keyframes[i] = (long) i * gop;
+        }
+        return keyframes;
+    }
+
+    @Override
+    public FrameSource openAt(long keyframe, FrameBufferPool pool) {
+        if (keyframe % gop != 0) {
+            throw new IllegalArgumentException("No es un keyframe: " + keyframe);
+        }
+        SyntheticFrameSource source = new SyntheticFrameSource(width, height, 0, frameCount, pool);
+        source.startAt(keyframe);
+        return source;
+    }
+
+    @Override
+    public void close() {
+        // Nada que liberar
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Detección asociada a un objeto seguido por {@link ObjectTracker}: el id se
+ * mantiene mientras el objeto siga emparejándose entre detecciones.
+ */
+public class TrackedDetection extends Detection {
+    private final int trackId;
+    private final boolean predicted;
+
+    public TrackedDetection(int trackId, boolean predicted, String label, float confidence,
+            int x, int y, int width, int height) {
+        super(label, confidence, x, y, width, height);
+        this.trackId = trackId;
+        this.predicted = predicted;
+    }
+
+    /** Id del objeto, mayor que 0. */
+    public int getTrackId() {
+        return trackId;
+    }
+
+    /** {@code true} si la caja es una predicción y no viene del detector en este frame. */
+    public boolean isPredicted() {
+        return predicted;
+    }
+
+    /** Misma caja con otro id. */
+    public TrackedDetection withTrackId(int id) {
+        return new TrackedDetection(id, predicted, getLabel(), getConfidence(), getX(), getY(), getWidth(),
+                getHeight());
+    }
+
+    @Override
+    public String toString() {
+        return "#" + trackId + " " + super.toString() + (predicted ? " (predicha)" : "");
+    }
+}
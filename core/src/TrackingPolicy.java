@@ -0,0 +1,162 @@
+import java.util.Properties;
+
+/**
+ * Configuración del seguimiento de objetos entre detecciones.
+ * Es inmutable; cada flujo de frames crea su propio {@link ObjectTracker}
+ * con {@link #newTracker(TrackingStats)}.
+ */
+public class TrackingPolicy {
+
+    /** Cómo se emparejan las cajas predichas con las detectadas. */
+    public enum Association {
+        /** Solapamiento (intersección sobre unión) mínimo de {@code threshold}. */
+        IOU,
+        /** Distancia entre centros de como mucho {@code threshold} veces el lado medio de la caja. */
+        CENTROID
+    }
+
+    private final Association association;
+    private final int interval;
+    private final float threshold;
+    private final boolean velocity;
+    private final float minConfidence;
+    private final int maxMissed;
+
+    private TrackingPolicy(Association association, int interval, float threshold, boolean velocity,
+            float minConfidence, int maxMissed) {
+        this.association = association;
+        this.interval = interval;
+        this.threshold = threshold;
+        this.velocity = velocity;
+        this.minConfidence = minConfidence;
+        this.maxMissed = maxMissed;
+    }
+
+    /** Sin seguimiento: el detector analiza todos los frames que deja pasar el muestreo. */
+    public static TrackingPolicy none() {
+        return new TrackingPolicy(Association.IOU, 1, 0.3f, false, 0, 0);
+    }
+
+    /**
+     * Detecta uno de cada {@code interval} frames, emparejando por IoU y
+     * prediciendo con velocidad constante entre medias.
+     */
+    public static TrackingPolicy iou(int interval, float minIou) {
+        return of(Association.IOU, interval, minIou, true);
+    }
+
+    /** Como {@link #iou}, pero empareja por distancia entre centros. */
+    public static TrackingPolicy centroid(int interval, float maxDistance) {
+        return of(Association.CENTROID, interval, maxDistance, true);
+    }
+
+    private static TrackingPolicy of(Association association, int interval, float threshold, boolean velocity) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("El intervalo de detección debe ser > 0");
+        }
+        return new TrackingPolicy(association, interval, threshold, velocity, 0.5f, 2);
+    }
+
+    /**
+     * Sin velocidad las cajas se quedan quietas entre detecciones: para
+     * cámaras con objetos casi parados, donde extrapolar sólo añade ruido.
+     */
+    public TrackingPolicy withoutVelocity() {
+        return new TrackingPolicy(association, interval, threshold, false, minConfidence, maxMissed);
+    }
+
+    /**
+     * @param minConfidence calidad media de la predicción (0 a 1, ver
+     *                      {@link ObjectTracker}) por debajo de la cual se
+     *                      vuelve a detectar en el frame siguiente
+     * @param maxMissed     detecciones seguidas en las que un objeto puede no
+     *                      aparecer antes de olvidarlo y perder su id
+     */
+    public TrackingPolicy withLimits(float minConfidence, int maxMissed) {
+        return new TrackingPolicy(association, interval, threshold, velocity, minConfidence, maxMissed);
+    }
+
+    /**
+     * Interpreta textos como {@code no}, {@code iou:5}, {@code iou:5:0.3} o
+     * {@code centroide:5:1.0}; {@code :estatico} al final desactiva la
+     * predicción con velocidad.
+     */
+    public static TrackingPolicy parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        boolean isStatic = parts.length > 1 && parts[parts.length - 1].equals("estatico");
+        int n = isStatic ? parts.length - 1 : parts.length;
+        if (parts[0].equals("no")) {
+            return none();
+        }
+        if (n < 2 || n > 3) {
+            throw new IllegalArgumentException("Seguimiento desconocido: " + spec);
+        }
+        TrackingPolicy policy;
+        try {
+            switch (parts[0]) {
+                case "iou":
+                    policy = iou(Integer.parseInt(parts[1]), n > 2 ? Float.parseFloat(parts[2]) : 0.3f);
+                    break;
+                case "centroide":
+                    policy = centroid(Integer.parseInt(parts[1]), n > 2 ? Float.parseFloat(parts[2]) : 1.0f);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Seguimiento desconocido: " + spec);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Seguimiento desconocido: " + spec, e);
+        }
+        return isStatic ? policy.withoutVelocity() : policy;
+    }
+
+    /** Seguimiento configurado con la propiedad del sistema {@code seguimiento}. */
+    public static TrackingPolicy fromSystemProperties() {
+        return fromProperties(System.getProperties());
+    }
+
+    public static TrackingPolicy fromProperties(Properties props) {
+        return parse(props.getProperty("seguimiento", "no"));
+    }
+
+    /** @return un seguidor nuevo, o {@code null} si no hay seguimiento */
+    public ObjectTracker newTracker(TrackingStats stats) {
+        return isEnabled() ? new ObjectTracker(this, stats) : null;
+    }
+
+    public boolean isEnabled() {
+        return interval > 1 || minConfidence > 0;
+    }
+
+    public Association getAssociation() {
+        return association;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public float getThreshold() {
+        return threshold;
+    }
+
+    public boolean usesVelocity() {
+        return velocity;
+    }
+
+    public float getMinConfidence() {
+        return minConfidence;
+    }
+
+    public int getMaxMissed() {
+        return maxMissed;
+    }
+
+    @Override
+    public String toString() {
+        if (!isEnabled()) {
+            return "no";
+        }
+        return (association == Association.IOU ? "iou:" : "centroide:") + interval + ":" + threshold
+                + (velocity ? "" : ":estatico");
+    }
+}
@@ -0,0 +1,40 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Llamadas al detector hechas y ahorradas por el seguimiento.
+ * Puede compartirse entre varios {@link ObjectTracker} de distintos hilos.
+ */
+public class TrackingStats {
+    private final LongAdder detected = new LongAdder();
+    private final LongAdder predicted = new LongAdder();
+
+    void recordDetected() {
+        detected.increment();
+    }
+
+    void recordPredicted() {
+        predicted.increment();
+    }
+
+    /** Frames que pasaron por el detector. */
+    public long getDetected() {
+        return detected.sum();
+    }
+
+    /** Frames cuyas cajas se predijeron sin llamar al detector. */
+    public long getSaved() {
+        return predicted.sum();
+    }
+
+    /** Fracción de llamadas al detector ahorradas (0 a 1). */
+    public double getSavedRatio() {
+        long d = detected.sum();
+        long p = predicted.sum();
+        return d + p == 0 ? 0 : (double) p / (d + p);
+    }
+
+    public void reset() {
+        detected.reset();
+        predicted.reset();
+    }
+}
@@ -0,0 +1,31 @@
+import java.io.IOException;
+
+/**
+ * Video con acceso aleatorio por keyframes.
+ * Permite abrir un decodificador independiente en cualquier keyframe, lo
+ * que hace posible procesar segmentos del mismo video en paralelo.
+ */
+public interface VideoFile extends AutoCloseable {
+
+    int getWidth();
+
+    int getHeight();
+
+    double getFps();
+
+    long getFrameCount();
+
+    /** Índices de los frames clave, en orden creciente; el primero siempre es 0. */
+    long[] getKeyframes();
+
+    /**
+     * Abre una fuente que decodifica desde {@code keyframe} hasta el final.
+     *
+     * @param keyframe índice de un frame devuelto por {@link #getKeyframes()}
+     * @param pool     pool del que tomar los buffers, o {@code null} para asignarlos
+     */
+    FrameSource openAt(long keyframe, FrameBufferPool pool) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
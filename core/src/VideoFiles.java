@@ -0,0 +1,34 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Abre el {@link VideoFile} adecuado según la extensión del archivo
+ * ({@code .mjpeg}, {@code .raw} o un {@link FrameSpool}).
+ */
+public final class VideoFiles {
+    public static final double DEFAULT_MJPEG_FPS = 30;
+
+    private VideoFiles() {
+    }
+
+    public static boolean isSupported(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".mjpeg") || name.endsWith(".mjpg") || name.endsWith(".raw")
+                || name.endsWith(FrameSpool.EXTENSION);
+    }
+
+    public static VideoFile open(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".mjpeg") || name.endsWith(".mjpg")) {
+            return new MjpegVideoFile(path, DEFAULT_MJPEG_FPS);
+        }
+        if (name.endsWith(".raw")) {
+            return new RawVideoFile(path);
+        }
+        if (name.endsWith(FrameSpool.EXTENSION)) {
+            return FrameSpool.open(path);
+        }
+        throw new IOException("Formato de video no soportado: " + path.getFileName());
+    }
+}
@@ -0,0 +1,452 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motor de procesamiento de video por segmentos en paralelo.
+ *
+ * <p>Divide el video en segmentos alineados a keyframes, decodifica y
+ * analiza cada segmento en un {@link ForkJoinPool} y une las filas en un
+ * {@link FrameResultStore} en orden de frame. Una {@link SamplingPolicy}
+ * opcional decide qué frames llegan al detector y una {@link TrackingPolicy}
+ * cuáles de ésos pueden predecirse sin llamarlo. No depende de JavaFX, así que
+ * puede ejecutarse en servidores sin entorno gráfico (ver {@link #main}).</p>
+ */
+public class VideoProcessingEngine {
+
+    /** Recibe el avance del procesamiento; puede llamarse desde cualquier hilo. */
+    public interface ProgressListener {
+        void onProgress(long processedFrames, long totalFrames);
+    }
+
+    private final Detector detector;
+    private final int workers;
+    private final int segmentFrames;
+    private final SamplingStats samplingStats = new SamplingStats();
+    private final TrackingStats trackingStats = new TrackingStats();
+    private SamplingPolicy sampling = SamplingPolicy.all();
+    private TrackingPolicy tracking = TrackingPolicy.none();
+    private FrameSpool spool;
+    private DetectionLog detectionLog;
+    private String logSource;
+    private long logStartMillis;
+    private volatile boolean cancelled;
+
+    /**
+     * @param detector      backend de inferencia; cada segmento usa su
+     *                      {@link Detector#forStream()} y se invocan en paralelo
+     * @param workers       hilos del pool; 0 para usar tantos como núcleos
+     * @param segmentFrames tamaño objetivo de cada segmento en frames
+     */
+    public VideoProcessingEngine(Detector detector, int workers, int segmentFrames) {
+        this.detector = detector;
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.segmentFrames = Math.max(1, segmentFrames);
+    }
+
+    /**
+     * Muestreo previo a la detección. En el modo de cambio de escena cada
+     * segmento empieza analizando su primer frame.
+     */
+    public void setSampling(SamplingPolicy sampling) {
+        this.sampling = sampling;
+    }
+
+    /**
+     * Seguimiento de objetos entre detecciones. Cada segmento tiene su propio
+     * {@link ObjectTracker} y empieza detectando; al unir los segmentos los
+     * objetos que siguen en la frontera conservan su id, así que los ids de las
+     * filas son únicos y estables en todo el video.
+     */
+    public void setTracking(TrackingPolicy tracking) {
+        this.tracking = tracking;
+    }
+
+    /**
+     * Guarda cada frame decodificado en {@code spool} (reducido), incluidos los
+     * que el muestreo salta, para reanalizarlos después sin decodificar el
+     * video. {@code null} para no guardar.
+     */
+    public void setSpool(FrameSpool spool) {
+        this.spool = spool;
+    }
+
+    /**
+     * Guarda también las detecciones en {@code log}, con {@code source} como
+     * fuente y como instante {@code startMillis} más la posición del frame en
+     * el video. Los segmentos se procesan en paralelo, así que no se añaden en
+     * orden de frame. {@code null} para no guardarlas.
+     */
+    public void setDetectionLog(DetectionLog log, String source, long startMillis) {
+        this.detectionLog = log;
+        this.logSource = source;
+        this.logStartMillis = startMillis;
+    }
+
+    /** Frames analizados frente a saltados en el último {@link #process}. */
+    public SamplingStats getSamplingStats() {
+        return samplingStats;
+    }
+
+    /** Llamadas al detector hechas y ahorradas por el seguimiento en el último {@link #process}. */
+    public TrackingStats getTrackingStats() {
+        return trackingStats;
+    }
+
+    /**
+     * Procesa el video completo y devuelve las filas en orden de frame.
+     * Bloquea hasta terminar; llamar desde un hilo de fondo.
+     *
+     * @throws CancellationException si se llamó a {@link #cancel()}; las filas
+     *         ya añadidas son sólo una parte del video
+     */
+    public FrameResultStore process(VideoFile video, ProgressListener listener)
+            throws IOException, InterruptedException {
+        return process(video, listener, new FrameResultStore());
+    }
+
+    /**
+     * Como {@link #process(VideoFile, ProgressListener)}, pero va añadiendo
+     * las filas a {@code rows} a medida que terminan los segmentos, en orden,
+     * para que otro hilo pueda mostrarlas mientras tanto.
+     *
+     * @throws CancellationException si se llamó a {@link #cancel()}
+     */
+    public FrameResultStore process(VideoFile video, ProgressListener listener, FrameResultStore rows)
+            throws IOException, InterruptedException {
+        run(video, listener, rows, null, null);
+        return rows;
+    }
+
+    /**
+     * Procesa el video escribiendo las detecciones en {@code exporter} a
+     * medida que terminan los segmentos, en orden de frame, sin guardar filas:
+     * la memoria no depende de la duración del video. No cierra el exportador.
+     *
+     * @param source nombre del video en el archivo exportado
+     * @return detecciones exportadas
+     * @throws CancellationException si se llamó a {@link #cancel()}; lo
+     *         exportado es sólo una parte del video
+     */
+    public long export(VideoFile video, ProgressListener listener, DetectionExporter exporter, String source)
+            throws IOException, InterruptedException {
+        return run(video, listener, null, exporter, source);
+    }
+
+    private long run(VideoFile video, ProgressListener listener, FrameResultStore rows, DetectionExporter exporter,
+            String source) throws IOException, InterruptedException {
+        cancelled = false;
+        samplingStats.reset();
+        trackingStats.reset();
+        TrackStitcher stitcher = tracking.isEnabled() ? new TrackStitcher(tracking) : null;
+        List<long[]> segments = planSegments(video.getKeyframes(), video.getFrameCount(), segmentFrames);
+        long total = video.getFrameCount();
+        long step = Math.max(1, total / 200);
+        AtomicLong done = new AtomicLong();
+        // Un buffer por hilo del pool: se reutiliza entre segmentos
+        ThreadLocal<FrameBufferPool> pools = ThreadLocal.withInitial(
+                () -> new FrameBufferPool(video.getWidth(), video.getHeight(), 1));
+
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            // Como mucho dos segmentos por hilo terminados o en curso: los resultados
+            // pendientes de unir no crecen con la duración del video
+            int window = workers * 2;
+            Deque<Future<SegmentResult>> inFlight = new ArrayDeque<>(window);
+            long exported = 0;
+            for (long[] segment : segments) {
+                if (cancelled) {
+                    break;
+                }
+                if (inFlight.size() == window) {
+                    exported += merge(inFlight.poll().get(), rows, exporter, source, stitcher);
+                }
+                inFlight.add(pool.submit(() -> processSegment(video, segment[0], segment[1],
+                        pools.get(), done, total, step, listener, exporter != null)));
+            }
+            while (!inFlight.isEmpty()) {
+                exported += merge(inFlight.poll().get(), rows, exporter, source, stitcher);
+            }
+            if (cancelled) {
+                throw new CancellationException("Procesamiento cancelado tras " + done.get() + " de " + total
+                        + " frames");
+            }
+            if (listener != null) {
+                listener.onProgress(done.get(), total);
+            }
+            return exported;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long merge(SegmentResult result, FrameResultStore rows, DetectionExporter exporter, String source,
+            TrackStitcher stitcher) throws IOException {
+        int[] trackMap = stitcher != null ? stitcher.stitch(result) : null;
+        if (rows != null) {
+            rows.appendAll(result.rows, trackMap);
+        }
+        long exported = 0;
+        if (exporter != null) {
+            for (int i = 0; i < result.frames.size(); i++) {
+                List<Detection> detections = result.detections.get(i);
+                exporter.write(source, result.frames.get(i), result.times.get(i), detections);
+                exported += detections.size();
+            }
+        }
+        return exported;
+    }
+
+    /**
+     * Pide que el procesamiento en curso termine lo antes posible; el
+     * {@code process} o {@code export} en curso lanza
+     * {@link CancellationException} en lugar de devolver un resultado parcial.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Filas de un segmento y, si se exporta, sus detecciones completas. Con
+     * seguimiento guarda también la primera caja de cada objeto que aparece
+     * cerca del inicio y las del último frame, para unir los ids con los
+     * segmentos vecinos.
+     */
+    private static final class SegmentResult {
+        final FrameResultStore rows = new FrameResultStore();
+        final List<Long> frames = new ArrayList<>();
+        final List<Long> times = new ArrayList<>();
+        final List<List<Detection>> detections = new ArrayList<>();
+        final List<TrackedDetection> entering = new ArrayList<>();
+        List<Detection> lastTracks = new ArrayList<>();
+        int lastTrackId;
+    }
+
+    /**
+     * Traduce los ids locales de cada segmento a ids del video. Los segmentos
+     * se unen en orden, así que basta con recordar las cajas del final del
+     * anterior: los objetos que entran en el siguiente y encajan con una de
+     * ellas heredan su id; el resto recibe uno nuevo.
+     */
+    private static final class TrackStitcher {
+        private final TrackingPolicy policy;
+        private List<TrackedDetection> previous = new ArrayList<>();
+        private int nextId = 1;
+
+        TrackStitcher(TrackingPolicy policy) {
+            this.policy = policy;
+        }
+
+        int[] stitch(SegmentResult result) {
+            int[] map = new int[result.lastTrackId + 1];
+            int[] match = ObjectTracker.associate(previous, result.entering, policy);
+            for (int j = 0; j < match.length; j++) {
+                if (match[j] >= 0) {
+                    map[result.entering.get(j).getTrackId()] = previous.get(match[j]).getTrackId();
+                }
+            }
+            for (int id = 1; id < map.length; id++) {
+                if (map[id] == 0) {
+                    map[id] = nextId++;
+                }
+            }
+            List<TrackedDetection> last = new ArrayList<>(result.lastTracks.size());
+            for (Detection d : result.lastTracks) {
+                TrackedDetection t = (TrackedDetection) d;
+                last.add(t.withTrackId(map[t.getTrackId()]));
+            }
+            previous = last;
+            return map;
+        }
+    }
+
+    private SegmentResult processSegment(VideoFile video, long start, long end, FrameBufferPool pool,
+            AtomicLong done, long total, long step, ProgressListener listener, boolean keepDetections)
+            throws IOException {
+        SegmentResult result = new SegmentResult();
+        FrameSampler sampler = sampling.newSampler(samplingStats);
+        ObjectTracker tracker = tracking.newTracker(trackingStats);
+        Detector detector = this.detector.forStream();
+        // Un objeto presente en la frontera puede no detectarse en el primer
+        // frame del segmento, pero sí en las detecciones siguientes
+        long enteringFrames = (long) tracking.getInterval() * (tracking.getMaxMissed() + 1);
+        try (FrameSource source = video.openAt(start, pool)) {
+            for (long i = start; i < end && !cancelled; i++) {
+                Frame frame = source.next();
+                if (frame == null) {
+                    break;
+                }
+                try {
+                    if (spool != null) {
+                        spool.write(frame);
+                    }
+                    if (sampler.shouldAnalyze(frame)) {
+                        List<Detection> detections;
+                        if (tracker == null) {
+                            detections = detector.detect(frame);
+                        } else if (tracker.needsDetection(frame)) {
+                            int known = tracker.getLastTrackId();
+                            detections = tracker.update(frame, detector.detect(frame));
+                            if (i - start < enteringFrames) {
+                                for (Detection d : detections) {
+                                    if (((TrackedDetection) d).getTrackId() > known) {
+                                        result.entering.add((TrackedDetection) d);
+                                    }
+                                }
+                            }
+                        } else {
+                            detections = tracker.predict(frame);
+                        }
+                        if (tracker != null) {
+                            result.lastTracks = detections;
+                        }
+                        if (keepDetections) {
+                            if (!detections.isEmpty()) {
+                                result.frames.add(frame.getIndex());
+                                result.times.add(frame.getTimestampNanos() / 1_000_000);
+                                result.detections.add(detections);
+                            }
+                        } else {
+                            result.rows.addAll(frame.getIndex(), detections);
+                        }
+                        if (detectionLog != null) {
+                            detectionLog.append(logStartMillis + frame.getTimestampNanos() / 1_000_000, logSource,
+                                    frame.getIndex(), detections);
+                        }
+                    }
+                } finally {
+                    frame.release();
+                }
+                long n = done.incrementAndGet();
+                if (listener != null && n % step == 0) {
+                    listener.onProgress(n, total);
+                }
+            }
+        }
+        if (cancelled) {
+            return new SegmentResult();
+        }
+        if (tracker != null) {
+            result.lastTrackId = tracker.getLastTrackId();
+        }
+        return result;
+    }
+
+    /**
+     * Agrupa los keyframes en segmentos {@code [inicio, fin)} de al menos
+     * {@code segmentFrames} frames (salvo el último). Cada segmento empieza
+     * en un keyframe para poder decodificarse de forma independiente.
+     */
+    public static List<long[]> planSegments(long[] keyframes, long frameCount, int segmentFrames) {
+        List<long[]> segments = new ArrayList<>();
+        if (frameCount <= 0 || keyframes.length == 0) {
+            return segments;
+        }
+        long start = keyframes[0];
+        for (int i = 1; i < keyframes.length; i++) {
+            if (keyframes[i] - start >= segmentFrames) {
+                segments.add(new long[] {start, keyframes[i]});
+                start = keyframes[i];
+            }
+        }
+        segments.add(new long[] {start, frameCount});
+        return segments;
+    }
+
+    /**
+     * Ejecución sin interfaz para pruebas de rendimiento:
+     * {@code VideoProcessingEngine <video.mjpeg|video.raw|--synthetic N> [workers] [frames por segmento] [muestreo] [--exportar ARCHIVO] [--seguimiento X]}
+     * donde el muestreo sigue el formato de {@link SamplingPolicy#parse(String)}
+     * y el seguimiento el de {@link TrackingPolicy#parse(String)}.
+     * Con {@code --exportar} las detecciones van a {@code ARCHIVO} mientras se
+     * procesa (formato según la extensión, ver {@link DetectionExporter#open})
+     * en lugar de guardarse en memoria.
+     */
+    public static void main(String[] args) throws Exception {
+        Path exportPath = null;
+        TrackingPolicy tracking = TrackingPolicy.none();
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--exportar") && i + 1 < args.length) {
+                exportPath = Paths.get(args[++i]);
+            } else if (args[i].equals("--seguimiento") && i + 1 < args.length) {
+                tracking = TrackingPolicy.parse(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        args = positional.toArray(new String[0]);
+        if (args.length == 0) {
+            System.err.println("Uso: VideoProcessingEngine <video.mjpeg|video.raw|--synthetic N> [workers] [segmento] "
+                    + "[muestreo] [--exportar ARCHIVO] [--seguimiento X]");
+            System.exit(2);
+        }
+        int argIndex = 0;
+        VideoFile video;
+        if (args[0].equals("--synthetic")) {
+            video = new SyntheticVideo(1280, 720, 30, Long.parseLong(args[1]), 30);
+            argIndex = 2;
+        } else {
+            video = VideoFiles.open(Paths.get(args[0]));
+            argIndex = 1;
+        }
+        int workers = args.length > argIndex ? Integer.parseInt(args[argIndex]) : 0;
+        int segment = args.length > argIndex + 1 ? Integer.parseInt(args[argIndex + 1]) : 300;
+
+        VideoProcessingEngine engine = new VideoProcessingEngine(Detectors.fromSystemProperties(), workers, segment);
+        if (args.length > argIndex + 2) {
+            engine.setSampling(SamplingPolicy.parse(args[argIndex + 2]));
+        }
+        engine.setTracking(tracking);
+        long t0 = System.nanoTime();
+        if (exportPath != null) {
+            try (VideoFile v = video; DetectionExporter exporter = DetectionExporter.open(exportPath)) {
+                long exported = engine.export(v, (n, total) ->
+                        System.err.printf(Locale.ROOT, "\r%d/%d frames", n, total), exporter, args[0]);
+                double seconds = (System.nanoTime() - t0) / 1e9;
+                System.err.println();
+                System.out.printf(Locale.ROOT, "%d frames, %d detecciones exportadas a %s en %.2f s (%.1f fps)%n",
+                        v.getFrameCount(), exported, exportPath, seconds, v.getFrameCount() / seconds);
+            }
+            printTracking(engine, tracking);
+            return;
+        }
+        try (VideoFile v = video) {
+            FrameResultStore rows = engine.process(v, (n, total) ->
+                    System.err.printf(Locale.ROOT, "\r%d/%d frames", n, total));
+            double seconds = (System.nanoTime() - t0) / 1e9;
+            System.err.println();
+            System.out.printf(Locale.ROOT, "%d frames, %d filas en %.2f s (%.1f fps), %.1f%% saltados%n",
+                    v.getFrameCount(), rows.size(), seconds, v.getFrameCount() / seconds,
+                    engine.getSamplingStats().getSkipRatio() * 100);
+        }
+        printTracking(engine, tracking);
+    }
+
+    private static void printTracking(VideoProcessingEngine engine, TrackingPolicy tracking) {
+        if (tracking.isEnabled()) {
+            TrackingStats stats = engine.getTrackingStats();
+            System.out.printf(Locale.ROOT, "seguimiento %s: %d llamadas al detector, %d ahorradas (%.1f%%)%n",
+                    tracking, stats.getDetected(), stats.getSaved(), stats.getSavedRatio() * 100);
+        }
+    }
+}
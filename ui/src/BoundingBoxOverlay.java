@@ -0,0 +1,342 @@
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+
+/**
+ * Dibuja las cajas y etiquetas de las detecciones sobre una imagen o un video.
+ *
+ * <p>Hay dos caminos. {@link #draw(List, int, int)} pinta en un {@link Canvas}
+ * superpuesto a la imagen y sólo borra y redibuja la zona de las cajas que
+ * cambiaron desde la llamada anterior (más las que se solapan con ella): con
+ * la cámara quieta casi todas las cajas se repiten de un frame a otro.
+ * {@link #drawInto(Frame, List)} escribe las cajas en los píxeles del frame,
+ * que en video se suben a la GPU igualmente: cuesta lo que ocupan las cajas,
+ * sin llamadas al Canvas ni una segunda capa del tamaño de la imagen que
+ * componer. {@link #render(Frame, List)} usa el segundo siempre que el frame
+ * se puede modificar.</p>
+ *
+ * <p>Cada etiqueta ({@code "persona 93%"}) se rasteriza una sola vez y se
+ * guarda como imagen y como píxeles; luego dibujarla es copiar un bloque.
+ * Debe usarse desde el hilo de JavaFX.</p>
+ */
+public class BoundingBoxOverlay {
+    private static final int STROKE = 2;
+    private static final int LABEL_PADDING = 2;
+    private static final int MAX_LABELS = 512;
+    private static final Font FONT = Font.font("System", FontWeight.BOLD, 12);
+    private static final int[] PALETTE = {
+        0xFFE6194B, 0xFF3CB44B, 0xFF4363D8, 0xFFF58231, 0xFF911EB4,
+        0xFF008080, 0xFFF032E6, 0xFF9A6324, 0xFF800000, 0xFF000075,
+    };
+    private static final Color[] COLORS = new Color[PALETTE.length];
+
+    static {
+        for (int i = 0; i < PALETTE.length; i++) {
+            int c = PALETTE[i];
+            COLORS[i] = Color.rgb((c >> 16) & 0xFF, (c >> 8) & 0xFF, c & 0xFF);
+        }
+    }
+
+    private final Canvas canvas;
+    // Etiquetas rasterizadas por clase y porcentaje; las menos usadas salen primero
+    private final Map<String, Integer> classIds = new HashMap<>();
+    private final Map<Integer, LabelImage> labels = new LinkedHashMap<Integer, LabelImage>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, LabelImage> eldest) {
+            return size() > MAX_LABELS;
+        }
+    };
+    // Una fila del color de cada clase para rellenar con copias en bloque
+    private final int[][] colorRows = new int[PALETTE.length][];
+    private List<Box> drawn = new ArrayList<>();
+    private List<Detection> lastDetections = List.of();
+    private int lastSourceWidth;
+    private int lastSourceHeight;
+    private double drawnWidth;
+    private double drawnHeight;
+    private long redrawnBoxes;
+
+    /** @param canvas capa sobre la imagen, del mismo tamaño que la imagen en pantalla */
+    public BoundingBoxOverlay(Canvas canvas) {
+        this.canvas = canvas;
+    }
+
+    /**
+     * Dibuja en el frame si es modificable y, si no (frames de un
+     * {@link FrameSpool}), en el canvas. Llamar antes de mostrar el frame.
+     */
+    public void render(Frame frame, List<Detection> detections) {
+        if (frame.getPixels().isReadOnly()) {
+            draw(detections, frame.getWidth(), frame.getHeight());
+        } else {
+            if (!drawn.isEmpty()) {
+                clear();
+            }
+            drawInto(frame, detections);
+        }
+    }
+
+    /**
+     * Dibuja en el canvas detecciones en píxeles de una imagen de
+     * {@code sourceWidth}×{@code sourceHeight}, escaladas al tamaño del canvas.
+     */
+    public void draw(List<Detection> detections, int sourceWidth, int sourceHeight) {
+        lastDetections = detections;
+        lastSourceWidth = sourceWidth;
+        lastSourceHeight = sourceHeight;
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        double scaleX = width / sourceWidth;
+        double scaleY = height / sourceHeight;
+        List<Box> next = new ArrayList<>(detections.size());
+        for (Detection d : detections) {
+            next.add(box(d, scaleX, scaleY, (int) width, (int) height));
+        }
+        g.setLineWidth(STROKE);
+        if (width != drawnWidth || height != drawnHeight) {
+            g.clearRect(0, 0, width, height);
+            drawnWidth = width;
+            drawnHeight = height;
+            for (Box box : next) {
+                paint(g, box);
+            }
+            redrawnBoxes += next.size();
+            drawn = next;
+            return;
+        }
+
+        // Zonas sucias: las de las cajas que desaparecen o aparecen
+        Set<Box> before = new HashSet<>(drawn);
+        Set<Box> after = new HashSet<>(next);
+        List<Box> dirty = new ArrayList<>();
+        for (Box box : drawn) {
+            if (!after.contains(box)) {
+                dirty.add(box);
+            }
+        }
+        for (Box box : next) {
+            if (!before.contains(box)) {
+                dirty.add(box);
+            }
+        }
+        drawn = next;
+        if (dirty.isEmpty()) {
+            return;
+        }
+        for (Box region : dirty) {
+            g.clearRect(region.left, region.top, region.right - region.left, region.bottom - region.top);
+        }
+        // Con el recorte a las zonas sucias, redibujar en orden las cajas que las tocan
+        // deja cada píxel como un dibujo completo sin tocar el resto del canvas.
+        // clearRect va antes del recorte: con recorte no borra
+        g.save();
+        g.beginPath();
+        for (Box region : dirty) {
+            g.rect(region.left, region.top, region.right - region.left, region.bottom - region.top);
+        }
+        g.clip();
+        for (Box box : next) {
+            for (Box region : dirty) {
+                if (box.intersects(region)) {
+                    paint(g, box);
+                    redrawnBoxes++;
+                    break;
+                }
+            }
+        }
+        g.restore();
+    }
+
+    /** Vuelve a dibujar las últimas detecciones, p. ej. tras cambiar el tamaño del canvas. */
+    public void redraw() {
+        if (lastSourceWidth > 0) {
+            draw(lastDetections, lastSourceWidth, lastSourceHeight);
+        }
+    }
+
+    /** Borra el canvas. */
+    public void clear() {
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        drawn = new ArrayList<>();
+        lastDetections = List.of();
+        lastSourceWidth = 0;
+    }
+
+    /** Cajas redibujadas en el canvas desde el principio; con regiones sucias crece menos que cajas × frames. */
+    public long getRedrawnBoxes() {
+        return redrawnBoxes;
+    }
+
+    /** Escribe cajas y etiquetas en los píxeles BGRA del frame, en sus coordenadas. */
+    public void drawInto(Frame frame, List<Detection> detections) {
+        IntBuffer pixels = frame.getPixels().duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        int stride = frame.getStride() / Frame.BYTES_PER_PIXEL;
+        for (Detection d : detections) {
+            Box box = box(d, 1, 1, width, height);
+            int[] color = colorRow(box.color, width);
+            int right = box.x + box.w;
+            int bottom = box.y + box.h;
+            fill(pixels, stride, box.x, box.y, right, box.y + STROKE, color);
+            fill(pixels, stride, box.x, bottom - STROKE, right, bottom, color);
+            int argb = color[0];
+            for (int y = box.y + STROKE; y < bottom - STROKE; y++) {
+                int row = y * stride;
+                for (int i = 0; i < STROKE; i++) {
+                    pixels.put(row + box.x + i, argb);
+                    pixels.put(row + right - STROKE + i, argb);
+                }
+            }
+            LabelImage label = box.label;
+            int rows = Math.min(label.height, height - box.labelY);
+            int columns = Math.min(label.width, width - box.labelX);
+            for (int row = 0; row < rows; row++) {
+                pixels.put((box.labelY + row) * stride + box.labelX, label.argb, row * label.width, columns);
+            }
+        }
+    }
+
+    private int[] colorRow(int color, int width) {
+        int[] row = colorRows[color];
+        if (row == null || row.length < width) {
+            row = new int[width];
+            Arrays.fill(row, PALETTE[color]);
+            colorRows[color] = row;
+        }
+        return row;
+    }
+
+    private static void fill(IntBuffer pixels, int stride, int x0, int y0, int x1, int y1, int[] color) {
+        for (int y = y0; y < y1; y++) {
+            pixels.put(y * stride + x0, color, 0, x1 - x0);
+        }
+    }
+
+    private void paint(GraphicsContext g, Box box) {
+        g.setStroke(COLORS[box.color]);
+        // Trazo dentro de la caja y alineado a píxeles: redibujarlo no cambia los bordes
+        g.strokeRect(box.x + STROKE / 2.0, box.y + STROKE / 2.0, box.w - STROKE, box.h - STROKE);
+        g.drawImage(box.label.image, box.labelX, box.labelY);
+    }
+
+    /** Caja escalada y recortada a {@code width}×{@code height}, con su etiqueta encima o, si no cabe, dentro. */
+    private Box box(Detection d, double scaleX, double scaleY, int width, int height) {
+        Box box = new Box();
+        box.x = clamp((int) Math.round(d.getX() * scaleX), 0, width - STROKE * 2);
+        box.y = clamp((int) Math.round(d.getY() * scaleY), 0, height - STROKE * 2);
+        box.w = clamp((int) Math.round(d.getWidth() * scaleX), STROKE * 2, width - box.x);
+        box.h = clamp((int) Math.round(d.getHeight() * scaleY), STROKE * 2, height - box.y);
+        box.color = Math.floorMod(d.getLabel().hashCode(), PALETTE.length);
+        box.label = label(d.getLabel(), d.getConfidence(), box.color);
+        box.labelX = Math.max(0, Math.min(box.x, width - box.label.width));
+        box.labelY = box.y >= box.label.height ? box.y - box.label.height : box.y;
+        box.left = Math.min(box.x, box.labelX);
+        box.top = Math.min(box.y, box.labelY);
+        box.right = Math.max(box.x + box.w, box.labelX + box.label.width);
+        box.bottom = Math.max(box.y + box.h, box.labelY + box.label.height);
+        return box;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private LabelImage label(String name, float confidence, int color) {
+        int percent = clamp(Math.round(confidence * 100), 0, 100);
+        Integer classId = classIds.get(name);
+        if (classId == null) {
+            classId = classIds.size();
+            classIds.put(name, classId);
+        }
+        Integer key = classId * 101 + percent;
+        LabelImage label = labels.get(key);
+        if (label == null) {
+            label = new LabelImage(name + " " + percent + "%", COLORS[color]);
+            labels.put(key, label);
+        }
+        return label;
+    }
+
+    /** Etiqueta rasterizada: fondo del color de la clase y texto blanco, opaca. */
+    private static final class LabelImage {
+        final int width;
+        final int height;
+        final WritableImage image;
+        final int[] argb;
+
+        LabelImage(String text, Color background) {
+            Text measure = new Text(text);
+            measure.setFont(FONT);
+            width = (int) Math.ceil(measure.getLayoutBounds().getWidth()) + 2 * LABEL_PADDING;
+            height = (int) Math.ceil(measure.getLayoutBounds().getHeight()) + 2 * LABEL_PADDING;
+            Canvas scratch = new Canvas(width, height);
+            GraphicsContext g = scratch.getGraphicsContext2D();
+            g.setFill(background);
+            g.fillRect(0, 0, width, height);
+            g.setFill(Color.WHITE);
+            g.setFont(FONT);
+            g.setTextBaseline(VPos.TOP);
+            g.fillText(text, LABEL_PADDING, LABEL_PADDING);
+            SnapshotParameters params = new SnapshotParameters();
+            params.setFill(background);
+            image = scratch.snapshot(params, null);
+            argb = new int[width * height];
+            image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), argb, 0, width);
+        }
+    }
+
+    /** Caja en coordenadas de destino; dos cajas son iguales si se dibujan igual. */
+    private static final class Box {
+        int x;
+        int y;
+        int w;
+        int h;
+        int color;
+        LabelImage label;
+        int labelX;
+        int labelY;
+        int left;
+        int top;
+        int right;
+        int bottom;
+
+        boolean intersects(Box other) {
+            return left < other.right && other.left < right && top < other.bottom && other.top < bottom;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Box)) {
+                return false;
+            }
+            Box b = (Box) o;
+            return x == b.x && y == b.y && w == b.w && h == b.h && color == b.color && label == b.label
+                    && labelX == b.labelX && labelY == b.labelY;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((x * 31 + y) * 31 + w) * 31 + h + 17 * label.hashCode();
+        }
+    }
+}
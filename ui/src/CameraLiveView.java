@@ -0,0 +1,312 @@
+import java.io.IOException;
+import java.util.function.Function;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+/**
+ * Vista principal para previsualización de cámara web.
+ * Los frames llegan desde un {@link FramePipeline} (captura → inferencia →
+ * render) que corre fuera del hilo de JavaFX.
+ *
+ * <p>Sobre la vista previa se pueden dibujar regiones de interés
+ * ({@link RoiEditor}); se guardan para la fuente ({@link #setSourceName}),
+ * fuera del hilo de JavaFX ({@link RoiStorage}), y el pipeline sólo analiza
+ * lo que cae dentro.</p>
+ */
+public class CameraLiveView extends BorderPane {
+    private static final int INFERENCE_WORKERS = 2;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final Duration STATS_INTERVAL = Duration.millis(500);
+
+    private Button btnTurnOn;
+    private Button btnTurnOff;
+    private ToggleButton btnDrawRoi;
+    private Button btnClearRoi;
+
+    private ImageView videoPreview;
+    private Canvas overlayCanvas;
+    private BoundingBoxOverlay overlay;
+    private Canvas roiCanvas;
+    private RoiEditor roiEditor;
+    private RoiStorage roiStorage;
+
+    private Label lblClassDetected;
+    private Label lblConfidence;
+    private Label lblFps;
+    private Label lblRoi;
+
+    private int captureWidth = 1280;
+    private int captureHeight = 720;
+    private Function<FrameBufferPool, FrameSource> sourceFactory =
+            pool -> new SyntheticFrameSource(pool.getWidth(), pool.getHeight(), 30, -1, pool);
+    private Detector detector = Detectors.fromSystemProperties();
+    private DropPolicy dropPolicy = DropPolicy.DROP_OLDEST;
+    private SamplingPolicy sampling = SamplingPolicy.all();
+    private TrackingPolicy tracking = TrackingPolicy.fromSystemProperties();
+    private String sourceName = "camara";
+
+    private FramePipeline pipeline;
+    private PipelineMetrics.Reader metricsReader;
+    private FxFrameDisplay frameDisplay;
+    private Timeline statsTimer;
+    private MetricsExporter metricsExporter;
+
+    // Sólo el último frame analizado llega a pintarse, como mucho uno por pulso
+    private final UiUpdateCoalescer uiUpdates = new UiUpdateCoalescer();
+    private final UiUpdateCoalescer.Slot<AnalyzedFrame> frameUpdates =
+            uiUpdates.slot(this::paintFrame, result -> result.getFrame().release());
+
+    public CameraLiveView() {
+        initializeComponents();
+        layoutComponents();
+    }
+
+    private void initializeComponents() {
+        btnTurnOn = new Button("Encender cámara");
+        btnTurnOff = new Button("Apagar cámara");
+        btnDrawRoi = new ToggleButton("Dibujar ROI");
+        btnClearRoi = new Button("Borrar ROI");
+
+        videoPreview = new ImageView();
+        videoPreview.setPreserveRatio(true);
+        videoPreview.setFitWidth(960);
+        videoPreview.setFitHeight(540);
+
+        // Las cajas se escriben en el propio frame; el canvas sólo hace falta con frames de sólo lectura
+        overlayCanvas = new Canvas();
+        overlayCanvas.setMouseTransparent(true);
+        overlay = new BoundingBoxOverlay(overlayCanvas);
+        roiCanvas = new Canvas();
+        roiEditor = new RoiEditor(roiCanvas, this::onRoiChanged);
+        videoPreview.layoutBoundsProperty().addListener((obs, old, bounds) -> {
+            overlayCanvas.setWidth(bounds.getWidth());
+            overlayCanvas.setHeight(bounds.getHeight());
+            overlay.redraw();
+            roiCanvas.setWidth(bounds.getWidth());
+            roiCanvas.setHeight(bounds.getHeight());
+        });
+
+        lblClassDetected = new Label("Clase detectada:");
+        lblConfidence = new Label("Precisión:");
+        lblFps = new Label("FPS:");
+        lblRoi = new Label();
+        roiStorage = new RoiStorage(lblRoi::setText);
+        cargarRoi(sourceName);
+
+        btnTurnOn.setOnAction(e -> encenderCamara());
+        btnTurnOff.setOnAction(e -> apagarCamara());
+        btnTurnOff.setDisable(true);
+        btnDrawRoi.setOnAction(e -> roiEditor.setEditing(btnDrawRoi.isSelected()));
+        btnClearRoi.setOnAction(e -> roiEditor.clear());
+    }
+
+    private void layoutComponents() {
+        HBox topBar = new HBox(10, btnTurnOn, btnTurnOff, btnDrawRoi, btnClearRoi);
+        topBar.setPadding(new Insets(10));
+        topBar.getStyleClass().add("top-bar");
+
+        btnTurnOn.getStyleClass().add("primary-button");
+        btnTurnOff.getStyleClass().add("secondary-button");
+        btnDrawRoi.getStyleClass().add("secondary-button");
+        btnClearRoi.getStyleClass().add("secondary-button");
+
+        // Contenedor grande para simular la previsualización del video
+        StackPane previewContainer = new StackPane(videoPreview, overlayCanvas, roiCanvas);
+        previewContainer.getStyleClass().add("preview");
+        previewContainer.setPadding(new Insets(8));
+
+        HBox bottomBar = new HBox(20, lblClassDetected, lblConfidence, lblFps, lblRoi);
+        bottomBar.setPadding(new Insets(10));
+        lblClassDetected.getStyleClass().add("info-label");
+        lblConfidence.getStyleClass().add("info-label");
+        lblFps.getStyleClass().add("info-label");
+        lblRoi.getStyleClass().add("info-label");
+
+        VBox centerBox = new VBox(8, previewContainer);
+        VBox.setVgrow(previewContainer, Priority.ALWAYS);
+        centerBox.setPadding(new Insets(8));
+
+        // Encapsular contenido en tarjeta para contraste
+        VBox card = new VBox(centerBox);
+        card.setPadding(new Insets(6));
+        card.getStyleClass().add("card-container");
+
+        this.setTop(topBar);
+        this.setCenter(card);
+        this.setBottom(bottomBar);
+        this.setPadding(new Insets(6));
+        this.getStyleClass().add("app-root");
+    }
+
+    /**
+     * Fuente de frames a usar al encender la cámara. Recibe un pool ya
+     * dimensionado a la resolución de captura del que debe tomar sus buffers.
+     */
+    public void setFrameSourceFactory(Function<FrameBufferPool, FrameSource> sourceFactory) {
+        this.sourceFactory = sourceFactory;
+    }
+
+    /** Nombre de la fuente con el que se guardan sus regiones de interés (por defecto "camara"). */
+    public void setSourceName(String sourceName) {
+        this.sourceName = sourceName;
+        cargarRoi(sourceName);
+    }
+
+    private void cargarRoi(String source) {
+        lblRoi.setText("");
+        roiStorage.load(source, mask -> {
+            // Una fuente elegida después ya pidió su propia máscara
+            if (!source.equals(sourceName)) {
+                return;
+            }
+            roiEditor.setMask(mask);
+            if (pipeline != null) {
+                pipeline.setRoi(mask);
+            }
+        });
+    }
+
+    private void onRoiChanged(RoiMask mask) {
+        if (pipeline != null) {
+            pipeline.setRoi(mask);
+        }
+        lblRoi.setText("");
+        roiStorage.save(sourceName, mask);
+    }
+
+    public void setCaptureSize(int width, int height) {
+        this.captureWidth = width;
+        this.captureHeight = height;
+    }
+
+    /** Backend de inferencia ejecutado por los workers del pipeline. */
+    public void setDetector(Detector detector) {
+        this.detector = detector;
+    }
+
+    public void setDropPolicy(DropPolicy dropPolicy) {
+        this.dropPolicy = dropPolicy;
+    }
+
+    /** Muestreo previo al detector; los frames saltados se muestran igualmente. */
+    public void setSampling(SamplingPolicy sampling) {
+        this.sampling = sampling;
+    }
+
+    /**
+     * Seguimiento de objetos entre detecciones; por defecto el de la propiedad
+     * {@code seguimiento}. Con seguimiento la clase detectada lleva el id del objeto.
+     */
+    public void setTracking(TrackingPolicy tracking) {
+        this.tracking = tracking;
+    }
+
+    /** Actualizaciones de la vista aplicadas, descartadas y agrupadas. */
+    public UiUpdateCoalescer getUiUpdates() {
+        return uiUpdates;
+    }
+
+    public void encenderCamara() {
+        if (pipeline != null) {
+            return;
+        }
+        FrameBufferPool pool = new FrameBufferPool(captureWidth, captureHeight,
+                FramePipeline.requiredPoolSize(INFERENCE_WORKERS, QUEUE_CAPACITY));
+        pipeline = new FramePipeline(sourceFactory.apply(pool), detector, this::onFrameAnalyzed,
+                INFERENCE_WORKERS, QUEUE_CAPACITY, dropPolicy);
+        pipeline.setSampling(sampling);
+        pipeline.setTracking(tracking);
+        pipeline.setRoi(roiEditor.getMask());
+        metricsReader = pipeline.getMetrics().newReader();
+        frameDisplay = new FxFrameDisplay(videoPreview);
+        uiUpdates.start();
+        pipeline.start();
+        statsTimer = new Timeline(new KeyFrame(STATS_INTERVAL, e -> actualizarEstadisticas()));
+        statsTimer.setCycleCount(Animation.INDEFINITE);
+        statsTimer.play();
+        try {
+            metricsExporter = MetricsExporter.fromSystemProperties(pipeline.getMetrics());
+        } catch (IOException e) {
+            System.err.println("No se pudo iniciar la exportación de métricas: " + e.getMessage());
+        }
+        btnTurnOn.setDisable(true);
+        btnTurnOff.setDisable(false);
+    }
+
+    public void apagarCamara() {
+        if (pipeline == null) {
+            return;
+        }
+        statsTimer.stop();
+        statsTimer = null;
+        if (metricsExporter != null) {
+            metricsExporter.close();
+            metricsExporter = null;
+        }
+        pipeline.stop();
+        pipeline = null;
+        metricsReader = null;
+        uiUpdates.clear();
+        uiUpdates.stop();
+        frameDisplay.clear();
+        frameDisplay = null;
+        overlay.clear();
+        lblFps.setText("FPS:");
+        btnTurnOn.setDisable(false);
+        btnTurnOff.setDisable(true);
+    }
+
+    /** Muestra los FPS entregados y la latencia extremo a extremo; se llama cada {@link #STATS_INTERVAL}. */
+    public void actualizarEstadisticas() {
+        if (pipeline == null) {
+            return;
+        }
+        PipelineMetrics.Snapshot snapshot = metricsReader.snapshot();
+        PipelineMetrics.StageSnapshot render = snapshot.get(PipelineMetrics.Stage.RENDER);
+        PipelineMetrics.StageSnapshot latency = snapshot.get(PipelineMetrics.Stage.END_TO_END);
+        String text = String.format("FPS: %.1f | latencia p50 %.0f ms, p95 %.0f ms, p99 %.0f ms",
+                render.getThroughput(), latency.getP50Millis(), latency.getP95Millis(), latency.getP99Millis());
+        if (tracking.isEnabled()) {
+            text += String.format(" | detector ahorrado %.0f%%", pipeline.getTrackingStats().getSavedRatio() * 100);
+        }
+        RoiMask roi = pipeline.getRoi();
+        if (!roi.isEmpty()) {
+            text += String.format(" | ROI %.0f%% del frame",
+                    roi.bitmap(captureWidth, captureHeight).getCoverage() * 100);
+        }
+        lblFps.setText(text);
+    }
+
+    // Llamado desde el hilo de render del pipeline
+    private void onFrameAnalyzed(AnalyzedFrame result) {
+        frameUpdates.post(result);
+    }
+
+    private void paintFrame(AnalyzedFrame result) {
+        if (frameDisplay == null) {
+            result.getFrame().release();
+            return;
+        }
+        overlay.render(result.getFrame(), result.getDetections());
+        frameDisplay.show(result.getFrame());
+
+        Detection best = result.getBest();
+        String track = best instanceof TrackedDetection ? " #" + ((TrackedDetection) best).getTrackId() : "";
+        lblClassDetected.setText("Clase detectada: " + (best != null ? best.getLabel() + track : "-"));
+        lblConfidence.setText("Precisión: " + (best != null ? String.format("%.2f", best.getConfidence()) : "-"));
+    }
+}
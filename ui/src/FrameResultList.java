@@ -0,0 +1,49 @@
+import javafx.collections.ObservableListBase;
+
+/**
+ * Vista de sólo lectura de un {@link FrameResultStore} para un {@code TableView}.
+ *
+ * <p>Los elementos son los números de fila; las columnas de la tabla
+ * formatean sus celdas a partir del almacén, así que sólo se crean textos
+ * para las filas visibles. Tras añadir filas al almacén hay que llamar a
+ * {@link #refresh()} desde el hilo de JavaFX para que la tabla las vea.</p>
+ */
+public class FrameResultList extends ObservableListBase<Integer> {
+    private final FrameResultStore store;
+    private int visibleSize;
+
+    public FrameResultList(FrameResultStore store) {
+        this.store = store;
+        this.visibleSize = store.size();
+    }
+
+    @Override
+    public Integer get(int index) {
+        if (index < 0 || index >= visibleSize) {
+            throw new IndexOutOfBoundsException("Fila " + index + " de " + visibleSize);
+        }
+        return index;
+    }
+
+    @Override
+    public int size() {
+        return visibleSize;
+    }
+
+    /** Publica a la tabla las filas añadidas desde la última llamada. */
+    public void refresh() {
+        int from = visibleSize;
+        int to = store.size();
+        if (to == from) {
+            return;
+        }
+        visibleSize = to;
+        beginChange();
+        nextAdd(from, to);
+        endChange();
+    }
+
+    public FrameResultStore getStore() {
+        return store;
+    }
+}
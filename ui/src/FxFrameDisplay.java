@@ -0,0 +1,77 @@
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Muestra {@link Frame}s en un {@link ImageView} sin copiar píxeles.
+ *
+ * <p>Para frames de un {@link FrameBufferPool} se crea, una sola vez por
+ * buffer, un {@link WritableImage} respaldado por un {@link PixelBuffer}
+ * que apunta al mismo {@link ByteBuffer} directo. Mostrar un frame es sólo
+ * marcarlo como sucio y cambiar la imagen del ImageView. Los frames sin
+ * pool se copian en una imagen reutilizable.</p>
+ *
+ * <p>Debe usarse desde el hilo de JavaFX. {@link #show(Frame)} toma
+ * posesión del frame y lo libera cuando ya no puede estar en pantalla.</p>
+ */
+public class FxFrameDisplay {
+    private final ImageView view;
+    private final Map<ByteBuffer, PixelBuffer<ByteBuffer>> pixelBuffers = new IdentityHashMap<>();
+    private final Map<PixelBuffer<ByteBuffer>, WritableImage> images = new IdentityHashMap<>();
+
+    private WritableImage copyImage;
+    private Frame displayed;
+    // El frame anterior puede seguir en uso por el render de Prism hasta el siguiente pulso
+    private Frame previous;
+
+    public FxFrameDisplay(ImageView view) {
+        this.view = view;
+    }
+
+    public void show(Frame frame) {
+        if (frame.isPooled()) {
+            PixelBuffer<ByteBuffer> pixelBuffer = pixelBuffers.get(frame.getPixels());
+            if (pixelBuffer == null) {
+                pixelBuffer = new PixelBuffer<>(frame.getWidth(), frame.getHeight(), frame.getPixels(),
+                        PixelFormat.getByteBgraPreInstance());
+                pixelBuffers.put(frame.getPixels(), pixelBuffer);
+                images.put(pixelBuffer, new WritableImage(pixelBuffer));
+            }
+            pixelBuffer.updateBuffer(pb -> null);
+            view.setImage(images.get(pixelBuffer));
+        } else {
+            if (copyImage == null || (int) copyImage.getWidth() != frame.getWidth()
+                    || (int) copyImage.getHeight() != frame.getHeight()) {
+                copyImage = new WritableImage(frame.getWidth(), frame.getHeight());
+            }
+            copyImage.getPixelWriter().setPixels(0, 0, frame.getWidth(), frame.getHeight(),
+                    PixelFormat.getByteBgraPreInstance(), frame.getPixels(), frame.getStride());
+            view.setImage(copyImage);
+        }
+        if (previous != null) {
+            previous.release();
+        }
+        previous = displayed;
+        displayed = frame;
+    }
+
+    /** Quita la imagen y libera los frames retenidos. */
+    public void clear() {
+        view.setImage(null);
+        if (previous != null) {
+            previous.release();
+            previous = null;
+        }
+        if (displayed != null) {
+            displayed.release();
+            displayed = null;
+        }
+        pixelBuffers.clear();
+        images.clear();
+    }
+}
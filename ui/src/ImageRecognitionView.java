@@ -0,0 +1,248 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.imageio.ImageIO;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+
+/**
+ * Interfaz visual para carga y visualización de imágenes.
+ * La lectura de la imagen y la detección son asíncronas: el hilo de JavaFX
+ * nunca espera al disco ni al {@link Detector}. Las regiones de interés
+ * dibujadas sobre la imagen se guardan por nombre de archivo
+ * ({@link RoiStorage}) y limitan la detección a lo que cae dentro.
+ */
+public class ImageRecognitionView extends BorderPane {
+    private Button btnLoadImage;
+    private Button btnSendToApi;
+    private ToggleButton btnDrawRoi;
+    private Button btnClearRoi;
+    private ImageView imageView;
+    private Label lblClassDetected;
+    private Label lblConfidence;
+    private Label lblRoi;
+    private FxFrameDisplay imageDisplay;
+    private Canvas boundingCanvas;
+    private BoundingBoxOverlay overlay;
+    private Canvas roiCanvas;
+    private RoiEditor roiEditor;
+    private RoiStorage roiStorage;
+
+    private Detector detector = Detectors.fromSystemProperties();
+    private Frame loadedFrame;
+    private String sourceName;
+    private File requestedFile;
+
+    public ImageRecognitionView() {
+        initializeComponents();
+        layoutComponents();
+    }
+
+    private void initializeComponents() {
+        btnLoadImage = new Button("Cargar imagen");
+        btnSendToApi = new Button("Enviar a API");
+        btnDrawRoi = new ToggleButton("Dibujar ROI");
+        btnClearRoi = new Button("Borrar ROI");
+
+        imageView = new ImageView();
+        imageView.setPreserveRatio(true);
+        imageView.setFitWidth(700);
+        imageView.setFitHeight(450);
+
+        lblClassDetected = new Label("Clase detectada:");
+        lblConfidence = new Label("Precisión:");
+        lblRoi = new Label();
+        imageDisplay = new FxFrameDisplay(imageView);
+
+        // Cajas de la última detección, del tamaño de la imagen tal como se ve
+        boundingCanvas = new Canvas(700, 450);
+        boundingCanvas.setMouseTransparent(true);
+        overlay = new BoundingBoxOverlay(boundingCanvas);
+        roiCanvas = new Canvas(700, 450);
+        roiEditor = new RoiEditor(roiCanvas, this::onRoiChanged);
+        roiStorage = new RoiStorage(lblRoi::setText);
+        imageView.layoutBoundsProperty().addListener((obs, old, bounds) -> {
+            boundingCanvas.setWidth(bounds.getWidth());
+            boundingCanvas.setHeight(bounds.getHeight());
+            overlay.redraw();
+            roiCanvas.setWidth(bounds.getWidth());
+            roiCanvas.setHeight(bounds.getHeight());
+        });
+
+        btnLoadImage.setOnAction(e -> cargarImagen());
+        btnSendToApi.setOnAction(e -> enviarAApi());
+        btnSendToApi.setDisable(true);
+        btnDrawRoi.setOnAction(e -> roiEditor.setEditing(btnDrawRoi.isSelected()));
+        btnClearRoi.setOnAction(e -> roiEditor.clear());
+        btnDrawRoi.setDisable(true);
+        btnClearRoi.setDisable(true);
+    }
+
+    private void layoutComponents() {
+        HBox topBar = new HBox(10, btnLoadImage, btnSendToApi, btnDrawRoi, btnClearRoi);
+        topBar.setPadding(new Insets(10));
+        topBar.getStyleClass().add("top-bar");
+
+        btnLoadImage.getStyleClass().add("primary-button");
+        btnSendToApi.getStyleClass().add("secondary-button");
+        btnDrawRoi.getStyleClass().add("secondary-button");
+        btnClearRoi.getStyleClass().add("secondary-button");
+
+        VBox rightBox = new VBox(8, lblClassDetected, lblConfidence, lblRoi);
+        rightBox.setPadding(new Insets(10));
+        rightBox.setPrefWidth(220);
+        rightBox.getStyleClass().add("side-panel");
+
+        lblClassDetected.getStyleClass().add("info-label");
+        lblConfidence.getStyleClass().add("info-label");
+        lblRoi.getStyleClass().add("info-label");
+        lblRoi.setWrapText(true);
+
+        // ImageView y Canvas superpuestos
+        StackPane imageStack = new StackPane(imageView, boundingCanvas, roiCanvas);
+        imageStack.getStyleClass().add("preview");
+        ScrollPane centerScroll = new ScrollPane(imageStack);
+        centerScroll.setFitToWidth(true);
+        centerScroll.setFitToHeight(true);
+
+        // Combinar centro y panel lateral dentro de una tarjeta para mejor legibilidad
+        HBox centerCombined = new HBox(12, centerScroll, rightBox);
+        centerCombined.setPadding(new Insets(8));
+        centerCombined.getStyleClass().add("card-container");
+
+        this.setTop(topBar);
+        this.setCenter(centerCombined);
+        this.setPadding(new Insets(8));
+        this.getStyleClass().add("app-root");
+    }
+
+    /** Backend usado al pulsar "Enviar a API" (remoto por defecto, ver {@link Detectors}). */
+    public void setDetector(Detector detector) {
+        this.detector = detector;
+    }
+
+    public void cargarImagen() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Cargar imagen");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Imágenes", "*.jpg", "*.jpeg", "*.png"));
+        File file = chooser.showOpenDialog(getScene() != null ? getScene().getWindow() : null);
+        if (file == null) {
+            return;
+        }
+        requestedFile = file;
+        lblClassDetected.setText("Clase detectada: cargando...");
+        // Se decodifica una sola vez, fuera del hilo de JavaFX; la vista muestra el mismo frame que se envía
+        CompletableFuture.supplyAsync(() -> leerImagen(file), ForkJoinPool.commonPool())
+                .whenComplete((frame, error) -> Platform.runLater(() -> mostrarImagen(file, frame, error)));
+    }
+
+    private static Frame leerImagen(File file) {
+        BufferedImage decoded;
+        try {
+            decoded = ImageIO.read(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (decoded == null) {
+            throw new UncheckedIOException(new IOException("formato no soportado"));
+        }
+        return FrameConverter.fromImage(decoded, 0, System.nanoTime());
+    }
+
+    private void mostrarImagen(File file, Frame frame, Throwable error) {
+        // Si se eligió otra imagen mientras tanto, ésta ya no interesa
+        if (file != requestedFile) {
+            return;
+        }
+        if (error != null) {
+            lblClassDetected.setText("Error: no se pudo leer la imagen");
+            return;
+        }
+        loadedFrame = frame;
+        String source = file.getName();
+        sourceName = source;
+        btnDrawRoi.setDisable(true);
+        btnClearRoi.setDisable(true);
+        roiEditor.setMask(RoiMask.empty());
+        lblRoi.setText("");
+        roiStorage.load(source, roi -> {
+            if (!source.equals(sourceName)) {
+                return;
+            }
+            roiEditor.setMask(roi);
+            btnDrawRoi.setDisable(false);
+            btnClearRoi.setDisable(false);
+        });
+        overlay.clear();
+        imageDisplay.show(frame);
+        lblClassDetected.setText("Clase detectada:");
+        lblConfidence.setText("Precisión:");
+        btnSendToApi.setDisable(false);
+    }
+
+    public void enviarAApi() {
+        if (loadedFrame == null) {
+            return;
+        }
+        Frame frame = loadedFrame;
+        btnSendToApi.setDisable(true);
+        lblClassDetected.setText("Clase detectada: enviando...");
+        // La reducción, el JPEG y la espera de la respuesta ocurren fuera del hilo de JavaFX
+        RoiMask roi = roiEditor.getMask();
+        CompletableFuture<List<Detection>> result = roi.isEmpty()
+                ? detector.detectAsync(frame, ForkJoinPool.commonPool())
+                : CompletableFuture.supplyAsync(() -> detector.detect(frame,
+                        roi.bitmap(frame.getWidth(), frame.getHeight())), ForkJoinPool.commonPool());
+        result.whenComplete((detections, error) -> Platform.runLater(() -> mostrarResultado(frame, detections, error)));
+    }
+
+    private void onRoiChanged(RoiMask mask) {
+        if (sourceName == null) {
+            return;
+        }
+        lblRoi.setText("");
+        roiStorage.save(sourceName, mask);
+    }
+
+    private void mostrarResultado(Frame frame, List<Detection> detections, Throwable error) {
+        // Si se cargó otra imagen mientras tanto, el resultado ya no corresponde a la que se ve
+        if (frame != loadedFrame) {
+            return;
+        }
+        btnSendToApi.setDisable(false);
+        if (error != null) {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            lblClassDetected.setText("Error: " + cause.getMessage());
+            lblConfidence.setText("Precisión:");
+            return;
+        }
+        overlay.draw(detections, frame.getWidth(), frame.getHeight());
+        Detection best = null;
+        for (Detection d : detections) {
+            if (best == null || d.getConfidence() > best.getConfidence()) {
+                best = d;
+            }
+        }
+        lblClassDetected.setText("Clase detectada: " + (best != null
+                ? best.getLabel() + " (" + detections.size() + ")" : "-"));
+        lblConfidence.setText("Precisión: " + (best != null ? String.format("%.2f", best.getConfidence()) : "-"));
+    }
+}
@@ -18,6 +18,8 @@ import javafx.stage.Stage;
  * No contiene lógica de procesamiento, sólo navegación entre escenas.
  */
 public class Main extends Application {
+    private static final String STYLESHEET = Main.class.getResource("styles.css").toExternalForm();
+
     private Stage primaryStage;
     private Scene welcomeScene;
 
@@ -41,25 +43,31 @@ public class Main extends Application {
         Button btnImage = new Button("Abrir Image Recognition");
         Button btnVideo = new Button("Abrir Video Processing");
         Button btnCamera = new Button("Abrir Camera Live");
+        Button btnMultiCamera = new Button("Abrir Multi Camera");
 
         btnImage.setPrefWidth(260);
         btnVideo.setPrefWidth(260);
         btnCamera.setPrefWidth(260);
+        btnMultiCamera.setPrefWidth(260);
 
         btnImage.getStyleClass().add("primary-button");
         btnVideo.getStyleClass().add("secondary-button");
         btnCamera.getStyleClass().add("secondary-button");
         // Aplicar estilo moderno y más visible al botón de Camera Live
         btnCamera.getStyleClass().add("card-button");
+        btnMultiCamera.getStyleClass().addAll("secondary-button", "card-button");
 
         btnImage.setOnAction(e -> openImageRecognitionView());
         btnVideo.setOnAction(e -> openVideoProcessingView());
         btnCamera.setOnAction(e -> openCameraLiveView());
+        btnMultiCamera.setOnAction(e -> openMultiCameraView());
 
         HBox buttonsRow = new HBox(12, btnImage, btnVideo, btnCamera);
         buttonsRow.setAlignment(Pos.CENTER);
+        HBox secondRow = new HBox(12, btnMultiCamera);
+        secondRow.setAlignment(Pos.CENTER);
 
-        VBox card = new VBox(14, buttonsRow);
+        VBox card = new VBox(14, buttonsRow, secondRow);
         card.getStyleClass().add("card-container");
 
         VBox content = new VBox(20, title, card);
@@ -88,8 +96,8 @@ public class Main extends Application {
         StackPane.setAlignment(btnCredits, Pos.TOP_RIGHT);
         StackPane.setMargin(btnCredits, new Insets(16));
 
-        // Cargar hoja de estilos localizada en el proyecto (desarrollo)
-        welcomeScene.getStylesheets().add("file:src/styles.css");
+        // Hoja de estilos empaquetada junto a las clases
+        welcomeScene.getStylesheets().add(STYLESHEET);
     }
 
     private void openImageRecognitionView() {
@@ -107,14 +115,17 @@ public class Main extends Application {
         VBox container = new VBox(top, view);
         container.getStyleClass().add("app-root");
         Scene scene = new Scene(container, 1000, 700);
-        scene.getStylesheets().add("file:src/styles.css");
+        scene.getStylesheets().add(STYLESHEET);
         primaryStage.setScene(scene);
     }
 
     private void openVideoProcessingView() {
         VideoProcessingView view = new VideoProcessingView();
         Button btnBack = new Button("Volver");
-        btnBack.setOnAction(e -> primaryStage.setScene(welcomeScene));
+        btnBack.setOnAction(e -> {
+            view.cancelarProcesamiento();
+            primaryStage.setScene(welcomeScene);
+        });
         btnBack.getStyleClass().add("secondary-button");
 
         HBox top = new HBox(btnBack);
@@ -124,14 +135,17 @@ public class Main extends Application {
         VBox container = new VBox(top, view);
         container.getStyleClass().add("app-root");
         Scene scene = new Scene(container, 1000, 700);
-        scene.getStylesheets().add("file:src/styles.css");
+        scene.getStylesheets().add(STYLESHEET);
         primaryStage.setScene(scene);
     }
 
     private void openCameraLiveView() {
         CameraLiveView view = new CameraLiveView();
         Button btnBack = new Button("Volver");
-        btnBack.setOnAction(e -> primaryStage.setScene(welcomeScene));
+        btnBack.setOnAction(e -> {
+            view.apagarCamara();
+            primaryStage.setScene(welcomeScene);
+        });
         btnBack.getStyleClass().add("secondary-button");
 
         HBox top = new HBox(btnBack);
@@ -141,10 +155,62 @@ public class Main extends Application {
         VBox container = new VBox(top, view);
         container.getStyleClass().add("app-root");
         Scene scene = new Scene(container, 1000, 700);
-        scene.getStylesheets().add("file:src/styles.css");
+        scene.getStylesheets().add(STYLESHEET);
         primaryStage.setScene(scene);
     }
 
+    private void openMultiCameraView() {
+        MultiCameraView view = new MultiCameraView();
+        Button btnBack = new Button("Volver");
+        btnBack.setOnAction(e -> {
+            view.detener();
+            primaryStage.setScene(welcomeScene);
+        });
+        btnBack.getStyleClass().add("secondary-button");
+
+        HBox top = new HBox(btnBack);
+        top.setPadding(new Insets(8));
+        top.getStyleClass().add("top-bar");
+
+        VBox container = new VBox(top, view);
+        container.getStyleClass().add("app-root");
+        Scene scene = new Scene(container, 1000, 700);
+        scene.getStylesheets().add(STYLESHEET);
+        primaryStage.setScene(scene);
+    }
+
+    private void showCreditsModal() {
+        Label title = new Label("Créditos");
+        title.setFont(Font.font(22));
+        title.getStyleClass().add("title-welcome");
+
+        Label body = new Label("Aplicación de Monitoreo Visual con Detección por Frames\n\n"
+                + "Interfaz: JavaFX\n"
+                + "Detección: SSD MobileNet v2 (COCO) con OpenCV DNN, servida por la API Flask\n"
+                + "Detección local: detector de movimiento en Java");
+        body.setWrapText(true);
+        body.getStyleClass().add("info-label");
+
+        Stage dialog = new Stage();
+        dialog.initOwner(primaryStage);
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("Créditos");
+
+        Button btnClose = new Button("Cerrar");
+        btnClose.getStyleClass().add("primary-button");
+        btnClose.setOnAction(e -> dialog.close());
+
+        VBox content = new VBox(14, title, body, btnClose);
+        content.setAlignment(Pos.CENTER);
+        content.setPadding(new Insets(24));
+        content.getStyleClass().addAll("app-root", "card-container");
+
+        Scene scene = new Scene(content, 480, 300);
+        scene.getStylesheets().add(STYLESHEET);
+        dialog.setScene(scene);
+        dialog.showAndWait();
+    }
+
     // Métodos vacíos o de ayuda (si necesitas personalizar comportamiento)
     public void showWelcome() {
         primaryStage.setScene(welcomeScene);
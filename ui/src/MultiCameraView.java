@@ -0,0 +1,285 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Tooltip;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.TilePane;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+/**
+ * Vista de varias cámaras en cuadrícula.
+ * Todas las cámaras comparten los workers de un {@link MultiStreamMonitor};
+ * cada celda muestra su último frame y sus FPS. Un clic en una celda le da
+ * prioridad alta. Con {@code -Dregistro.directorio} las detecciones se guardan
+ * en un {@link DetectionLog}.
+ */
+public class MultiCameraView extends BorderPane {
+    private static final Duration STATS_INTERVAL = Duration.millis(500);
+    private static final double GRID_WIDTH = 960;
+    private static final int HIGH_PRIORITY = 3;
+
+    private ComboBox<Integer> cmbStreams;
+    private ComboBox<String> cmbBudget;
+    private Button btnStart;
+    private Button btnStop;
+    private TilePane grid;
+    private Label lblTotals;
+
+    private int captureWidth = 640;
+    private int captureHeight = 360;
+    private int workers = 0;
+    private BiFunction<Integer, FrameBufferPool, FrameSource> sourceFactory = (i, pool) -> {
+        SyntheticFrameSource source = new SyntheticFrameSource(pool.getWidth(), pool.getHeight(), 15, -1, pool);
+        // Cada cámara empieza en un punto distinto de la secuencia
+        source.startAt(i * 97L);
+        return source;
+    };
+    private Supplier<? extends Detector> detectors = Detectors::fromSystemProperties;
+
+    private MultiStreamMonitor monitor;
+    private PipelineMetrics.Reader metricsReader;
+    private DetectionLog detectionLog;
+    private final List<Tile> tiles = new ArrayList<>();
+    private Timeline statsTimer;
+    private final UiUpdateCoalescer uiUpdates = new UiUpdateCoalescer();
+
+    /** Una celda de la cuadrícula: imagen, rótulo y la cámara que muestra. */
+    private final class Tile {
+        final ImageView view = new ImageView();
+        final Label label = new Label();
+        final StackPane root;
+        final FxFrameDisplay display = new FxFrameDisplay(view);
+        final UiUpdateCoalescer.Slot<AnalyzedFrame> updates =
+                uiUpdates.slot(this::paint, result -> result.getFrame().release());
+        MultiStreamMonitor.CameraStream stream;
+        long lastRendered;
+        long lastAnalyzed;
+
+        Tile(double width) {
+            view.setPreserveRatio(true);
+            view.setFitWidth(width);
+            label.getStyleClass().add("info-label");
+            StackPane.setAlignment(label, Pos.BOTTOM_LEFT);
+            root = new StackPane(view, label);
+            root.getStyleClass().add("preview");
+            root.setPadding(new Insets(4));
+            Tooltip.install(root, new Tooltip("Clic para cambiar la prioridad"));
+            root.setOnMouseClicked(e -> togglePriority());
+        }
+
+        void paint(AnalyzedFrame result) {
+            if (monitor == null) {
+                result.getFrame().release();
+                return;
+            }
+            display.show(result.getFrame());
+        }
+
+        void togglePriority() {
+            if (stream != null) {
+                stream.setPriority(stream.getPriority() == 1 ? HIGH_PRIORITY : 1);
+                root.setOpacity(stream.getPriority() == 1 ? 1.0 : 0.85);
+            }
+        }
+
+        void updateStats(double seconds) {
+            long rendered = stream.getRendered();
+            long analyzed = stream.getAnalyzed();
+            LatencyHistogram.Snapshot latency = stream.getLatency().snapshot();
+            stream.getLatency().reset();
+            label.setText(String.format("%s%s | %.1f FPS | %.1f análisis/s | p95 %.0f ms",
+                    stream.getName(), stream.getPriority() > 1 ? " (prioridad)" : "",
+                    (rendered - lastRendered) / seconds, (analyzed - lastAnalyzed) / seconds,
+                    latency.getMillisAtQuantile(0.95)));
+            lastRendered = rendered;
+            lastAnalyzed = analyzed;
+        }
+    }
+
+    public MultiCameraView() {
+        initializeComponents();
+        layoutComponents();
+    }
+
+    private void initializeComponents() {
+        cmbStreams = new ComboBox<>();
+        cmbStreams.getItems().addAll(1, 2, 4, 9, 16, 32);
+        cmbStreams.setValue(4);
+        cmbBudget = new ComboBox<>();
+        cmbBudget.getItems().addAll("Sin límite", "15 por segundo", "5 por segundo", "1 por segundo");
+        cmbBudget.setValue("Sin límite");
+        cmbBudget.setOnAction(e -> aplicarPresupuesto());
+
+        btnStart = new Button("Iniciar");
+        btnStop = new Button("Detener");
+        btnStart.setOnAction(e -> iniciar());
+        btnStop.setOnAction(e -> detener());
+        btnStop.setDisable(true);
+
+        grid = new TilePane(6, 6);
+        grid.setPadding(new Insets(6));
+        lblTotals = new Label("Workers:");
+    }
+
+    private void layoutComponents() {
+        HBox topBar = new HBox(10, new Label("Cámaras:"), cmbStreams,
+                new Label("Análisis por cámara:"), cmbBudget, btnStart, btnStop);
+        topBar.setPadding(new Insets(10));
+        topBar.getStyleClass().add("top-bar");
+
+        btnStart.getStyleClass().add("primary-button");
+        btnStop.getStyleClass().add("secondary-button");
+
+        ScrollPane scroll = new ScrollPane(grid);
+        scroll.setFitToWidth(true);
+
+        VBox card = new VBox(scroll);
+        card.setPadding(new Insets(6));
+        card.getStyleClass().add("card-container");
+
+        HBox bottomBar = new HBox(20, lblTotals);
+        bottomBar.setPadding(new Insets(10));
+        lblTotals.getStyleClass().add("info-label");
+
+        this.setTop(topBar);
+        this.setCenter(card);
+        this.setBottom(bottomBar);
+        this.setPadding(new Insets(6));
+        this.getStyleClass().add("app-root");
+    }
+
+    /**
+     * Fuente de cada cámara. Recibe el número de cámara y un pool ya
+     * dimensionado a la resolución de captura del que debe tomar sus buffers.
+     */
+    public void setFrameSourceFactory(BiFunction<Integer, FrameBufferPool, FrameSource> sourceFactory) {
+        this.sourceFactory = sourceFactory;
+    }
+
+    public void setCaptureSize(int width, int height) {
+        this.captureWidth = width;
+        this.captureHeight = height;
+    }
+
+    /**
+     * Crea el backend de inferencia de cada cámara; cada una necesita el suyo
+     * porque el detector de movimiento guarda el fondo de su flujo.
+     */
+    public void setDetectors(Supplier<? extends Detector> detectors) {
+        this.detectors = detectors;
+    }
+
+    /** Hilos de detección compartidos; 0 para tantos como núcleos. */
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    /** Monitor en marcha, o {@code null} si está detenido. */
+    public MultiStreamMonitor getMonitor() {
+        return monitor;
+    }
+
+    public void iniciar() {
+        if (monitor != null) {
+            return;
+        }
+        int count = cmbStreams.getValue();
+        int columns = (int) Math.ceil(Math.sqrt(count));
+        double tileWidth = (GRID_WIDTH - 6 * (columns + 1)) / columns;
+        grid.setPrefColumns(columns);
+
+        monitor = new MultiStreamMonitor(detectors, workers);
+        metricsReader = monitor.getMetrics().newReader();
+        try {
+            detectionLog = DetectionLog.fromSystemProperties();
+            monitor.setDetectionLog(detectionLog);
+        } catch (IOException e) {
+            lblTotals.setText("Sin registro de detecciones: " + e.getMessage());
+        }
+        for (int i = 0; i < count; i++) {
+            Tile tile = new Tile(tileWidth);
+            FrameBufferPool pool = new FrameBufferPool(captureWidth, captureHeight,
+                    MultiStreamMonitor.requiredPoolSize());
+            tile.stream = monitor.addStream("Cámara " + (i + 1), sourceFactory.apply(i, pool), tile.updates::post);
+            tiles.add(tile);
+            grid.getChildren().add(tile.root);
+        }
+        aplicarPresupuesto();
+        uiUpdates.start();
+        monitor.start();
+        statsTimer = new Timeline(new KeyFrame(STATS_INTERVAL, e -> actualizarEstadisticas()));
+        statsTimer.setCycleCount(Animation.INDEFINITE);
+        statsTimer.play();
+        cmbStreams.setDisable(true);
+        btnStart.setDisable(true);
+        btnStop.setDisable(false);
+    }
+
+    public void detener() {
+        if (monitor == null) {
+            return;
+        }
+        statsTimer.stop();
+        statsTimer = null;
+        monitor.close();
+        monitor = null;
+        metricsReader = null;
+        if (detectionLog != null) {
+            try {
+                detectionLog.close();
+            } catch (IOException e) {
+                // Lo ya escrito queda en disco; el registro se recupera al abrirlo
+            }
+            detectionLog = null;
+        }
+        uiUpdates.clear();
+        uiUpdates.stop();
+        for (Tile tile : tiles) {
+            tile.display.clear();
+        }
+        tiles.clear();
+        grid.getChildren().clear();
+        lblTotals.setText("Workers:");
+        cmbStreams.setDisable(false);
+        btnStart.setDisable(false);
+        btnStop.setDisable(true);
+    }
+
+    private void aplicarPresupuesto() {
+        String budget = cmbBudget.getValue();
+        double perSecond = budget.startsWith("Sin") ? 0 : Double.parseDouble(budget.split(" ")[0]);
+        for (Tile tile : tiles) {
+            tile.stream.setMaxDetectionsPerSecond(perSecond);
+        }
+    }
+
+    private void actualizarEstadisticas() {
+        if (monitor == null) {
+            return;
+        }
+        double seconds = STATS_INTERVAL.toSeconds();
+        for (Tile tile : tiles) {
+            tile.updateStats(seconds);
+        }
+        PipelineMetrics.Snapshot snapshot = metricsReader.snapshot();
+        PipelineMetrics.StageSnapshot inference = snapshot.get(PipelineMetrics.Stage.INFERENCE);
+        lblTotals.setText(String.format("Workers: %d | %.1f análisis/s en total | inferencia p95 %.0f ms",
+                monitor.getWorkers(), inference.getThroughput(), inference.getP95Millis()));
+    }
+}
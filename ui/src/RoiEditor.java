@@ -0,0 +1,161 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+
+/**
+ * Dibuja y edita las regiones de interés sobre un canvas superpuesto a la
+ * imagen (del mismo tamaño que la imagen tal como se ve).
+ *
+ * <p>En modo edición cada clic añade un vértice; un doble clic o un clic
+ * junto al primer vértice cierra el polígono y el clic derecho descarta el
+ * que se está dibujando. Los polígonos se guardan en coordenadas relativas,
+ * así que no dependen del tamaño de la vista. Fuera del modo edición el
+ * canvas deja pasar el ratón y sólo muestra las regiones.</p>
+ */
+public class RoiEditor {
+    private static final double CLOSE_DISTANCE = 10;
+    private static final Color FILL = Color.rgb(0, 200, 120, 0.15);
+    private static final Color STROKE = Color.rgb(0, 200, 120);
+    private static final Color DRAFT = Color.rgb(255, 200, 0);
+
+    private final Canvas canvas;
+    private final Consumer<RoiMask> onChange;
+    private final List<double[]> draft = new ArrayList<>();
+    private RoiMask mask = RoiMask.empty();
+    private boolean editing;
+    private double mouseX = -1;
+    private double mouseY = -1;
+
+    /**
+     * @param onChange recibe la máscara nueva cada vez que se cierra un
+     *                 polígono o se borran las regiones
+     */
+    public RoiEditor(Canvas canvas, Consumer<RoiMask> onChange) {
+        this.canvas = canvas;
+        this.onChange = onChange;
+        canvas.setMouseTransparent(true);
+        canvas.setOnMouseClicked(this::onClick);
+        canvas.setOnMouseMoved(e -> {
+            mouseX = e.getX();
+            mouseY = e.getY();
+            if (!draft.isEmpty()) {
+                redraw();
+            }
+        });
+        canvas.widthProperty().addListener(obs -> redraw());
+        canvas.heightProperty().addListener(obs -> redraw());
+    }
+
+    public void setEditing(boolean editing) {
+        this.editing = editing;
+        canvas.setMouseTransparent(!editing);
+        draft.clear();
+        redraw();
+    }
+
+    public boolean isEditing() {
+        return editing;
+    }
+
+    /** Muestra una máscara cargada; no avisa a {@code onChange}. */
+    public void setMask(RoiMask mask) {
+        this.mask = mask;
+        draft.clear();
+        redraw();
+    }
+
+    public RoiMask getMask() {
+        return mask;
+    }
+
+    /** Borra todas las regiones: se vuelve a analizar el frame completo. */
+    public void clear() {
+        draft.clear();
+        mask = RoiMask.empty();
+        redraw();
+        onChange.accept(mask);
+    }
+
+    private void onClick(MouseEvent e) {
+        if (e.getButton() == MouseButton.SECONDARY) {
+            draft.clear();
+            redraw();
+            return;
+        }
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        if (e.getButton() != MouseButton.PRIMARY || w <= 0 || h <= 0) {
+            return;
+        }
+        boolean nearFirst = !draft.isEmpty()
+                && Math.hypot(draft.get(0)[0] * w - e.getX(), draft.get(0)[1] * h - e.getY()) <= CLOSE_DISTANCE;
+        if (draft.size() >= 3 && (e.getClickCount() >= 2 || nearFirst)) {
+            close();
+            return;
+        }
+        if (e.getClickCount() == 1) {
+            draft.add(new double[] {clamp(e.getX() / w), clamp(e.getY() / h)});
+            redraw();
+        }
+    }
+
+    private void close() {
+        float[] polygon = new float[draft.size() * 2];
+        for (int i = 0; i < draft.size(); i++) {
+            polygon[i * 2] = (float) draft.get(i)[0];
+            polygon[i * 2 + 1] = (float) draft.get(i)[1];
+        }
+        draft.clear();
+        mask = mask.with(polygon);
+        redraw();
+        onChange.accept(mask);
+    }
+
+    private static double clamp(double v) {
+        return Math.max(0, Math.min(1, v));
+    }
+
+    public void redraw() {
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.clearRect(0, 0, w, h);
+        g.setLineWidth(2);
+        for (float[] p : mask.getPolygons()) {
+            int n = p.length / 2;
+            double[] xs = new double[n];
+            double[] ys = new double[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = p[i * 2] * w;
+                ys[i] = p[i * 2 + 1] * h;
+            }
+            g.setFill(FILL);
+            g.fillPolygon(xs, ys, n);
+            g.setStroke(STROKE);
+            g.strokePolygon(xs, ys, n);
+        }
+        if (draft.isEmpty()) {
+            return;
+        }
+        g.setStroke(DRAFT);
+        g.setFill(DRAFT);
+        g.beginPath();
+        g.moveTo(draft.get(0)[0] * w, draft.get(0)[1] * h);
+        for (double[] v : draft) {
+            g.lineTo(v[0] * w, v[1] * h);
+        }
+        if (mouseX >= 0) {
+            g.lineTo(mouseX, mouseY);
+        }
+        g.stroke();
+        for (double[] v : draft) {
+            g.fillOval(v[0] * w - 3, v[1] * h - 3, 6, 6);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+/**
+ * Lee y guarda las regiones de interés de cada fuente
+ * ({@link RoiMask#forSource}, {@link RoiMask#saveForSource}) fuera del hilo
+ * de JavaFX.
+ *
+ * <p>Las operaciones se encadenan en el orden en que se piden, así que una
+ * lectura nunca adelanta a un guardado anterior de la misma fuente. Los
+ * resultados y los errores se entregan en el hilo de JavaFX; un error de
+ * lectura deja la máscara vacía.</p>
+ *
+ * <p>Debe usarse desde el hilo de JavaFX.</p>
+ */
+public class RoiStorage {
+    private final Consumer<String> onError;
+    private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+
+    /** @param onError recibe, en el hilo de JavaFX, el mensaje de cada error */
+    public RoiStorage(Consumer<String> onError) {
+        this.onError = onError;
+    }
+
+    /** Lee la máscara de {@code source} y la entrega a {@code onLoaded} en el hilo de JavaFX. */
+    public void load(String source, Consumer<RoiMask> onLoaded) {
+        pending = pending.thenRunAsync(() -> {
+            RoiMask mask;
+            String error = null;
+            try {
+                mask = RoiMask.forSource(source);
+            } catch (IOException | RuntimeException e) {
+                mask = RoiMask.empty();
+                error = "No se pudieron leer las regiones de interés de " + source + ": " + e.getMessage();
+            }
+            RoiMask loaded = mask;
+            String message = error;
+            Platform.runLater(() -> {
+                if (message != null) {
+                    onError.accept(message);
+                }
+                onLoaded.accept(loaded);
+            });
+        }, ForkJoinPool.commonPool());
+    }
+
+    public void save(String source, RoiMask mask) {
+        pending = pending.thenRunAsync(() -> {
+            try {
+                mask.saveForSource(source);
+            } catch (IOException | RuntimeException e) {
+                String message = "No se pudieron guardar las regiones de interés: " + e.getMessage();
+                Platform.runLater(() -> onError.accept(message));
+            }
+        }, ForkJoinPool.commonPool());
+    }
+}
@@ -0,0 +1,164 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Agrupa las actualizaciones de la interfaz que llegan desde hilos de trabajo.
+ *
+ * <p>En lugar de un {@code Platform.runLater} por frame o por fila, cada
+ * productor publica en un {@link Slot} que sólo guarda el último valor. Un
+ * {@link AnimationTimer} vacía todos los slots como mucho una vez por pulso
+ * de JavaFX, o a la tasa máxima configurada, así que la cola de eventos
+ * nunca crece con la carga.</p>
+ *
+ * <p>Un valor reemplazado antes de aplicarse cuenta como <em>descartado</em>
+ * si el slot tiene un liberador (p.ej. un frame que hay que devolver al
+ * pool sin mostrar) y como <em>agrupado</em> si no lo tiene (p.ej. un
+ * progreso o un recuento de filas que el siguiente valor ya incluye).</p>
+ */
+public class UiUpdateCoalescer {
+    private final long minIntervalNanos;
+    private final List<Slot<?>> slots = new CopyOnWriteArrayList<>();
+    private final AnimationTimer timer;
+    private long lastFlush;
+
+    private final LongAdder posted = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    /** Último valor pendiente de un tipo de actualización. */
+    public final class Slot<T> {
+        private final AtomicReference<T> pending = new AtomicReference<>();
+        private final Consumer<T> apply;
+        private final Consumer<T> discard;
+
+        private Slot(Consumer<T> apply, Consumer<T> discard) {
+            this.apply = apply;
+            this.discard = discard;
+        }
+
+        /** Publica un valor desde cualquier hilo; reemplaza al pendiente, si lo hay. */
+        public void post(T value) {
+            posted.increment();
+            T replaced = pending.getAndSet(value);
+            if (replaced != null) {
+                if (discard != null) {
+                    dropped.increment();
+                    discard.accept(replaced);
+                } else {
+                    coalesced.increment();
+                }
+            }
+        }
+
+        /** Descarta el valor pendiente sin aplicarlo. */
+        public void clear() {
+            T replaced = pending.getAndSet(null);
+            if (replaced != null && discard != null) {
+                discard.accept(replaced);
+            }
+        }
+
+        private void flush() {
+            T value = pending.getAndSet(null);
+            if (value != null) {
+                applied.increment();
+                apply.accept(value);
+            }
+        }
+    }
+
+    /** Vacía los slots en cada pulso de JavaFX (unas 60 veces por segundo). */
+    public UiUpdateCoalescer() {
+        this(0);
+    }
+
+    /** @param maxRefreshRate actualizaciones por segundo como máximo; 0 para una por pulso */
+    public UiUpdateCoalescer(double maxRefreshRate) {
+        this.minIntervalNanos = maxRefreshRate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / maxRefreshRate) : 0;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (now - lastFlush >= minIntervalNanos) {
+                    lastFlush = now;
+                    flush();
+                }
+            }
+        };
+    }
+
+    /**
+     * Crea un slot cuyo valor se aplica en el hilo de JavaFX.
+     *
+     * @param apply   aplica el valor a la interfaz
+     * @param discard libera un valor que no llegó a aplicarse, o {@code null}
+     */
+    public <T> Slot<T> slot(Consumer<T> apply, Consumer<T> discard) {
+        Slot<T> slot = new Slot<>(apply, discard);
+        slots.add(slot);
+        return slot;
+    }
+
+    public <T> Slot<T> slot(Consumer<T> apply) {
+        return slot(apply, null);
+    }
+
+    /** Empieza a vaciar los slots en cada pulso. Llamar desde el hilo de JavaFX. */
+    public void start() {
+        timer.start();
+    }
+
+    /** Aplica lo pendiente y deja de vaciar los slots. Llamar desde el hilo de JavaFX. */
+    public void stop() {
+        timer.stop();
+        flush();
+    }
+
+    /** Aplica inmediatamente todos los valores pendientes. Llamar desde el hilo de JavaFX. */
+    public void flush() {
+        flushes.increment();
+        for (Slot<?> slot : slots) {
+            slot.flush();
+        }
+    }
+
+    /** Descarta los valores pendientes de todos los slots sin aplicarlos. */
+    public void clear() {
+        for (Slot<?> slot : slots) {
+            slot.clear();
+        }
+    }
+
+    public long getPosted() {
+        return posted.sum();
+    }
+
+    public long getApplied() {
+        return applied.sum();
+    }
+
+    /** Valores con recursos (frames) reemplazados antes de mostrarse. */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /** Valores sin recursos absorbidos por uno posterior. */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    public double getMaxRefreshRate() {
+        return minIntervalNanos == 0 ? 0 : (double) TimeUnit.SECONDS.toNanos(1) / minIntervalNanos;
+    }
+}
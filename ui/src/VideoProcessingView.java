@@ -0,0 +1,367 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+
+/**
+ * Vista para procesamiento de video.
+ * Contiene botones, tabla de resultados y vista de frame. El procesamiento
+ * lo hace {@link VideoProcessingEngine} en un hilo de fondo, que además guarda
+ * los frames en un {@link FrameSpool} temporal: al seleccionar una fila el frame
+ * se lee de ahí y "Reanalizar" vuelve a pasar el detector sin decodificar el video.
+ * Los frames que no están en el spool (video demasiado grande para el disco o
+ * aún sin procesar) los busca un {@link FrameSeeker} sobre el video abierto.
+ * Con {@code -Dregistro.directorio} las detecciones se guardan además en un
+ * {@link DetectionLog}.
+ */
+public class VideoProcessingView extends BorderPane {
+    private static final int SEEK_CACHE_FRAMES = 32;
+    private static final int SEEK_PREFETCH_FRAMES = 8;
+
+    private Button btnSelectVideo;
+    private Button btnProcessVideo;
+    private Button btnReanalyze;
+
+    private TableView<Integer> table;
+    private FrameResultList rows = new FrameResultList(new FrameResultStore());
+    private ImageView frameView;
+    private FxFrameDisplay frameDisplay;
+    private ProgressBar progressBar;
+    private Label lblStatus;
+
+    private File selectedVideo;
+    private Detector detector = Detectors.fromSystemProperties();
+    private SamplingPolicy sampling = SamplingPolicy.all();
+    private TrackingPolicy tracking = TrackingPolicy.fromSystemProperties();
+    private VideoProcessingEngine engine;
+    // Lo escribe el hilo de procesamiento y lo lee el hilo de JavaFX
+    private volatile FrameSpool spool;
+    private Path spoolPath;
+    private boolean spoolEnabled = true;
+    private volatile FrameSeeker seeker;
+    private VideoFile seekVideo;
+
+    // El progreso y las filas nuevas se aplican como mucho 20 veces por segundo
+    private final UiUpdateCoalescer uiUpdates = new UiUpdateCoalescer(20);
+    private final UiUpdateCoalescer.Slot<Double> progressUpdates = uiUpdates.slot(progress -> {
+        progressBar.setProgress(progress);
+        rows.refresh();
+    });
+
+    public VideoProcessingView() {
+        initializeComponents();
+        layoutComponents();
+    }
+
+    private void initializeComponents() {
+        btnSelectVideo = new Button("Seleccionar video");
+        btnProcessVideo = new Button("Procesar video");
+        btnReanalyze = new Button("Reanalizar");
+        btnSelectVideo.getStyleClass().add("primary-button");
+        btnProcessVideo.getStyleClass().add("secondary-button");
+        btnReanalyze.getStyleClass().add("secondary-button");
+
+        table = new TableView<>();
+        table.getStyleClass().add("table-view");
+        // Las filas son índices en el almacén; los textos se generan sólo para las celdas visibles
+        TableColumn<Integer, String> colFrame = new TableColumn<>("Frame");
+        colFrame.setCellValueFactory(c -> new ReadOnlyStringWrapper(rows.getStore().formatFrame(c.getValue())));
+
+        TableColumn<Integer, String> colObjeto = new TableColumn<>("Objeto");
+        colObjeto.setCellValueFactory(c -> new ReadOnlyStringWrapper(rows.getStore().formatTrack(c.getValue())));
+
+        TableColumn<Integer, String> colClase = new TableColumn<>("Clase");
+        colClase.setCellValueFactory(c -> new ReadOnlyStringWrapper(rows.getStore().formatLabel(c.getValue())));
+
+        TableColumn<Integer, String> colPrecision = new TableColumn<>("Precisión");
+        colPrecision.setCellValueFactory(c -> new ReadOnlyStringWrapper(
+                rows.getStore().formatConfidence(c.getValue())));
+
+        table.getColumns().addAll(colFrame, colObjeto, colClase, colPrecision);
+        table.setItems(rows);
+        table.setPrefWidth(360);
+        table.getSelectionModel().selectedItemProperty().addListener((obs, old, row) -> onFrameSelected());
+
+        frameView = new ImageView();
+        frameView.setPreserveRatio(true);
+        frameView.getStyleClass().add("preview");
+
+        frameView.setPreserveRatio(true);
+        frameView.setFitWidth(640);
+        frameView.setFitHeight(480);
+        frameDisplay = new FxFrameDisplay(frameView);
+
+        progressBar = new ProgressBar(0);
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+        lblStatus = new Label("Sin video seleccionado");
+
+        btnSelectVideo.setOnAction(e -> seleccionarVideo());
+        btnProcessVideo.setOnAction(e -> procesarVideo());
+        btnProcessVideo.setDisable(true);
+        btnReanalyze.setOnAction(e -> reanalizar());
+        btnReanalyze.setDisable(true);
+    }
+
+    private void layoutComponents() {
+        VBox leftPane = new VBox(8, table);
+        leftPane.setPadding(new Insets(10));
+        leftPane.getStyleClass().add("side-panel");
+
+        VBox rightPane = new VBox(10, new VBox(8, btnSelectVideo, btnProcessVideo, btnReanalyze, progressBar, lblStatus),
+                new Label("Frame seleccionado:"),
+                frameView);
+        rightPane.setPadding(new Insets(10));
+        rightPane.getStyleClass().add("side-panel");
+
+        SplitPane split = new SplitPane(leftPane, rightPane);
+        split.setDividerPositions(0.35);
+
+        // Encapsular el SplitPane en una tarjeta para contraste sobre el fondo
+        VBox card = new VBox(split);
+        card.setPadding(new Insets(8));
+        card.getStyleClass().add("card-container");
+
+        this.setCenter(card);
+        this.setPadding(new Insets(8));
+        this.getStyleClass().add("app-root");
+    }
+
+    /** Backend de inferencia usado al procesar el video. */
+    public void setDetector(Detector detector) {
+        this.detector = detector;
+    }
+
+    /** Actualizaciones de la vista aplicadas y agrupadas. */
+    public UiUpdateCoalescer getUiUpdates() {
+        return uiUpdates;
+    }
+
+    /** Muestreo aplicado antes del detector al procesar el video. */
+    public void setSampling(SamplingPolicy sampling) {
+        this.sampling = sampling;
+    }
+
+    /**
+     * Seguimiento de objetos al procesar el video; por defecto el de la
+     * propiedad {@code seguimiento} (ver {@link TrackingPolicy#fromProperties}).
+     * Con seguimiento la columna "Objeto" muestra el id de cada objeto.
+     */
+    public void setTracking(TrackingPolicy tracking) {
+        this.tracking = tracking;
+    }
+
+    /**
+     * Guarda los frames en un spool temporal al procesar (por defecto). Sin
+     * spool, o si no cabe en la mitad del espacio libre, la fila seleccionada
+     * se decodifica del video con {@link FrameSeeker} y no se puede reanalizar.
+     */
+    public void setSpoolEnabled(boolean spoolEnabled) {
+        this.spoolEnabled = spoolEnabled;
+    }
+
+    public void seleccionarVideo() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Seleccionar video");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Video (MJPEG, RAW)", "*.mjpeg", "*.mjpg", "*.raw"));
+        File file = chooser.showOpenDialog(getScene() != null ? getScene().getWindow() : null);
+        if (file != null) {
+            selectedVideo = file;
+            lblStatus.setText(file.getName());
+            btnProcessVideo.setDisable(false);
+        }
+    }
+
+    public void procesarVideo() {
+        if (selectedVideo == null || engine != null) {
+            return;
+        }
+        liberarFrames();
+        ejecutar(selectedVideo.toPath(), true);
+    }
+
+    /**
+     * Vuelve a analizar los frames guardados del último video procesado con el
+     * detector y el muestreo actuales, sin decodificar el video.
+     */
+    public void reanalizar() {
+        if (spool == null || engine != null) {
+            return;
+        }
+        ejecutar(spoolPath, false);
+    }
+
+    private void ejecutar(Path input, boolean saveFrames) {
+        VideoProcessingEngine current = new VideoProcessingEngine(detector, 0, 300);
+        current.setSampling(sampling);
+        current.setTracking(tracking);
+        engine = current;
+        btnProcessVideo.setDisable(true);
+        btnSelectVideo.setDisable(true);
+        btnReanalyze.setDisable(true);
+        FrameResultStore store = new FrameResultStore();
+        rows = new FrameResultList(store);
+        table.setItems(rows);
+        progressBar.setProgress(0);
+        uiUpdates.start();
+
+        Thread worker = new Thread(() -> {
+            String status;
+            long t0 = System.nanoTime();
+            VideoFile video = null;
+            try (DetectionLog log = saveFrames ? DetectionLog.fromSystemProperties() : null) {
+                video = VideoFiles.open(input);
+                if (saveFrames) {
+                    // El video queda abierto para buscar los frames que no estén en el spool
+                    seekVideo = video;
+                    seeker = new FrameSeeker(video, SEEK_CACHE_FRAMES, SEEK_PREFETCH_FRAMES);
+                    Path tmp = Path.of(System.getProperty("java.io.tmpdir"));
+                    if (spoolEnabled && FrameSpool.sizeFor(video) <= Files.getFileStore(tmp).getUsableSpace() / 2) {
+                        Path path = Files.createTempFile("frames-", FrameSpool.EXTENSION);
+                        path.toFile().deleteOnExit();
+                        spoolPath = path;
+                        spool = FrameSpool.create(path, video);
+                        current.setSpool(spool);
+                    }
+                }
+                if (log != null) {
+                    current.setDetectionLog(log, input.getFileName().toString(),
+                            Files.getLastModifiedTime(input).toMillis());
+                }
+                current.process(video, (done, total) -> progressUpdates.post((double) done / total), store);
+                status = String.format("%s%d frames en %.1f s, %.0f%% saltados", saveFrames ? "" : "Reanálisis: ",
+                        video.getFrameCount(), (System.nanoTime() - t0) / 1e9,
+                        current.getSamplingStats().getSkipRatio() * 100);
+                if (tracking.isEnabled()) {
+                    status += String.format(", %.0f%% de llamadas al detector ahorradas",
+                            current.getTrackingStats().getSavedRatio() * 100);
+                }
+            } catch (CancellationException e) {
+                // "Procesamiento cancelado tras N de M frames": la tabla es parcial
+                status = e.getMessage();
+            } catch (IOException | RuntimeException e) {
+                status = "Error: " + e.getMessage();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                status = "Cancelado";
+            } finally {
+                if (!saveFrames && video != null) {
+                    try {
+                        video.close();
+                    } catch (IOException e) {
+                        // Sólo se leía
+                    }
+                }
+            }
+            String message = status;
+            Platform.runLater(() -> {
+                uiUpdates.stop();
+                rows.refresh();
+                lblStatus.setText(message);
+                btnProcessVideo.setDisable(false);
+                btnSelectVideo.setDisable(false);
+                btnReanalyze.setDisable(spool == null);
+                engine = null;
+            });
+        }, "video-processing");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** Cierra el spool, el buscador y el video del procesamiento anterior. */
+    private void liberarFrames() {
+        frameDisplay.clear();
+        FrameSeeker oldSeeker = seeker;
+        seeker = null;
+        if (oldSeeker != null) {
+            oldSeeker.close();
+        }
+        try {
+            if (seekVideo != null) {
+                seekVideo.close();
+                seekVideo = null;
+            }
+        } catch (IOException e) {
+            // Sólo se leía
+        }
+        FrameSpool old = spool;
+        spool = null;
+        if (old == null) {
+            return;
+        }
+        try {
+            old.close();
+            Files.deleteIfExists(spoolPath);
+        } catch (IOException e) {
+            // En Windows un archivo mapeado no se puede borrar; se borra al salir
+        }
+    }
+
+    /** Cancela el procesamiento en curso, si lo hay. */
+    public void cancelarProcesamiento() {
+        if (engine != null) {
+            engine.cancel();
+        }
+    }
+
+    /**
+     * Muestra el frame de la fila seleccionada: del spool si está guardado y
+     * si no del {@link FrameSeeker}, que lo decodifica en segundo plano.
+     */
+    public void onFrameSelected() {
+        Integer row = table.getSelectionModel().getSelectedItem();
+        if (row == null) {
+            return;
+        }
+        long n = rows.getStore().getFrame(row);
+        FrameSpool currentSpool = spool;
+        try {
+            Frame stored = currentSpool != null ? currentSpool.read(n) : null;
+            if (stored != null) {
+                mostrarFrame(stored);
+                return;
+            }
+        } catch (IOException e) {
+            lblStatus.setText("Error: " + e.getMessage());
+            return;
+        }
+        FrameSeeker currentSeeker = seeker;
+        if (currentSeeker == null) {
+            return;
+        }
+        CompletableFuture<Frame> request = currentSeeker.request(n);
+        if (request.isDone() && !request.isCompletedExceptionally()) {
+            mostrarFrame(request.join());
+            return;
+        }
+        request.whenComplete((frame, error) -> Platform.runLater(() -> {
+            Integer selected = table.getSelectionModel().getSelectedItem();
+            if (frame != null && selected != null && rows.getStore().getFrame(selected) == n) {
+                mostrarFrame(frame);
+            } else if (error != null && !(error instanceof CancellationException)) {
+                lblStatus.setText("Error: " + error.getMessage());
+            }
+        }));
+    }
+
+    /** Muestra un frame en {@code frameView}; la vista pasa a ser su dueña. */
+    public void mostrarFrame(Frame frame) {
+        frameDisplay.show(frame);
+    }
+}